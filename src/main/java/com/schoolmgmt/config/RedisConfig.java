@@ -2,6 +2,11 @@ package com.schoolmgmt.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.schoolmgmt.dto.response.BirthdayDigest;
+import com.schoolmgmt.dto.response.ExamStatistics;
+import com.schoolmgmt.dto.response.ParentDashboardResponse;
+import com.schoolmgmt.dto.response.StudentStatistics;
+import com.schoolmgmt.dto.response.TenantStatistics;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -11,6 +16,7 @@ import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -83,8 +89,30 @@ public class RedisConfig {
                 config.entryTtl(Duration.ofMinutes(15)))
             .withCacheConfiguration("attendance-cache",
                 config.entryTtl(Duration.ofMinutes(10)))
+            // Dashboards are evicted on change; the TTL only bounds staleness if an eviction is lost
+            .withCacheConfiguration("student-statistics",
+                typedConfig(config, StudentStatistics.class).entryTtl(Duration.ofMinutes(30)))
+            .withCacheConfiguration("tenant-statistics",
+                typedConfig(config, TenantStatistics.class).entryTtl(Duration.ofMinutes(30)))
+            // Keyed by tenant and date; rewritten by the daily job, so it only needs to outlive one day
+            .withCacheConfiguration("birthday-digest",
+                typedConfig(config, BirthdayDigest.class).entryTtl(Duration.ofHours(25)))
+            // Not evicted on change; kept short so a parent sees new marks, fees and notifications quickly
+            .withCacheConfiguration("parent-dashboard",
+                typedConfig(config, ParentDashboardResponse.class).entryTtl(Duration.ofSeconds(60)))
+            // Keyed by tenant and exam; evicted once new marks for the exam commit
+            .withCacheConfiguration("exam-statistics",
+                typedConfig(config, ExamStatistics.class).entryTtl(Duration.ofHours(6)))
             .build();
     }
+
+    /**
+     * Cache configuration that serializes values as a concrete type, so cached DTOs read back as that type
+     */
+    private RedisCacheConfiguration typedConfig(RedisCacheConfiguration config, Class<?> type) {
+        return config.serializeValuesWith(RedisSerializationContext.SerializationPair
+            .fromSerializer(new Jackson2JsonRedisSerializer<>(objectMapper(), type)));
+    }
     
     private ObjectMapper objectMapper() {
         ObjectMapper mapper = new ObjectMapper();
@@ -1,9 +1,20 @@
 package com.schoolmgmt.controller;
 
+import com.schoolmgmt.dto.request.GradeAnalyticsRequest;
+import com.schoolmgmt.dto.request.MarksEntryRequest;
+import com.schoolmgmt.dto.response.BulkMarksResult;
+import com.schoolmgmt.dto.response.ExamStatistics;
+import com.schoolmgmt.dto.response.GradeAnalyticsResponse;
+import com.schoolmgmt.dto.response.LeaderboardResponse;
 import com.schoolmgmt.model.Exam;
 import com.schoolmgmt.model.ExamResult;
 import com.schoolmgmt.model.ExamType;
+import com.schoolmgmt.model.User;
+import com.schoolmgmt.service.ExamLeaderboardService;
 import com.schoolmgmt.service.ExamService;
+import com.schoolmgmt.service.GradeAnalyticsService;
+import com.schoolmgmt.service.ReportCardBatchService;
+import com.schoolmgmt.util.TenantContext;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -14,10 +25,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -32,6 +47,9 @@ import java.util.UUID;
 public class ExamController {
 
     private final ExamService examService;
+    private final ReportCardBatchService reportCardBatchService;
+    private final ExamLeaderboardService examLeaderboardService;
+    private final GradeAnalyticsService gradeAnalyticsService;
 
     // ===== Exam Type Endpoints =====
 
@@ -150,15 +168,15 @@ public class ExamController {
     }
 
     @PostMapping("/{examId}/marks/bulk")
-    @Operation(summary = "Enter bulk marks", description = "Enter marks for multiple students")
+    @Operation(summary = "Enter bulk marks",
+            description = "Insert or update marks for many students at once; safe to resubmit, with an outcome per row")
     @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<List<ExamResult>> enterBulkMarks(
+    public ResponseEntity<BulkMarksResult> enterBulkMarks(
             @PathVariable UUID examId,
-            @Valid @RequestBody List<ExamResult> results) {
-        Exam exam = examService.getExamById(examId);
-        results.forEach(r -> r.setExam(exam));
-        log.info("Entering bulk marks for {} students in exam: {}", results.size(), examId);
-        return ResponseEntity.status(HttpStatus.CREATED).body(examService.enterBulkMarks(results));
+            @AuthenticationPrincipal User user,
+            @Valid @RequestBody List<MarksEntryRequest> entries) {
+        log.info("Entering bulk marks for {} students in exam: {}", entries.size(), examId);
+        return ResponseEntity.ok(examService.upsertMarks(examId, entries, user != null ? user.getUserId() : null));
     }
 
     @GetMapping("/{examId}/results")
@@ -169,12 +187,46 @@ public class ExamController {
     }
 
     @GetMapping("/{examId}/statistics")
-    @Operation(summary = "Get exam statistics", description = "Get statistics for an exam (avg, pass rate, etc.)")
+    @Operation(summary = "Get exam statistics", description = "Get statistics for an exam (avg, median, percentiles, pass rate, ranks)")
     @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<Map<String, Object>> getExamStatistics(@PathVariable UUID examId) {
+    public ResponseEntity<ExamStatistics> getExamStatistics(@PathVariable UUID examId) {
         return ResponseEntity.ok(examService.getExamStatistics(examId));
     }
 
+    @GetMapping("/{examId}/leaderboard")
+    @Operation(summary = "Get exam leaderboard", description = "Top students of an exam by marks, kept live as marks are entered")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN', 'SUPER_ADMIN', 'STUDENT', 'PARENT')")
+    public ResponseEntity<LeaderboardResponse> getLeaderboard(
+            @PathVariable UUID examId,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(examLeaderboardService.getTop(examId, Math.min(Math.max(1, limit), 100)));
+    }
+
+    @GetMapping("/{examId}/leaderboard/students/{studentId}")
+    @Operation(summary = "Get student rank", description = "Rank of one student in an exam")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN', 'SUPER_ADMIN', 'STUDENT', 'PARENT')")
+    public ResponseEntity<LeaderboardResponse> getStudentRank(@PathVariable UUID examId, @PathVariable UUID studentId) {
+        return ResponseEntity.ok(examLeaderboardService.getStanding(examId, studentId));
+    }
+
+    // ===== Grade Analytics Endpoints =====
+
+    @GetMapping("/analytics/grades")
+    @Operation(summary = "Get grade analytics",
+            description = "Average, pass rate and spread of a slice of exams, grouped by year, class, section, subject, exam type, month or exam")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<GradeAnalyticsResponse> getGradeAnalytics(@ModelAttribute GradeAnalyticsRequest request) {
+        return ResponseEntity.ok(gradeAnalyticsService.analyze(request));
+    }
+
+    @PostMapping("/analytics/grades/rebuild")
+    @Operation(summary = "Rebuild grade analytics", description = "Recompute the grade analytics of every exam from the results")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Long>> rebuildGradeAnalytics() {
+        log.info("Rebuilding grade analytics");
+        return ResponseEntity.ok(Map.of("exams", gradeAnalyticsService.rebuild()));
+    }
+
     @GetMapping("/students/{studentId}/results")
     @Operation(summary = "Get student results", description = "Get all results for a student")
     @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN', 'SUPER_ADMIN', 'STUDENT', 'PARENT')")
@@ -188,4 +240,23 @@ public class ExamController {
     public ResponseEntity<Map<String, Object>> getReportCard(@PathVariable UUID studentId) {
         return ResponseEntity.ok(examService.generateReportCard(studentId));
     }
+
+    @GetMapping(value = "/classes/{classId}/report-cards", produces = "application/zip")
+    @Operation(summary = "Download class report cards",
+            description = "PDF report cards of every active student in a class or section, streamed as a ZIP archive")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> downloadClassReportCards(
+            @PathVariable String classId,
+            @RequestParam(required = false) UUID sectionId,
+            @RequestParam(required = false) String academicYear) {
+        // The body is written on another thread, so the tenant is captured here
+        String tenantId = TenantContext.getCurrentTenant();
+        log.info("Downloading report cards for class: {} section: {}", classId, sectionId);
+        StreamingResponseBody body = out ->
+                reportCardBatchService.writeClassReportCards(tenantId, classId, sectionId, academicYear, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"report-cards-" + classId + ".zip\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
 }
@@ -1,9 +1,18 @@
 package com.schoolmgmt.controller;
 
+import com.schoolmgmt.dto.request.FeeLedgerRequest;
+import com.schoolmgmt.dto.request.GenerateInvoicesRequest;
+import com.schoolmgmt.dto.response.FeeLedgerResponse;
+import com.schoolmgmt.dto.response.FeePaymentSummary;
+import com.schoolmgmt.dto.response.InvoiceRunResponse;
 import com.schoolmgmt.model.FeePayment;
 import com.schoolmgmt.model.FeeStructure;
 import com.schoolmgmt.model.FeeType;
+import com.schoolmgmt.service.FeeInvoiceService;
+import com.schoolmgmt.service.FeeLedgerService;
+import com.schoolmgmt.service.FeeOverdueSweeper;
 import com.schoolmgmt.service.FeeService;
+import com.schoolmgmt.util.TenantContext;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -19,6 +28,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -32,6 +42,9 @@ import java.util.UUID;
 public class FeeController {
 
     private final FeeService feeService;
+    private final FeeLedgerService feeLedgerService;
+    private final FeeOverdueSweeper feeOverdueSweeper;
+    private final FeeInvoiceService feeInvoiceService;
 
     // ===== Fee Type Endpoints =====
 
@@ -117,21 +130,21 @@ public class FeeController {
     @GetMapping("/student/{studentId}")
     @Operation(summary = "Get student payments", description = "Get all payments for a student")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN', 'STUDENT', 'PARENT')")
-    public ResponseEntity<List<FeePayment>> getStudentPayments(@PathVariable UUID studentId) {
+    public ResponseEntity<List<FeePaymentSummary>> getStudentPayments(@PathVariable UUID studentId) {
         return ResponseEntity.ok(feeService.getStudentPayments(studentId));
     }
 
     @GetMapping("/student/{studentId}/pending")
     @Operation(summary = "Get student pending fees", description = "Get pending fees for a student")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN', 'STUDENT', 'PARENT')")
-    public ResponseEntity<List<FeePayment>> getStudentPendingFees(@PathVariable UUID studentId) {
+    public ResponseEntity<List<FeePaymentSummary>> getStudentPendingFees(@PathVariable UUID studentId) {
         return ResponseEntity.ok(feeService.getStudentPendingFees(studentId));
     }
 
     @GetMapping("/payments")
     @Operation(summary = "Get all payments", description = "Get paginated list of all payments")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<Page<FeePayment>> getAllPayments(
+    public ResponseEntity<Page<FeePaymentSummary>> getAllPayments(
             @PageableDefault(size = 20, sort = "paymentDate", direction = Sort.Direction.DESC) Pageable pageable) {
         return ResponseEntity.ok(feeService.getAllPayments(pageable));
     }
@@ -150,10 +163,69 @@ public class FeeController {
         return ResponseEntity.ok(feeService.getCollectionReport());
     }
 
+    @GetMapping("/report/ledger")
+    @Operation(summary = "Get fee ledger breakdown",
+            description = "Collected, paid and pending amounts from the daily fee ledger, grouped by class, fee type or month")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<FeeLedgerResponse> getLedgerBreakdown(@ModelAttribute FeeLedgerRequest request) {
+        return ResponseEntity.ok(feeLedgerService.drillDown(request));
+    }
+
+    @PostMapping("/report/ledger/rebuild")
+    @Operation(summary = "Rebuild fee ledger", description = "Recompute the daily fee ledger from all payments")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Integer>> rebuildLedger() {
+        log.info("Rebuilding fee ledger");
+        return ResponseEntity.ok(Map.of("rows", feeLedgerService.rebuild()));
+    }
+
     @GetMapping("/overdue")
     @Operation(summary = "Get overdue payments", description = "Get all overdue payments")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<List<FeePayment>> getOverduePayments() {
+    public ResponseEntity<List<FeePaymentSummary>> getOverduePayments() {
         return ResponseEntity.ok(feeService.getOverduePayments());
     }
+
+    @PostMapping("/overdue/sweep")
+    @Operation(summary = "Sweep overdue fees",
+            description = "Mark unpaid fees past their due date as overdue and add late fees now, instead of waiting for the nightly run")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Integer>> sweepOverdueFees() {
+        log.info("Sweeping overdue fees");
+        return ResponseEntity.ok(Map.of("payments",
+                feeOverdueSweeper.sweepTenant(TenantContext.getCurrentTenant(), LocalDate.now())));
+    }
+
+    // ===== Invoice Run Endpoints =====
+
+    @PostMapping("/invoices/runs")
+    @Operation(summary = "Generate term invoices",
+            description = "Start a background run creating pending dues for every active student of each matching fee structure's class")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<InvoiceRunResponse> startInvoiceRun(@Valid @RequestBody GenerateInvoicesRequest request) {
+        log.info("Starting invoice run for {} {}", request.getAcademicYear(), request.getTerm());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(feeInvoiceService.startInvoiceRun(request));
+    }
+
+    @PostMapping("/invoices/runs/{runId}/resume")
+    @Operation(summary = "Resume invoice run", description = "Resume an interrupted or failed invoice run")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<InvoiceRunResponse> resumeInvoiceRun(@PathVariable UUID runId) {
+        log.info("Resuming invoice run: {}", runId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(feeInvoiceService.resumeInvoiceRun(runId));
+    }
+
+    @GetMapping("/invoices/runs/{runId}")
+    @Operation(summary = "Get invoice run progress", description = "Get progress of a bulk invoice run")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<InvoiceRunResponse> getInvoiceRun(@PathVariable UUID runId) {
+        return ResponseEntity.ok(feeInvoiceService.getInvoiceRun(runId));
+    }
+
+    @GetMapping("/invoices/runs")
+    @Operation(summary = "Get invoice runs", description = "Get bulk invoice runs, newest first")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<Page<InvoiceRunResponse>> getInvoiceRuns(@PageableDefault(size = 20) Pageable pageable) {
+        return ResponseEntity.ok(feeInvoiceService.getInvoiceRuns(pageable));
+    }
 }
@@ -1,5 +1,6 @@
 package com.schoolmgmt.controller;
 
+import com.schoolmgmt.dto.response.LeaveRequestSummary;
 import com.schoolmgmt.model.LeaveBalance;
 import com.schoolmgmt.model.LeaveRequest;
 import com.schoolmgmt.model.LeaveType;
@@ -87,21 +88,21 @@ public class LeaveController {
 
     @GetMapping("/my")
     @Operation(summary = "Get my leaves")
-    public ResponseEntity<List<LeaveRequest>> getMyLeaves(@AuthenticationPrincipal User user) {
+    public ResponseEntity<List<LeaveRequestSummary>> getMyLeaves(@AuthenticationPrincipal User user) {
         return ResponseEntity.ok(leaveService.getMyLeaves(user.getUserId()));
     }
 
     @GetMapping("/requests/pending")
     @Operation(summary = "Get pending approvals")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<List<LeaveRequest>> getPendingApprovals() {
+    public ResponseEntity<List<LeaveRequestSummary>> getPendingApprovals() {
         return ResponseEntity.ok(leaveService.getPendingApprovals());
     }
 
     @GetMapping("/requests")
     @Operation(summary = "Get all leave requests")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<Page<LeaveRequest>> getAllLeaveRequests(
+    public ResponseEntity<Page<LeaveRequestSummary>> getAllLeaveRequests(
             @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
         return ResponseEntity.ok(leaveService.getAllLeaveRequests(pageable));
     }
@@ -4,7 +4,11 @@ import com.schoolmgmt.dto.ApiResponse;
 import com.schoolmgmt.dto.request.CreateParentRequest;
 import com.schoolmgmt.dto.request.ParentFilterRequest;
 import com.schoolmgmt.dto.request.UpdateParentRequest;
+import com.schoolmgmt.dto.response.FamilyGraphResponse;
+import com.schoolmgmt.dto.response.ParentDashboardResponse;
 import com.schoolmgmt.dto.response.ParentResponse;
+import com.schoolmgmt.model.User;
+import com.schoolmgmt.service.ParentDashboardService;
 import com.schoolmgmt.service.ParentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -19,6 +23,7 @@ import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -36,6 +41,7 @@ import java.util.UUID;
 public class ParentController {
 
     private final ParentService parentService;
+    private final ParentDashboardService parentDashboardService;
 
     @PostMapping
     @Operation(summary = "Create new parent", description = "Register a new parent/guardian in the system")
@@ -57,6 +63,15 @@ public class ParentController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/me/dashboard")
+    @Operation(summary = "Get my dashboard", description = "Get children, attendance, fees, results, exams and notifications of the signed-in parent in one call")
+    @PreAuthorize("hasRole('PARENT')")
+    public ResponseEntity<ParentDashboardResponse> getMyDashboard(@AuthenticationPrincipal User user) {
+        log.info("Fetching dashboard for parent user: {}", user.getUserId());
+        ParentDashboardResponse response = parentDashboardService.getDashboard(user);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{parentId}")
     @Operation(summary = "Get parent by ID", description = "Get parent/guardian details by ID")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN', 'TEACHER', 'PARENT')")
@@ -106,6 +121,14 @@ public class ParentController {
         return ResponseEntity.ok(parents);
     }
 
+    @GetMapping("/family-graph")
+    @Operation(summary = "Get family graph", description = "Get parents/guardians with their linked students, classes and sections")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN', 'TEACHER')")
+    public ResponseEntity<List<FamilyGraphResponse>> getFamilyGraph(@RequestParam List<UUID> parentIds) {
+        log.info("Fetching family graph for {} parents", parentIds.size());
+        return ResponseEntity.ok(parentService.getFamilyGraphs(parentIds));
+    }
+
     @PostMapping("/{parentId}/students/{studentId}")
     @Operation(summary = "Link parent to student", description = "Link a parent/guardian to a student")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
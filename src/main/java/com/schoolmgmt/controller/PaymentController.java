@@ -1,6 +1,9 @@
 package com.schoolmgmt.controller;
 
+import com.schoolmgmt.dto.response.BankReconciliationResponse;
+import com.schoolmgmt.dto.response.ReconciliationIssueResponse;
 import com.schoolmgmt.model.PaymentTransaction;
+import com.schoolmgmt.service.BankReconciliationService;
 import com.schoolmgmt.service.PaymentTransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -11,11 +14,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -28,6 +35,7 @@ import java.util.UUID;
 public class PaymentController {
 
     private final PaymentTransactionService service;
+    private final BankReconciliationService reconciliationService;
 
     @PostMapping
     @Operation(summary = "Create payment transaction")
@@ -73,4 +81,56 @@ public class PaymentController {
         service.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    // ===== Bank Reconciliation Endpoints =====
+
+    @PostMapping(value = "/reconciliations", consumes = "multipart/form-data")
+    @Operation(summary = "Reconcile bank statement",
+            description = "Match a bank/UPI statement (CSV or XLSX) with open payments by reference, or by amount and date within the tolerances")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<BankReconciliationResponse> reconcile(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodFrom,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodTo,
+            @RequestParam(required = false) BigDecimal amountTolerance,
+            @RequestParam(defaultValue = "2") int dateToleranceDays) {
+        log.info("Reconciling statement {} for {} to {}", file.getOriginalFilename(), periodFrom, periodTo);
+        return ResponseEntity.status(HttpStatus.CREATED).body(
+                reconciliationService.reconcile(file, periodFrom, periodTo, amountTolerance, dateToleranceDays));
+    }
+
+    @GetMapping("/reconciliations")
+    @Operation(summary = "Get reconciliations", description = "Get bank statement reconciliations, newest first")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<Page<BankReconciliationResponse>> getReconciliations(@PageableDefault(size = 20) Pageable pageable) {
+        return ResponseEntity.ok(reconciliationService.getReconciliations(pageable));
+    }
+
+    @GetMapping("/reconciliations/{reconciliationId}")
+    @Operation(summary = "Get reconciliation", description = "Get the summary of a bank statement reconciliation")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<BankReconciliationResponse> getReconciliation(@PathVariable UUID reconciliationId) {
+        return ResponseEntity.ok(reconciliationService.getReconciliation(reconciliationId));
+    }
+
+    @GetMapping("/reconciliations/{reconciliationId}/issues")
+    @Operation(summary = "Get reconciliation issues", description = "Get statement lines left for review, in statement order")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<Page<ReconciliationIssueResponse>> getReconciliationIssues(
+            @PathVariable UUID reconciliationId,
+            @RequestParam(defaultValue = "true") boolean unresolvedOnly,
+            @PageableDefault(size = 50) Pageable pageable) {
+        return ResponseEntity.ok(reconciliationService.getIssues(reconciliationId, unresolvedOnly, pageable));
+    }
+
+    @PostMapping("/reconciliations/issues/{issueId}/resolve")
+    @Operation(summary = "Resolve reconciliation issue",
+            description = "Close a review issue, optionally confirming its suggested payment as reconciled")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<ReconciliationIssueResponse> resolveReconciliationIssue(
+            @PathVariable UUID issueId,
+            @RequestParam(defaultValue = "false") boolean confirmCandidate,
+            @RequestParam(required = false) String note) {
+        return ResponseEntity.ok(reconciliationService.resolveIssue(issueId, confirmCandidate, note));
+    }
 }
@@ -4,8 +4,13 @@ import com.schoolmgmt.dto.ApiResponse;
 import com.schoolmgmt.dto.request.*;
 import com.schoolmgmt.dto.response.*;
 import com.schoolmgmt.dto.common.*;
+import com.schoolmgmt.service.CacheVersionService;
+import com.schoolmgmt.service.DashboardCacheInvalidator;
+import com.schoolmgmt.service.StudentBirthdayService;
 import com.schoolmgmt.service.StudentBulkService;
+import com.schoolmgmt.service.StudentPromotionService;
 import com.schoolmgmt.service.StudentService;
+import com.schoolmgmt.util.TenantContext;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -22,6 +27,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.UUID;
@@ -39,6 +45,9 @@ public class StudentController {
 
     private final StudentService studentService;
     private final StudentBulkService studentBulkService;
+    private final StudentPromotionService studentPromotionService;
+    private final StudentBirthdayService studentBirthdayService;
+    private final CacheVersionService cacheVersionService;
 
     @PostMapping
     @Operation(summary = "Create new student", description = "Register a new student in the system")
@@ -101,12 +110,25 @@ public class StudentController {
     }
 
     @GetMapping("/statistics")
-    @Operation(summary = "Get student statistics", description = "Get statistics about students in the tenant")
+    @Operation(summary = "Get student statistics",
+            description = "Get statistics about students in the tenant. Supports If-None-Match for cheap polling")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<StudentStatistics> getStudentStatistics() {
+    public ResponseEntity<StudentStatistics> getStudentStatistics(WebRequest webRequest) {
+        String eTag = cacheVersionService.etag(
+                DashboardCacheInvalidator.STUDENT_STATISTICS, TenantContext.requireCurrentTenant());
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
         log.info("Fetching student statistics");
         StudentStatistics statistics = studentService.getStudentStatistics();
-        return ResponseEntity.ok(statistics);
+        return ResponseEntity.ok().eTag(eTag).body(statistics);
+    }
+
+    @GetMapping("/birthdays/today")
+    @Operation(summary = "Get today's birthdays", description = "Get students whose birthday is today")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN', 'TEACHER')")
+    public ResponseEntity<BirthdayDigest> getTodaysBirthdays() {
+        return ResponseEntity.ok(studentBirthdayService.getTodaysBirthdays());
     }
 
     @GetMapping("/class/{classId}")
@@ -189,4 +211,36 @@ public class StudentController {
 
         return ResponseEntity.ok().headers(headers).body(templateData);
     }
+
+    @PostMapping("/promotions")
+    @Operation(summary = "Promote students", description = "Start a year-end bulk promotion from a class to class mapping")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<PromotionRunResponse> startPromotion(@Valid @RequestBody BulkPromotionRequest request) {
+        log.info("Starting bulk promotion with {} class mappings", request.getMappings().size());
+        PromotionRunResponse response = studentPromotionService.startPromotion(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @PostMapping("/promotions/{runId}/resume")
+    @Operation(summary = "Resume promotion", description = "Resume an interrupted or failed bulk promotion")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<PromotionRunResponse> resumePromotion(@PathVariable UUID runId) {
+        log.info("Resuming promotion run: {}", runId);
+        PromotionRunResponse response = studentPromotionService.resumePromotion(runId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @GetMapping("/promotions/{runId}")
+    @Operation(summary = "Get promotion progress", description = "Get progress of a bulk promotion run")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<PromotionRunResponse> getPromotionRun(@PathVariable UUID runId) {
+        return ResponseEntity.ok(studentPromotionService.getPromotionRun(runId));
+    }
+
+    @GetMapping("/promotions")
+    @Operation(summary = "Get promotion runs", description = "Get bulk promotion runs, newest first")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<Page<PromotionRunResponse>> getPromotionRuns(@PageableDefault(size = 20) Pageable pageable) {
+        return ResponseEntity.ok(studentPromotionService.getPromotionRuns(pageable));
+    }
 }
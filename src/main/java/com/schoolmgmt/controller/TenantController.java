@@ -6,7 +6,10 @@ import com.schoolmgmt.dto.request.UpdateTenantRequest;
 import com.schoolmgmt.dto.response.TenantRegistrationResponse;
 import com.schoolmgmt.dto.response.TenantResponse;
 import com.schoolmgmt.dto.response.TenantStatistics;
+import com.schoolmgmt.service.CacheVersionService;
+import com.schoolmgmt.service.DashboardCacheInvalidator;
 import com.schoolmgmt.service.TenantServiceInterface;
+import com.schoolmgmt.util.TenantContext;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -16,6 +19,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.UUID;
 
@@ -28,6 +32,7 @@ import java.util.UUID;
 public class TenantController {
 
         private final TenantServiceInterface tenantService;
+        private final CacheVersionService cacheVersionService;
 
         /**
          * Register a new tenant (school)
@@ -94,10 +99,16 @@ public class TenantController {
          * Get tenant statistics
          */
         @GetMapping("/statistics")
-        @Operation(summary = "Get tenant statistics", description = "Get resource usage statistics for the current tenant")
-        public ResponseEntity<TenantStatistics> getTenantStatistics() {
+        @Operation(summary = "Get tenant statistics",
+                description = "Get resource usage statistics for the current tenant. Supports If-None-Match for cheap polling")
+        public ResponseEntity<TenantStatistics> getTenantStatistics(WebRequest webRequest) {
+            String eTag = cacheVersionService.etag(
+                    DashboardCacheInvalidator.TENANT_STATISTICS, TenantContext.requireCurrentTenant());
+            if (webRequest.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
             TenantStatistics stats = tenantService.getTenantStatistics();
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok().eTag(eTag).body(stats);
         }
 
         /**
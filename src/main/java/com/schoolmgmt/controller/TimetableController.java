@@ -1,19 +1,38 @@
 package com.schoolmgmt.controller;
 
+import com.schoolmgmt.dto.request.SubstitutionAssignmentRequest;
+import com.schoolmgmt.dto.request.TimetableGenerationRequest;
+import com.schoolmgmt.dto.response.NowNextResponse;
+import com.schoolmgmt.dto.response.SubstitutionPlan;
+import com.schoolmgmt.dto.response.TimetableGenerationResult;
 import com.schoolmgmt.model.Period;
 import com.schoolmgmt.model.TimetableEntry;
+import com.schoolmgmt.model.TimetableSubstitution;
+import com.schoolmgmt.model.User;
+import com.schoolmgmt.service.NowNextIndex;
+import com.schoolmgmt.service.SubstitutionService;
+import com.schoolmgmt.service.TimetableGenerationService;
 import com.schoolmgmt.service.TimetableService;
+import com.schoolmgmt.service.TimetableViewCache;
+import com.schoolmgmt.util.TenantContext;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -27,6 +46,10 @@ import java.util.UUID;
 public class TimetableController {
 
     private final TimetableService timetableService;
+    private final TimetableGenerationService timetableGenerationService;
+    private final SubstitutionService substitutionService;
+    private final TimetableViewCache timetableViewCache;
+    private final NowNextIndex nowNextIndex;
 
     // ===== Period Endpoints =====
 
@@ -86,6 +109,20 @@ public class TimetableController {
         return ResponseEntity.status(HttpStatus.CREATED).body(timetableService.createBulkEntries(entries));
     }
 
+    @PostMapping("/generate")
+    @Operation(summary = "Generate timetable",
+            description = "Search for a clash-free timetable from periods, subject weekly periods and teacher assignments")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<TimetableGenerationResult> generateTimetable(
+            @Valid @RequestBody TimetableGenerationRequest request) {
+        log.info("Generating timetable for {} classes (seed {}, dry run {})",
+                request.getClassIds() == null || request.getClassIds().isEmpty() ? "all" : request.getClassIds().size(),
+                request.getSeed(), request.isDryRun());
+        TimetableGenerationResult result = timetableGenerationService.generate(request);
+        HttpStatus status = "SAVED".equals(result.getStatus()) ? HttpStatus.CREATED : HttpStatus.OK;
+        return ResponseEntity.status(status).body(result);
+    }
+
     @GetMapping("/class/{classId}")
     @Operation(summary = "Get class timetable", description = "Get full timetable for a class")
     @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN', 'SUPER_ADMIN', 'STUDENT', 'PARENT')")
@@ -116,20 +153,38 @@ public class TimetableController {
         return ResponseEntity.ok(timetableService.getClassDayTimetable(classId, day));
     }
 
+    @GetMapping("/now")
+    @Operation(summary = "Get now and next",
+            description = "Current and next period of every class and teacher today, at the given time or now")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN', 'SUPER_ADMIN', 'STUDENT', 'PARENT')")
+    public ResponseEntity<NowNextResponse> getNowAndNext(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime at) {
+        LocalDateTime now = LocalDateTime.now();
+        return ResponseEntity.ok(nowNextIndex.lookup(TenantContext.requireCurrentTenant(),
+                at != null ? LocalDateTime.of(now.toLocalDate(), at) : now));
+    }
+
     @GetMapping("/class/{classId}/weekly")
-    @Operation(summary = "Get class weekly timetable", description = "Get weekly timetable grouped by day")
+    @Operation(summary = "Get class weekly timetable",
+            description = "Get weekly timetable grouped by day. Supports If-None-Match for cheap polling")
     @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN', 'SUPER_ADMIN', 'STUDENT', 'PARENT')")
-    public ResponseEntity<Map<String, List<TimetableEntry>>> getClassWeeklyTimetable(
-            @PathVariable UUID classId) {
-        return ResponseEntity.ok(timetableService.getClassWeeklyTimetable(classId));
+    public ResponseEntity<byte[]> getClassWeeklyTimetable(@PathVariable UUID classId, WebRequest webRequest) {
+        return weeklyView(timetableViewCache.classWeek(TenantContext.requireCurrentTenant(), classId), webRequest);
     }
 
     @GetMapping("/teacher/{teacherId}/weekly")
-    @Operation(summary = "Get teacher weekly timetable", description = "Get teacher's weekly timetable grouped by day")
+    @Operation(summary = "Get teacher weekly timetable",
+            description = "Get teacher's weekly timetable grouped by day. Supports If-None-Match for cheap polling")
     @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<Map<String, List<TimetableEntry>>> getTeacherWeeklyTimetable(
-            @PathVariable UUID teacherId) {
-        return ResponseEntity.ok(timetableService.getTeacherWeeklyTimetable(teacherId));
+    public ResponseEntity<byte[]> getTeacherWeeklyTimetable(@PathVariable UUID teacherId, WebRequest webRequest) {
+        return weeklyView(timetableViewCache.teacherWeek(TenantContext.requireCurrentTenant(), teacherId), webRequest);
+    }
+
+    private ResponseEntity<byte[]> weeklyView(TimetableViewCache.View view, WebRequest webRequest) {
+        if (webRequest.checkNotModified(view.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(view.getEtag()).build();
+        }
+        return ResponseEntity.ok().eTag(view.getEtag()).contentType(MediaType.APPLICATION_JSON).body(view.getJson());
     }
 
     @PutMapping("/entries/{id}")
@@ -155,4 +210,36 @@ public class TimetableController {
         timetableService.deleteClassTimetable(classId);
         return ResponseEntity.noContent().build();
     }
+
+    // ===== Substitution Endpoints =====
+
+    @GetMapping("/substitutions/leave/{leaveRequestId}")
+    @Operation(summary = "Find substitutes", description = "Periods left uncovered by an approved leave, with ranked free teachers")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<SubstitutionPlan> getSubstitutionPlan(
+            @PathVariable UUID leaveRequestId,
+            @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(substitutionService.getPlan(leaveRequestId, Math.max(1, limit)));
+    }
+
+    @PostMapping("/substitutions/leave/{leaveRequestId}")
+    @Operation(summary = "Assign substitutes",
+            description = "Assign the given substitutes, or the best-ranked teacher for every uncovered period when none are given")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> assignSubstitutes(
+            @PathVariable UUID leaveRequestId,
+            @AuthenticationPrincipal User user,
+            @Valid @RequestBody(required = false) SubstitutionAssignmentRequest request) {
+        log.info("Assigning substitutes for leave {}", leaveRequestId);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(substitutionService.assign(leaveRequestId, request, user != null ? user.getUserId() : null));
+    }
+
+    @GetMapping("/substitutions")
+    @Operation(summary = "Get substitutions", description = "Substitute assignments on a date")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<List<TimetableSubstitution>> getSubstitutions(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(substitutionService.getSubstitutions(date));
+    }
 }
@@ -0,0 +1,63 @@
+package com.schoolmgmt.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Year-end bulk promotion request")
+public class BulkPromotionRequest {
+
+    @Schema(description = "Academic year being closed; its teacher assignments are deactivated")
+    private UUID fromAcademicYearId;
+
+    @Schema(description = "Academic year being opened; closed teacher assignments are carried over to it")
+    private UUID toAcademicYearId;
+
+    @NotEmpty(message = "At least one class mapping is required")
+    @Valid
+    @Schema(description = "Class to class mappings")
+    private List<ClassMapping> mappings;
+
+    @Schema(description = "Students of mapped classes who stay in their current class")
+    @Builder.Default
+    private Set<UUID> detainedStudentIds = new HashSet<>();
+
+    @Schema(description = "Students of mapped classes who graduate instead of moving up")
+    @Builder.Default
+    private Set<UUID> graduatedStudentIds = new HashSet<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Promotion target of one class or section")
+    public static class ClassMapping {
+
+        @NotBlank(message = "Source class is required")
+        @Schema(description = "Current class ID", example = "class-9")
+        private String fromClassId;
+
+        @Schema(description = "Restrict the mapping to one section of the class")
+        private UUID fromSectionId;
+
+        @Schema(description = "Next class ID; leave empty to graduate the class", example = "class-10")
+        private String toClassId;
+
+        @Schema(description = "Target section; defaults to the section with the same name in the next class")
+        private UUID toSectionId;
+    }
+}
@@ -0,0 +1,36 @@
+package com.schoolmgmt.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Date range of the fee ledger and the dimensions to break it down by")
+public class FeeLedgerRequest {
+
+    @Schema(description = "Only ledger days on or after this date")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fromDate;
+
+    @Schema(description = "Only ledger days on or before this date")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate toDate;
+
+    @Schema(description = "Dimensions to group by, e.g. CLASS,MONTH; none gives a single total", example = "FEE_TYPE,MONTH")
+    private List<Dimension> groupBy;
+
+    public enum Dimension {
+        CLASS,
+        FEE_TYPE,
+        MONTH
+    }
+}
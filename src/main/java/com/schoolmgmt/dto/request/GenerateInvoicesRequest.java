@@ -0,0 +1,29 @@
+package com.schoolmgmt.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Bulk term invoice generation request")
+public class GenerateInvoicesRequest {
+
+    @Schema(description = "Invoice fee structures of this academic year; all years if empty", example = "2026-27")
+    private String academicYear;
+
+    @Schema(description = "Invoice fee structures of this term; all terms if empty", example = "TERM-1")
+    private String term;
+
+    @Schema(description = "Restrict the run to these classes; all classes if empty")
+    @Builder.Default
+    private Set<UUID> classIds = new HashSet<>();
+}
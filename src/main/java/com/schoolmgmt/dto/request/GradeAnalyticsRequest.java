@@ -0,0 +1,56 @@
+package com.schoolmgmt.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Slice of the grade analytics cube and the dimensions to group it by")
+public class GradeAnalyticsRequest {
+
+    @Schema(description = "Filter by academic year", example = "2026-27")
+    private String academicYear;
+
+    @Schema(description = "Filter by class")
+    private UUID classId;
+
+    @Schema(description = "Filter by section", example = "A")
+    private String section;
+
+    @Schema(description = "Filter by subject")
+    private UUID subjectId;
+
+    @Schema(description = "Filter by exam type")
+    private UUID examTypeId;
+
+    @Schema(description = "Only exams held on or after this date")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fromDate;
+
+    @Schema(description = "Only exams held on or before this date")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate toDate;
+
+    @Schema(description = "Dimensions to group by, e.g. CLASS,SUBJECT; none gives a single total", example = "SUBJECT,EXAM_TYPE")
+    private List<Dimension> groupBy;
+
+    public enum Dimension {
+        ACADEMIC_YEAR,
+        CLASS,
+        SECTION,
+        SUBJECT,
+        EXAM_TYPE,
+        MONTH,
+        EXAM
+    }
+}
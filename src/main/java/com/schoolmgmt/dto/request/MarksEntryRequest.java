@@ -0,0 +1,37 @@
+package com.schoolmgmt.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Marks of one student in a bulk marks submission")
+public class MarksEntryRequest {
+
+    @NotNull
+    private UUID studentId;
+
+    @Size(max = 200)
+    private String studentName;
+
+    @Schema(description = "Marks obtained; ignored and stored as 0 when the student is absent")
+    private Double marksObtained;
+
+    @Builder.Default
+    private Boolean isAbsent = false;
+
+    @Size(max = 500)
+    private String remarks;
+
+    @Schema(description = "Version of the result the marks were based on; when given, the row is rejected if the result changed since")
+    private Long version;
+}
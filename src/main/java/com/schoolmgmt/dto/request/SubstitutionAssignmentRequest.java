@@ -0,0 +1,43 @@
+package com.schoolmgmt.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Substitute teacher assignments for the periods of an approved leave")
+public class SubstitutionAssignmentRequest {
+
+    @Valid
+    @Schema(description = "Chosen substitutes; when empty, every uncovered period gets its best-ranked candidate")
+    @Builder.Default
+    private List<Assignment> assignments = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Assignment {
+
+        @NotNull
+        private UUID timetableEntryId;
+
+        @NotNull
+        private LocalDate date;
+
+        @NotNull
+        private UUID teacherId;
+    }
+}
@@ -0,0 +1,76 @@
+package com.schoolmgmt.dto.request;
+
+import com.schoolmgmt.model.TimetableEntry;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Automatic timetable generation request")
+public class TimetableGenerationRequest {
+
+    @Schema(description = "Classes to schedule, with all their sections; all classes of the tenant when empty")
+    @Builder.Default
+    private List<UUID> classIds = new ArrayList<>();
+
+    @Schema(description = "Teaching days; Monday to Friday when empty")
+    @Builder.Default
+    private List<TimetableEntry.DayOfWeek> days = new ArrayList<>();
+
+    @Schema(description = "Periods per week by subject ID, overriding the subject's credit hours")
+    @Builder.Default
+    private Map<UUID, Integer> weeklyPeriods = new HashMap<>();
+
+    @Valid
+    @Schema(description = "Slots in which a teacher cannot be scheduled")
+    @Builder.Default
+    private List<TeacherUnavailability> teacherUnavailability = new ArrayList<>();
+
+    @Schema(description = "Search seed; the same seed and input give the same timetable", example = "42")
+    private Long seed;
+
+    @Min(value = 1, message = "Time budget must be at least 1 second")
+    @Max(value = 120, message = "Time budget must not exceed 120 seconds")
+    @Schema(description = "Upper bound on search time in seconds", example = "30")
+    private Integer timeBudgetSeconds;
+
+    @Schema(description = "Delete the existing timetable of the selected classes and replace it")
+    private boolean replaceExisting;
+
+    @Schema(description = "Return the generated entries without saving them")
+    private boolean dryRun;
+
+    @Schema(description = "Academic year stamped on generated entries", example = "2026-27")
+    private String academicYear;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TeacherUnavailability {
+
+        @NotNull(message = "Teacher ID is required")
+        private UUID teacherId;
+
+        @NotNull(message = "Day is required")
+        private TimetableEntry.DayOfWeek dayOfWeek;
+
+        @Schema(description = "Period number; the whole day when empty")
+        private Integer periodNumber;
+    }
+}
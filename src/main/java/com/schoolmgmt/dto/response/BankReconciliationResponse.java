@@ -0,0 +1,44 @@
+package com.schoolmgmt.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Bank statement reconciliation summary")
+public class BankReconciliationResponse {
+
+    private UUID id;
+    private String fileName;
+    private LocalDate periodFrom;
+    private LocalDate periodTo;
+    private BigDecimal amountTolerance;
+    private Integer dateToleranceDays;
+    private String status;
+
+    @Schema(description = "Statement lines read after the header row")
+    private Integer totalLines;
+
+    @Schema(description = "Lines matched to a payment and marked reconciled")
+    private Integer matchedCount;
+
+    @Schema(description = "Lines left for review")
+    private Integer issueCount;
+
+    @Schema(description = "Debit lines, which never settle a payment")
+    private Integer skippedCount;
+
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
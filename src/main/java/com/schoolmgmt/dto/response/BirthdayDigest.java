@@ -0,0 +1,35 @@
+package com.schoolmgmt.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Students celebrating their birthday on a given day")
+public class BirthdayDigest {
+    private LocalDate date;
+    private int count;
+    private List<BirthdayEntry> students;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BirthdayEntry {
+        private UUID studentId;
+        private String firstName;
+        private String lastName;
+        private String currentClassId;
+        private UUID currentSectionId;
+        private int age;
+    }
+}
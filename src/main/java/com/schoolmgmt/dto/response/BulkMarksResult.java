@@ -0,0 +1,48 @@
+package com.schoolmgmt.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of a bulk marks submission, row by row in submission order")
+public class BulkMarksResult {
+
+    private UUID examId;
+    private int inserted;
+    private int updated;
+    private int unchanged;
+    private int conflicts;
+    private int invalid;
+    private List<RowOutcome> rows;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowOutcome {
+        private int index;
+        private UUID studentId;
+        private Outcome outcome;
+        private UUID resultId;
+        @Schema(description = "Current version of the result, to send back with the next edit")
+        private Long version;
+        private String message;
+    }
+
+    public enum Outcome {
+        INSERTED,
+        UPDATED,
+        UNCHANGED,
+        CONFLICT,
+        INVALID
+    }
+}
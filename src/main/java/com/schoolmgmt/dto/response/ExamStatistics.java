@@ -0,0 +1,64 @@
+package com.schoolmgmt.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Result statistics of one exam with every student's standing")
+public class ExamStatistics {
+
+    private UUID examId;
+    private int totalStudents;
+
+    @Schema(description = "Students with marks, i.e. not marked absent")
+    private int appeared;
+    private int absent;
+
+    private long passed;
+    private long failed;
+    private double passPercentage;
+
+    @Schema(description = "Statistics over students who appeared")
+    private double averagePercentage;
+    private Double meanMarks;
+    private Double medianMarks;
+    private Double percentile25;
+    private Double percentile75;
+    private Double percentile90;
+    private Double standardDeviation;
+    private Double highestMarks;
+    private Double lowestMarks;
+
+    private String topper;
+    private UUID topperStudentId;
+
+    @Schema(description = "Students by rank; absent students last without a rank")
+    private List<StudentStanding> rankings;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StudentStanding {
+        private UUID studentId;
+        private String studentName;
+        private Double marksObtained;
+        private Double percentage;
+        private String resultStatus;
+
+        @Schema(description = "Competition rank by marks; tied students share a rank")
+        private Integer rank;
+
+        @Schema(description = "Share of appeared students scoring lower, 0 to 100")
+        private Double percentile;
+    }
+}
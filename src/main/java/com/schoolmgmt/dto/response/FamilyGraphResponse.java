@@ -0,0 +1,23 @@
+package com.schoolmgmt.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Parent/guardian with the students linked to them")
+public class FamilyGraphResponse {
+    private String parentId;
+    private String fullName;
+    private String parentType;
+    private String email;
+    private String phone;
+    private List<ParentResponse.LinkedStudentInfo> linkedStudents;
+}
@@ -0,0 +1,45 @@
+package com.schoolmgmt.dto.response;
+
+import com.schoolmgmt.dto.request.FeeLedgerRequest;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Fee ledger totals broken down by the requested dimensions")
+public class FeeLedgerResponse {
+
+    private List<FeeLedgerRequest.Dimension> groupBy;
+    private List<Bucket> buckets;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        @Schema(description = "Dimension values; only the grouped ones are set")
+        private UUID classId;
+        private UUID feeTypeId;
+        private String feeTypeName;
+        @Schema(description = "Month of the ledger days", example = "2026-10")
+        private String month;
+
+        private long payments;
+        @Schema(description = "Amount paid on these days whatever the payment's status")
+        private BigDecimal paidAmount;
+        @Schema(description = "Amount paid by payments that are paid in full or in part")
+        private BigDecimal collectedAmount;
+        @Schema(description = "Balance still due")
+        private BigDecimal pendingAmount;
+        private long overdueCount;
+    }
+}
@@ -0,0 +1,45 @@
+package com.schoolmgmt.dto.response;
+
+import com.schoolmgmt.model.FeePayment;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Flat fee payment row for listings, selected in one query with its fee structure and fee type columns.
+ * Field order matches the constructor expression in FeePaymentRepository.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Fee payment listing row")
+public class FeePaymentSummary {
+
+    private UUID id;
+    private UUID studentId;
+    private String studentName;
+    private UUID feeStructureId;
+    private UUID classId;
+    private UUID feeTypeId;
+    private String feeTypeName;
+    private String academicYear;
+    private String term;
+    private LocalDate dueDate;
+    private BigDecimal totalAmount;
+    private BigDecimal discountAmount;
+    private BigDecimal lateFeeAmount;
+    private BigDecimal amountPaid;
+    private BigDecimal balanceAmount;
+    private FeePayment.PaymentStatus paymentStatus;
+    private FeePayment.PaymentMode paymentMode;
+    private LocalDate paymentDate;
+    private String receiptNumber;
+    private String transactionId;
+}
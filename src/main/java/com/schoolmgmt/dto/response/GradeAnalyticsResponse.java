@@ -0,0 +1,64 @@
+package com.schoolmgmt.dto.response;
+
+import com.schoolmgmt.dto.request.GradeAnalyticsRequest;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Grade analytics of a slice, rolled up by the requested dimensions")
+public class GradeAnalyticsResponse {
+
+    private List<GradeAnalyticsRequest.Dimension> groupBy;
+
+    @Schema(description = "The whole slice as one cell")
+    private Cell total;
+
+    @Schema(description = "One cell per combination of the grouped dimensions, in order of first exam date")
+    private List<Cell> cells;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Cell {
+        @Schema(description = "Dimension values; only the grouped ones are set")
+        private String academicYear;
+        private UUID classId;
+        private String section;
+        private UUID subjectId;
+        private String subjectName;
+        private UUID examTypeId;
+        private String examTypeName;
+        @Schema(description = "Month of the exams", example = "2026-10")
+        private String month;
+        private UUID examId;
+        private String examName;
+
+        private int exams;
+        private long students;
+        @Schema(description = "Students with marks, i.e. not marked absent")
+        private long appeared;
+        private long passed;
+        private long failed;
+
+        @Schema(description = "Statistics over students who appeared")
+        private Double averagePercentage;
+        private Double passPercentage;
+        private Double standardDeviation;
+        private Double lowestPercentage;
+        private Double highestPercentage;
+
+        private LocalDate firstExamDate;
+        private LocalDate lastExamDate;
+    }
+}
@@ -0,0 +1,32 @@
+package com.schoolmgmt.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Bulk invoice run progress")
+public class InvoiceRunResponse {
+
+    private UUID id;
+    private String academicYear;
+    private String term;
+    private String status;
+    private Integer totalInvoices;
+    private Integer processedInvoices;
+    private Integer createdCount;
+    private Integer skippedCount;
+    private Double progressPercentage;
+    private String errorMessage;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,35 @@
+package com.schoolmgmt.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Live ranking of an exam: the top students, or one student's standing")
+public class LeaderboardResponse {
+
+    private UUID examId;
+    @Schema(description = "Students who sat the exam; absentees are not ranked")
+    private int participants;
+    private List<Standing> standings;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Standing {
+        private UUID studentId;
+        private String studentName;
+        private Double marksObtained;
+        @Schema(description = "Competition rank: students with equal marks share a rank and the next rank is skipped")
+        private int rank;
+    }
+}
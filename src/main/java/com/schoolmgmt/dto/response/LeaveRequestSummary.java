@@ -0,0 +1,42 @@
+package com.schoolmgmt.dto.response;
+
+import com.schoolmgmt.model.LeaveRequest;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Flat leave request row for listings, selected in one query with its leave type columns.
+ * Field order matches the constructor expression in LeaveRequestRepository.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Leave request listing row")
+public class LeaveRequestSummary {
+
+    private UUID id;
+    private UUID leaveTypeId;
+    private String leaveTypeName;
+    private Boolean isPaid;
+    private String userId;
+    private String userName;
+    private String userRole;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Integer totalDays;
+    private Boolean isHalfDay;
+    private String reason;
+    private LeaveRequest.LeaveStatus status;
+    private String approvedByName;
+    private String approvalRemarks;
+    private LocalDateTime approvedAt;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,77 @@
+package com.schoolmgmt.dto.response;
+
+import com.schoolmgmt.model.TimetableEntry;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Current and next period of every class and teacher at a point in time")
+public class NowNextResponse {
+
+    private LocalDate date;
+    private TimetableEntry.DayOfWeek dayOfWeek;
+
+    @Schema(description = "Start of the interval in which this answer holds; null before the first period")
+    private LocalTime validFrom;
+
+    @Schema(description = "End of the interval in which this answer holds; null after the last period")
+    private LocalTime validUntil;
+
+    private List<ClassSchedule> classes;
+    private List<TeacherSchedule> teachers;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ClassSchedule {
+        private UUID classId;
+        private String section;
+        private Slot current;
+        private Slot next;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TeacherSchedule {
+        private UUID teacherId;
+        private String teacherName;
+        private Slot current;
+        private Slot next;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Slot {
+        private UUID timetableEntryId;
+        private UUID periodId;
+        private Integer periodNumber;
+        private String periodName;
+        private LocalTime startTime;
+        private LocalTime endTime;
+        private UUID classId;
+        private String section;
+        private String subjectName;
+        private UUID teacherId;
+        private String teacherName;
+        private String room;
+
+        @Schema(description = "True when a substitute covers the period today")
+        private boolean substitute;
+    }
+}
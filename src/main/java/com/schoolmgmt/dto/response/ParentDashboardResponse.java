@@ -0,0 +1,96 @@
+package com.schoolmgmt.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Everything a parent sees on their home screen, gathered in one call")
+public class ParentDashboardResponse {
+    private String parentId;
+    private String fullName;
+    private LocalDateTime generatedAt;
+
+    @Schema(description = "True when one or more sections timed out or failed and were left empty")
+    private boolean partial;
+
+    @Schema(description = "Sections that could not be loaded in time")
+    private List<String> unavailableSections;
+
+    private List<ParentResponse.LinkedStudentInfo> children;
+    private List<AttendanceSummary> attendance;
+    private List<PendingFee> pendingFees;
+    private List<RecentResult> recentResults;
+    private List<UpcomingExam> upcomingExams;
+    private Long unreadNotifications;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AttendanceSummary {
+        private UUID studentId;
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private long totalDays;
+        private long presentDays;
+        private long absentDays;
+        private long lateDays;
+        private double attendancePercentage;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PendingFee {
+        private UUID paymentId;
+        private UUID studentId;
+        private String feeType;
+        private BigDecimal totalAmount;
+        private BigDecimal balanceAmount;
+        private LocalDate dueDate;
+        private String status;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RecentResult {
+        private UUID studentId;
+        private UUID examId;
+        private String examName;
+        private String subjectName;
+        private LocalDate examDate;
+        private Double marksObtained;
+        private Integer maxMarks;
+        private Double percentage;
+        private String grade;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UpcomingExam {
+        private UUID examId;
+        private UUID classId;
+        private String name;
+        private String subjectName;
+        private LocalDate examDate;
+        private LocalTime startTime;
+    }
+}
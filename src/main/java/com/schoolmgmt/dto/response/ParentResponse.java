@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.UUID;
 
 @Data
 @Builder
@@ -62,6 +63,7 @@ public class ParentResponse {
         private String fullName;
         private String rollNumber;
         private String currentClassId;
+        private UUID currentSectionId;
         private String relationship; // "child" or "ward"
     }
 }
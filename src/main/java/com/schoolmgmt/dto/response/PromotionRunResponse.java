@@ -0,0 +1,33 @@
+package com.schoolmgmt.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Bulk promotion run progress")
+public class PromotionRunResponse {
+
+    private UUID id;
+    private UUID fromAcademicYearId;
+    private UUID toAcademicYearId;
+    private String status;
+    private Integer totalStudents;
+    private Integer processedStudents;
+    private Integer promotedCount;
+    private Integer detainedCount;
+    private Integer graduatedCount;
+    private Double progressPercentage;
+    private String errorMessage;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime createdAt;
+}
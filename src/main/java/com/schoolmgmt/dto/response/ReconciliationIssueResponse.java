@@ -0,0 +1,41 @@
+package com.schoolmgmt.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Statement line left for review by a reconciliation")
+public class ReconciliationIssueResponse {
+
+    private UUID id;
+    private UUID reconciliationId;
+    private Integer lineNumber;
+    private LocalDate valueDate;
+    private BigDecimal amount;
+    private String reference;
+    private String description;
+
+    @Schema(description = "UNMATCHED, AMBIGUOUS, AMOUNT_MISMATCH, DUPLICATE or INVALID_LINE")
+    private String reason;
+
+    @Schema(description = "Type of the likeliest payment: PAYMENT_TRANSACTION or FEE_PAYMENT")
+    private String candidateType;
+
+    @Schema(description = "Likeliest payment, if one was found")
+    private UUID candidateId;
+
+    private Boolean resolved;
+    private String resolutionNote;
+    private LocalDateTime resolvedAt;
+}
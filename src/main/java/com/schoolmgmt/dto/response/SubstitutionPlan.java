@@ -0,0 +1,70 @@
+package com.schoolmgmt.dto.response;
+
+import com.schoolmgmt.model.TimetableEntry;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Periods left without a teacher by an approved leave, with ranked substitute candidates")
+public class SubstitutionPlan {
+
+    private UUID leaveRequestId;
+    private UUID teacherId;
+    private String teacherName;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int coveredPeriods;
+    private int uncoveredPeriods;
+    private List<AffectedPeriod> periods;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AffectedPeriod {
+        private UUID timetableEntryId;
+        private LocalDate date;
+        private TimetableEntry.DayOfWeek dayOfWeek;
+        private UUID periodId;
+        private Integer periodNumber;
+        private String periodName;
+        private UUID classId;
+        private String section;
+        private UUID subjectId;
+        private String subjectName;
+        private String room;
+
+        @Schema(description = "Substitute already assigned to this period, if any")
+        private UUID substituteTeacherId;
+        private String substituteTeacherName;
+
+        @Schema(description = "Free teachers, subject teachers first, then by lightest load that day and week")
+        private List<Candidate> candidates;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Candidate {
+        private UUID teacherId;
+        private String teacherName;
+
+        @Schema(description = "True when the teacher is assigned to the period's subject")
+        private boolean subjectMatch;
+
+        @Schema(description = "Periods already taught or covered on that date")
+        private int periodsThatDay;
+        private int periodsThisWeek;
+    }
+}
@@ -0,0 +1,45 @@
+package com.schoolmgmt.dto.response;
+
+import com.schoolmgmt.model.TimetableEntry;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of an automatic timetable generation")
+public class TimetableGenerationResult {
+
+    @Schema(description = "SAVED, PREVIEW or INFEASIBLE")
+    private String status;
+
+    private long seed;
+    private int sections;
+    private int teachers;
+    private int lessonsRequested;
+    private int entriesCreated;
+
+    @Schema(description = "Remaining clashes; a timetable is only saved when this is zero")
+    private long hardViolations;
+
+    @Schema(description = "Extra same-day repeats of a subject beyond an even spread")
+    private long softViolations;
+
+    private long iterations;
+    private long elapsedMillis;
+
+    @Schema(description = "True when the time budget ended the search; the result may then differ between runs")
+    private boolean timeBudgetExhausted;
+
+    @Schema(description = "Requirements that could not be scheduled, such as subjects without a teacher")
+    private List<String> warnings;
+
+    @Schema(description = "Generated entries, returned for previews only")
+    private List<TimetableEntry> entries;
+}
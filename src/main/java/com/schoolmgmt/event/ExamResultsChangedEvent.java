@@ -0,0 +1,31 @@
+package com.schoolmgmt.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published whenever marks of an exam are entered or changed.
+ * Carries the written results when known, so listeners can apply them instead of reloading the exam.
+ */
+@Value
+@AllArgsConstructor
+public class ExamResultsChangedEvent {
+    String tenantId;
+    UUID examId;
+    List<ResultChange> changes;
+
+    public ExamResultsChangedEvent(String tenantId, UUID examId) {
+        this(tenantId, examId, null);
+    }
+
+    @Value
+    public static class ResultChange {
+        UUID studentId;
+        String studentName;
+        Double marksObtained;
+        boolean absent;
+    }
+}
@@ -0,0 +1,14 @@
+package com.schoolmgmt.event;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Published when an exam's details are edited or the exam is deleted.
+ */
+@Value
+public class ExamUpdatedEvent {
+    String tenantId;
+    UUID examId;
+}
@@ -0,0 +1,16 @@
+package com.schoolmgmt.event;
+
+import com.schoolmgmt.model.LeaveRequest;
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Published when a leave request is approved or an approved leave is cancelled.
+ */
+@Value
+public class LeaveStatusChangedEvent {
+    String tenantId;
+    UUID leaveRequestId;
+    LeaveRequest.LeaveStatus status;
+}
@@ -0,0 +1,11 @@
+package com.schoolmgmt.event;
+
+import lombok.Value;
+
+/**
+ * Published when push notifications are written to the outbox; dispatching starts once the request has committed.
+ */
+@Value
+public class NotificationQueuedEvent {
+    String tenantId;
+}
@@ -0,0 +1,12 @@
+package com.schoolmgmt.event;
+
+import lombok.Value;
+
+/**
+ * Published whenever students of a tenant are created, updated, re-statused or deleted.
+ * Listeners use it to invalidate tenant-scoped read models such as the statistics dashboard.
+ */
+@Value
+public class StudentDataChangedEvent {
+    String tenantId;
+}
@@ -0,0 +1,14 @@
+package com.schoolmgmt.event;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Published when a bulk promotion run is created or resumed; the run starts once the request has committed.
+ */
+@Value
+public class StudentPromotionRequestedEvent {
+    String tenantId;
+    UUID runId;
+}
@@ -0,0 +1,11 @@
+package com.schoolmgmt.event;
+
+import lombok.Value;
+
+/**
+ * Published whenever a tenant's substitute teacher assignments are written.
+ */
+@Value
+public class SubstitutionsChangedEvent {
+    String tenantId;
+}
@@ -0,0 +1,11 @@
+package com.schoolmgmt.event;
+
+import lombok.Value;
+
+/**
+ * Published whenever a tenant's resource usage counters (students, teachers, storage) are adjusted.
+ */
+@Value
+public class TenantUsageChangedEvent {
+    String tenantId;
+}
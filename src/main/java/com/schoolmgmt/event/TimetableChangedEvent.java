@@ -0,0 +1,11 @@
+package com.schoolmgmt.event;
+
+import lombok.Value;
+
+/**
+ * Published whenever a tenant's timetable entries or period definitions are written.
+ */
+@Value
+public class TimetableChangedEvent {
+    String tenantId;
+}
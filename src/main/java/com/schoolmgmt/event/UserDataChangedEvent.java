@@ -0,0 +1,12 @@
+package com.schoolmgmt.event;
+
+import lombok.Value;
+
+/**
+ * Published whenever user accounts of a tenant are created, re-statused, re-roled or deleted.
+ * Listeners use it to invalidate tenant-scoped read models such as the statistics dashboard.
+ */
+@Value
+public class UserDataChangedEvent {
+    String tenantId;
+}
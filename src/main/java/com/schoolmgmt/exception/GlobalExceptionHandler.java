@@ -7,6 +7,7 @@ import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
@@ -160,6 +161,31 @@ public class GlobalExceptionHandler {
             .body(ApiResponse.error("Invalid tenant. Please check your organization details."));
     }
     
+    /**
+     * Handle timetable conflicts, reporting every clashing entry at once
+     */
+    @ExceptionHandler(TimetableConflictException.class)
+    public ResponseEntity<ApiResponse> handleTimetableConflict(TimetableConflictException ex) {
+        log.warn("Timetable conflict: {}", ex.getConflicts());
+        ApiResponse.ErrorDetails error = ApiResponse.ErrorDetails.builder()
+            .code("TIMETABLE_CONFLICT")
+            .details(ex.getMessage())
+            .fieldErrors(ex.getConflicts())
+            .build();
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body(ApiResponse.error(ex.getMessage(), error));
+    }
+    
+    /**
+     * Handle rows changed by a concurrent transaction; the whole request was rolled back and can be retried
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse> handleOptimisticLocking(ObjectOptimisticLockingFailureException ex) {
+        log.warn("Concurrent modification of {}: {}", ex.getPersistentClassName(), ex.getIdentifier());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body(ApiResponse.error("The data was changed by someone else while saving. Please retry."));
+    }
+    
     /**
      * Handle illegal argument exceptions
      */
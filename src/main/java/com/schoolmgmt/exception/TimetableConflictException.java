@@ -0,0 +1,22 @@
+package com.schoolmgmt.exception;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exception thrown when timetable entries clash with existing entries or with each other.
+ * Carries every conflict found, keyed by the offending entry.
+ */
+public class TimetableConflictException extends IllegalArgumentException {
+
+    private final Map<String, List<String>> conflicts;
+
+    public TimetableConflictException(String message, Map<String, List<String>> conflicts) {
+        super(message);
+        this.conflicts = conflicts;
+    }
+
+    public Map<String, List<String>> getConflicts() {
+        return conflicts;
+    }
+}
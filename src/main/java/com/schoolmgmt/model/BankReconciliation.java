@@ -0,0 +1,75 @@
+package com.schoolmgmt.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * BankReconciliation entity recording one uploaded bank/UPI statement matched against open payments.
+ * Lines that could not be matched with confidence are kept as {@link ReconciliationIssue} rows for review.
+ */
+@Entity
+@Table(name = "bank_reconciliations",
+       indexes = {
+           @Index(name = "idx_bank_recon_tenant_created", columnList = "tenant_id, created_at")
+       })
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BankReconciliation extends BaseEntity {
+
+    @Column(name = "file_name", length = 255)
+    private String fileName;
+
+    @Column(name = "period_from", nullable = false)
+    private LocalDate periodFrom;
+
+    @Column(name = "period_to", nullable = false)
+    private LocalDate periodTo;
+
+    @Column(name = "amount_tolerance", precision = 12, scale = 2)
+    @Builder.Default
+    private BigDecimal amountTolerance = BigDecimal.ZERO;
+
+    @Column(name = "date_tolerance_days")
+    @Builder.Default
+    private Integer dateToleranceDays = 0;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private ReconciliationStatus status = ReconciliationStatus.PROCESSING;
+
+    @Column(name = "total_lines")
+    @Builder.Default
+    private Integer totalLines = 0;
+
+    @Column(name = "matched_count")
+    @Builder.Default
+    private Integer matchedCount = 0;
+
+    @Column(name = "issue_count")
+    @Builder.Default
+    private Integer issueCount = 0;
+
+    @Column(name = "skipped_count")
+    @Builder.Default
+    private Integer skippedCount = 0;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public enum ReconciliationStatus {
+        PROCESSING,
+        COMPLETED,
+        FAILED
+    }
+}
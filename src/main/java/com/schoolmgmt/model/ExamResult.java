@@ -81,6 +81,10 @@ public class ExamResult implements TenantAware {
     @Column(name = "entered_by", length = 100)
     private String enteredBy;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @PrePersist
     @PreUpdate
     public void calculatePercentage() {
@@ -0,0 +1,78 @@
+package com.schoolmgmt.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * FeeInvoiceRun entity tracking a bulk term invoice generation.
+ * The run keeps a cursor (fee structure index + last processed student) so an interrupted run can resume
+ * exactly where its last committed chunk ended.
+ */
+@Entity
+@Table(name = "fee_invoice_runs",
+       indexes = {
+           @Index(name = "idx_invoice_run_tenant_status", columnList = "tenant_id, status")
+       })
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeeInvoiceRun extends BaseEntity {
+
+    @Column(name = "academic_year", length = 20)
+    private String academicYear;
+
+    @Column(name = "term", length = 20)
+    private String term;
+
+    @Column(name = "fee_structure_ids", columnDefinition = "TEXT", nullable = false)
+    private String feeStructureIds; // JSON array, in processing order
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private InvoiceRunStatus status = InvoiceRunStatus.PENDING;
+
+    @Column(name = "total_invoices")
+    @Builder.Default
+    private Integer totalInvoices = 0;
+
+    @Column(name = "processed_invoices")
+    @Builder.Default
+    private Integer processedInvoices = 0;
+
+    @Column(name = "created_count")
+    @Builder.Default
+    private Integer createdCount = 0;
+
+    @Column(name = "skipped_count")
+    @Builder.Default
+    private Integer skippedCount = 0;
+
+    @Column(name = "current_structure_index")
+    @Builder.Default
+    private Integer currentStructureIndex = 0;
+
+    @Column(name = "last_student_id")
+    private UUID lastStudentId;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public enum InvoiceRunStatus {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,77 @@
+package com.schoolmgmt.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Fee totals of one tenant for one day, class and fee type.
+ * Payments are counted on their payment date, or the day they were raised while unpaid. Rows are adjusted
+ * by deltas in the transaction that changes a payment, so collection reports read these instead of payments.
+ */
+@Entity
+@Table(name = "fee_ledger_daily",
+       indexes = {
+           @Index(name = "idx_fee_ledger_tenant_date", columnList = "tenant_id, ledger_date")
+       },
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_fee_ledger_day",
+                   columnNames = {"tenant_id", "ledger_date", "class_id", "fee_type_id"})
+       })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class FeeLedgerEntry implements TenantAware {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Column(name = "ledger_date", nullable = false)
+    private LocalDate ledgerDate;
+
+    @Column(name = "class_id", nullable = false)
+    private UUID classId;
+
+    @Column(name = "fee_type_id", nullable = false)
+    private UUID feeTypeId;
+
+    @Column(name = "payments", nullable = false)
+    private long payments;
+
+    /**
+     * Amount paid on this day whatever the payment's status
+     */
+    @Column(name = "paid_amount", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal paidAmount = BigDecimal.ZERO;
+
+    /**
+     * Amount paid by payments that are PAID or PARTIAL
+     */
+    @Column(name = "collected_amount", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal collectedAmount = BigDecimal.ZERO;
+
+    /**
+     * Balance still due on PENDING, PARTIAL and OVERDUE payments
+     */
+    @Column(name = "pending_amount", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal pendingAmount = BigDecimal.ZERO;
+
+    @Column(name = "overdue_count", nullable = false)
+    private long overdueCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -15,13 +15,15 @@ import java.util.UUID;
        indexes = {
            @Index(name = "idx_fee_payment_tenant", columnList = "tenant_id"),
            @Index(name = "idx_fee_payment_student", columnList = "student_id"),
-           @Index(name = "idx_fee_payment_date", columnList = "payment_date")
+           @Index(name = "idx_fee_payment_date", columnList = "payment_date"),
+           @Index(name = "idx_fee_payment_structure_student", columnList = "tenant_id, fee_structure_id, student_id")
        })
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(of = "id")
+@ToString(exclude = "feeStructure")
 public class FeePayment implements TenantAware {
 
     public enum PaymentStatus {
@@ -39,7 +41,7 @@ public class FeePayment implements TenantAware {
     @Column(name = "tenant_id", nullable = false)
     private String tenantId;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "fee_structure_id", nullable = false)
     private FeeStructure feeStructure;
 
@@ -91,6 +93,12 @@ public class FeePayment implements TenantAware {
     @Column(name = "collected_by", length = 100)
     private String collectedBy;
 
+    @Column(name = "reconciled_at")
+    private LocalDateTime reconciledAt;
+
+    @Column(name = "reconciliation_id")
+    private UUID reconciliationId;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
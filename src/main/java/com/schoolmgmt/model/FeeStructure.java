@@ -21,6 +21,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(of = "id")
+@ToString(exclude = "feeType")
 public class FeeStructure implements TenantAware {
 
     @Id
@@ -30,7 +31,7 @@ public class FeeStructure implements TenantAware {
     @Column(name = "tenant_id", nullable = false)
     private String tenantId;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "fee_type_id", nullable = false)
     private FeeType feeType;
 
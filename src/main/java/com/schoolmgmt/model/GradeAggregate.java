@@ -0,0 +1,95 @@
+package com.schoolmgmt.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Precomputed results of one exam for grade analytics, with the exam's class, subject, exam type and academic
+ * year copied in as dimensions. Measures are sums, counts and extremes so rows of many exams can be rolled up
+ * into any slice without reading individual results.
+ */
+@Entity
+@Table(name = "grade_aggregates",
+       indexes = {
+           @Index(name = "idx_grade_agg_tenant_year", columnList = "tenant_id, academic_year"),
+           @Index(name = "idx_grade_agg_tenant_class", columnList = "tenant_id, class_id"),
+           @Index(name = "idx_grade_agg_tenant_subject", columnList = "tenant_id, subject_id")
+       },
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_grade_agg_exam", columnNames = {"tenant_id", "exam_id"})
+       })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class GradeAggregate implements TenantAware {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Column(name = "exam_id", nullable = false)
+    private UUID examId;
+
+    @Column(name = "exam_name", length = 200)
+    private String examName;
+
+    @Column(name = "exam_date")
+    private LocalDate examDate;
+
+    @Column(name = "academic_year", length = 20)
+    private String academicYear;
+
+    @Column(name = "class_id")
+    private UUID classId;
+
+    @Column(name = "section", length = 10)
+    private String section;
+
+    @Column(name = "subject_id")
+    private UUID subjectId;
+
+    @Column(name = "subject_name", length = 100)
+    private String subjectName;
+
+    @Column(name = "exam_type_id")
+    private UUID examTypeId;
+
+    @Column(name = "exam_type_name", length = 100)
+    private String examTypeName;
+
+    @Column(name = "students", nullable = false)
+    private long students;
+
+    @Column(name = "appeared", nullable = false)
+    private long appeared;
+
+    @Column(name = "passed", nullable = false)
+    private long passed;
+
+    @Column(name = "failed", nullable = false)
+    private long failed;
+
+    @Column(name = "percentage_sum", nullable = false)
+    private double percentageSum;
+
+    @Column(name = "percentage_squares", nullable = false)
+    private double percentageSquares;
+
+    @Column(name = "min_percentage")
+    private Double minPercentage;
+
+    @Column(name = "max_percentage")
+    private Double maxPercentage;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+}
@@ -23,6 +23,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(of = "id")
+@ToString(exclude = "leaveType")
 public class LeaveBalance implements TenantAware {
 
     @Id
@@ -35,7 +36,7 @@ public class LeaveBalance implements TenantAware {
     @Column(name = "user_id", nullable = false, length = 50)
     private String userId;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "leave_type_id", nullable = false)
     private LeaveType leaveType;
 
@@ -28,7 +28,7 @@ public class NotificationLog implements TenantAware {
 
     public enum NotificationType {
         FEE_REMINDER, ATTENDANCE_ALERT, EXAM_NOTICE, ANNOUNCEMENT,
-        LEAVE_STATUS, TIMETABLE_CHANGE, RESULT_PUBLISHED, CUSTOM
+        LEAVE_STATUS, TIMETABLE_CHANGE, RESULT_PUBLISHED, BIRTHDAY, CUSTOM
     }
 
     @Id
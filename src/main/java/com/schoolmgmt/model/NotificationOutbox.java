@@ -0,0 +1,75 @@
+package com.schoolmgmt.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * NotificationOutbox entity holding a push notification until it is delivered.
+ * Rows are written in the transaction that logs the notification and claimed by dispatchers with a lease,
+ * so a message is only sent once its cause has committed and is picked up again if a dispatcher dies.
+ */
+@Entity
+@Table(name = "notification_outbox",
+       indexes = {
+           @Index(name = "idx_notif_outbox_due", columnList = "status, next_attempt_at"),
+           @Index(name = "idx_notif_outbox_claim", columnList = "claim_token")
+       })
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutbox extends BaseEntity {
+
+    @Column(name = "notification_log_id", nullable = false)
+    private UUID notificationLogId;
+
+    @Column(name = "recipient_user_id", length = 50)
+    private String recipientUserId;
+
+    @Column(name = "recipient_role", length = 30)
+    private String recipientRole;
+
+    @Column(name = "title", nullable = false, length = 200)
+    private String title;
+
+    @Column(name = "body", nullable = false, length = 1000)
+    private String body;
+
+    @Column(name = "data_payload", length = 2000)
+    private String dataPayload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(name = "attempts")
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "pending_tokens", columnDefinition = "TEXT")
+    private String pendingTokens; // JSON array, set once some devices have been reached
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    public enum OutboxStatus {
+        PENDING, PROCESSING, SENT, DEAD
+    }
+}
@@ -159,7 +159,7 @@ public class Parent extends BaseEntity {
     private String documents; // JSON array of document URLs
 
     // System User Link
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", unique = true)
     private User user; // Link to user account for portal login
 
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Getter
 @Setter
@@ -53,6 +54,12 @@ public class PaymentTransaction extends BaseEntity {
     @Builder.Default
     private String status = "PENDING"; // PENDING, SUCCESS, FAILED, REFUNDED
 
+    @Column(name = "reconciled_at")
+    private LocalDateTime reconciledAt;
+
+    @Column(name = "reconciliation_id")
+    private UUID reconciliationId;
+
     @Column(name = "is_active")
     @Builder.Default
     private Boolean isActive = true;
@@ -0,0 +1,73 @@
+package com.schoolmgmt.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * ReconciliationIssue entity holding a statement line a reconciliation could not match with confidence,
+ * with the payment it most likely belongs to when one was found.
+ */
+@Entity
+@Table(name = "reconciliation_issues",
+       indexes = {
+           @Index(name = "idx_recon_issue_reconciliation", columnList = "reconciliation_id, line_number"),
+           @Index(name = "idx_recon_issue_tenant_resolved", columnList = "tenant_id, resolved")
+       })
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationIssue extends BaseEntity {
+
+    @Column(name = "reconciliation_id", nullable = false)
+    private UUID reconciliationId;
+
+    @Column(name = "line_number", nullable = false)
+    private Integer lineNumber;
+
+    @Column(name = "value_date")
+    private LocalDate valueDate;
+
+    @Column(name = "amount", precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "reference", length = 200)
+    private String reference;
+
+    @Column(name = "description", length = 500)
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reason", nullable = false, length = 30)
+    private IssueReason reason;
+
+    @Column(name = "candidate_type", length = 30)
+    private String candidateType; // PAYMENT_TRANSACTION, FEE_PAYMENT
+
+    @Column(name = "candidate_id")
+    private UUID candidateId;
+
+    @Column(name = "resolved")
+    @Builder.Default
+    private Boolean resolved = false;
+
+    @Column(name = "resolution_note", length = 500)
+    private String resolutionNote;
+
+    @Column(name = "resolved_at")
+    private LocalDateTime resolvedAt;
+
+    public enum IssueReason {
+        UNMATCHED,        // No open payment with this reference or amount near the date
+        AMBIGUOUS,        // Several open payments fit equally well
+        AMOUNT_MISMATCH,  // Reference matched but the amount differs beyond the tolerance
+        DUPLICATE,        // The payment was already matched by an earlier line
+        INVALID_LINE      // Date or amount could not be read
+    }
+}
@@ -18,7 +18,8 @@ import java.util.UUID;
            @Index(name = "idx_student_email", columnList = "email, tenant_id"),
            @Index(name = "idx_student_status", columnList = "status"),
            @Index(name = "idx_student_class", columnList = "current_class_id"),
-           @Index(name = "idx_student_section", columnList = "current_section_id")
+           @Index(name = "idx_student_section", columnList = "current_section_id"),
+           @Index(name = "idx_student_tenant_birth_md", columnList = "tenant_id, birth_month_day")
        })
 @Data
 @Builder
@@ -44,6 +45,9 @@ public class Student extends BaseEntity {
     @Column(name = "date_of_birth", nullable = false)
     private LocalDate dateOfBirth;
 
+    @Column(name = "birth_month_day")
+    private Integer birthMonthDay; // month * 100 + day of date_of_birth, kept in sync for indexed birthday lookups
+
     @Enumerated(EnumType.STRING)
     @Column(name = "gender", nullable = false, length = 10)
     private Gender gender;
@@ -234,6 +238,14 @@ public class Student extends BaseEntity {
         return status == StudentStatus.ACTIVE;
     }
 
+    @PrePersist
+    @PreUpdate
+    public void syncBirthMonthDay() {
+        this.birthMonthDay = dateOfBirth != null
+                ? dateOfBirth.getMonthValue() * 100 + dateOfBirth.getDayOfMonth()
+                : null;
+    }
+
     public java.util.UUID getSectionId() {
         return currentSectionId;
     }
@@ -0,0 +1,60 @@
+package com.schoolmgmt.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * StudentPromotionHistory entity recording where a student moved at a year-end promotion.
+ */
+@Entity
+@Table(name = "student_promotion_history",
+       indexes = {
+           @Index(name = "idx_promotion_history_student", columnList = "student_id, tenant_id")
+       },
+       uniqueConstraints = {
+           // A student is handled at most once per run, which keeps resumed runs idempotent.
+           @UniqueConstraint(columnNames = {"run_id", "student_id"}, name = "uk_promotion_history_run_student")
+       })
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentPromotionHistory extends BaseEntity {
+
+    @Column(name = "run_id", nullable = false)
+    private UUID runId;
+
+    @Column(name = "student_id", nullable = false)
+    private UUID studentId;
+
+    @Column(name = "from_class_id")
+    private String fromClassId;
+
+    @Column(name = "from_section_id")
+    private UUID fromSectionId;
+
+    @Column(name = "to_class_id")
+    private String toClassId;
+
+    @Column(name = "to_section_id")
+    private UUID toSectionId;
+
+    @Column(name = "from_academic_year_id")
+    private UUID fromAcademicYearId;
+
+    @Column(name = "to_academic_year_id")
+    private UUID toAcademicYearId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "outcome", nullable = false, length = 20)
+    private PromotionOutcome outcome;
+
+    public enum PromotionOutcome {
+        PROMOTED,
+        DETAINED,
+        GRADUATED
+    }
+}
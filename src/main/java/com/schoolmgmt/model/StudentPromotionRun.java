@@ -0,0 +1,92 @@
+package com.schoolmgmt.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * StudentPromotionRun entity tracking a year-end bulk promotion.
+ * The run keeps a cursor (mapping index + last processed student) so an interrupted run can resume
+ * exactly where its last committed chunk ended.
+ */
+@Entity
+@Table(name = "student_promotion_runs",
+       indexes = {
+           @Index(name = "idx_promotion_run_tenant_status", columnList = "tenant_id, status")
+       })
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentPromotionRun extends BaseEntity {
+
+    @Column(name = "from_academic_year_id")
+    private UUID fromAcademicYearId;
+
+    @Column(name = "to_academic_year_id")
+    private UUID toAcademicYearId;
+
+    @Column(name = "mappings", columnDefinition = "TEXT", nullable = false)
+    private String mappings; // JSON array of class mappings, in processing order
+
+    @Column(name = "detained_student_ids", columnDefinition = "TEXT")
+    private String detainedStudentIds; // JSON array
+
+    @Column(name = "graduated_student_ids", columnDefinition = "TEXT")
+    private String graduatedStudentIds; // JSON array
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private PromotionStatus status = PromotionStatus.PENDING;
+
+    @Column(name = "total_students")
+    @Builder.Default
+    private Integer totalStudents = 0;
+
+    @Column(name = "processed_students")
+    @Builder.Default
+    private Integer processedStudents = 0;
+
+    @Column(name = "promoted_count")
+    @Builder.Default
+    private Integer promotedCount = 0;
+
+    @Column(name = "detained_count")
+    @Builder.Default
+    private Integer detainedCount = 0;
+
+    @Column(name = "graduated_count")
+    @Builder.Default
+    private Integer graduatedCount = 0;
+
+    @Column(name = "current_mapping_index")
+    @Builder.Default
+    private Integer currentMappingIndex = 0;
+
+    @Column(name = "last_student_id")
+    private UUID lastStudentId;
+
+    @Column(name = "teacher_assignments_rolled_over")
+    @Builder.Default
+    private Boolean teacherAssignmentsRolledOver = false;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public enum PromotionStatus {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
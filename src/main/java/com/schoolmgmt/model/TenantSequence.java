@@ -0,0 +1,48 @@
+package com.schoolmgmt.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity holding the high-water mark of a per-tenant number sequence.
+ * Allocators reserve whole blocks by advancing {@code nextValue} and hand the numbers out from memory.
+ */
+@Entity
+@Table(name = "tenant_sequences", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_tenant_sequence_name", columnNames = {"tenant_id", "sequence_name"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TenantSequence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "tenant_id", nullable = false, length = 50)
+    private String tenantId;
+
+    @Column(name = "sequence_name", nullable = false, length = 50)
+    private String sequenceName;
+
+    /**
+     * First value that has not been reserved by any allocator yet
+     */
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
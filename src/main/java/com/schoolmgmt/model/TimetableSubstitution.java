@@ -0,0 +1,79 @@
+package com.schoolmgmt.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A substitute teacher covering one timetable entry on one date while its teacher is on leave.
+ */
+@Entity
+@Table(name = "timetable_substitutions",
+       indexes = {
+           @Index(name = "idx_tt_sub_tenant_date", columnList = "tenant_id, substitution_date"),
+           @Index(name = "idx_tt_sub_leave", columnList = "leave_request_id")
+       },
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_tt_sub_entry_date",
+                           columnNames = {"tenant_id", "timetable_entry_id", "substitution_date"}),
+           @UniqueConstraint(name = "uk_tt_sub_teacher_date_period",
+                           columnNames = {"tenant_id", "substitute_teacher_id", "substitution_date", "period_id"})
+       })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class TimetableSubstitution implements TenantAware {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Column(name = "timetable_entry_id", nullable = false)
+    private UUID timetableEntryId;
+
+    @Column(name = "substitution_date", nullable = false)
+    private LocalDate substitutionDate;
+
+    @Column(name = "period_id", nullable = false)
+    private UUID periodId;
+
+    @Column(name = "class_id", nullable = false)
+    private UUID classId;
+
+    @Column(name = "section", length = 10)
+    private String section;
+
+    @Column(name = "subject_id")
+    private UUID subjectId;
+
+    @Column(name = "subject_name", length = 100)
+    private String subjectName;
+
+    @Column(name = "original_teacher_id", nullable = false)
+    private UUID originalTeacherId;
+
+    @Column(name = "substitute_teacher_id", nullable = false)
+    private UUID substituteTeacherId;
+
+    @Column(name = "substitute_teacher_name", length = 200)
+    private String substituteTeacherName;
+
+    @Column(name = "leave_request_id")
+    private UUID leaveRequestId;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "created_by", length = 100)
+    private String createdBy;
+}
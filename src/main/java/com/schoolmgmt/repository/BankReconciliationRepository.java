@@ -0,0 +1,27 @@
+package com.schoolmgmt.repository;
+
+import com.schoolmgmt.model.BankReconciliation;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for BankReconciliation entity operations.
+ */
+@Repository
+public interface BankReconciliationRepository extends JpaRepository<BankReconciliation, UUID> {
+
+    /**
+     * Find reconciliation by ID and tenant
+     */
+    Optional<BankReconciliation> findByIdAndTenantId(UUID id, String tenantId);
+
+    /**
+     * Find reconciliations of a tenant, newest first
+     */
+    Page<BankReconciliation> findByTenantIdOrderByCreatedAtDesc(String tenantId, Pageable pageable);
+}
@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -34,4 +35,10 @@ public interface ExamRepository extends JpaRepository<Exam, UUID> {
             @Param("date") LocalDate date);
 
     List<Exam> findByTenantIdAndStatus(String tenantId, Exam.ExamStatus status);
+
+    @Query("SELECT e.id FROM Exam e WHERE e.tenantId = :tenantId ORDER BY e.examDate")
+    List<UUID> findIdsByTenantId(@Param("tenantId") String tenantId);
+
+    @Query("SELECT e FROM Exam e LEFT JOIN FETCH e.examType WHERE e.tenantId = :tenantId AND e.id IN :ids")
+    List<Exam> findWithTypeByTenantIdAndIdIn(@Param("tenantId") String tenantId, @Param("ids") Collection<UUID> ids);
 }
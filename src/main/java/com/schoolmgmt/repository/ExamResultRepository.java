@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -30,6 +31,38 @@ public interface ExamResultRepository extends JpaRepository<ExamResult, UUID> {
             @Param("tenantId") String tenantId,
             @Param("studentId") UUID studentId);
 
+    /**
+     * Marks of the students who sat an exam, for the leaderboard: studentId, studentName, marksObtained
+     */
+    @Query("SELECT er.studentId, er.studentName, er.marksObtained FROM ExamResult er " +
+           "WHERE er.tenantId = :tenantId AND er.exam.id = :examId AND (er.isAbsent IS NULL OR er.isAbsent = false)")
+    List<Object[]> findLeaderboardEntries(@Param("tenantId") String tenantId, @Param("examId") UUID examId);
+
+    /**
+     * Results of many students at once with their exams, for batch report cards; academic year is optional
+     */
+    @Query("SELECT er FROM ExamResult er JOIN FETCH er.exam e WHERE er.tenantId = :tenantId " +
+           "AND er.studentId IN :studentIds AND (:academicYear IS NULL OR e.academicYear = :academicYear) " +
+           "ORDER BY e.examDate, e.name")
+    List<ExamResult> findReportCardResults(@Param("tenantId") String tenantId,
+                                           @Param("studentIds") Collection<UUID> studentIds,
+                                           @Param("academicYear") String academicYear);
+
+    /**
+     * Grade analytics measures of many exams, one row per exam that has results:
+     * examId, students, appeared, passed, failed, percentageSum, percentageSquares, minPercentage, maxPercentage
+     */
+    @Query("SELECT er.exam.id, COUNT(er), " +
+           "SUM(CASE WHEN er.isAbsent = true THEN 0 ELSE 1 END), " +
+           "SUM(CASE WHEN er.resultStatus = com.schoolmgmt.model.ExamResult.ResultStatus.PASS THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN er.resultStatus = com.schoolmgmt.model.ExamResult.ResultStatus.FAIL THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN er.isAbsent = true THEN 0.0 ELSE COALESCE(er.percentage, 0.0) END), " +
+           "SUM(CASE WHEN er.isAbsent = true THEN 0.0 ELSE COALESCE(er.percentage, 0.0) * COALESCE(er.percentage, 0.0) END), " +
+           "MIN(CASE WHEN er.isAbsent = true THEN NULL ELSE er.percentage END), " +
+           "MAX(CASE WHEN er.isAbsent = true THEN NULL ELSE er.percentage END) " +
+           "FROM ExamResult er WHERE er.tenantId = :tenantId AND er.exam.id IN :examIds GROUP BY er.exam.id")
+    List<Object[]> aggregateByExam(@Param("tenantId") String tenantId, @Param("examIds") Collection<UUID> examIds);
+
     @Query("SELECT er FROM ExamResult er WHERE er.exam.id = :examId ORDER BY er.marksObtained DESC")
     List<ExamResult> findByExamIdOrderByMarksDesc(@Param("examId") UUID examId);
 
@@ -41,4 +74,36 @@ public interface ExamResultRepository extends JpaRepository<ExamResult, UUID> {
 
     @Query("SELECT COUNT(er) FROM ExamResult er WHERE er.exam.id = :examId AND er.resultStatus = 'FAIL'")
     Long countFailedByExamId(@Param("examId") UUID examId);
+
+    /**
+     * Statistics of one exam in a single pass. One row per result, best first, with its rank and percentile
+     * among students who appeared, followed by the exam-wide aggregates repeated on every row:
+     * studentId, studentName, marks, percentage, resultStatus, absent, rank, percentRank,
+     * total, appeared, meanMarks, meanPercentage, median, p25, p75, p90, stddev, max, min, passed, failed
+     */
+    @Query(value = "WITH r AS (" +
+           "  SELECT er.student_id, er.student_name, er.marks_obtained, er.percentage, er.result_status, " +
+           "         COALESCE(er.is_absent, FALSE) AS absent, " +
+           "         CASE WHEN COALESCE(er.is_absent, FALSE) THEN NULL ELSE er.marks_obtained END AS scored " +
+           "  FROM exam_results er WHERE er.tenant_id = :tenantId AND er.exam_id = :examId), " +
+           "s AS (" +
+           "  SELECT COUNT(*) AS total, COUNT(scored) AS appeared, AVG(scored) AS mean_marks, " +
+           "         AVG(CASE WHEN absent THEN NULL ELSE percentage END) AS mean_percentage, " +
+           "         PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY scored) AS median, " +
+           "         PERCENTILE_CONT(0.25) WITHIN GROUP (ORDER BY scored) AS p25, " +
+           "         PERCENTILE_CONT(0.75) WITHIN GROUP (ORDER BY scored) AS p75, " +
+           "         PERCENTILE_CONT(0.9) WITHIN GROUP (ORDER BY scored) AS p90, " +
+           "         STDDEV_POP(scored) AS stddev, MAX(scored) AS max_marks, MIN(scored) AS min_marks, " +
+           "         SUM(CASE WHEN result_status = 'PASS' THEN 1 ELSE 0 END) AS passed, " +
+           "         SUM(CASE WHEN result_status = 'FAIL' THEN 1 ELSE 0 END) AS failed " +
+           "  FROM r) " +
+           "SELECT r.student_id, r.student_name, r.marks_obtained, r.percentage, r.result_status, r.absent, " +
+           "       CASE WHEN r.absent THEN NULL ELSE RANK() OVER (PARTITION BY r.absent ORDER BY r.marks_obtained DESC) END, " +
+           "       CASE WHEN r.absent THEN NULL ELSE PERCENT_RANK() OVER (PARTITION BY r.absent ORDER BY r.marks_obtained) END, " +
+           "       s.total, s.appeared, s.mean_marks, s.mean_percentage, s.median, s.p25, s.p75, s.p90, s.stddev, " +
+           "       s.max_marks, s.min_marks, s.passed, s.failed " +
+           "FROM r CROSS JOIN s " +
+           "ORDER BY r.absent, r.marks_obtained DESC, r.student_name",
+           nativeQuery = true)
+    List<Object[]> computeExamStatistics(@Param("tenantId") String tenantId, @Param("examId") UUID examId);
 }
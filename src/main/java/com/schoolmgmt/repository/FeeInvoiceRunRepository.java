@@ -0,0 +1,33 @@
+package com.schoolmgmt.repository;
+
+import com.schoolmgmt.model.FeeInvoiceRun;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for FeeInvoiceRun entity operations.
+ */
+@Repository
+public interface FeeInvoiceRunRepository extends JpaRepository<FeeInvoiceRun, UUID> {
+
+    /**
+     * Find invoice run by ID and tenant
+     */
+    Optional<FeeInvoiceRun> findByIdAndTenantId(UUID id, String tenantId);
+
+    /**
+     * Find invoice runs of a tenant, newest first
+     */
+    Page<FeeInvoiceRun> findByTenantIdOrderByCreatedAtDesc(String tenantId, Pageable pageable);
+
+    /**
+     * Check if the tenant has an unfinished invoice run
+     */
+    boolean existsByTenantIdAndStatusIn(String tenantId, Collection<FeeInvoiceRun.InvoiceRunStatus> statuses);
+}
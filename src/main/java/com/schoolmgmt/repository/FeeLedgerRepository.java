@@ -0,0 +1,70 @@
+package com.schoolmgmt.repository;
+
+import com.schoolmgmt.model.FeeLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface FeeLedgerRepository extends JpaRepository<FeeLedgerEntry, UUID> {
+
+    Optional<FeeLedgerEntry> findByTenantIdAndLedgerDateAndClassIdAndFeeTypeId(
+            String tenantId, LocalDate ledgerDate, UUID classId, UUID feeTypeId);
+
+    /**
+     * Add deltas to one ledger row; the row lock taken here serialises concurrent adjustments until commit
+     */
+    @Modifying
+    @Query("UPDATE FeeLedgerEntry l SET l.payments = l.payments + :payments, " +
+           "l.paidAmount = l.paidAmount + :paid, l.collectedAmount = l.collectedAmount + :collected, " +
+           "l.pendingAmount = l.pendingAmount + :pending, l.overdueCount = l.overdueCount + :overdue, " +
+           "l.updatedAt = :now " +
+           "WHERE l.tenantId = :tenantId AND l.ledgerDate = :ledgerDate AND l.classId = :classId AND l.feeTypeId = :feeTypeId")
+    int addDeltas(@Param("tenantId") String tenantId,
+                  @Param("ledgerDate") LocalDate ledgerDate,
+                  @Param("classId") UUID classId,
+                  @Param("feeTypeId") UUID feeTypeId,
+                  @Param("payments") long payments,
+                  @Param("paid") BigDecimal paid,
+                  @Param("collected") BigDecimal collected,
+                  @Param("pending") BigDecimal pending,
+                  @Param("overdue") long overdue,
+                  @Param("now") LocalDateTime now);
+
+    /**
+     * Tenant-wide totals in one row: collected, pending, overdueCount, and the amount paid between the dates
+     */
+    @Query("SELECT SUM(l.collectedAmount), SUM(l.pendingAmount), SUM(l.overdueCount), " +
+           "SUM(CASE WHEN l.ledgerDate BETWEEN :startDate AND :endDate THEN l.paidAmount ELSE 0 END) " +
+           "FROM FeeLedgerEntry l WHERE l.tenantId = :tenantId")
+    List<Object[]> getTotals(@Param("tenantId") String tenantId,
+                             @Param("startDate") LocalDate startDate,
+                             @Param("endDate") LocalDate endDate);
+
+    /**
+     * Totals by class, fee type and month within optional dates:
+     * classId, feeTypeId, year, month, payments, paid, collected, pending, overdueCount
+     */
+    @Query("SELECT l.classId, l.feeTypeId, YEAR(l.ledgerDate), MONTH(l.ledgerDate), SUM(l.payments), " +
+           "SUM(l.paidAmount), SUM(l.collectedAmount), SUM(l.pendingAmount), SUM(l.overdueCount) " +
+           "FROM FeeLedgerEntry l WHERE l.tenantId = :tenantId " +
+           "AND (:startDate IS NULL OR l.ledgerDate >= :startDate) AND (:endDate IS NULL OR l.ledgerDate <= :endDate) " +
+           "GROUP BY l.classId, l.feeTypeId, YEAR(l.ledgerDate), MONTH(l.ledgerDate) " +
+           "ORDER BY YEAR(l.ledgerDate), MONTH(l.ledgerDate)")
+    List<Object[]> summarizeByClassFeeTypeAndMonth(@Param("tenantId") String tenantId,
+                                                   @Param("startDate") LocalDate startDate,
+                                                   @Param("endDate") LocalDate endDate);
+
+    @Modifying
+    @Query("DELETE FROM FeeLedgerEntry l WHERE l.tenantId = :tenantId")
+    int deleteByTenantId(@Param("tenantId") String tenantId);
+}
@@ -1,24 +1,60 @@
 package com.schoolmgmt.repository;
 
+import com.schoolmgmt.dto.response.FeePaymentSummary;
 import com.schoolmgmt.model.FeePayment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface FeePaymentRepository extends JpaRepository<FeePayment, UUID> {
 
-    List<FeePayment> findByTenantIdAndStudentId(String tenantId, UUID studentId);
+    /**
+     * Listing rows flattened from payment, fee structure and fee type, so listings never load the entity graph
+     */
+    String SUMMARY_SELECT = "SELECT new com.schoolmgmt.dto.response.FeePaymentSummary(" +
+            "fp.id, fp.studentId, fp.studentName, fs.id, fs.classId, ft.id, ft.name, fs.academicYear, fs.term, " +
+            "fs.dueDate, fp.totalAmount, fp.discountAmount, fp.lateFeeAmount, fp.amountPaid, fp.balanceAmount, " +
+            "fp.paymentStatus, fp.paymentMode, fp.paymentDate, fp.receiptNumber, fp.transactionId) " +
+            "FROM FeePayment fp JOIN fp.feeStructure fs JOIN fs.feeType ft ";
 
-    Page<FeePayment> findByTenantId(String tenantId, Pageable pageable);
+    /**
+     * A single payment with its fee structure and fee type, for the receipt
+     */
+    @Override
+    @EntityGraph(attributePaths = {"feeStructure", "feeStructure.feeType"})
+    Optional<FeePayment> findById(UUID id);
+
+    @Query(SUMMARY_SELECT + "WHERE fp.tenantId = :tenantId AND fp.studentId = :studentId ORDER BY fp.createdAt DESC")
+    List<FeePaymentSummary> findSummariesByStudent(@Param("tenantId") String tenantId,
+                                                   @Param("studentId") UUID studentId);
+
+    @Query(SUMMARY_SELECT + "WHERE fp.tenantId = :tenantId AND fp.studentId = :studentId " +
+           "AND fp.paymentStatus IN :statuses ORDER BY fs.dueDate")
+    List<FeePaymentSummary> findSummariesByStudentAndStatusIn(@Param("tenantId") String tenantId,
+                                                              @Param("studentId") UUID studentId,
+                                                              @Param("statuses") Collection<FeePayment.PaymentStatus> statuses);
+
+    @Query(SUMMARY_SELECT + "WHERE fp.tenantId = :tenantId AND fp.paymentStatus = :status ORDER BY fs.dueDate")
+    List<FeePaymentSummary> findSummariesByStatus(@Param("tenantId") String tenantId,
+                                                  @Param("status") FeePayment.PaymentStatus status);
+
+    @Query(value = SUMMARY_SELECT + "WHERE fp.tenantId = :tenantId",
+           countQuery = "SELECT COUNT(fp) FROM FeePayment fp WHERE fp.tenantId = :tenantId")
+    Page<FeePaymentSummary> findSummaries(@Param("tenantId") String tenantId, Pageable pageable);
 
     List<FeePayment> findByTenantIdAndPaymentStatus(
             String tenantId, FeePayment.PaymentStatus status);
@@ -45,6 +81,98 @@ public interface FeePaymentRepository extends JpaRepository<FeePayment, UUID> {
            "AND fp.paymentStatus = 'OVERDUE'")
     Long countOverdueByTenant(@Param("tenantId") String tenantId);
 
-    List<FeePayment> findByTenantIdAndStudentIdAndPaymentStatusIn(
-            String tenantId, UUID studentId, List<FeePayment.PaymentStatus> statuses);
+    /**
+     * Ledger rows recomputed from all payments of a tenant, keyed like fee_ledger_daily:
+     * ledgerDate, classId, feeTypeId, payments, paid, collected, pending, overdueCount
+     */
+    @Query("SELECT COALESCE(fp.paymentDate, CAST(fp.createdAt AS LocalDate)), fs.classId, fs.feeType.id, COUNT(fp), " +
+           "SUM(CASE WHEN fp.paymentDate IS NULL THEN 0 ELSE fp.amountPaid END), " +
+           "SUM(CASE WHEN fp.paymentStatus IN ('PAID', 'PARTIAL') THEN fp.amountPaid ELSE 0 END), " +
+           "SUM(CASE WHEN fp.paymentStatus IN ('PENDING', 'PARTIAL', 'OVERDUE') THEN fp.balanceAmount ELSE 0 END), " +
+           "SUM(CASE WHEN fp.paymentStatus = 'OVERDUE' THEN 1 ELSE 0 END) " +
+           "FROM FeePayment fp JOIN fp.feeStructure fs WHERE fp.tenantId = :tenantId " +
+           "GROUP BY COALESCE(fp.paymentDate, CAST(fp.createdAt AS LocalDate)), fs.classId, fs.feeType.id")
+    List<Object[]> summarizeLedgerByTenant(@Param("tenantId") String tenantId);
+
+    /**
+     * Students among the given ones who already have a payment of a fee structure, in any status
+     */
+    @Query("SELECT fp.studentId FROM FeePayment fp WHERE fp.tenantId = :tenantId " +
+           "AND fp.feeStructure.id = :feeStructureId AND fp.studentId IN :studentIds")
+    List<UUID> findInvoicedStudentIds(@Param("tenantId") String tenantId,
+                                      @Param("feeStructureId") UUID feeStructureId,
+                                      @Param("studentIds") Collection<UUID> studentIds);
+
+    /**
+     * Next chunk of unpaid payments whose fee structure is past its due date
+     */
+    @Query("SELECT fp.id FROM FeePayment fp WHERE fp.tenantId = :tenantId " +
+           "AND fp.paymentStatus IN ('PENDING', 'PARTIAL') AND fp.feeStructure.dueDate < :today ORDER BY fp.id")
+    List<UUID> findOverdueCandidates(@Param("tenantId") String tenantId,
+                                     @Param("today") LocalDate today,
+                                     Pageable pageable);
+
+    /**
+     * Mark payments overdue and add their fee structure's late fee to the balance, in one statement
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE FeePayment fp SET fp.paymentStatus = :overdue, " +
+           "fp.lateFeeAmount = COALESCE(fp.lateFeeAmount, 0) + " +
+           "  (SELECT COALESCE(fs.lateFee, 0) FROM FeeStructure fs WHERE fs.id = fp.feeStructure.id), " +
+           "fp.balanceAmount = COALESCE(fp.balanceAmount, 0) + " +
+           "  (SELECT COALESCE(fs.lateFee, 0) FROM FeeStructure fs WHERE fs.id = fp.feeStructure.id), " +
+           "fp.updatedAt = :now WHERE fp.id IN :ids AND fp.paymentStatus IN ('PENDING', 'PARTIAL')")
+    int markOverdue(@Param("ids") Collection<UUID> ids,
+                    @Param("overdue") FeePayment.PaymentStatus overdue,
+                    @Param("now") LocalDateTime now);
+
+    /**
+     * Ledger changes of the given payments just marked overdue, keyed like fee_ledger_daily:
+     * ledgerDate, classId, feeTypeId, payments, collectedToRemove (paid before going overdue), lateFees
+     */
+    @Query("SELECT COALESCE(fp.paymentDate, CAST(fp.createdAt AS LocalDate)), fs.classId, fs.feeType.id, COUNT(fp), " +
+           "SUM(COALESCE(fp.amountPaid, 0)), SUM(COALESCE(fs.lateFee, 0)) " +
+           "FROM FeePayment fp JOIN fp.feeStructure fs WHERE fp.id IN :ids AND fp.paymentStatus = 'OVERDUE' " +
+           "GROUP BY COALESCE(fp.paymentDate, CAST(fp.createdAt AS LocalDate)), fs.classId, fs.feeType.id")
+    List<Object[]> summarizeOverdueTransition(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Students of the given payments that are overdue: studentId, payments
+     */
+    @Query("SELECT fp.studentId, COUNT(fp) FROM FeePayment fp WHERE fp.id IN :ids AND fp.paymentStatus = 'OVERDUE' " +
+           "GROUP BY fp.studentId")
+    List<Object[]> countOverdueByStudent(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Received non-cash fee payments of a period not yet matched to a bank statement:
+     * id, transactionId, receiptNumber, amountPaid, paymentDate
+     */
+    @Query("SELECT fp.id, fp.transactionId, fp.receiptNumber, fp.amountPaid, fp.paymentDate FROM FeePayment fp " +
+           "WHERE fp.tenantId = :tenantId AND fp.reconciledAt IS NULL AND fp.paymentMode IN :modes " +
+           "AND fp.paymentStatus IN ('PAID', 'PARTIAL') AND fp.paymentDate BETWEEN :from AND :to")
+    List<Object[]> findOpenForReconciliation(@Param("tenantId") String tenantId,
+                                             @Param("modes") Collection<FeePayment.PaymentMode> modes,
+                                             @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to);
+
+    /**
+     * Mark fee payments as settled by a bank statement
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE FeePayment fp SET fp.reconciledAt = :now, fp.reconciliationId = :reconciliationId, " +
+           "fp.updatedAt = :now WHERE fp.tenantId = :tenantId AND fp.id IN :ids AND fp.reconciledAt IS NULL")
+    int markReconciled(@Param("tenantId") String tenantId,
+                       @Param("ids") Collection<UUID> ids,
+                       @Param("reconciliationId") UUID reconciliationId,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Reopen the fee payments marked by a reconciliation that did not complete
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE FeePayment fp SET fp.reconciledAt = NULL, fp.reconciliationId = NULL, fp.updatedAt = :now " +
+           "WHERE fp.tenantId = :tenantId AND fp.reconciliationId = :reconciliationId")
+    int clearReconciliation(@Param("tenantId") String tenantId,
+                            @Param("reconciliationId") UUID reconciliationId,
+                            @Param("now") LocalDateTime now);
 }
@@ -1,10 +1,14 @@
 package com.schoolmgmt.repository;
 
 import com.schoolmgmt.model.FeeStructure;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -12,9 +16,25 @@ public interface FeeStructureRepository extends JpaRepository<FeeStructure, UUID
 
     List<FeeStructure> findByTenantIdAndClassId(String tenantId, UUID classId);
 
+    @Override
+    @EntityGraph(attributePaths = "feeType")
+    Optional<FeeStructure> findById(UUID id);
+
+    @EntityGraph(attributePaths = "feeType")
     List<FeeStructure> findByTenantIdAndClassIdAndIsActiveTrue(String tenantId, UUID classId);
 
+    @EntityGraph(attributePaths = "feeType")
     List<FeeStructure> findByTenantIdAndIsActiveTrue(String tenantId);
 
     List<FeeStructure> findByTenantIdAndAcademicYear(String tenantId, String academicYear);
+
+    /**
+     * Active fee structures to invoice for a term; null filters match every structure
+     */
+    @Query("SELECT fs FROM FeeStructure fs WHERE fs.tenantId = :tenantId AND fs.isActive = true " +
+           "AND (:academicYear IS NULL OR fs.academicYear = :academicYear) AND (:term IS NULL OR fs.term = :term) " +
+           "ORDER BY fs.classId, fs.id")
+    List<FeeStructure> findForInvoicing(@Param("tenantId") String tenantId,
+                                        @Param("academicYear") String academicYear,
+                                        @Param("term") String term);
 }
@@ -0,0 +1,56 @@
+package com.schoolmgmt.repository;
+
+import com.schoolmgmt.model.GradeAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface GradeAggregateRepository extends JpaRepository<GradeAggregate, UUID> {
+
+    List<GradeAggregate> findByTenantIdAndExamIdIn(String tenantId, Collection<UUID> examIds);
+
+    /**
+     * Write-lock the existing rows of the given exams until the transaction ends, so refreshes of an exam take
+     * turns. A plain update takes the row lock on every database, unlike the dialect's SELECT ... FOR UPDATE.
+     */
+    @Modifying
+    @Query("UPDATE GradeAggregate g SET g.refreshedAt = :now WHERE g.tenantId = :tenantId AND g.examId IN :examIds")
+    int lockForRefresh(@Param("tenantId") String tenantId, @Param("examIds") Collection<UUID> examIds,
+                       @Param("now") LocalDateTime now);
+
+    long countByTenantId(String tenantId);
+
+    @Modifying
+    @Query("DELETE FROM GradeAggregate g WHERE g.tenantId = :tenantId")
+    int deleteByTenantId(@Param("tenantId") String tenantId);
+
+    /**
+     * Aggregate rows of a slice of the cube; every filter is optional
+     */
+    @Query("SELECT g FROM GradeAggregate g WHERE g.tenantId = :tenantId " +
+           "AND (:academicYear IS NULL OR g.academicYear = :academicYear) " +
+           "AND (:classId IS NULL OR g.classId = :classId) " +
+           "AND (:section IS NULL OR g.section = :section) " +
+           "AND (:subjectId IS NULL OR g.subjectId = :subjectId) " +
+           "AND (:examTypeId IS NULL OR g.examTypeId = :examTypeId) " +
+           "AND (:fromDate IS NULL OR g.examDate >= :fromDate) " +
+           "AND (:toDate IS NULL OR g.examDate <= :toDate) " +
+           "ORDER BY g.examDate, g.examName")
+    List<GradeAggregate> findSlice(@Param("tenantId") String tenantId,
+                                   @Param("academicYear") String academicYear,
+                                   @Param("classId") UUID classId,
+                                   @Param("section") String section,
+                                   @Param("subjectId") UUID subjectId,
+                                   @Param("examTypeId") UUID examTypeId,
+                                   @Param("fromDate") LocalDate fromDate,
+                                   @Param("toDate") LocalDate toDate);
+}
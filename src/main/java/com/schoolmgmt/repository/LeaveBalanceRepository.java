@@ -1,6 +1,7 @@
 package com.schoolmgmt.repository;
 
 import com.schoolmgmt.model.LeaveBalance;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,9 +12,11 @@ import java.util.UUID;
 @Repository
 public interface LeaveBalanceRepository extends JpaRepository<LeaveBalance, UUID> {
 
+    @EntityGraph(attributePaths = "leaveType")
     List<LeaveBalance> findByTenantIdAndUserIdAndAcademicYear(
             String tenantId, String userId, String academicYear);
 
+    @EntityGraph(attributePaths = "leaveType")
     Optional<LeaveBalance> findByTenantIdAndUserIdAndLeaveTypeIdAndAcademicYear(
             String tenantId, String userId, UUID leaveTypeId, String academicYear);
 
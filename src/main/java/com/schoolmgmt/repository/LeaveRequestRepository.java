@@ -1,8 +1,10 @@
 package com.schoolmgmt.repository;
 
+import com.schoolmgmt.dto.response.LeaveRequestSummary;
 import com.schoolmgmt.model.LeaveRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,17 +12,38 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, UUID> {
 
-    List<LeaveRequest> findByTenantIdAndUserIdOrderByCreatedAtDesc(String tenantId, String userId);
+    /**
+     * Listing rows flattened from leave request and leave type, so listings never load the entity graph
+     */
+    String SUMMARY_SELECT = "SELECT new com.schoolmgmt.dto.response.LeaveRequestSummary(" +
+            "lr.id, lt.id, lt.name, lt.isPaid, lr.userId, lr.userName, lr.userRole, lr.startDate, lr.endDate, " +
+            "lr.totalDays, lr.isHalfDay, lr.reason, lr.status, lr.approvedByName, lr.approvalRemarks, " +
+            "lr.approvedAt, lr.createdAt) FROM LeaveRequest lr JOIN lr.leaveType lt ";
 
-    List<LeaveRequest> findByTenantIdAndStatusOrderByCreatedAtDesc(
-            String tenantId, LeaveRequest.LeaveStatus status);
+    /**
+     * A single leave request with its leave type, for approval and cancellation responses
+     */
+    @Override
+    @EntityGraph(attributePaths = "leaveType")
+    Optional<LeaveRequest> findById(UUID id);
 
-    Page<LeaveRequest> findByTenantIdOrderByCreatedAtDesc(String tenantId, Pageable pageable);
+    @Query(SUMMARY_SELECT + "WHERE lr.tenantId = :tenantId AND lr.userId = :userId ORDER BY lr.createdAt DESC")
+    List<LeaveRequestSummary> findSummariesByUser(@Param("tenantId") String tenantId,
+                                                  @Param("userId") String userId);
+
+    @Query(SUMMARY_SELECT + "WHERE lr.tenantId = :tenantId AND lr.status = :status ORDER BY lr.createdAt DESC")
+    List<LeaveRequestSummary> findSummariesByStatus(@Param("tenantId") String tenantId,
+                                                    @Param("status") LeaveRequest.LeaveStatus status);
+
+    @Query(value = SUMMARY_SELECT + "WHERE lr.tenantId = :tenantId",
+           countQuery = "SELECT COUNT(lr) FROM LeaveRequest lr WHERE lr.tenantId = :tenantId")
+    Page<LeaveRequestSummary> findSummaries(@Param("tenantId") String tenantId, Pageable pageable);
 
     @Query("SELECT lr FROM LeaveRequest lr WHERE lr.tenantId = :tenantId " +
            "AND lr.userId = :userId AND lr.status = 'APPROVED' " +
@@ -44,4 +67,11 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, UUID
 
     List<LeaveRequest> findByTenantIdAndUserIdAndStatusIn(
             String tenantId, String userId, List<LeaveRequest.LeaveStatus> statuses);
+
+    /**
+     * Date ranges of approved leaves still running on or after a date: id, userId, startDate, endDate
+     */
+    @Query("SELECT lr.id, lr.userId, lr.startDate, lr.endDate FROM LeaveRequest lr " +
+           "WHERE lr.tenantId = :tenantId AND lr.status = 'APPROVED' AND lr.endDate >= :from")
+    List<Object[]> findApprovedLeaveRanges(@Param("tenantId") String tenantId, @Param("from") LocalDate from);
 }
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -36,4 +37,15 @@ public interface NotificationLogRepository extends JpaRepository<NotificationLog
     void markAllAsRead(@Param("tenantId") String tenantId, @Param("userId") String userId);
 
     Page<NotificationLog> findByTenantIdOrderByCreatedAtDesc(String tenantId, Pageable pageable);
+
+    /**
+     * Whether a notification of a type has been logged for a tenant since the given time
+     */
+    boolean existsByTenantIdAndNotificationTypeAndCreatedAtGreaterThanEqual(
+            String tenantId, NotificationLog.NotificationType notificationType, LocalDateTime since);
+
+    @Modifying
+    @Query("UPDATE NotificationLog n SET n.status = :status, n.errorMessage = :errorMessage WHERE n.id = :id")
+    void updateDeliveryStatus(@Param("id") UUID id, @Param("status") NotificationLog.NotificationStatus status,
+                              @Param("errorMessage") String errorMessage);
 }
@@ -0,0 +1,66 @@
+package com.schoolmgmt.repository;
+
+import com.schoolmgmt.model.NotificationOutbox;
+import com.schoolmgmt.model.NotificationOutbox.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for NotificationOutbox entity operations.
+ */
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, UUID> {
+
+    /**
+     * Find messages due for delivery, including claims whose lease ran out, oldest first across all tenants
+     */
+    @Query("SELECT o.id FROM NotificationOutbox o " +
+           "WHERE (o.status = 'PENDING' AND o.nextAttemptAt <= :now) " +
+           "OR (o.status = 'PROCESSING' AND o.lockedUntil < :now) " +
+           "ORDER BY o.nextAttemptAt")
+    List<UUID> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Claim due messages for one dispatcher; messages another dispatcher claimed meanwhile are left alone
+     */
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = 'PROCESSING', " +
+           "o.claimToken = :claimToken, o.lockedUntil = :lockedUntil " +
+           "WHERE o.id IN :ids AND ((o.status = 'PENDING' AND o.nextAttemptAt <= :now) " +
+           "OR (o.status = 'PROCESSING' AND o.lockedUntil < :now))")
+    int claim(@Param("ids") Collection<UUID> ids, @Param("claimToken") String claimToken,
+              @Param("lockedUntil") LocalDateTime lockedUntil, @Param("now") LocalDateTime now);
+
+    /**
+     * Find the messages of a claim
+     */
+    List<NotificationOutbox> findByClaimToken(String claimToken);
+
+    /**
+     * Record the outcome of a delivery attempt and the tokens still to deliver, unless the claim has since passed
+     * to another dispatcher
+     */
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = :status, o.attempts = :attempts, " +
+           "o.nextAttemptAt = :nextAttemptAt, o.pendingTokens = :pendingTokens, o.lastError = :lastError, " +
+           "o.sentAt = :sentAt, o.claimToken = NULL, o.lockedUntil = NULL, o.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE o.id = :id AND o.claimToken = :claimToken")
+    int complete(@Param("id") UUID id, @Param("claimToken") String claimToken,
+                 @Param("status") OutboxStatus status, @Param("attempts") int attempts,
+                 @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("pendingTokens") String pendingTokens,
+                 @Param("lastError") String lastError, @Param("sentAt") LocalDateTime sentAt);
+
+    /**
+     * Count messages of a tenant in a status
+     */
+    long countByTenantIdAndStatus(String tenantId, OutboxStatus status);
+}
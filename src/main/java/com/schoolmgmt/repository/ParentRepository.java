@@ -10,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -95,6 +96,22 @@ public interface ParentRepository extends JpaRepository<Parent, UUID>, JpaSpecif
            "WHERE c.id = :studentId OR w.id = :studentId")
     List<Parent> findAllByStudentId(@Param("studentId") UUID studentId);
 
+    /**
+     * Family graph: children of the given parents with class and section, in one query
+     * (parent id, student id, first name, middle name, last name, roll number, class, section)
+     */
+    @Query("SELECT p.id, s.id, s.firstName, s.middleName, s.lastName, s.rollNumber, s.currentClassId, s.currentSectionId " +
+           "FROM Student s JOIN s.parents p WHERE p.id IN :parentIds ORDER BY s.firstName, s.lastName")
+    List<Object[]> findChildLinksByParentIds(@Param("parentIds") Collection<UUID> parentIds);
+
+    /**
+     * Family graph: wards of the given guardians with class and section, in one query
+     * (guardian id, student id, first name, middle name, last name, roll number, class, section)
+     */
+    @Query("SELECT g.id, s.id, s.firstName, s.middleName, s.lastName, s.rollNumber, s.currentClassId, s.currentSectionId " +
+           "FROM Student s JOIN s.guardians g WHERE g.id IN :parentIds ORDER BY s.firstName, s.lastName")
+    List<Object[]> findWardLinksByParentIds(@Param("parentIds") Collection<UUID> parentIds);
+
     /**
      * Count active parents by tenant
      */
@@ -5,8 +5,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,4 +24,51 @@ public interface PaymentTransactionRepository extends JpaRepository<PaymentTrans
     Page<PaymentTransaction> findByStatusAndTenantIdAndIsActiveTrue(String status, String tenantId, Pageable pageable);
     long countByTenantIdAndIsActiveTrue(String tenantId);
     long countByStatusAndTenantIdAndIsActiveTrue(String status, String tenantId);
+
+    /**
+     * Non-cash transactions of a period not yet matched to a bank statement:
+     * id, transactionId, gatewayReference, receiptNumber, amount, paymentDate (or createdAt)
+     */
+    @Query("SELECT t.id, t.transactionId, t.gatewayReference, t.receiptNumber, t.amount, " +
+           "COALESCE(t.paymentDate, t.createdAt) FROM PaymentTransaction t " +
+           "WHERE t.tenantId = :tenantId AND t.isActive = true AND t.reconciledAt IS NULL " +
+           "AND t.status IN ('PENDING', 'SUCCESS') AND t.paymentMethod <> 'CASH' " +
+           "AND COALESCE(t.paymentDate, t.createdAt) BETWEEN :from AND :to")
+    List<Object[]> findOpenForReconciliation(@Param("tenantId") String tenantId,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to);
+
+    /**
+     * Mark transactions as settled by a bank statement
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE PaymentTransaction t SET t.reconciledAt = :now, t.reconciliationId = :reconciliationId, " +
+           "t.updatedAt = :now, t.version = COALESCE(t.version, 0) + 1 " +
+           "WHERE t.tenantId = :tenantId AND t.id IN :ids AND t.reconciledAt IS NULL")
+    int markReconciled(@Param("tenantId") String tenantId,
+                       @Param("ids") Collection<UUID> ids,
+                       @Param("reconciliationId") UUID reconciliationId,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Make the pending transactions settled by a completed reconciliation successful
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE PaymentTransaction t SET t.status = 'SUCCESS', t.updatedAt = :now, " +
+           "t.version = COALESCE(t.version, 0) + 1 " +
+           "WHERE t.tenantId = :tenantId AND t.reconciliationId = :reconciliationId AND t.status = 'PENDING'")
+    int confirmReconciled(@Param("tenantId") String tenantId,
+                          @Param("reconciliationId") UUID reconciliationId,
+                          @Param("now") LocalDateTime now);
+
+    /**
+     * Reopen the transactions marked by a reconciliation that did not complete
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE PaymentTransaction t SET t.reconciledAt = NULL, t.reconciliationId = NULL, t.updatedAt = :now, " +
+           "t.version = COALESCE(t.version, 0) + 1 " +
+           "WHERE t.tenantId = :tenantId AND t.reconciliationId = :reconciliationId")
+    int clearReconciliation(@Param("tenantId") String tenantId,
+                            @Param("reconciliationId") UUID reconciliationId,
+                            @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,44 @@
+package com.schoolmgmt.repository;
+
+import com.schoolmgmt.model.ReconciliationIssue;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for ReconciliationIssue entity operations.
+ */
+@Repository
+public interface ReconciliationIssueRepository extends JpaRepository<ReconciliationIssue, UUID> {
+
+    /**
+     * Find issue by ID and tenant
+     */
+    Optional<ReconciliationIssue> findByIdAndTenantId(UUID id, String tenantId);
+
+    /**
+     * Find issues of a reconciliation in statement order
+     */
+    Page<ReconciliationIssue> findByTenantIdAndReconciliationIdOrderByLineNumber(String tenantId, UUID reconciliationId,
+                                                                                 Pageable pageable);
+
+    /**
+     * Find unresolved issues of a reconciliation in statement order
+     */
+    Page<ReconciliationIssue> findByTenantIdAndReconciliationIdAndResolvedFalseOrderByLineNumber(
+            String tenantId, UUID reconciliationId, Pageable pageable);
+
+    /**
+     * Delete the issues recorded by a reconciliation that did not complete
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM ReconciliationIssue i WHERE i.tenantId = :tenantId AND i.reconciliationId = :reconciliationId")
+    int deleteByReconciliation(@Param("tenantId") String tenantId, @Param("reconciliationId") UUID reconciliationId);
+}
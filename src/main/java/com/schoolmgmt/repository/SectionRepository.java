@@ -13,6 +13,9 @@ import java.util.UUID;
 @Repository
 public interface SectionRepository extends JpaRepository<Section, UUID> {
     
+    @Query("SELECT s FROM Section s WHERE s.tenantId = :tenantId")
+    List<Section> findAllByTenantId(@Param("tenantId") String tenantId);
+
     @Query("SELECT s FROM Section s WHERE s.tenantId = :tenantId AND s.schoolClassId = :schoolClassId")
     List<Section> findByTenantIdAndSchoolClassId(@Param("tenantId") String tenantId, @Param("schoolClassId") UUID schoolClassId);
     
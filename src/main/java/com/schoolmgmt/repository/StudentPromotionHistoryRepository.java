@@ -0,0 +1,20 @@
+package com.schoolmgmt.repository;
+
+import com.schoolmgmt.model.StudentPromotionHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for StudentPromotionHistory entity operations.
+ */
+@Repository
+public interface StudentPromotionHistoryRepository extends JpaRepository<StudentPromotionHistory, UUID> {
+
+    /**
+     * Find promotion history of a student, newest first
+     */
+    List<StudentPromotionHistory> findByStudentIdAndTenantIdOrderByCreatedAtDesc(UUID studentId, String tenantId);
+}
@@ -0,0 +1,33 @@
+package com.schoolmgmt.repository;
+
+import com.schoolmgmt.model.StudentPromotionRun;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for StudentPromotionRun entity operations.
+ */
+@Repository
+public interface StudentPromotionRunRepository extends JpaRepository<StudentPromotionRun, UUID> {
+
+    /**
+     * Find promotion run by ID and tenant
+     */
+    Optional<StudentPromotionRun> findByIdAndTenantId(UUID id, String tenantId);
+
+    /**
+     * Find promotion runs of a tenant, newest first
+     */
+    Page<StudentPromotionRun> findByTenantIdOrderByCreatedAtDesc(String tenantId, Pageable pageable);
+
+    /**
+     * Check if the tenant has an unfinished promotion run
+     */
+    boolean existsByTenantIdAndStatusIn(String tenantId, Collection<StudentPromotionRun.PromotionStatus> statuses);
+}
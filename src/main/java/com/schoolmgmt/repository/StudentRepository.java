@@ -9,8 +9,11 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -100,13 +103,31 @@ public interface StudentRepository extends JpaRepository<Student, UUID>, JpaSpec
      * Find students with birthdays in date range
      */
     @Query("SELECT s FROM Student s WHERE s.tenantId = :tenantId AND " +
-           "EXTRACT(MONTH FROM s.dateOfBirth) = :month AND " +
-           "EXTRACT(DAY FROM s.dateOfBirth) BETWEEN :startDay AND :endDay")
+           "s.birthMonthDay BETWEEN :month * 100 + :startDay AND :month * 100 + :endDay")
     List<Student> findStudentsWithBirthdayInRange(@Param("tenantId") String tenantId,
                                                   @Param("month") int month,
                                                   @Param("startDay") int startDay,
                                                   @Param("endDay") int endDay);
 
+    /**
+     * Find active students born on any of the given month-days (month * 100 + day): id, first name,
+     * last name, class, section, date of birth
+     */
+    @Query("SELECT s.id, s.firstName, s.lastName, s.currentClassId, s.currentSectionId, s.dateOfBirth " +
+           "FROM Student s WHERE s.tenantId = :tenantId AND s.status = 'ACTIVE' " +
+           "AND s.birthMonthDay IN :monthDays ORDER BY s.firstName, s.lastName")
+    List<Object[]> findBirthdaysOn(@Param("tenantId") String tenantId,
+                                   @Param("monthDays") Collection<Integer> monthDays);
+
+    /**
+     * Fill the month-day column for rows written before it existed
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Student s SET s.birthMonthDay = EXTRACT(MONTH FROM s.dateOfBirth) * 100 + EXTRACT(DAY FROM s.dateOfBirth) " +
+           "WHERE s.birthMonthDay IS NULL AND s.dateOfBirth IS NOT NULL")
+    int backfillBirthMonthDay();
+
     /**
      * Get student statistics by class
      */
@@ -117,4 +138,128 @@ public interface StudentRepository extends JpaRepository<Student, UUID>, JpaSpec
            "GROUP BY s.currentClassId")
     List<Object[]> getStudentStatisticsByClass(@Param("tenantId") String tenantId);
 
+    /**
+     * Get counts of the students not deleted, grouped by class, status and gender in a single pass
+     */
+    @Query("SELECT s.currentClassId, s.status, s.gender, COUNT(s) " +
+           "FROM Student s WHERE s.tenantId = :tenantId AND s.isDeleted = false " +
+           "GROUP BY s.currentClassId, s.status, s.gender")
+    List<Object[]> getStudentCountsByClassStatusAndGender(@Param("tenantId") String tenantId);
+
+    /**
+     * Count active students in the given classes
+     */
+    long countByTenantIdAndStatusAndCurrentClassIdIn(String tenantId, Student.StudentStatus status, Collection<String> classIds);
+
+    /**
+     * Active students of a class for report cards, in roll number order: id, first name, last name, roll number
+     */
+    @Query("SELECT s.id, s.firstName, s.lastName, s.rollNumber FROM Student s WHERE s.tenantId = :tenantId " +
+           "AND s.status = 'ACTIVE' AND s.currentClassId = :classId ORDER BY s.rollNumber, s.id")
+    List<Object[]> findReportCardStudents(@Param("tenantId") String tenantId, @Param("classId") String classId);
+
+    /**
+     * Active students of a class section for report cards, in roll number order: id, first name, last name, roll number
+     */
+    @Query("SELECT s.id, s.firstName, s.lastName, s.rollNumber FROM Student s WHERE s.tenantId = :tenantId " +
+           "AND s.status = 'ACTIVE' AND s.currentClassId = :classId AND s.currentSectionId = :sectionId " +
+           "ORDER BY s.rollNumber, s.id")
+    List<Object[]> findReportCardStudentsInSection(@Param("tenantId") String tenantId,
+                                                   @Param("classId") String classId,
+                                                   @Param("sectionId") UUID sectionId);
+
+    /**
+     * Count active students per class: classId, count
+     */
+    @Query("SELECT s.currentClassId, COUNT(s) FROM Student s WHERE s.tenantId = :tenantId AND s.status = 'ACTIVE' " +
+           "AND s.currentClassId IN :classIds GROUP BY s.currentClassId")
+    List<Object[]> countActiveByClass(@Param("tenantId") String tenantId,
+                                      @Param("classIds") Collection<String> classIds);
+
+    /**
+     * Find the user accounts to notify about students: student id, the student's, a parent's and a guardian's
+     * user id, each possibly null
+     */
+    @Query("SELECT s.id, u.userId, pu.userId, gu.userId FROM Student s LEFT JOIN s.user u " +
+           "LEFT JOIN s.parents p LEFT JOIN p.user pu LEFT JOIN s.guardians g LEFT JOIN g.user gu " +
+           "WHERE s.tenantId = :tenantId AND s.id IN :studentIds")
+    List<Object[]> findNotificationRecipients(@Param("tenantId") String tenantId,
+                                              @Param("studentIds") Collection<UUID> studentIds);
+
+    /**
+     * Find the next keyset chunk of active students of a class to invoice: id, first name, last name
+     */
+    @Query("SELECT s.id, s.firstName, s.lastName FROM Student s WHERE s.tenantId = :tenantId AND s.status = 'ACTIVE' " +
+           "AND s.currentClassId = :classId AND s.id > :afterId ORDER BY s.id")
+    List<Object[]> findInvoiceChunk(@Param("tenantId") String tenantId,
+                                    @Param("classId") String classId,
+                                    @Param("afterId") UUID afterId,
+                                    Pageable pageable);
+
+    /**
+     * Find the next keyset chunk of active students of a class for promotion: id, current section, roll number
+     */
+    @Query("SELECT s.id, s.currentSectionId, s.rollNumber FROM Student s WHERE s.tenantId = :tenantId AND s.status = 'ACTIVE' " +
+           "AND s.currentClassId = :classId AND s.id > :afterId ORDER BY s.id")
+    List<Object[]> findPromotionChunk(@Param("tenantId") String tenantId,
+                                      @Param("classId") String classId,
+                                      @Param("afterId") UUID afterId,
+                                      Pageable pageable);
+
+    /**
+     * Find the next keyset chunk of active students of a class section for promotion: id, current section,
+     * roll number
+     */
+    @Query("SELECT s.id, s.currentSectionId, s.rollNumber FROM Student s WHERE s.tenantId = :tenantId AND s.status = 'ACTIVE' " +
+           "AND s.currentClassId = :classId AND s.currentSectionId = :sectionId AND s.id > :afterId ORDER BY s.id")
+    List<Object[]> findPromotionChunkInSection(@Param("tenantId") String tenantId,
+                                               @Param("classId") String classId,
+                                               @Param("sectionId") UUID sectionId,
+                                               @Param("afterId") UUID afterId,
+                                               Pageable pageable);
+
+    /**
+     * Move a set of students to another class and section
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Student s SET s.currentClassId = :classId, s.currentSectionId = :sectionId, " +
+           "s.updatedAt = :now, s.version = COALESCE(s.version, 0) + 1 " +
+           "WHERE s.tenantId = :tenantId AND s.id IN :studentIds")
+    int moveStudents(@Param("tenantId") String tenantId,
+                     @Param("studentIds") Collection<UUID> studentIds,
+                     @Param("classId") String classId,
+                     @Param("sectionId") UUID sectionId,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * Roll numbers taken in a class, by students of any status
+     */
+    @Query("SELECT s.rollNumber FROM Student s WHERE s.tenantId = :tenantId AND s.currentClassId = :classId")
+    List<String> findRollNumbersInClass(@Param("tenantId") String tenantId, @Param("classId") String classId);
+
+    /**
+     * Move one student to another class and section under a new roll number
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Student s SET s.currentClassId = :classId, s.currentSectionId = :sectionId, " +
+           "s.rollNumber = :rollNumber, s.updatedAt = :now, s.version = COALESCE(s.version, 0) + 1 " +
+           "WHERE s.tenantId = :tenantId AND s.id = :studentId")
+    int moveStudent(@Param("tenantId") String tenantId,
+                    @Param("studentId") UUID studentId,
+                    @Param("classId") String classId,
+                    @Param("sectionId") UUID sectionId,
+                    @Param("rollNumber") String rollNumber,
+                    @Param("now") LocalDateTime now);
+
+    /**
+     * Mark a set of students as graduated and release their class places
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Student s SET s.status = 'GRADUATED', s.currentClassId = NULL, s.currentSectionId = NULL, " +
+           "s.updatedAt = :now, s.version = COALESCE(s.version, 0) + 1 " +
+           "WHERE s.tenantId = :tenantId AND s.id IN :studentIds")
+    int graduateStudents(@Param("tenantId") String tenantId,
+                         @Param("studentIds") Collection<UUID> studentIds,
+                         @Param("now") LocalDateTime now);
+
 }
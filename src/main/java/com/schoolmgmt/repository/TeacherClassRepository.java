@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -23,6 +24,11 @@ public interface TeacherClassRepository extends JpaRepository<TeacherClass, UUID
      */
     List<TeacherClass> findByTeacherIdAndIsActiveTrueAndTenantId(UUID teacherId, String tenantId);
 
+    /**
+     * Find all active assignments of a tenant
+     */
+    List<TeacherClass> findByTenantIdAndIsActiveTrue(String tenantId);
+
     /**
      * Find all assignments for teacher (active and inactive)
      */
@@ -99,4 +105,14 @@ public interface TeacherClassRepository extends JpaRepository<TeacherClass, UUID
      */
     @Query("SELECT tc FROM TeacherClass tc WHERE tc.academicYearId = :oldAcademicYearId AND tc.isActive = true AND tc.tenantId = :tenantId")
     List<TeacherClass> findAssignmentsForAcademicYearTransition(@Param("oldAcademicYearId") UUID oldAcademicYearId, @Param("tenantId") String tenantId);
+
+    /**
+     * Close all active assignments of an academic year
+     */
+    @Modifying
+    @Query("UPDATE TeacherClass tc SET tc.isActive = false, tc.unassignedDate = :unassignedDate " +
+           "WHERE tc.academicYearId = :academicYearId AND tc.isActive = true AND tc.tenantId = :tenantId")
+    int deactivateAssignmentsForAcademicYear(@Param("academicYearId") UUID academicYearId,
+                                             @Param("tenantId") String tenantId,
+                                             @Param("unassignedDate") LocalDate unassignedDate);
 }
@@ -181,4 +181,11 @@ public interface TeacherRepository extends JpaRepository<Teacher, UUID>, JpaSpec
     List<Teacher> findBySalaryRange(@Param("tenantId") String tenantId,
                                     @Param("minSalary") Double minSalary,
                                     @Param("maxSalary") Double maxSalary);
+
+    /**
+     * Identity columns of active teachers: id, firstName, lastName, login userId (null without an account)
+     */
+    @Query("SELECT t.id, t.firstName, t.lastName, u.userId FROM Teacher t LEFT JOIN t.user u " +
+           "WHERE t.tenantId = :tenantId AND t.status = 'ACTIVE'")
+    List<Object[]> findActiveTeacherIdentities(@Param("tenantId") String tenantId);
 }
@@ -0,0 +1,47 @@
+package com.schoolmgmt.repository;
+
+import com.schoolmgmt.model.TenantSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for per-tenant sequence high-water marks.
+ */
+@Repository
+public interface TenantSequenceRepository extends JpaRepository<TenantSequence, UUID> {
+
+    /**
+     * Advance a sequence by a whole block; the row lock taken here serialises concurrent reservations
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE TenantSequence s SET s.nextValue = s.nextValue + :blockSize, s.updatedAt = :now " +
+           "WHERE s.tenantId = :tenantId AND s.sequenceName = :sequenceName")
+    int advance(@Param("tenantId") String tenantId,
+                @Param("sequenceName") String sequenceName,
+                @Param("blockSize") long blockSize,
+                @Param("now") LocalDateTime now);
+
+    /**
+     * Advance a sequence by one in the caller's transaction, keeping its persistence context intact;
+     * the row lock is held until that transaction ends
+     */
+    @Modifying
+    @Query("UPDATE TenantSequence s SET s.nextValue = s.nextValue + 1, s.updatedAt = :now " +
+           "WHERE s.tenantId = :tenantId AND s.sequenceName = :sequenceName")
+    int increment(@Param("tenantId") String tenantId,
+                  @Param("sequenceName") String sequenceName,
+                  @Param("now") LocalDateTime now);
+
+    /**
+     * Read the current high-water mark of a sequence
+     */
+    @Query("SELECT s.nextValue FROM TenantSequence s WHERE s.tenantId = :tenantId AND s.sequenceName = :sequenceName")
+    Optional<Long> findNextValue(@Param("tenantId") String tenantId, @Param("sequenceName") String sequenceName);
+}
@@ -2,10 +2,12 @@ package com.schoolmgmt.repository;
 
 import com.schoolmgmt.model.TimetableEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -27,6 +29,9 @@ public interface TimetableRepository extends JpaRepository<TimetableEntry, UUID>
     List<TimetableEntry> findByTenantIdAndTeacherIdAndDayOfWeekAndIsActiveTrue(
             String tenantId, UUID teacherId, TimetableEntry.DayOfWeek dayOfWeek);
 
+    List<TimetableEntry> findByTenantIdAndDayOfWeekAndIsActiveTrue(
+            String tenantId, TimetableEntry.DayOfWeek dayOfWeek);
+
     @Query("SELECT t FROM TimetableEntry t WHERE t.tenantId = :tenantId " +
            "AND t.classId = :classId AND t.dayOfWeek = :day AND t.period.id = :periodId " +
            "AND t.isActive = true")
@@ -45,5 +50,16 @@ public interface TimetableRepository extends JpaRepository<TimetableEntry, UUID>
             @Param("day") TimetableEntry.DayOfWeek day,
             @Param("periodId") UUID periodId);
 
+    /**
+     * Slot columns of all active entries of a tenant: id, classId, section, teacherId, room, dayOfWeek, periodId
+     */
+    @Query("SELECT t.id, t.classId, t.section, t.teacherId, t.room, t.dayOfWeek, t.period.id " +
+           "FROM TimetableEntry t WHERE t.tenantId = :tenantId AND t.isActive = true")
+    List<Object[]> findActiveSlots(@Param("tenantId") String tenantId);
+
     void deleteByTenantIdAndClassId(String tenantId, UUID classId);
+
+    @Modifying
+    @Query("DELETE FROM TimetableEntry t WHERE t.tenantId = :tenantId AND t.classId IN :classIds")
+    int deleteByTenantIdAndClassIdIn(@Param("tenantId") String tenantId, @Param("classIds") Collection<UUID> classIds);
 }
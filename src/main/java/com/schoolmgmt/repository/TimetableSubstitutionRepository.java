@@ -0,0 +1,26 @@
+package com.schoolmgmt.repository;
+
+import com.schoolmgmt.model.TimetableSubstitution;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TimetableSubstitutionRepository extends JpaRepository<TimetableSubstitution, UUID> {
+
+    List<TimetableSubstitution> findByTenantIdAndSubstitutionDate(String tenantId, LocalDate substitutionDate);
+
+    List<TimetableSubstitution> findByTenantIdAndSubstitutionDateGreaterThanEqual(String tenantId, LocalDate from);
+
+    List<TimetableSubstitution> findByTenantIdAndLeaveRequestId(String tenantId, UUID leaveRequestId);
+
+    @Modifying
+    @Query("DELETE FROM TimetableSubstitution s WHERE s.tenantId = :tenantId AND s.leaveRequestId = :leaveRequestId")
+    int deleteByTenantIdAndLeaveRequestId(@Param("tenantId") String tenantId, @Param("leaveRequestId") UUID leaveRequestId);
+}
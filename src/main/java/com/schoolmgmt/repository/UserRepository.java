@@ -57,10 +57,11 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     // Optional: check if username already exists for a tenant
     boolean existsByUsernameAndTenantId(String username, String tenantId);
 
-    // Get the max sequence number for a tenant prefix
-    @Query(value = "SELECT COALESCE(MAX(CAST(SUBSTRING(username, LENGTH(:tenantPrefix) + 1) AS INTEGER)), 0) " +
-            "FROM users WHERE username LIKE CONCAT(:tenantPrefix, '%')", nativeQuery = true)
-    Integer findMaxSequenceForTenant(@Param("tenantPrefix") String tenantPrefix);
+    /**
+     * Find the user codes of a tenant starting with a prefix; only used to seed the tenant's user code sequence
+     */
+    @Query("SELECT u.userId FROM User u WHERE u.tenantId = :tenantId AND u.userId LIKE CONCAT(:prefix, '%')")
+    List<String> findUserIdsWithPrefix(@Param("tenantId") String tenantId, @Param("prefix") String prefix);
 
 
     /**
@@ -219,6 +220,17 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     @Query("SELECT COUNT(u) FROM User u WHERE u.role = :role AND u.tenantId = :tenantId AND u.status = 'ACTIVE'")
     long countActiveUsersByRoleAndTenant(@Param("role") User.UserRole role, @Param("tenantId") String tenantId);
 
+    /**
+     * Count active users of a tenant grouped by role
+     */
+    @Query("SELECT u.role, COUNT(u) FROM User u WHERE u.tenantId = :tenantId AND u.status = 'ACTIVE' GROUP BY u.role")
+    List<Object[]> countActiveUsersGroupedByRole(@Param("tenantId") String tenantId);
+
+    /**
+     * Count all users of a tenant
+     */
+    long countByTenantId(String tenantId);
+
     /**
      * Find users by reference ID and type
      */
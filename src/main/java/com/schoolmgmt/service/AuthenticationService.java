@@ -4,6 +4,7 @@ import com.schoolmgmt.dto.ApiResponse;
 import com.schoolmgmt.dto.common.UserInfo;
 import com.schoolmgmt.dto.request.*;
 import com.schoolmgmt.dto.response.AuthResponse;
+import com.schoolmgmt.event.UserDataChangedEvent;
 import com.schoolmgmt.exception.PasswordChangeException;
 import com.schoolmgmt.model.User;
 import com.schoolmgmt.repository.UserRepository;
@@ -12,6 +13,7 @@ import com.schoolmgmt.util.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -41,6 +43,7 @@ public class AuthenticationService {
     private final AuthenticationManager authenticationManager;
     private final EmailService emailService;
     private final TokenBlacklistService tokenBlacklistService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Value("${jwt.expiration}")
     private long jwtExpiration;
@@ -374,6 +377,7 @@ public class AuthenticationService {
             TenantContext.setCurrentTenant(user.getTenantId());
             
             userRepository.verifyEmail(user.getId());
+            eventPublisher.publishEvent(new UserDataChangedEvent(user.getTenantId()));
             
             log.info("Email verified for: {}", user.getEmail());
         } finally {
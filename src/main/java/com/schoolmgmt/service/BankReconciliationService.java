@@ -0,0 +1,394 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.response.BankReconciliationResponse;
+import com.schoolmgmt.dto.response.ReconciliationIssueResponse;
+import com.schoolmgmt.exception.BusinessException;
+import com.schoolmgmt.exception.ResourceNotFoundException;
+import com.schoolmgmt.model.BankReconciliation;
+import com.schoolmgmt.model.BankReconciliation.ReconciliationStatus;
+import com.schoolmgmt.model.FeePayment;
+import com.schoolmgmt.model.ReconciliationIssue;
+import com.schoolmgmt.repository.BankReconciliationRepository;
+import com.schoolmgmt.repository.FeePaymentRepository;
+import com.schoolmgmt.repository.PaymentTransactionRepository;
+import com.schoolmgmt.repository.ReconciliationIssueRepository;
+import com.schoolmgmt.util.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Service reconciling uploaded bank/UPI statements with open payment transactions and fee payments.
+ * The open payments of the period are indexed in memory by {@link ReconciliationMatcher}; the statement is
+ * streamed line by line and its matches and review issues are written in bulk every few hundred lines, so memory
+ * stays bounded by the period's open payments however long the statement is. A run that fails partway undoes
+ * what it had written, so the statement can simply be uploaded again.
+ */
+@Service
+@Slf4j
+public class BankReconciliationService {
+
+    private static final Set<FeePayment.PaymentMode> NON_CASH_MODES = EnumSet.of(FeePayment.PaymentMode.ONLINE,
+            FeePayment.PaymentMode.BANK_TRANSFER, FeePayment.PaymentMode.UPI, FeePayment.PaymentMode.CARD,
+            FeePayment.PaymentMode.CHEQUE);
+
+    private final BankReconciliationRepository reconciliationRepository;
+    private final ReconciliationIssueRepository issueRepository;
+    private final PaymentTransactionRepository paymentTransactionRepository;
+    private final FeePaymentRepository feePaymentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushSize;
+
+    public BankReconciliationService(BankReconciliationRepository reconciliationRepository,
+                                     ReconciliationIssueRepository issueRepository,
+                                     PaymentTransactionRepository paymentTransactionRepository,
+                                     FeePaymentRepository feePaymentRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.reconciliation.flush-size:1000}") int flushSize) {
+        this.reconciliationRepository = reconciliationRepository;
+        this.issueRepository = issueRepository;
+        this.paymentTransactionRepository = paymentTransactionRepository;
+        this.feePaymentRepository = feePaymentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushSize = flushSize;
+    }
+
+    // ===== Reconciliation =====
+
+    /**
+     * Reconcile a statement with the open payments of a period
+     *
+     * @param amountTolerance   largest difference, e.g. bank charges, still accepted as the same amount
+     * @param dateToleranceDays largest settlement delay between a payment and its statement line
+     */
+    public BankReconciliationResponse reconcile(MultipartFile file, LocalDate periodFrom, LocalDate periodTo,
+                                                BigDecimal amountTolerance, int dateToleranceDays) {
+        if (file == null || file.isEmpty()) {
+            throw new BusinessException("Statement file is empty");
+        }
+        try (InputStream input = file.getInputStream()) {
+            return reconcile(input, file.getOriginalFilename(), periodFrom, periodTo, amountTolerance, dateToleranceDays);
+        } catch (IOException e) {
+            throw new BusinessException("Failed to read statement: " + e.getMessage());
+        }
+    }
+
+    BankReconciliationResponse reconcile(InputStream input, String fileName, LocalDate periodFrom, LocalDate periodTo,
+                                         BigDecimal amountTolerance, int dateToleranceDays) throws IOException {
+        String tenantId = TenantContext.requireCurrentTenant();
+        if (periodFrom == null || periodTo == null || periodFrom.isAfter(periodTo)) {
+            throw new BusinessException("Statement period is invalid");
+        }
+        BigDecimal tolerance = amountTolerance != null ? amountTolerance.abs() : BigDecimal.ZERO;
+        int dateTolerance = Math.max(0, dateToleranceDays);
+
+        BankReconciliation created = BankReconciliation.builder()
+                .fileName(fileName)
+                .periodFrom(periodFrom)
+                .periodTo(periodTo)
+                .amountTolerance(tolerance)
+                .dateToleranceDays(dateTolerance)
+                .build();
+        created.setTenantId(tenantId);
+        UUID reconciliationId = Objects.requireNonNull(transactionTemplate.execute(
+                status -> reconciliationRepository.save(created))).getId();
+
+        ReconciliationMatcher matcher = loadCandidates(tenantId, periodFrom.minusDays(dateTolerance),
+                periodTo.plusDays(dateTolerance), tolerance, dateTolerance);
+        log.info("Reconciling statement {} for tenant: {} against {} open payments", fileName, tenantId, matcher.size());
+
+        Batch batch = new Batch(tenantId, reconciliationId);
+        try {
+            BankStatementReader.read(input, fileName, line -> {
+                batch.totalLines++;
+                if (line.error() != null) {
+                    batch.addIssue(line, ReconciliationIssue.IssueReason.INVALID_LINE, null);
+                } else if (line.isDebit()) {
+                    batch.skipped++;
+                } else {
+                    ReconciliationMatcher.Outcome outcome = matcher.match(line.date(), line.amount(),
+                            line.reference(), line.description());
+                    if (outcome.match() != null) {
+                        batch.addMatch(outcome.match());
+                    } else {
+                        batch.addIssue(line, outcome.reason(), outcome.hint());
+                    }
+                }
+                if (batch.pending() >= flushSize) {
+                    flush(batch);
+                }
+            });
+            flush(batch);
+        } catch (IllegalArgumentException e) {
+            markFailed(reconciliationId, batch, e);
+            throw new BusinessException(e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            markFailed(reconciliationId, batch, e);
+            throw e;
+        }
+
+        BankReconciliation completed = Objects.requireNonNull(transactionTemplate.execute(status -> {
+            paymentTransactionRepository.confirmReconciled(tenantId, reconciliationId, LocalDateTime.now());
+            BankReconciliation run = loadRun(reconciliationId);
+            batch.copyCountsTo(run);
+            run.setStatus(ReconciliationStatus.COMPLETED);
+            run.setCompletedAt(LocalDateTime.now());
+            return run;
+        }));
+        log.info("Reconciliation {} completed: {} lines, {} matched, {} for review, {} debits skipped",
+                reconciliationId, batch.totalLines, batch.matched, batch.issues, batch.skipped);
+        return toResponse(completed);
+    }
+
+    /**
+     * Index the open payments of the period, widened by the date tolerance
+     */
+    private ReconciliationMatcher loadCandidates(String tenantId, LocalDate from, LocalDate to,
+                                                 BigDecimal amountTolerance, int dateToleranceDays) {
+        ReconciliationMatcher matcher = new ReconciliationMatcher(amountTolerance, dateToleranceDays);
+        for (Object[] row : paymentTransactionRepository.findOpenForReconciliation(tenantId,
+                from.atStartOfDay(), to.atTime(LocalTime.MAX))) {
+            matcher.add(ReconciliationMatcher.PAYMENT_TRANSACTION, (UUID) row[0], (BigDecimal) row[4],
+                    ((LocalDateTime) row[5]).toLocalDate(), (String) row[1], (String) row[2], (String) row[3]);
+        }
+        for (Object[] row : feePaymentRepository.findOpenForReconciliation(tenantId, NON_CASH_MODES, from, to)) {
+            matcher.add(ReconciliationMatcher.FEE_PAYMENT, (UUID) row[0], (BigDecimal) row[3], (LocalDate) row[4],
+                    (String) row[1], (String) row[2]);
+        }
+        return matcher;
+    }
+
+    /**
+     * Mark the buffered matches reconciled and save the buffered issues in one transaction.
+     * Pending transactions only become successful once the whole statement went through.
+     */
+    private void flush(Batch batch) {
+        if (batch.pending() == 0) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (!batch.transactionIds.isEmpty()) {
+                paymentTransactionRepository.markReconciled(batch.tenantId, batch.transactionIds,
+                        batch.reconciliationId, now);
+            }
+            if (!batch.feePaymentIds.isEmpty()) {
+                feePaymentRepository.markReconciled(batch.tenantId, batch.feePaymentIds, batch.reconciliationId, now);
+            }
+            issueRepository.saveAll(batch.issueRows);
+
+            BankReconciliation run = loadRun(batch.reconciliationId);
+            batch.copyCountsTo(run);
+        });
+        batch.clear();
+    }
+
+    /**
+     * Undo the batches already written, so the payments they matched are open again for the next upload
+     */
+    private void markFailed(UUID reconciliationId, Batch batch, Exception e) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            paymentTransactionRepository.clearReconciliation(batch.tenantId, reconciliationId, now);
+            feePaymentRepository.clearReconciliation(batch.tenantId, reconciliationId, now);
+            issueRepository.deleteByReconciliation(batch.tenantId, reconciliationId);
+
+            BankReconciliation run = loadRun(reconciliationId);
+            run.setTotalLines(batch.totalLines);
+            run.setMatchedCount(0);
+            run.setIssueCount(0);
+            run.setSkippedCount(0);
+            run.setStatus(ReconciliationStatus.FAILED);
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            run.setErrorMessage(message != null && message.length() > 1000 ? message.substring(0, 1000) : message);
+        });
+        log.warn("Reconciliation {} failed after {} lines: {}", reconciliationId, batch.totalLines, e.getMessage());
+    }
+
+    // ===== Review =====
+
+    /**
+     * Get a reconciliation summary
+     */
+    public BankReconciliationResponse getReconciliation(UUID reconciliationId) {
+        String tenantId = TenantContext.requireCurrentTenant();
+        return reconciliationRepository.findByIdAndTenantId(reconciliationId, tenantId)
+                .map(this::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Reconciliation", "id", reconciliationId));
+    }
+
+    /**
+     * Get reconciliations of the current tenant, newest first
+     */
+    public Page<BankReconciliationResponse> getReconciliations(Pageable pageable) {
+        String tenantId = TenantContext.requireCurrentTenant();
+        return reconciliationRepository.findByTenantIdOrderByCreatedAtDesc(tenantId, pageable).map(this::toResponse);
+    }
+
+    /**
+     * Get the lines of a reconciliation left for review
+     */
+    public Page<ReconciliationIssueResponse> getIssues(UUID reconciliationId, boolean unresolvedOnly, Pageable pageable) {
+        String tenantId = TenantContext.requireCurrentTenant();
+        Page<ReconciliationIssue> issues = unresolvedOnly
+                ? issueRepository.findByTenantIdAndReconciliationIdAndResolvedFalseOrderByLineNumber(
+                        tenantId, reconciliationId, pageable)
+                : issueRepository.findByTenantIdAndReconciliationIdOrderByLineNumber(tenantId, reconciliationId, pageable);
+        return issues.map(this::toResponse);
+    }
+
+    /**
+     * Close a review issue, optionally confirming that its suggested payment is settled by the line
+     */
+    public ReconciliationIssueResponse resolveIssue(UUID issueId, boolean confirmCandidate, String note) {
+        String tenantId = TenantContext.requireCurrentTenant();
+        return Objects.requireNonNull(transactionTemplate.execute(status -> {
+            ReconciliationIssue issue = issueRepository.findByIdAndTenantId(issueId, tenantId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Reconciliation issue", "id", issueId));
+            if (Boolean.TRUE.equals(issue.getResolved())) {
+                throw new BusinessException("Reconciliation issue is already resolved");
+            }
+            if (confirmCandidate) {
+                if (issue.getCandidateId() == null) {
+                    throw new BusinessException("Reconciliation issue has no suggested payment");
+                }
+                int updated = ReconciliationMatcher.FEE_PAYMENT.equals(issue.getCandidateType())
+                        ? feePaymentRepository.markReconciled(tenantId, List.of(issue.getCandidateId()),
+                                issue.getReconciliationId(), LocalDateTime.now())
+                        : paymentTransactionRepository.markReconciled(tenantId, List.of(issue.getCandidateId()),
+                                issue.getReconciliationId(), LocalDateTime.now());
+                if (updated == 0) {
+                    throw new BusinessException("Suggested payment is already reconciled");
+                }
+                paymentTransactionRepository.confirmReconciled(tenantId, issue.getReconciliationId(),
+                        LocalDateTime.now());
+                // The bulk update cleared the persistence context
+                issue = issueRepository.findByIdAndTenantId(issueId, tenantId).orElseThrow();
+            }
+            issue.setResolved(true);
+            issue.setResolutionNote(note);
+            issue.setResolvedAt(LocalDateTime.now());
+            return toResponse(issueRepository.save(issue));
+        }));
+    }
+
+    private BankReconciliation loadRun(UUID reconciliationId) {
+        return reconciliationRepository.findById(reconciliationId)
+                .orElseThrow(() -> new IllegalStateException("Reconciliation not found: " + reconciliationId));
+    }
+
+    /**
+     * Matches and issues waiting to be written, with the running totals of the reconciliation
+     */
+    private static final class Batch {
+        final String tenantId;
+        final UUID reconciliationId;
+        final List<UUID> transactionIds = new ArrayList<>();
+        final List<UUID> feePaymentIds = new ArrayList<>();
+        final List<ReconciliationIssue> issueRows = new ArrayList<>();
+        int totalLines;
+        int matched;
+        int issues;
+        int skipped;
+
+        Batch(String tenantId, UUID reconciliationId) {
+            this.tenantId = tenantId;
+            this.reconciliationId = reconciliationId;
+        }
+
+        void addMatch(ReconciliationMatcher.Candidate candidate) {
+            (ReconciliationMatcher.FEE_PAYMENT.equals(candidate.type) ? feePaymentIds : transactionIds).add(candidate.id);
+            matched++;
+        }
+
+        void addIssue(BankStatementReader.Line line, ReconciliationIssue.IssueReason reason,
+                      ReconciliationMatcher.Candidate hint) {
+            ReconciliationIssue issue = ReconciliationIssue.builder()
+                    .reconciliationId(reconciliationId)
+                    .lineNumber(line.number())
+                    .valueDate(line.date())
+                    .amount(line.amount())
+                    .reference(truncate(line.reference(), 200))
+                    .description(truncate(line.error() != null ? line.error() : line.description(), 500))
+                    .reason(reason)
+                    .candidateType(hint != null ? hint.type : null)
+                    .candidateId(hint != null ? hint.id : null)
+                    .build();
+            issue.setTenantId(tenantId);
+            issueRows.add(issue);
+            issues++;
+        }
+
+        int pending() {
+            return transactionIds.size() + feePaymentIds.size() + issueRows.size();
+        }
+
+        void clear() {
+            transactionIds.clear();
+            feePaymentIds.clear();
+            issueRows.clear();
+        }
+
+        void copyCountsTo(BankReconciliation run) {
+            run.setTotalLines(totalLines);
+            run.setMatchedCount(matched);
+            run.setIssueCount(issues);
+            run.setSkippedCount(skipped);
+        }
+
+        private static String truncate(String value, int length) {
+            return value != null && value.length() > length ? value.substring(0, length) : value;
+        }
+    }
+
+    private BankReconciliationResponse toResponse(BankReconciliation run) {
+        return BankReconciliationResponse.builder()
+                .id(run.getId())
+                .fileName(run.getFileName())
+                .periodFrom(run.getPeriodFrom())
+                .periodTo(run.getPeriodTo())
+                .amountTolerance(run.getAmountTolerance())
+                .dateToleranceDays(run.getDateToleranceDays())
+                .status(run.getStatus().name())
+                .totalLines(run.getTotalLines())
+                .matchedCount(run.getMatchedCount())
+                .issueCount(run.getIssueCount())
+                .skippedCount(run.getSkippedCount())
+                .errorMessage(run.getErrorMessage())
+                .createdAt(run.getCreatedAt())
+                .completedAt(run.getCompletedAt())
+                .build();
+    }
+
+    private ReconciliationIssueResponse toResponse(ReconciliationIssue issue) {
+        return ReconciliationIssueResponse.builder()
+                .id(issue.getId())
+                .reconciliationId(issue.getReconciliationId())
+                .lineNumber(issue.getLineNumber())
+                .valueDate(issue.getValueDate())
+                .amount(issue.getAmount())
+                .reference(issue.getReference())
+                .description(issue.getDescription())
+                .reason(issue.getReason().name())
+                .candidateType(issue.getCandidateType())
+                .candidateId(issue.getCandidateId())
+                .resolved(issue.getResolved())
+                .resolutionNote(issue.getResolutionNote())
+                .resolvedAt(issue.getResolvedAt())
+                .build();
+    }
+}
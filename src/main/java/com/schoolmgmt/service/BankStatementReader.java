@@ -0,0 +1,301 @@
+package com.schoolmgmt.service;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Streams the lines of a bank or UPI settlement statement, CSV or XLSX, one at a time.
+ * XLSX sheets are read with POI's SAX event model, so neither format is ever held in memory as a whole.
+ * The header row is found among the first rows by its column names, skipping the preamble banks put above it.
+ */
+class BankStatementReader {
+
+    private static final int HEADER_SEARCH_ROWS = 30;
+
+    private static final Set<String> DATE_HEADERS = Set.of("date", "valuedate", "txndate", "transactiondate",
+            "trandate", "postingdate", "settlementdate");
+    private static final Set<String> CREDIT_HEADERS = Set.of("credit", "creditamount", "deposit", "deposits",
+            "depositamount", "cramount", "amount", "settlementamount");
+    private static final Set<String> DEBIT_HEADERS = Set.of("debit", "debitamount", "withdrawal", "withdrawals",
+            "withdrawalamount", "dramount");
+    private static final Set<String> REFERENCE_HEADERS = Set.of("reference", "referenceno", "refno", "utr", "utrno",
+            "rrn", "transactionid", "txnid", "chequerefno", "chqrefno", "bankreference");
+    private static final Set<String> DESCRIPTION_HEADERS = Set.of("description", "narration", "remarks",
+            "particulars", "details");
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("d/M/uuuu"),
+            DateTimeFormatter.ofPattern("d-M-uuuu"),
+            DateTimeFormatter.ofPattern("d.M.uuuu"),
+            DateTimeFormatter.ofPattern("d/M/uu"),
+            new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern("d-MMM-uuuu").toFormatter(Locale.ENGLISH),
+            new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern("d MMM uuuu").toFormatter(Locale.ENGLISH),
+            new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern("d-MMM-uu").toFormatter(Locale.ENGLISH));
+
+    /**
+     * One statement line; {@code error} is set when its date or amount could not be read
+     */
+    record Line(int number, LocalDate date, BigDecimal amount, String reference, String description, String error) {
+
+        boolean isDebit() {
+            return error == null && amount.signum() <= 0;
+        }
+    }
+
+    private BankStatementReader() {
+    }
+
+    /**
+     * Read a statement, choosing the format by file name, and hand every line after the header to the consumer
+     */
+    static void read(InputStream input, String fileName, Consumer<Line> consumer) throws IOException {
+        String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+        if (name.endsWith(".xlsx")) {
+            readXlsx(input, consumer);
+        } else if (name.endsWith(".csv") || name.endsWith(".txt")) {
+            readCsv(input, consumer);
+        } else {
+            throw new IllegalArgumentException("Statement must be a .csv or .xlsx file");
+        }
+    }
+
+    static void readCsv(InputStream input, Consumer<Line> consumer) throws IOException {
+        RowParser parser = new RowParser(consumer);
+        try (CSVReader reader = new CSVReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)))) {
+            String[] row;
+            int rowNumber = 0;
+            while ((row = reader.readNext()) != null) {
+                parser.row(++rowNumber, Arrays.asList(row));
+            }
+        } catch (CsvValidationException e) {
+            throw new IOException("Malformed CSV statement: " + e.getMessage(), e);
+        }
+        parser.finish();
+    }
+
+    static void readXlsx(InputStream input, Consumer<Line> consumer) throws IOException {
+        // The zip is opened from disk so its entries are inflated on demand rather than buffered in memory
+        Path file = Files.createTempFile("statement-", ".xlsx");
+        try {
+            Files.copy(input, file, StandardCopyOption.REPLACE_EXISTING);
+            try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+                XSSFReader reader = new XSSFReader(pkg);
+                RowParser parser = new RowParser(consumer);
+                XMLReader xml = XMLHelper.newXMLReader();
+                xml.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), null,
+                        new ReadOnlySharedStringsTable(pkg), new SheetRows(parser), new IsoDateFormatter(), false));
+                Iterator<InputStream> sheets = reader.getSheetsData();
+                if (sheets.hasNext()) {
+                    try (InputStream sheet = sheets.next()) {
+                        xml.parse(new InputSource(sheet));
+                    }
+                }
+                parser.finish();
+            } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+                throw new IOException("Unreadable XLSX statement: " + e.getMessage(), e);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Collects the cells of each sheet row, which the event model reports sparsely by cell reference
+     */
+    private static final class SheetRows implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final RowParser parser;
+        private final List<String> cells = new ArrayList<>();
+
+        SheetRows(RowParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            parser.row(rowNum + 1, cells);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = new CellReference(cellReference).getCol();
+            while (cells.size() <= column) {
+                cells.add(null);
+            }
+            cells.set(column, formattedValue);
+        }
+    }
+
+    /**
+     * Formats date cells as ISO dates whatever their display format in the workbook
+     */
+    private static final class IsoDateFormatter extends DataFormatter {
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value, use1904Windowing).toLocalDate().toString();
+            }
+            return super.formatRawCellContents(value, formatIndex, formatString, use1904Windowing);
+        }
+    }
+
+    /**
+     * Finds the header row, then turns each following row into a {@link Line}
+     */
+    private static final class RowParser {
+
+        private final Consumer<Line> consumer;
+        private int dateColumn = -1;
+        private int creditColumn = -1;
+        private int debitColumn = -1;
+        private int referenceColumn = -1;
+        private int descriptionColumn = -1;
+        private boolean headerFound;
+
+        RowParser(Consumer<Line> consumer) {
+            this.consumer = consumer;
+        }
+
+        void row(int rowNumber, List<String> cells) {
+            if (!headerFound) {
+                if (rowNumber > HEADER_SEARCH_ROWS) {
+                    throw new IllegalArgumentException("Statement has no header row with date and amount columns");
+                }
+                readHeader(cells);
+                return;
+            }
+            if (cells.stream().allMatch(cell -> cell == null || cell.isBlank())) {
+                return;
+            }
+
+            String rawDate = cell(cells, dateColumn);
+            String rawCredit = cell(cells, creditColumn);
+            String rawDebit = cell(cells, debitColumn);
+            String reference = cell(cells, referenceColumn);
+            String description = cell(cells, descriptionColumn);
+
+            LocalDate date = parseDate(rawDate);
+            BigDecimal amount = parseAmount(rawCredit);
+            if (amount == null && rawCredit == null && rawDebit != null) {
+                BigDecimal debit = parseAmount(rawDebit);
+                amount = debit != null ? debit.abs().negate() : null;
+            }
+
+            String error = date == null ? "Unreadable date: " + rawDate
+                    : amount == null ? "Unreadable amount: " + (rawCredit != null ? rawCredit : rawDebit)
+                    : null;
+            consumer.accept(new Line(rowNumber, date, amount, reference, description, error));
+        }
+
+        void finish() {
+            if (!headerFound) {
+                throw new IllegalArgumentException("Statement has no header row with date and amount columns");
+            }
+        }
+
+        private void readHeader(List<String> cells) {
+            int date = -1, credit = -1, debit = -1, reference = -1, description = -1;
+            for (int i = 0; i < cells.size(); i++) {
+                String header = normalizeHeader(cells.get(i));
+                if (date < 0 && DATE_HEADERS.contains(header)) date = i;
+                else if (credit < 0 && CREDIT_HEADERS.contains(header)) credit = i;
+                else if (debit < 0 && DEBIT_HEADERS.contains(header)) debit = i;
+                else if (reference < 0 && REFERENCE_HEADERS.contains(header)) reference = i;
+                else if (description < 0 && DESCRIPTION_HEADERS.contains(header)) description = i;
+            }
+            if (date >= 0 && credit >= 0) {
+                dateColumn = date;
+                creditColumn = credit;
+                debitColumn = debit;
+                referenceColumn = reference;
+                descriptionColumn = description;
+                headerFound = true;
+            }
+        }
+
+        private static String cell(List<String> cells, int column) {
+            if (column < 0 || column >= cells.size() || cells.get(column) == null) {
+                return null;
+            }
+            String value = cells.get(column).trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    static String normalizeHeader(String header) {
+        return header == null ? "" : header.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+
+    static LocalDate parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        // Timestamps keep only their date part
+        String date = value.trim().replaceFirst("[ T]\\d{1,2}:\\d{2}.*$", "");
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(date, format);
+            } catch (DateTimeParseException e) {
+                // Try the next format
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parse an amount such as "1,25,000.00", "₹ 500", "500.00 CR" or "(200.00)"; debits ("DR", brackets) are negative
+     */
+    static BigDecimal parseAmount(String value) {
+        if (value == null) {
+            return null;
+        }
+        String amount = value.trim().toUpperCase(Locale.ROOT);
+        boolean negative = amount.endsWith("DR") || (amount.startsWith("(") && amount.endsWith(")"))
+                || amount.startsWith("-");
+        amount = amount.replaceAll("[^0-9.]", "");
+        if (amount.isEmpty()) {
+            return null;
+        }
+        try {
+            BigDecimal parsed = new BigDecimal(amount);
+            return negative ? parsed.negate() : parsed;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.schoolmgmt.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for per-tenant version counters of cached read models.
+ * Counters live in Redis so every node hands out the same version (and ETag) for the same data.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CacheVersionService {
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private static final String VERSION_PREFIX = "cache-version:";
+
+    /**
+     * Get the current version of a tenant-scoped read model
+     */
+    public long currentVersion(String scope, String tenantId) {
+        String key = key(scope, tenantId);
+        String value = redisTemplate.opsForValue().get(key);
+        if (value == null) {
+            seed(key);
+            value = redisTemplate.opsForValue().get(key);
+        }
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+
+    /**
+     * Advance the version of a tenant-scoped read model after its data changed
+     */
+    public long bumpVersion(String scope, String tenantId) {
+        String key = key(scope, tenantId);
+        seed(key);
+        Long version = redisTemplate.opsForValue().increment(key);
+        log.debug("Cache version bumped: {} -> {}", key, version);
+        return version != null ? version : 0L;
+    }
+
+    /**
+     * Build a strong ETag for the current version of a tenant-scoped read model
+     */
+    public String etag(String scope, String tenantId) {
+        return "\"" + scope + "-" + currentVersion(scope, tenantId) + "\"";
+    }
+
+    /**
+     * Start missing counters from the clock so a Redis flush never re-issues an ETag a client may still hold
+     */
+    private void seed(String key) {
+        redisTemplate.opsForValue().setIfAbsent(key, String.valueOf(System.currentTimeMillis()));
+    }
+
+    private String key(String scope, String tenantId) {
+        return VERSION_PREFIX + scope + ":" + tenantId;
+    }
+}
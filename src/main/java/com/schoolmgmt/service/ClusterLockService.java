@@ -0,0 +1,80 @@
+package com.schoolmgmt.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs jobs on at most one node of the cluster at a time.
+ * On PostgreSQL a named job holds a session-level advisory lock on a dedicated connection while it runs,
+ * so its own transactions commit independently. Other databases (tests, local H2) fall back to a lock
+ * within this node only.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterLockService {
+
+    private final DataSource dataSource;
+
+    private final ConcurrentMap<String, ReentrantLock> localLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Run a task unless another node or thread is already running one under the same name
+     *
+     * @return false when the lock was held elsewhere and the task was skipped
+     */
+    public boolean runExclusively(String lockName, Runnable task) {
+        ReentrantLock localLock = localLocks.computeIfAbsent(lockName, name -> new ReentrantLock());
+        if (!localLock.tryLock()) {
+            return false;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            boolean advisory = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+            long key = lockKey(lockName);
+            if (advisory && !advisoryLock(connection, "SELECT pg_try_advisory_lock(?)", key)) {
+                log.debug("Lock {} is held by another node", lockName);
+                return false;
+            }
+            try {
+                task.run();
+                return true;
+            } finally {
+                if (advisory) {
+                    advisoryLock(connection, "SELECT pg_advisory_unlock(?)", key);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not take lock " + lockName, e);
+        } finally {
+            localLock.unlock();
+        }
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql, long key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, key);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Stable 64-bit key of a lock name, the same on every node
+     */
+    static long lockKey(String lockName) {
+        return UUID.nameUUIDFromBytes(lockName.getBytes(StandardCharsets.UTF_8)).getMostSignificantBits();
+    }
+}
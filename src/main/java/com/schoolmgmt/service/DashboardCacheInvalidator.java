@@ -0,0 +1,65 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.event.ExamResultsChangedEvent;
+import com.schoolmgmt.event.StudentDataChangedEvent;
+import com.schoolmgmt.event.TenantUsageChangedEvent;
+import com.schoolmgmt.event.UserDataChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts the per-tenant statistics dashboards and advances their versions once a change has committed.
+ * Exam statistics are evicted per exam.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardCacheInvalidator {
+
+    public static final String STUDENT_STATISTICS = "student-statistics";
+    public static final String TENANT_STATISTICS = "tenant-statistics";
+
+    private final CacheManager cacheManager;
+    private final CacheVersionService cacheVersionService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStudentDataChanged(StudentDataChangedEvent event) {
+        invalidate(STUDENT_STATISTICS, event.getTenantId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDataChanged(UserDataChangedEvent event) {
+        invalidate(TENANT_STATISTICS, event.getTenantId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTenantUsageChanged(TenantUsageChangedEvent event) {
+        invalidate(TENANT_STATISTICS, event.getTenantId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExamResultsChanged(ExamResultsChangedEvent event) {
+        Cache cache = cacheManager.getCache(ExamService.EXAM_STATISTICS);
+        if (cache != null && event.getTenantId() != null) {
+            cache.evict(event.getTenantId() + ":" + event.getExamId());
+        }
+        log.debug("Invalidated exam statistics for exam: {}", event.getExamId());
+    }
+
+    private void invalidate(String cacheName, String tenantId) {
+        if (tenantId == null) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(tenantId);
+        }
+        cacheVersionService.bumpVersion(cacheName, tenantId);
+        log.debug("Invalidated {} for tenant: {}", cacheName, tenantId);
+    }
+}
@@ -0,0 +1,404 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.response.LeaderboardResponse;
+import com.schoolmgmt.event.ExamResultsChangedEvent;
+import com.schoolmgmt.repository.ExamResultRepository;
+import com.schoolmgmt.util.TenantContext;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Live per-exam leaderboards for rank lookups during results publication.
+ * Each board counts students per mark in a Fenwick tree, so a student's rank is one prefix sum, and keeps the
+ * standings sorted for the top N. Boards are built on first access and updated in place as marks commit.
+ * Redis holds a sorted set and a change counter per exam; a node whose board is behind the counter rebuilds it
+ * from the sorted set rather than from the database.
+ */
+@Service
+@Slf4j
+public class ExamLeaderboardService {
+
+    private static final String KEY_PREFIX = "leaderboard:";
+
+    private final ExamResultRepository resultRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final long syncIntervalMillis;
+    private final Duration redisTtl;
+
+    private final Map<String, Board> boards = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public ExamLeaderboardService(ExamResultRepository resultRepository,
+                                  RedisTemplate<String, String> redisTemplate,
+                                  @Value("${app.leaderboard.sync-interval-ms:2000}") long syncIntervalMillis,
+                                  @Value("${app.leaderboard.redis-ttl-hours:72}") long redisTtlHours) {
+        this.resultRepository = resultRepository;
+        this.redisTemplate = redisTemplate;
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.redisTtl = Duration.ofHours(redisTtlHours);
+    }
+
+    /**
+     * Get the top students of an exam by marks
+     */
+    public LeaderboardResponse getTop(UUID examId, int limit) {
+        Board board = board(TenantContext.getCurrentTenant(), examId);
+        return LeaderboardResponse.builder()
+                .examId(examId)
+                .participants(board.size())
+                .standings(board.top(limit))
+                .build();
+    }
+
+    /**
+     * Get the rank of one student in an exam
+     */
+    public LeaderboardResponse getStanding(UUID examId, UUID studentId) {
+        Board board = board(TenantContext.getCurrentTenant(), examId);
+        LeaderboardResponse.Standing standing = board.standing(studentId);
+        if (standing == null) {
+            throw new NoSuchElementException("No ranked result for student " + studentId + " in exam " + examId);
+        }
+        return LeaderboardResponse.builder()
+                .examId(examId)
+                .participants(board.size())
+                .standings(List.of(standing))
+                .build();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExamResultsChanged(ExamResultsChangedEvent event) {
+        String key = key(event.getTenantId(), event.getExamId());
+        List<ExamResultsChangedEvent.ResultChange> changes = event.getChanges();
+        generations.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        Board board = changes != null ? boards.get(key) : null;
+        if (board != null) {
+            board.apply(changes);
+        } else {
+            boards.remove(key);
+        }
+
+        try {
+            if (changes == null) {
+                redisTemplate.delete(List.of(key, key + ":names"));
+            } else if (Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
+                publish(key, changes);
+            }
+            Long version = redisTemplate.opsForValue().increment(key + ":version");
+            redisTemplate.expire(key + ":version", redisTtl);
+            if (board != null && version != null) {
+                board.synced(version);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not share leaderboard changes of exam {} through Redis: {}", event.getExamId(), e.getMessage());
+        }
+    }
+
+    private Board board(String tenantId, UUID examId) {
+        String key = key(tenantId, examId);
+        Board board = boards.get(key);
+        long now = System.currentTimeMillis();
+        if (board != null && now - board.checkedAt < syncIntervalMillis) {
+            return board;
+        }
+
+        // Unknown version means Redis is unreachable; keep serving the local board until it is back
+        Long version = redisVersion(key);
+        if (board != null && (version == null || version == board.syncedVersion)) {
+            board.checkedAt = now;
+            return board;
+        }
+
+        AtomicLong generation = generations.computeIfAbsent(key, k -> new AtomicLong());
+        long loadedAt = generation.get();
+        Board fromRedis = version != null ? loadFromRedis(key, version) : null;
+        Board loaded = fromRedis != null ? fromRedis : loadFromDatabase(tenantId, examId, key, version);
+        // Marks committed while loading may be missing from the snapshot; serve it for this call but don't keep it
+        boards.compute(key, (k, current) -> generation.get() == loadedAt ? loaded : current);
+        return loaded;
+    }
+
+    private Board loadFromRedis(String key, long version) {
+        try {
+            Set<ZSetOperations.TypedTuple<String>> tuples = redisTemplate.opsForZSet().rangeWithScores(key, 0, -1);
+            if (tuples == null || tuples.isEmpty()) {
+                return null;
+            }
+            Map<Object, Object> names = redisTemplate.opsForHash().entries(key + ":names");
+            Board board = new Board(version);
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                if (tuple.getValue() != null && tuple.getScore() != null) {
+                    board.put(UUID.fromString(tuple.getValue()), (String) names.get(tuple.getValue()), tuple.getScore());
+                }
+            }
+            log.debug("Rebuilt leaderboard {} from Redis: {} students", key, board.size());
+            return board;
+        } catch (RuntimeException e) {
+            log.warn("Could not read leaderboard {} from Redis: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private Board loadFromDatabase(String tenantId, UUID examId, String key, Long version) {
+        long start = System.nanoTime();
+        Board board = new Board(version != null ? version : -1);
+        List<Object[]> rows = resultRepository.findLeaderboardEntries(tenantId, examId);
+        for (Object[] row : rows) {
+            if (row[2] != null) {
+                board.put((UUID) row[0], (String) row[1], ((Number) row[2]).doubleValue());
+            }
+        }
+        if (version != null && board.size() > 0) {
+            seedRedis(key, version, board);
+        }
+        log.info("Loaded leaderboard of exam {} for tenant {}: {} students in {} us",
+                examId, tenantId, board.size(), (System.nanoTime() - start) / 1_000);
+        return board;
+    }
+
+    // Share a board loaded from the database; drop it again if marks changed on another node meanwhile
+    private void seedRedis(String key, long version, Board board) {
+        try {
+            Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>();
+            Map<String, String> names = new HashMap<>();
+            board.forEach(entry -> {
+                tuples.add(ZSetOperations.TypedTuple.of(entry.getStudentId().toString(), entry.getMarks()));
+                if (entry.getStudentName() != null) {
+                    names.put(entry.getStudentId().toString(), entry.getStudentName());
+                }
+            });
+            redisTemplate.opsForZSet().add(key, tuples);
+            if (!names.isEmpty()) {
+                redisTemplate.opsForHash().putAll(key + ":names", names);
+            }
+            redisTemplate.expire(key, redisTtl);
+            redisTemplate.expire(key + ":names", redisTtl);
+            if (!Objects.equals(redisVersion(key), version)) {
+                redisTemplate.delete(List.of(key, key + ":names"));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not share leaderboard {} through Redis: {}", key, e.getMessage());
+        }
+    }
+
+    private void publish(String key, List<ExamResultsChangedEvent.ResultChange> changes) {
+        Set<ZSetOperations.TypedTuple<String>> ranked = new HashSet<>();
+        Map<String, String> names = new HashMap<>();
+        List<Object> removed = new ArrayList<>();
+        for (ExamResultsChangedEvent.ResultChange change : changes) {
+            String member = change.getStudentId().toString();
+            if (change.isAbsent() || change.getMarksObtained() == null) {
+                removed.add(member);
+            } else {
+                ranked.add(ZSetOperations.TypedTuple.of(member, change.getMarksObtained()));
+                if (change.getStudentName() != null) {
+                    names.put(member, change.getStudentName());
+                }
+            }
+        }
+        if (!ranked.isEmpty()) {
+            redisTemplate.opsForZSet().add(key, ranked);
+        }
+        if (!names.isEmpty()) {
+            redisTemplate.opsForHash().putAll(key + ":names", names);
+        }
+        if (!removed.isEmpty()) {
+            redisTemplate.opsForZSet().remove(key, removed.toArray());
+            redisTemplate.opsForHash().delete(key + ":names", removed.toArray());
+        }
+    }
+
+    private Long redisVersion(String key) {
+        try {
+            String value = redisTemplate.opsForValue().get(key + ":version");
+            return value != null ? Long.parseLong(value) : 0L;
+        } catch (RuntimeException e) {
+            log.warn("Could not read leaderboard version {} from Redis: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String key(String tenantId, UUID examId) {
+        return KEY_PREFIX + tenantId + ":" + examId;
+    }
+
+    /**
+     * Ranking of one exam. Marks are bucketed to two decimals; the Fenwick tree counts students per bucket,
+     * so the number of students above a mark is the total minus a prefix sum.
+     */
+    static final class Board {
+
+        private static final int SCALE = 100;
+        private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::getMarks).reversed()
+                .thenComparing(Entry::getStudentName, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Entry::getStudentId);
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<UUID, Entry> byStudent = new HashMap<>();
+        private final NavigableSet<Entry> ordered = new TreeSet<>(ORDER);
+        private int[] tree = new int[100 * SCALE + 2];
+        private volatile long syncedVersion;
+        private volatile long checkedAt = System.currentTimeMillis();
+
+        Board(long syncedVersion) {
+            this.syncedVersion = syncedVersion;
+        }
+
+        void put(UUID studentId, String studentName, double marks) {
+            lock.writeLock().lock();
+            try {
+                remove(studentId);
+                Entry entry = new Entry(studentId, studentName, marks, bucket(marks));
+                if (entry.getBucket() + 1 >= tree.length) {
+                    grow(entry.getBucket());
+                }
+                byStudent.put(studentId, entry);
+                ordered.add(entry);
+                add(entry.getBucket(), 1);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(UUID studentId) {
+            lock.writeLock().lock();
+            try {
+                Entry entry = byStudent.remove(studentId);
+                if (entry != null) {
+                    ordered.remove(entry);
+                    add(entry.getBucket(), -1);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void apply(List<ExamResultsChangedEvent.ResultChange> changes) {
+            lock.writeLock().lock();
+            try {
+                for (ExamResultsChangedEvent.ResultChange change : changes) {
+                    if (change.isAbsent() || change.getMarksObtained() == null) {
+                        remove(change.getStudentId());
+                    } else {
+                        put(change.getStudentId(), change.getStudentName(), change.getMarksObtained());
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // The board is in step with Redis only if no other node changed the exam since it was last synced
+        void synced(long version) {
+            lock.writeLock().lock();
+            try {
+                if (version == syncedVersion + 1) {
+                    syncedVersion = version;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        LeaderboardResponse.Standing standing(UUID studentId) {
+            lock.readLock().lock();
+            try {
+                Entry entry = byStudent.get(studentId);
+                return entry != null ? toStanding(entry) : null;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<LeaderboardResponse.Standing> top(int limit) {
+            lock.readLock().lock();
+            try {
+                List<LeaderboardResponse.Standing> standings = new ArrayList<>(Math.min(limit, ordered.size()));
+                for (Entry entry : ordered) {
+                    if (standings.size() >= limit) {
+                        break;
+                    }
+                    standings.add(toStanding(entry));
+                }
+                return standings;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return byStudent.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void forEach(Consumer<Entry> action) {
+            lock.readLock().lock();
+            try {
+                byStudent.values().forEach(action);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private LeaderboardResponse.Standing toStanding(Entry entry) {
+            return LeaderboardResponse.Standing.builder()
+                    .studentId(entry.getStudentId())
+                    .studentName(entry.getStudentName())
+                    .marksObtained(entry.getMarks())
+                    .rank(1 + byStudent.size() - prefix(entry.getBucket()))
+                    .build();
+        }
+
+        private void add(int bucket, int delta) {
+            for (int i = bucket + 1; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        // Number of students with marks at or below the bucket
+        private int prefix(int bucket) {
+            int count = 0;
+            for (int i = bucket + 1; i > 0; i -= i & -i) {
+                count += tree[i];
+            }
+            return count;
+        }
+
+        private void grow(int bucket) {
+            tree = new int[Math.max(tree.length * 2, bucket + 2)];
+            byStudent.values().forEach(entry -> add(entry.getBucket(), 1));
+        }
+
+        private static int bucket(double marks) {
+            return (int) Math.round(Math.max(0, marks) * SCALE);
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static final class Entry {
+        private final UUID studentId;
+        private final String studentName;
+        private final double marks;
+        private final int bucket;
+    }
+}
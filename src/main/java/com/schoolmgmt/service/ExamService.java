@@ -1,5 +1,10 @@
 package com.schoolmgmt.service;
 
+import com.schoolmgmt.dto.request.MarksEntryRequest;
+import com.schoolmgmt.dto.response.BulkMarksResult;
+import com.schoolmgmt.dto.response.ExamStatistics;
+import com.schoolmgmt.event.ExamResultsChangedEvent;
+import com.schoolmgmt.event.ExamUpdatedEvent;
 import com.schoolmgmt.model.Exam;
 import com.schoolmgmt.model.ExamResult;
 import com.schoolmgmt.model.ExamType;
@@ -9,11 +14,14 @@ import com.schoolmgmt.repository.ExamTypeRepository;
 import com.schoolmgmt.util.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -25,6 +33,9 @@ public class ExamService {
     private final ExamRepository examRepository;
     private final ExamResultRepository resultRepository;
     private final ExamTypeRepository examTypeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public static final String EXAM_STATISTICS = "exam-statistics";
 
     // ===== Exam Type Operations =====
 
@@ -129,12 +140,15 @@ public class ExamService {
         if (updated.getStatus() != null) existing.setStatus(updated.getStatus());
         if (updated.getInstructions() != null) existing.setInstructions(updated.getInstructions());
 
-        return examRepository.save(existing);
+        Exam saved = examRepository.save(existing);
+        eventPublisher.publishEvent(new ExamUpdatedEvent(saved.getTenantId(), saved.getId()));
+        return saved;
     }
 
     @Transactional
     public void deleteExam(UUID examId) {
         examRepository.deleteById(examId);
+        eventPublisher.publishEvent(new ExamUpdatedEvent(TenantContext.getCurrentTenant(), examId));
     }
 
     // ===== Exam Result Operations =====
@@ -154,20 +168,141 @@ public class ExamService {
             existing.setMaxMarks(result.getMaxMarks());
             existing.setIsAbsent(result.getIsAbsent());
             existing.setRemarks(result.getRemarks());
+            publishChanges(tenantId, result.getExam().getId(), List.of(existing));
             return resultRepository.save(existing);
         }
 
         log.info("Entering marks for student: {} in exam: {}",
                 result.getStudentId(), result.getExam().getId());
+        publishChanges(tenantId, result.getExam().getId(), List.of(result));
         return resultRepository.save(result);
     }
 
+    /**
+     * Upsert a marks sheet for one exam, keyed by student.
+     * Rows are checked against the exam's maximum marks in memory, and rows matching the stored result are
+     * left alone, so resubmitting the same sheet is a no-op. A row carrying a version is rejected if the
+     * result has changed since. All writes are flushed together as JDBC batches.
+     */
     @Transactional
-    public List<ExamResult> enterBulkMarks(List<ExamResult> results) {
+    public BulkMarksResult upsertMarks(UUID examId, List<MarksEntryRequest> entries, String enteredBy) {
         String tenantId = TenantContext.getCurrentTenant();
-        results.forEach(r -> r.setTenantId(tenantId));
-        log.info("Entering bulk marks for {} students", results.size());
-        return resultRepository.saveAll(results);
+        Exam exam = getExamById(examId);
+        Map<UUID, ExamResult> existing = new HashMap<>();
+        for (ExamResult result : resultRepository.findByExamId(examId)) {
+            existing.put(result.getStudentId(), result);
+        }
+
+        BulkMarksResult.Outcome[] outcomes = new BulkMarksResult.Outcome[entries.size()];
+        String[] messages = new String[entries.size()];
+        ExamResult[] results = new ExamResult[entries.size()];
+        List<ExamResult> toSave = new ArrayList<>();
+        Set<UUID> seen = new HashSet<>();
+
+        for (int i = 0; i < entries.size(); i++) {
+            MarksEntryRequest entry = entries.get(i);
+            boolean absent = Boolean.TRUE.equals(entry.getIsAbsent());
+            String problem = validateMarks(entry, absent, exam.getMaxMarks(), seen);
+            if (problem != null) {
+                outcomes[i] = BulkMarksResult.Outcome.INVALID;
+                messages[i] = problem;
+                continue;
+            }
+
+            double marks = absent ? 0.0 : entry.getMarksObtained();
+            ExamResult current = existing.get(entry.getStudentId());
+            results[i] = current;
+            if (current == null) {
+                results[i] = ExamResult.builder()
+                        .tenantId(tenantId)
+                        .exam(exam)
+                        .studentId(entry.getStudentId())
+                        .studentName(entry.getStudentName())
+                        .marksObtained(marks)
+                        .maxMarks(exam.getMaxMarks())
+                        .isAbsent(absent)
+                        .remarks(entry.getRemarks())
+                        .enteredBy(enteredBy)
+                        .build();
+                toSave.add(results[i]);
+                outcomes[i] = BulkMarksResult.Outcome.INSERTED;
+            } else if (entry.getVersion() != null && !entry.getVersion().equals(current.getVersion())) {
+                outcomes[i] = BulkMarksResult.Outcome.CONFLICT;
+                messages[i] = "Result was changed by someone else since version " + entry.getVersion();
+            } else if (current.getMarksObtained() == marks && Boolean.TRUE.equals(current.getIsAbsent()) == absent
+                    && Objects.equals(current.getRemarks(), entry.getRemarks())
+                    && Objects.equals(current.getMaxMarks(), exam.getMaxMarks())) {
+                outcomes[i] = BulkMarksResult.Outcome.UNCHANGED;
+            } else {
+                current.setMarksObtained(marks);
+                current.setMaxMarks(exam.getMaxMarks());
+                current.setIsAbsent(absent);
+                current.setRemarks(entry.getRemarks());
+                current.setEnteredBy(enteredBy);
+                if (entry.getStudentName() != null) {
+                    current.setStudentName(entry.getStudentName());
+                }
+                toSave.add(current);
+                outcomes[i] = BulkMarksResult.Outcome.UPDATED;
+            }
+        }
+
+        if (!toSave.isEmpty()) {
+            // Flush here so every row comes back with its id and new version; a stale row fails the whole sheet
+            resultRepository.saveAllAndFlush(toSave);
+            publishChanges(tenantId, examId, toSave);
+        }
+
+        List<BulkMarksResult.RowOutcome> rows = new ArrayList<>(entries.size());
+        EnumMap<BulkMarksResult.Outcome, Integer> counts = new EnumMap<>(BulkMarksResult.Outcome.class);
+        for (int i = 0; i < entries.size(); i++) {
+            counts.merge(outcomes[i], 1, Integer::sum);
+            rows.add(BulkMarksResult.RowOutcome.builder()
+                    .index(i)
+                    .studentId(entries.get(i).getStudentId())
+                    .outcome(outcomes[i])
+                    .resultId(results[i] != null ? results[i].getId() : null)
+                    .version(results[i] != null ? results[i].getVersion() : null)
+                    .message(messages[i])
+                    .build());
+        }
+        log.info("Upserted marks for exam {}: {} of {} rows written", examId, toSave.size(), entries.size());
+        return BulkMarksResult.builder()
+                .examId(examId)
+                .inserted(counts.getOrDefault(BulkMarksResult.Outcome.INSERTED, 0))
+                .updated(counts.getOrDefault(BulkMarksResult.Outcome.UPDATED, 0))
+                .unchanged(counts.getOrDefault(BulkMarksResult.Outcome.UNCHANGED, 0))
+                .conflicts(counts.getOrDefault(BulkMarksResult.Outcome.CONFLICT, 0))
+                .invalid(counts.getOrDefault(BulkMarksResult.Outcome.INVALID, 0))
+                .rows(rows)
+                .build();
+    }
+
+    private void publishChanges(String tenantId, UUID examId, List<ExamResult> written) {
+        List<ExamResultsChangedEvent.ResultChange> changes = written.stream()
+                .map(r -> new ExamResultsChangedEvent.ResultChange(r.getStudentId(), r.getStudentName(),
+                        r.getMarksObtained(), Boolean.TRUE.equals(r.getIsAbsent())))
+                .toList();
+        eventPublisher.publishEvent(new ExamResultsChangedEvent(tenantId, examId, changes));
+    }
+
+    private static String validateMarks(MarksEntryRequest entry, boolean absent, Integer maxMarks, Set<UUID> seen) {
+        if (entry.getStudentId() == null) {
+            return "Student is required";
+        }
+        if (!seen.add(entry.getStudentId())) {
+            return "Student appears more than once in the sheet";
+        }
+        if (absent) {
+            return null;
+        }
+        if (entry.getMarksObtained() == null) {
+            return "Marks are required unless the student is absent";
+        }
+        if (entry.getMarksObtained() < 0 || (maxMarks != null && entry.getMarksObtained() > maxMarks)) {
+            return "Marks must be between 0 and " + maxMarks;
+        }
+        return null;
     }
 
     @Transactional(readOnly = true)
@@ -186,28 +321,75 @@ public class ExamService {
         return resultRepository.findByTenantIdAndStudentId(tenantId, studentId);
     }
 
+    /**
+     * Get result statistics of an exam, computed in one SQL pass and cached until its marks change
+     */
     @Transactional(readOnly = true)
-    public Map<String, Object> getExamStatistics(UUID examId) {
-        List<ExamResult> results = resultRepository.findByExamIdOrderByMarksDesc(examId);
-        Double avgPercentage = resultRepository.getAveragePercentageByExamId(examId);
-        Long passed = resultRepository.countPassedByExamId(examId);
-        Long failed = resultRepository.countFailedByExamId(examId);
+    @Cacheable(value = EXAM_STATISTICS,
+            key = "T(com.schoolmgmt.util.TenantContext).requireCurrentTenant() + ':' + #examId")
+    public ExamStatistics getExamStatistics(UUID examId) {
+        String tenantId = TenantContext.getCurrentTenant();
+        List<Object[]> rows = resultRepository.computeExamStatistics(tenantId, examId);
+
+        List<ExamStatistics.StudentStanding> rankings = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Double percentRank = toDouble(row[7]);
+            rankings.add(ExamStatistics.StudentStanding.builder()
+                    .studentId(toUuid(row[0]))
+                    .studentName((String) row[1])
+                    .marksObtained(toDouble(row[2]))
+                    .percentage(toDouble(row[3]))
+                    .resultStatus((String) row[4])
+                    .rank(row[6] != null ? ((Number) row[6]).intValue() : null)
+                    .percentile(percentRank != null ? Math.round(percentRank * 10_000) / 100.0 : null)
+                    .build());
+        }
 
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("totalStudents", results.size());
-        stats.put("averagePercentage", avgPercentage != null ? avgPercentage : 0.0);
-        stats.put("passed", passed);
-        stats.put("failed", failed);
-        stats.put("passPercentage", results.isEmpty() ? 0.0
-                : (passed.doubleValue() / results.size()) * 100);
+        ExamStatistics.ExamStatisticsBuilder stats = ExamStatistics.builder()
+                .examId(examId)
+                .rankings(rankings);
+        if (rows.isEmpty()) {
+            return stats.build();
+        }
 
-        if (!results.isEmpty()) {
-            stats.put("highestMarks", results.get(0).getMarksObtained());
-            stats.put("lowestMarks", results.get(results.size() - 1).getMarksObtained());
-            stats.put("topper", results.get(0).getStudentName());
+        Object[] first = rows.get(0);
+        int total = ((Number) first[8]).intValue();
+        int appeared = ((Number) first[9]).intValue();
+        long passed = ((Number) first[19]).longValue();
+        Double meanPercentage = toDouble(first[11]);
+        stats.totalStudents(total)
+                .appeared(appeared)
+                .absent(total - appeared)
+                .passed(passed)
+                .failed(((Number) first[20]).longValue())
+                .passPercentage((double) passed / total * 100)
+                .averagePercentage(meanPercentage != null ? meanPercentage : 0.0)
+                .meanMarks(toDouble(first[10]))
+                .medianMarks(toDouble(first[12]))
+                .percentile25(toDouble(first[13]))
+                .percentile75(toDouble(first[14]))
+                .percentile90(toDouble(first[15]))
+                .standardDeviation(toDouble(first[16]))
+                .highestMarks(toDouble(first[17]))
+                .lowestMarks(toDouble(first[18]));
+        if (appeared > 0) {
+            stats.topper(rankings.get(0).getStudentName())
+                    .topperStudentId(rankings.get(0).getStudentId());
         }
+        return stats.build();
+    }
+
+    private static Double toDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : null;
+    }
 
-        return stats;
+    // Native queries return UUID columns as UUID on PostgreSQL but as raw bytes on some drivers
+    private static UUID toUuid(Object value) {
+        if (value instanceof byte[] bytes) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return new UUID(buffer.getLong(), buffer.getLong());
+        }
+        return value instanceof String text ? UUID.fromString(text) : (UUID) value;
     }
 
     /**
@@ -222,26 +404,31 @@ public class ExamService {
         reportCard.put("studentId", studentId);
         reportCard.put("results", results);
 
-        // Calculate overall percentage
+        double overallPercentage = overallPercentage(results);
+        reportCard.put("overallPercentage", overallPercentage);
+        reportCard.put("overallGrade", getOverallGrade(overallPercentage));
+        reportCard.put("totalExams", results.size());
+        reportCard.put("examsTaken", results.stream().filter(r -> !r.getIsAbsent()).count());
+
+        return reportCard;
+    }
+
+    /**
+     * Marks obtained over maximum marks across the exams a student sat, as a percentage
+     */
+    static double overallPercentage(List<ExamResult> results) {
         double totalMarks = 0;
         double totalMaxMarks = 0;
         for (ExamResult result : results) {
-            if (!result.getIsAbsent()) {
+            if (!Boolean.TRUE.equals(result.getIsAbsent())) {
                 totalMarks += result.getMarksObtained();
                 totalMaxMarks += result.getMaxMarks();
             }
         }
-
-        double overallPercentage = totalMaxMarks > 0 ? (totalMarks / totalMaxMarks) * 100 : 0;
-        reportCard.put("overallPercentage", overallPercentage);
-        reportCard.put("overallGrade", getOverallGrade(overallPercentage));
-        reportCard.put("totalExams", results.size());
-        reportCard.put("examsTaken", results.stream().filter(r -> !r.getIsAbsent()).count());
-
-        return reportCard;
+        return totalMaxMarks > 0 ? (totalMarks / totalMaxMarks) * 100 : 0;
     }
 
-    private String getOverallGrade(double percentage) {
+    static String getOverallGrade(double percentage) {
         if (percentage >= 90) return "A+";
         if (percentage >= 80) return "A";
         if (percentage >= 70) return "B+";
@@ -0,0 +1,150 @@
+package com.schoolmgmt.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * OAuth2 access tokens for the FCM HTTP v1 API, obtained with a service-account key file.
+ * A JWT signed with the account's private key is exchanged at the key's token URI, and the access token is
+ * reused until shortly before it expires or until FCM rejects it.
+ */
+@Slf4j
+class FcmCredentials {
+
+    static final String SCOPE = "https://www.googleapis.com/auth/firebase.messaging";
+
+    private static final Duration ASSERTION_LIFETIME = Duration.ofHours(1);
+    private static final Duration EXPIRY_MARGIN = Duration.ofMinutes(1);
+
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final String clientEmail;
+    private final String keyId;
+    private final String projectId;
+    private final URI tokenUri;
+    private final PrivateKey privateKey;
+
+    private String accessToken;
+    private Instant expiresAt = Instant.MIN;
+
+    FcmCredentials(Path keyFile, ObjectMapper objectMapper, HttpClient httpClient, Duration requestTimeout) {
+        this.objectMapper = objectMapper;
+        this.httpClient = httpClient;
+        this.requestTimeout = requestTimeout;
+        try {
+            JsonNode key = objectMapper.readTree(Files.readAllBytes(keyFile));
+            this.clientEmail = key.path("client_email").asText();
+            this.keyId = key.path("private_key_id").asText(null);
+            this.projectId = key.path("project_id").asText(null);
+            this.tokenUri = URI.create(key.path("token_uri").asText("https://oauth2.googleapis.com/token"));
+            this.privateKey = readPrivateKey(key.path("private_key").asText());
+        } catch (IOException | GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Could not read FCM service account key " + keyFile, e);
+        }
+    }
+
+    String projectId() {
+        return projectId;
+    }
+
+    /**
+     * Get a valid access token, fetching a new one when the cached one is about to expire
+     *
+     * @throws IOException when the token endpoint cannot be reached or fails on its side
+     * @throws IllegalStateException when the token endpoint rejects the service account
+     */
+    synchronized String accessToken() throws IOException {
+        if (accessToken != null && Instant.now().isBefore(expiresAt)) {
+            return accessToken;
+        }
+        HttpRequest request = HttpRequest.newBuilder(tokenUri)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("grant_type="
+                        + URLEncoder.encode("urn:ietf:params:oauth:grant-type:jwt-bearer", StandardCharsets.UTF_8)
+                        + "&assertion=" + assertion()))
+                .build();
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted fetching an FCM access token", e);
+        }
+        if (response.statusCode() == 429 || response.statusCode() >= 500) {
+            throw new IOException("FCM token endpoint returned " + response.statusCode());
+        }
+        JsonNode body = objectMapper.readTree(response.body());
+        if (response.statusCode() != 200 || !body.hasNonNull("access_token")) {
+            throw new IllegalStateException("FCM token endpoint rejected the service account with status "
+                    + response.statusCode() + ": " + body.path("error").asText());
+        }
+        accessToken = body.path("access_token").asText();
+        expiresAt = Instant.now().plusSeconds(body.path("expires_in").asLong(3600)).minus(EXPIRY_MARGIN);
+        log.debug("Fetched FCM access token valid until {}", expiresAt);
+        return accessToken;
+    }
+
+    /**
+     * Forget an access token FCM no longer accepts, unless it was already replaced
+     */
+    synchronized void invalidate(String rejectedToken) {
+        if (rejectedToken.equals(accessToken)) {
+            accessToken = null;
+        }
+    }
+
+    private String assertion() {
+        Instant now = Instant.now();
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("alg", "RS256");
+        header.put("typ", "JWT");
+        if (keyId != null) {
+            header.put("kid", keyId);
+        }
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("iss", clientEmail);
+        claims.put("scope", SCOPE);
+        claims.put("aud", tokenUri.toString());
+        claims.put("iat", now.getEpochSecond());
+        claims.put("exp", now.plus(ASSERTION_LIFETIME).getEpochSecond());
+        try {
+            Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+            String unsigned = base64.encodeToString(objectMapper.writeValueAsBytes(header)) + "."
+                    + base64.encodeToString(objectMapper.writeValueAsBytes(claims));
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initSign(privateKey);
+            signature.update(unsigned.getBytes(StandardCharsets.US_ASCII));
+            return unsigned + "." + base64.encodeToString(signature.sign());
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign FCM token request", e);
+        }
+    }
+
+    private static PrivateKey readPrivateKey(String pem) throws GeneralSecurityException {
+        String base64 = pem.replaceAll("-----(BEGIN|END) PRIVATE KEY-----", "").replaceAll("\\s", "");
+        return KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(base64)));
+    }
+}
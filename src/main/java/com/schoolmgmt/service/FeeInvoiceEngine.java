@@ -0,0 +1,244 @@
+package com.schoolmgmt.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolmgmt.event.FeeInvoiceRunRequestedEvent;
+import com.schoolmgmt.model.FeeInvoiceRun;
+import com.schoolmgmt.model.FeePayment;
+import com.schoolmgmt.model.FeeStructure;
+import com.schoolmgmt.repository.FeeInvoiceRunRepository;
+import com.schoolmgmt.repository.FeePaymentRepository;
+import com.schoolmgmt.repository.FeeStructureRepository;
+import com.schoolmgmt.repository.StudentRepository;
+import com.schoolmgmt.util.TenantContext;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generates term invoices in the background: one PENDING fee payment per active student of each fee
+ * structure's class. Students are walked per fee structure in keyset chunks; each chunk skips students
+ * already invoiced for the structure, inserts the rest as one JDBC batch, records the fee ledger change and
+ * advances the run cursor in a single transaction, so a rerun or resumed run never invoices a student twice.
+ */
+@Component
+@Slf4j
+public class FeeInvoiceEngine {
+
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+    private static final TypeReference<List<UUID>> IDS_TYPE = new TypeReference<>() {};
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final FeeInvoiceRunRepository runRepository;
+    private final FeeStructureRepository feeStructureRepository;
+    private final FeePaymentRepository feePaymentRepository;
+    private final StudentRepository studentRepository;
+    private final FeeLedgerService feeLedgerService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    private final Set<UUID> activeRuns = ConcurrentHashMap.newKeySet();
+
+    public FeeInvoiceEngine(FeeInvoiceRunRepository runRepository,
+                            FeeStructureRepository feeStructureRepository,
+                            FeePaymentRepository feePaymentRepository,
+                            StudentRepository studentRepository,
+                            FeeLedgerService feeLedgerService,
+                            EntityManager entityManager,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.fees.invoice.chunk-size:1000}") int chunkSize) {
+        this.runRepository = runRepository;
+        this.feeStructureRepository = feeStructureRepository;
+        this.feePaymentRepository = feePaymentRepository;
+        this.studentRepository = studentRepository;
+        this.feeLedgerService = feeLedgerService;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onInvoiceRunRequested(FeeInvoiceRunRequestedEvent event) {
+        execute(event.getRunId(), event.getTenantId());
+    }
+
+    /**
+     * Check if a run is currently being executed on this node
+     */
+    public boolean isExecuting(UUID runId) {
+        return activeRuns.contains(runId);
+    }
+
+    /**
+     * Execute a run from its stored cursor until it completes or fails
+     */
+    public void execute(UUID runId, String tenantId) {
+        if (!activeRuns.add(runId)) {
+            log.warn("Invoice run {} is already executing", runId);
+            return;
+        }
+        TenantContext.setCurrentTenant(tenantId);
+        try {
+            transactionTemplate.executeWithoutResult(status -> markStarted(runId));
+
+            boolean finished = false;
+            while (!finished) {
+                finished = Boolean.TRUE.equals(transactionTemplate.execute(status -> processNextChunk(runId, tenantId)));
+            }
+
+            transactionTemplate.executeWithoutResult(status -> completeRun(runId));
+            log.info("Invoice run {} completed for tenant: {}", runId, tenantId);
+        } catch (RuntimeException e) {
+            log.error("Invoice run {} failed for tenant: {}", runId, tenantId, e);
+            transactionTemplate.executeWithoutResult(status -> markFailed(runId, e));
+        } finally {
+            activeRuns.remove(runId);
+            TenantContext.clear();
+        }
+    }
+
+    private void markStarted(UUID runId) {
+        FeeInvoiceRun run = loadRun(runId);
+        run.setStatus(FeeInvoiceRun.InvoiceRunStatus.RUNNING);
+        run.setErrorMessage(null);
+        if (run.getStartedAt() == null) {
+            run.setStartedAt(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Invoice one chunk of the current fee structure's class; returns true once every structure is exhausted
+     */
+    private boolean processNextChunk(UUID runId, String tenantId) {
+        FeeInvoiceRun run = loadRun(runId);
+        List<UUID> structureIds = readIds(run.getFeeStructureIds());
+        int structureIndex = run.getCurrentStructureIndex();
+        if (structureIndex >= structureIds.size()) {
+            return true;
+        }
+
+        FeeStructure structure = feeStructureRepository.findById(structureIds.get(structureIndex))
+                .filter(found -> Boolean.TRUE.equals(found.getIsActive()))
+                .orElse(null);
+        UUID afterId = run.getLastStudentId() != null ? run.getLastStudentId() : FIRST_ID;
+        List<Object[]> rows = structure == null ? List.of()
+                : studentRepository.findInvoiceChunk(tenantId, structure.getClassId().toString(), afterId,
+                        PageRequest.of(0, chunkSize));
+
+        if (rows.isEmpty()) {
+            run.setCurrentStructureIndex(structureIndex + 1);
+            run.setLastStudentId(null);
+            return false;
+        }
+
+        List<UUID> studentIds = rows.stream().map(row -> (UUID) row[0]).toList();
+        Set<UUID> invoiced = new HashSet<>(
+                feePaymentRepository.findInvoicedStudentIds(tenantId, structure.getId(), studentIds));
+
+        BigDecimal discount = discount(structure);
+        BigDecimal amountDue = structure.getAmount().subtract(discount);
+        List<FeePayment> invoices = new ArrayList<>(rows.size() - invoiced.size());
+        for (Object[] row : rows) {
+            if (!invoiced.contains((UUID) row[0])) {
+                invoices.add(FeePayment.builder()
+                        .tenantId(tenantId)
+                        .feeStructure(structure)
+                        .studentId((UUID) row[0])
+                        .studentName(row[1] + " " + row[2])
+                        .totalAmount(amountDue)
+                        .discountAmount(discount)
+                        .amountPaid(BigDecimal.ZERO)
+                        .remarks(invoiceRemarks(structure))
+                        .build());
+            }
+        }
+
+        if (!invoices.isEmpty()) {
+            // Ids are generated client-side, so the whole chunk goes out in one JDBC batch
+            entityManager.unwrap(Session.class).setJdbcBatchSize(chunkSize);
+            feePaymentRepository.saveAll(invoices);
+            feeLedgerService.recordDelta(tenantId, new FeeLedgerService.Contribution(LocalDate.now(),
+                    structure.getClassId(), structure.getFeeType().getId(), invoices.size(), BigDecimal.ZERO,
+                    BigDecimal.ZERO, amountDue.multiply(BigDecimal.valueOf(invoices.size())), 0));
+        }
+
+        run.setLastStudentId(studentIds.get(studentIds.size() - 1));
+        run.setProcessedInvoices(run.getProcessedInvoices() + rows.size());
+        run.setCreatedCount(run.getCreatedCount() + invoices.size());
+        run.setSkippedCount(run.getSkippedCount() + invoiced.size());
+
+        log.debug("Invoice run {}: structure {} invoiced {} of {} students", runId, structureIndex, invoices.size(), rows.size());
+        return false;
+    }
+
+    private void completeRun(UUID runId) {
+        FeeInvoiceRun run = loadRun(runId);
+        run.setStatus(FeeInvoiceRun.InvoiceRunStatus.COMPLETED);
+        run.setCompletedAt(LocalDateTime.now());
+    }
+
+    private void markFailed(UUID runId, RuntimeException e) {
+        FeeInvoiceRun run = loadRun(runId);
+        run.setStatus(FeeInvoiceRun.InvoiceRunStatus.FAILED);
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        run.setErrorMessage(message != null && message.length() > 1000 ? message.substring(0, 1000) : message);
+    }
+
+    /**
+     * Discount of a fee structure's amount, rounded to the paisa
+     */
+    static BigDecimal discount(FeeStructure structure) {
+        Double percentage = structure.getDiscountPercentage();
+        if (percentage == null || percentage <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return structure.getAmount().multiply(BigDecimal.valueOf(Math.min(percentage, 100.0)))
+                .divide(HUNDRED, 2, RoundingMode.HALF_UP);
+    }
+
+    private String invoiceRemarks(FeeStructure structure) {
+        StringBuilder remarks = new StringBuilder("Invoice");
+        if (structure.getTerm() != null) {
+            remarks.append(' ').append(structure.getTerm());
+        }
+        if (structure.getAcademicYear() != null) {
+            remarks.append(' ').append(structure.getAcademicYear());
+        }
+        return remarks.toString();
+    }
+
+    private FeeInvoiceRun loadRun(UUID runId) {
+        return runRepository.findById(runId)
+                .orElseThrow(() -> new IllegalStateException("Invoice run not found: " + runId));
+    }
+
+    private List<UUID> readIds(String json) {
+        try {
+            return objectMapper.readValue(json, IDS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt invoice run data", e);
+        }
+    }
+}
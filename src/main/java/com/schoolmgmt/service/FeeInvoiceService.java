@@ -0,0 +1,172 @@
+package com.schoolmgmt.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolmgmt.dto.request.GenerateInvoicesRequest;
+import com.schoolmgmt.dto.response.InvoiceRunResponse;
+import com.schoolmgmt.event.FeeInvoiceRunRequestedEvent;
+import com.schoolmgmt.exception.BusinessException;
+import com.schoolmgmt.exception.ResourceNotFoundException;
+import com.schoolmgmt.model.FeeInvoiceRun;
+import com.schoolmgmt.model.FeeInvoiceRun.InvoiceRunStatus;
+import com.schoolmgmt.model.FeeStructure;
+import com.schoolmgmt.repository.FeeInvoiceRunRepository;
+import com.schoolmgmt.repository.FeeStructureRepository;
+import com.schoolmgmt.repository.StudentRepository;
+import com.schoolmgmt.util.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Service for bulk term invoice generation.
+ * Runs are validated and persisted here and executed in the background by {@link FeeInvoiceEngine}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class FeeInvoiceService {
+
+    private static final Set<InvoiceRunStatus> IN_PROGRESS = EnumSet.of(InvoiceRunStatus.PENDING, InvoiceRunStatus.RUNNING);
+
+    private final FeeInvoiceRunRepository runRepository;
+    private final FeeStructureRepository feeStructureRepository;
+    private final StudentRepository studentRepository;
+    private final FeeInvoiceEngine invoiceEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Start a bulk invoice run over the active fee structures matching the request
+     */
+    public InvoiceRunResponse startInvoiceRun(GenerateInvoicesRequest request) {
+        String tenantId = TenantContext.requireCurrentTenant();
+        if (runRepository.existsByTenantIdAndStatusIn(tenantId, IN_PROGRESS)) {
+            throw new BusinessException("An invoice run is already in progress");
+        }
+
+        Set<UUID> classIds = request.getClassIds() != null ? request.getClassIds() : Set.of();
+        List<FeeStructure> structures = feeStructureRepository
+                .findForInvoicing(tenantId, blankToNull(request.getAcademicYear()), blankToNull(request.getTerm()))
+                .stream()
+                .filter(structure -> classIds.isEmpty() || classIds.contains(structure.getClassId()))
+                .toList();
+        if (structures.isEmpty()) {
+            throw new BusinessException("No active fee structures match the invoice run");
+        }
+
+        FeeInvoiceRun run = FeeInvoiceRun.builder()
+                .academicYear(blankToNull(request.getAcademicYear()))
+                .term(blankToNull(request.getTerm()))
+                .feeStructureIds(toJson(structures.stream().map(FeeStructure::getId).toList()))
+                .totalInvoices(countInvoices(tenantId, structures))
+                .build();
+        run.setTenantId(tenantId);
+
+        FeeInvoiceRun savedRun = runRepository.save(run);
+        eventPublisher.publishEvent(new FeeInvoiceRunRequestedEvent(tenantId, savedRun.getId()));
+        log.info("Invoice run {} created for tenant: {} ({} fee structures, up to {} invoices)",
+                savedRun.getId(), tenantId, structures.size(), savedRun.getTotalInvoices());
+
+        return toResponse(savedRun);
+    }
+
+    /**
+     * Resume an interrupted or failed invoice run from its last committed chunk
+     */
+    public InvoiceRunResponse resumeInvoiceRun(UUID runId) {
+        FeeInvoiceRun run = findRun(runId);
+        if (run.getStatus() == InvoiceRunStatus.COMPLETED) {
+            throw new BusinessException("Invoice run is already completed");
+        }
+        if (invoiceEngine.isExecuting(runId)) {
+            throw new BusinessException("Invoice run is already executing");
+        }
+
+        run.setStatus(InvoiceRunStatus.PENDING);
+        eventPublisher.publishEvent(new FeeInvoiceRunRequestedEvent(run.getTenantId(), runId));
+        log.info("Invoice run {} resumed at fee structure {}", runId, run.getCurrentStructureIndex());
+
+        return toResponse(run);
+    }
+
+    /**
+     * Get invoice run progress
+     */
+    @Transactional(readOnly = true)
+    public InvoiceRunResponse getInvoiceRun(UUID runId) {
+        return toResponse(findRun(runId));
+    }
+
+    /**
+     * Get invoice runs of the current tenant
+     */
+    @Transactional(readOnly = true)
+    public Page<InvoiceRunResponse> getInvoiceRuns(Pageable pageable) {
+        String tenantId = TenantContext.requireCurrentTenant();
+        return runRepository.findByTenantIdOrderByCreatedAtDesc(tenantId, pageable).map(this::toResponse);
+    }
+
+    /**
+     * Students to consider across all structures, one grouped count for every class involved
+     */
+    private int countInvoices(String tenantId, List<FeeStructure> structures) {
+        Set<String> classIds = new HashSet<>();
+        structures.forEach(structure -> classIds.add(structure.getClassId().toString()));
+        Map<String, Long> studentsByClass = new HashMap<>();
+        for (Object[] row : studentRepository.countActiveByClass(tenantId, classIds)) {
+            studentsByClass.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        long total = 0;
+        for (FeeStructure structure : structures) {
+            total += studentsByClass.getOrDefault(structure.getClassId().toString(), 0L);
+        }
+        return (int) Math.min(total, Integer.MAX_VALUE);
+    }
+
+    private FeeInvoiceRun findRun(UUID runId) {
+        String tenantId = TenantContext.requireCurrentTenant();
+        return runRepository.findByIdAndTenantId(runId, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Invoice run", "id", runId));
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("Invalid invoice run request");
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private InvoiceRunResponse toResponse(FeeInvoiceRun run) {
+        double progress = run.getTotalInvoices() > 0
+                ? Math.min(100.0, run.getProcessedInvoices() * 100.0 / run.getTotalInvoices())
+                : (run.getStatus() == InvoiceRunStatus.COMPLETED ? 100.0 : 0.0);
+        return InvoiceRunResponse.builder()
+                .id(run.getId())
+                .academicYear(run.getAcademicYear())
+                .term(run.getTerm())
+                .status(run.getStatus().name())
+                .totalInvoices(run.getTotalInvoices())
+                .processedInvoices(run.getProcessedInvoices())
+                .createdCount(run.getCreatedCount())
+                .skippedCount(run.getSkippedCount())
+                .progressPercentage(progress)
+                .errorMessage(run.getErrorMessage())
+                .startedAt(run.getStartedAt())
+                .completedAt(run.getCompletedAt())
+                .createdAt(run.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,301 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.request.FeeLedgerRequest;
+import com.schoolmgmt.dto.request.FeeLedgerRequest.Dimension;
+import com.schoolmgmt.dto.response.FeeLedgerResponse;
+import com.schoolmgmt.model.FeeLedgerEntry;
+import com.schoolmgmt.model.FeePayment;
+import com.schoolmgmt.model.FeeType;
+import com.schoolmgmt.repository.FeeLedgerRepository;
+import com.schoolmgmt.repository.FeePaymentRepository;
+import com.schoolmgmt.repository.FeeTypeRepository;
+import com.schoolmgmt.util.TenantContext;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the daily fee ledger in step with fee payments and answers collection reports from it.
+ * Every change to a payment is applied as deltas to its ledger row in the same transaction, so the ledger
+ * commits or rolls back with the payment. Services that write payments record them here.
+ */
+@Service
+@Slf4j
+public class FeeLedgerService {
+
+    private static final Set<FeePayment.PaymentStatus> COLLECTED =
+            EnumSet.of(FeePayment.PaymentStatus.PAID, FeePayment.PaymentStatus.PARTIAL);
+    private static final Set<FeePayment.PaymentStatus> OUTSTANDING = EnumSet.of(FeePayment.PaymentStatus.PENDING,
+            FeePayment.PaymentStatus.PARTIAL, FeePayment.PaymentStatus.OVERDUE);
+
+    private final FeeLedgerRepository feeLedgerRepository;
+    private final FeePaymentRepository feePaymentRepository;
+    private final FeeTypeRepository feeTypeRepository;
+    private final TransactionTemplate requiresNewTransaction;
+
+    public FeeLedgerService(FeeLedgerRepository feeLedgerRepository,
+                            FeePaymentRepository feePaymentRepository,
+                            FeeTypeRepository feeTypeRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.feeLedgerRepository = feeLedgerRepository;
+        this.feePaymentRepository = feePaymentRepository;
+        this.feeTypeRepository = feeTypeRepository;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ===== Recording =====
+
+    /**
+     * Record a payment that has just been saved
+     */
+    public void recordNew(FeePayment payment) {
+        add(payment.getTenantId(), Contribution.of(payment), 1);
+    }
+
+    /**
+     * Record a change to a saved payment, given what it contributed before the change
+     */
+    public void recordChange(Contribution before, FeePayment after) {
+        Contribution now = Contribution.of(after);
+        if (before.sameRow(now)) {
+            add(after.getTenantId(), now.minus(before), 1);
+        } else {
+            add(after.getTenantId(), before, -1);
+            add(after.getTenantId(), now, 1);
+        }
+    }
+
+    /**
+     * Record a change computed in bulk, e.g. by a set-based update of many payments
+     */
+    public void recordDelta(String tenantId, Contribution delta) {
+        add(tenantId, delta, 1);
+    }
+
+    private void add(String tenantId, Contribution delta, int sign) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        if (applyDeltas(tenantId, delta, sign) == 0) {
+            createRow(tenantId, delta);
+            if (applyDeltas(tenantId, delta, sign) == 0) {
+                throw new IllegalStateException("Fee ledger row disappeared for " + delta.getLedgerDate());
+            }
+        }
+    }
+
+    private int applyDeltas(String tenantId, Contribution delta, int sign) {
+        BigDecimal factor = BigDecimal.valueOf(sign);
+        return feeLedgerRepository.addDeltas(tenantId, delta.getLedgerDate(), delta.getClassId(), delta.getFeeTypeId(),
+                sign * delta.getPayments(), delta.getPaid().multiply(factor), delta.getCollected().multiply(factor),
+                delta.getPending().multiply(factor), sign * delta.getOverdue(), LocalDateTime.now());
+    }
+
+    /**
+     * Creates an empty ledger row in its own transaction, so a concurrent creation by another collection
+     * does not roll back the caller
+     */
+    private void createRow(String tenantId, Contribution key) {
+        try {
+            requiresNewTransaction.executeWithoutResult(status -> {
+                if (feeLedgerRepository.findByTenantIdAndLedgerDateAndClassIdAndFeeTypeId(
+                        tenantId, key.getLedgerDate(), key.getClassId(), key.getFeeTypeId()).isEmpty()) {
+                    feeLedgerRepository.saveAndFlush(FeeLedgerEntry.builder()
+                            .tenantId(tenantId)
+                            .ledgerDate(key.getLedgerDate())
+                            .classId(key.getClassId())
+                            .feeTypeId(key.getFeeTypeId())
+                            .updatedAt(LocalDateTime.now())
+                            .build());
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Fee ledger row for {} of tenant {} was created concurrently", key.getLedgerDate(), tenantId);
+        }
+    }
+
+    /**
+     * Recompute the current tenant's ledger from its payments, for a first load or after a repair
+     *
+     * @return number of ledger rows written
+     */
+    @Transactional
+    public int rebuild() {
+        String tenantId = TenantContext.getCurrentTenant();
+        feeLedgerRepository.deleteByTenantId(tenantId);
+        LocalDateTime now = LocalDateTime.now();
+        List<FeeLedgerEntry> entries = feePaymentRepository.summarizeLedgerByTenant(tenantId).stream()
+                .map(row -> FeeLedgerEntry.builder()
+                        .tenantId(tenantId)
+                        .ledgerDate((LocalDate) row[0])
+                        .classId((UUID) row[1])
+                        .feeTypeId((UUID) row[2])
+                        .payments(asLong(row[3]))
+                        .paidAmount(asAmount(row[4]))
+                        .collectedAmount(asAmount(row[5]))
+                        .pendingAmount(asAmount(row[6]))
+                        .overdueCount(asLong(row[7]))
+                        .updatedAt(now)
+                        .build())
+                .toList();
+        feeLedgerRepository.saveAll(entries);
+        log.info("Rebuilt fee ledger of tenant {} with {} rows", tenantId, entries.size());
+        return entries.size();
+    }
+
+    // ===== Reports =====
+
+    /**
+     * Tenant-wide totals, with the amount paid between the given dates
+     */
+    @Transactional(readOnly = true)
+    public Totals getTotals(String tenantId, LocalDate startDate, LocalDate endDate) {
+        List<Object[]> rows = feeLedgerRepository.getTotals(tenantId, startDate, endDate);
+        Object[] row = rows.isEmpty() ? new Object[4] : rows.get(0);
+        return new Totals(
+                row[0] != null ? asAmount(row[0]) : null,
+                row[1] != null ? asAmount(row[1]) : null,
+                row[2] != null ? asLong(row[2]) : null,
+                row[3] != null ? asAmount(row[3]) : null);
+    }
+
+    /**
+     * Ledger totals of the current tenant grouped by class, fee type and/or month
+     */
+    @Transactional(readOnly = true)
+    public FeeLedgerResponse drillDown(FeeLedgerRequest request) {
+        String tenantId = TenantContext.getCurrentTenant();
+        List<Dimension> groupBy = request.getGroupBy() != null
+                ? request.getGroupBy().stream().distinct().toList()
+                : List.of();
+        Map<UUID, String> feeTypeNames = groupBy.contains(Dimension.FEE_TYPE)
+                ? feeTypeRepository.findByTenantIdOrderByName(tenantId).stream()
+                        .collect(Collectors.toMap(FeeType::getId, FeeType::getName))
+                : Map.of();
+
+        // Rows come ordered by month, so buckets keep the order of their first month
+        Map<List<Object>, FeeLedgerResponse.Bucket> buckets = new LinkedHashMap<>();
+        for (Object[] row : feeLedgerRepository.summarizeByClassFeeTypeAndMonth(
+                tenantId, request.getFromDate(), request.getToDate())) {
+            UUID classId = (UUID) row[0];
+            UUID feeTypeId = (UUID) row[1];
+            String month = YearMonth.of(((Number) row[2]).intValue(), ((Number) row[3]).intValue()).toString();
+            List<Object> key = groupBy.stream()
+                    .<Object>map(d -> switch (d) {
+                        case CLASS -> classId;
+                        case FEE_TYPE -> feeTypeId;
+                        case MONTH -> month;
+                    })
+                    .toList();
+            FeeLedgerResponse.Bucket bucket = buckets.computeIfAbsent(key, k -> FeeLedgerResponse.Bucket.builder()
+                    .classId(groupBy.contains(Dimension.CLASS) ? classId : null)
+                    .feeTypeId(groupBy.contains(Dimension.FEE_TYPE) ? feeTypeId : null)
+                    .feeTypeName(groupBy.contains(Dimension.FEE_TYPE) ? feeTypeNames.get(feeTypeId) : null)
+                    .month(groupBy.contains(Dimension.MONTH) ? month : null)
+                    .paidAmount(BigDecimal.ZERO)
+                    .collectedAmount(BigDecimal.ZERO)
+                    .pendingAmount(BigDecimal.ZERO)
+                    .build());
+            bucket.setPayments(bucket.getPayments() + asLong(row[4]));
+            bucket.setPaidAmount(bucket.getPaidAmount().add(asAmount(row[5])));
+            bucket.setCollectedAmount(bucket.getCollectedAmount().add(asAmount(row[6])));
+            bucket.setPendingAmount(bucket.getPendingAmount().add(asAmount(row[7])));
+            bucket.setOverdueCount(bucket.getOverdueCount() + asLong(row[8]));
+        }
+
+        return FeeLedgerResponse.builder()
+                .groupBy(groupBy)
+                .buckets(new ArrayList<>(buckets.values()))
+                .build();
+    }
+
+    private static long asLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+
+    private static BigDecimal asAmount(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal amount ? amount : new BigDecimal(value.toString());
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    /**
+     * What one payment adds to its ledger row. Take one before changing a saved payment and pass it to
+     * {@link #recordChange} afterwards.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Contribution {
+        private final LocalDate ledgerDate;
+        private final UUID classId;
+        private final UUID feeTypeId;
+        private final long payments;
+        private final BigDecimal paid;
+        private final BigDecimal collected;
+        private final BigDecimal pending;
+        private final long overdue;
+
+        public static Contribution of(FeePayment payment) {
+            FeePayment.PaymentStatus status = payment.getPaymentStatus();
+            LocalDate ledgerDate = payment.getPaymentDate() != null ? payment.getPaymentDate()
+                    : payment.getCreatedAt() != null ? payment.getCreatedAt().toLocalDate() : LocalDate.now();
+            BigDecimal amountPaid = orZero(payment.getAmountPaid());
+            return new Contribution(
+                    ledgerDate,
+                    payment.getFeeStructure().getClassId(),
+                    payment.getFeeStructure().getFeeType().getId(),
+                    1,
+                    payment.getPaymentDate() != null ? amountPaid : BigDecimal.ZERO,
+                    COLLECTED.contains(status) ? amountPaid : BigDecimal.ZERO,
+                    OUTSTANDING.contains(status) ? orZero(payment.getBalanceAmount()) : BigDecimal.ZERO,
+                    status == FeePayment.PaymentStatus.OVERDUE ? 1 : 0);
+        }
+
+        boolean sameRow(Contribution other) {
+            return ledgerDate.equals(other.ledgerDate) && classId.equals(other.classId)
+                    && feeTypeId.equals(other.feeTypeId);
+        }
+
+        Contribution minus(Contribution other) {
+            return new Contribution(ledgerDate, classId, feeTypeId, payments - other.payments,
+                    paid.subtract(other.paid), collected.subtract(other.collected),
+                    pending.subtract(other.pending), overdue - other.overdue);
+        }
+
+        boolean isEmpty() {
+            return payments == 0 && overdue == 0 && paid.signum() == 0 && collected.signum() == 0
+                    && pending.signum() == 0;
+        }
+    }
+
+    /**
+     * Tenant-wide ledger totals; amounts are null when the tenant has no ledger rows
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Totals {
+        private final BigDecimal collected;
+        private final BigDecimal pending;
+        private final Long overdueCount;
+        private final BigDecimal paidBetween;
+    }
+}
@@ -0,0 +1,192 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.model.FeePayment;
+import com.schoolmgmt.model.NotificationLog;
+import com.schoolmgmt.model.Tenant;
+import com.schoolmgmt.repository.FeePaymentRepository;
+import com.schoolmgmt.repository.StudentRepository;
+import com.schoolmgmt.repository.TenantRepository;
+import com.schoolmgmt.util.TenantContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Turns unpaid fees past their due date into OVERDUE payments and adds the fee structure's late fee.
+ * Each tenant is swept in chunks of set-based updates, each chunk in its own transaction together with its
+ * fee ledger changes, under a cluster lock so only one node sweeps a tenant at a time. The students whose fees
+ * just became overdue, and their parents, get one reminder per sweep.
+ */
+@Service
+@Slf4j
+public class FeeOverdueSweeper {
+
+    private final FeePaymentRepository feePaymentRepository;
+    private final StudentRepository studentRepository;
+    private final TenantRepository tenantRepository;
+    private final FeeLedgerService feeLedgerService;
+    private final NotificationService notificationService;
+    private final ClusterLockService clusterLockService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+
+    public FeeOverdueSweeper(FeePaymentRepository feePaymentRepository,
+                             StudentRepository studentRepository,
+                             TenantRepository tenantRepository,
+                             FeeLedgerService feeLedgerService,
+                             NotificationService notificationService,
+                             ClusterLockService clusterLockService,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.fees.overdue-sweep.chunk-size:500}") int chunkSize) {
+        this.feePaymentRepository = feePaymentRepository;
+        this.studentRepository = studentRepository;
+        this.tenantRepository = tenantRepository;
+        this.feeLedgerService = feeLedgerService;
+        this.notificationService = notificationService;
+        this.clusterLockService = clusterLockService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Sweep every active tenant shortly after midnight
+     */
+    @Scheduled(cron = "${app.fees.overdue-sweep.cron:0 30 0 * * *}")
+    public void sweepAllTenants() {
+        LocalDate today = LocalDate.now();
+        int total = 0;
+        for (Tenant tenant : tenantRepository.findAllActive()) {
+            String tenantId = tenant.getIdentifier();
+            TenantContext.setCurrentTenant(tenantId);
+            try {
+                total += sweepTenant(tenantId, today);
+            } catch (RuntimeException e) {
+                log.error("Overdue fee sweep failed for tenant: {}", tenantId, e);
+            } finally {
+                TenantContext.clear();
+            }
+        }
+        log.info("Overdue fee sweep for {} marked {} payments overdue", today, total);
+    }
+
+    /**
+     * Sweep one tenant; returns the number of payments marked overdue, or 0 if another node holds the tenant
+     */
+    public int sweepTenant(String tenantId, LocalDate today) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Map<String, Integer> overdueByRecipient = new HashMap<>();
+        int[] swept = {0};
+
+        boolean ran = clusterLockService.runExclusively("fee-overdue-sweep:" + tenantId, () -> {
+            int candidates;
+            do {
+                candidates = Objects.requireNonNull(transactionTemplate.execute(
+                        status -> sweepChunk(tenantId, today, overdueByRecipient, swept)));
+            } while (candidates == chunkSize);
+        });
+        if (!ran) {
+            log.info("Overdue fee sweep of tenant {} is running on another node", tenantId);
+            return 0;
+        }
+
+        int reminders = sendReminders(overdueByRecipient, swept[0]);
+        sample.stop(meterRegistry.timer("fees.overdue.sweep.duration"));
+        meterRegistry.counter("fees.overdue.sweep.payments").increment(swept[0]);
+        meterRegistry.counter("fees.overdue.sweep.reminders").increment(reminders);
+        if (swept[0] > 0) {
+            log.info("Marked {} payments overdue for tenant: {}", swept[0], tenantId);
+        }
+        return swept[0];
+    }
+
+    /**
+     * Mark one chunk overdue, move its amounts in the fee ledger and note who to remind; returns the number of
+     * candidates found
+     */
+    private int sweepChunk(String tenantId, LocalDate today, Map<String, Integer> overdueByRecipient, int[] swept) {
+        List<UUID> ids = feePaymentRepository.findOverdueCandidates(tenantId, today, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // The update re-checks the status, so a fee paid since the select is left alone and not counted below
+        swept[0] += feePaymentRepository.markOverdue(ids, FeePayment.PaymentStatus.OVERDUE, LocalDateTime.now());
+        for (Object[] row : feePaymentRepository.summarizeOverdueTransition(ids)) {
+            UUID classId = (UUID) row[1];
+            long payments = ((Number) row[3]).longValue();
+            BigDecimal collected = amount(row[4]);
+            BigDecimal lateFees = amount(row[5]);
+            // Partly paid fees leave "collected" once overdue, and late fees add to the balance pending
+            feeLedgerService.recordDelta(tenantId, new FeeLedgerService.Contribution((LocalDate) row[0], classId,
+                    (UUID) row[2], 0, BigDecimal.ZERO, collected.negate(), lateFees, payments));
+        }
+        collectRecipients(tenantId, ids, overdueByRecipient);
+        return ids.size();
+    }
+
+    /**
+     * Count the newly overdue payments per user to remind: each student and their parents and guardians
+     */
+    private void collectRecipients(String tenantId, List<UUID> ids, Map<String, Integer> overdueByRecipient) {
+        Map<UUID, Integer> overdueByStudent = new HashMap<>();
+        for (Object[] row : feePaymentRepository.countOverdueByStudent(ids)) {
+            if (row[0] != null) {
+                overdueByStudent.put((UUID) row[0], ((Number) row[1]).intValue());
+            }
+        }
+        if (overdueByStudent.isEmpty()) {
+            return;
+        }
+        Map<UUID, Set<String>> usersByStudent = new HashMap<>();
+        for (Object[] row : studentRepository.findNotificationRecipients(tenantId, overdueByStudent.keySet())) {
+            Set<String> users = usersByStudent.computeIfAbsent((UUID) row[0], id -> new HashSet<>());
+            for (int i = 1; i < row.length; i++) {
+                if (row[i] != null) {
+                    users.add((String) row[i]);
+                }
+            }
+        }
+        usersByStudent.forEach((studentId, users) -> users.forEach(
+                user -> overdueByRecipient.merge(user, overdueByStudent.get(studentId), Integer::sum)));
+    }
+
+    private int sendReminders(Map<String, Integer> overdueByRecipient, int swept) {
+        int sent = 0;
+        for (Map.Entry<String, Integer> entry : overdueByRecipient.entrySet()) {
+            try {
+                notificationService.sendToUser(entry.getKey(), "Fee payment overdue",
+                        entry.getValue() + (entry.getValue() == 1 ? " fee payment is" : " fee payments are")
+                                + " now overdue and a late fee has been added. Please clear the dues.",
+                        NotificationLog.NotificationType.FEE_REMINDER, null, null, "System");
+                sent++;
+            } catch (RuntimeException e) {
+                log.warn("Could not send overdue reminder to user {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        if (sent > 0) {
+            log.debug("Sent {} overdue reminders covering {} payments", sent, swept);
+        }
+        return sent;
+    }
+
+    private static BigDecimal amount(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal amount ? amount : new BigDecimal(value.toString());
+    }
+}
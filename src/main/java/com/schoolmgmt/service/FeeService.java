@@ -1,5 +1,6 @@
 package com.schoolmgmt.service;
 
+import com.schoolmgmt.dto.response.FeePaymentSummary;
 import com.schoolmgmt.model.FeePayment;
 import com.schoolmgmt.model.FeeStructure;
 import com.schoolmgmt.model.FeeType;
@@ -26,6 +27,8 @@ public class FeeService {
     private final FeeTypeRepository feeTypeRepository;
     private final FeeStructureRepository feeStructureRepository;
     private final FeePaymentRepository feePaymentRepository;
+    private final ReceiptNumberService receiptNumberService;
+    private final FeeLedgerService feeLedgerService;
 
     // ===== Fee Type Operations =====
 
@@ -116,36 +119,45 @@ public class FeeService {
     @Transactional
     public FeePayment collectFee(FeePayment payment) {
         String tenantId = TenantContext.getCurrentTenant();
+        if (payment.getFeeStructure() == null || payment.getFeeStructure().getId() == null) {
+            throw new IllegalArgumentException("Fee structure is required");
+        }
+        // The ledger is keyed by the stored structure's class and fee type, never by what the request carried
+        UUID feeStructureId = payment.getFeeStructure().getId();
+        payment.setFeeStructure(feeStructureRepository.findById(feeStructureId)
+                .filter(structure -> tenantId.equals(structure.getTenantId()))
+                .orElseThrow(() -> new NoSuchElementException("Fee structure not found: " + feeStructureId)));
         payment.setTenantId(tenantId);
         payment.setPaymentDate(LocalDate.now());
 
-        // Generate receipt number
-        payment.setReceiptNumber("RCP-" + System.currentTimeMillis());
+        payment.setReceiptNumber(receiptNumberService.nextReceiptNumber(tenantId, payment.getPaymentDate()));
 
         log.info("Collecting fee for student {} amount {}",
                 payment.getStudentId(), payment.getAmountPaid());
-        return feePaymentRepository.save(payment);
+        FeePayment saved = feePaymentRepository.save(payment);
+        feeLedgerService.recordNew(saved);
+        return saved;
     }
 
     @Transactional(readOnly = true)
-    public List<FeePayment> getStudentPayments(UUID studentId) {
+    public List<FeePaymentSummary> getStudentPayments(UUID studentId) {
         String tenantId = TenantContext.getCurrentTenant();
-        return feePaymentRepository.findByTenantIdAndStudentId(tenantId, studentId);
+        return feePaymentRepository.findSummariesByStudent(tenantId, studentId);
     }
 
     @Transactional(readOnly = true)
-    public List<FeePayment> getStudentPendingFees(UUID studentId) {
+    public List<FeePaymentSummary> getStudentPendingFees(UUID studentId) {
         String tenantId = TenantContext.getCurrentTenant();
-        return feePaymentRepository.findByTenantIdAndStudentIdAndPaymentStatusIn(
+        return feePaymentRepository.findSummariesByStudentAndStatusIn(
                 tenantId, studentId,
                 List.of(FeePayment.PaymentStatus.PENDING, FeePayment.PaymentStatus.PARTIAL,
                         FeePayment.PaymentStatus.OVERDUE));
     }
 
     @Transactional(readOnly = true)
-    public Page<FeePayment> getAllPayments(Pageable pageable) {
+    public Page<FeePaymentSummary> getAllPayments(Pageable pageable) {
         String tenantId = TenantContext.getCurrentTenant();
-        return feePaymentRepository.findByTenantId(tenantId, pageable);
+        return feePaymentRepository.findSummaries(tenantId, pageable);
     }
 
     @Transactional(readOnly = true)
@@ -154,19 +166,21 @@ public class FeeService {
                 .orElseThrow(() -> new NoSuchElementException("Payment not found: " + paymentId));
     }
 
+    /**
+     * Collection summary read from the daily fee ledger rather than from individual payments
+     */
     @Transactional(readOnly = true)
     public Map<String, Object> getCollectionReport() {
         String tenantId = TenantContext.getCurrentTenant();
 
-        BigDecimal totalCollected = feePaymentRepository.getTotalCollectedByTenant(tenantId);
-        BigDecimal totalPending = feePaymentRepository.getTotalPendingByTenant(tenantId);
-        Long overdueCount = feePaymentRepository.countOverdueByTenant(tenantId);
-
         // This month's collection
         LocalDate monthStart = LocalDate.now().withDayOfMonth(1);
         LocalDate monthEnd = LocalDate.now();
-        BigDecimal monthlyCollection = feePaymentRepository.getCollectionBetweenDates(
-                tenantId, monthStart, monthEnd);
+        FeeLedgerService.Totals totals = feeLedgerService.getTotals(tenantId, monthStart, monthEnd);
+        BigDecimal totalCollected = totals.getCollected();
+        BigDecimal totalPending = totals.getPending();
+        Long overdueCount = totals.getOverdueCount();
+        BigDecimal monthlyCollection = totals.getPaidBetween();
 
         Map<String, Object> report = new HashMap<>();
         report.put("totalCollected", totalCollected != null ? totalCollected : BigDecimal.ZERO);
@@ -178,9 +192,9 @@ public class FeeService {
     }
 
     @Transactional(readOnly = true)
-    public List<FeePayment> getOverduePayments() {
+    public List<FeePaymentSummary> getOverduePayments() {
         String tenantId = TenantContext.getCurrentTenant();
-        return feePaymentRepository.findByTenantIdAndPaymentStatus(
+        return feePaymentRepository.findSummariesByStatus(
                 tenantId, FeePayment.PaymentStatus.OVERDUE);
     }
 }
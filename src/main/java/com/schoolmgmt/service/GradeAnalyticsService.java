@@ -0,0 +1,319 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.request.GradeAnalyticsRequest;
+import com.schoolmgmt.dto.request.GradeAnalyticsRequest.Dimension;
+import com.schoolmgmt.dto.response.GradeAnalyticsResponse;
+import com.schoolmgmt.event.ExamResultsChangedEvent;
+import com.schoolmgmt.event.ExamUpdatedEvent;
+import com.schoolmgmt.model.Exam;
+import com.schoolmgmt.model.GradeAggregate;
+import com.schoolmgmt.repository.ExamRepository;
+import com.schoolmgmt.repository.ExamResultRepository;
+import com.schoolmgmt.repository.GradeAggregateRepository;
+import com.schoolmgmt.util.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Grade analytics over a cube of per-exam aggregates.
+ * Each exam has one {@link GradeAggregate} row, refreshed right after a transaction that changes its marks
+ * commits, so dashboards roll up a few rows per exam and never read individual results.
+ */
+@Service
+@Slf4j
+public class GradeAnalyticsService {
+
+    private static final int REBUILD_CHUNK_SIZE = 500;
+    private static final int MAX_REFRESH_ATTEMPTS = 3;
+
+    private final GradeAggregateRepository aggregateRepository;
+    private final ExamRepository examRepository;
+    private final ExamResultRepository resultRepository;
+    private final TransactionTemplate refreshTransaction;
+
+    public GradeAnalyticsService(GradeAggregateRepository aggregateRepository,
+                                 ExamRepository examRepository,
+                                 ExamResultRepository resultRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.aggregateRepository = aggregateRepository;
+        this.examRepository = examRepository;
+        this.resultRepository = resultRepository;
+        this.refreshTransaction = new TransactionTemplate(transactionManager);
+        this.refreshTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ===== Refresh =====
+
+    /**
+     * Refreshes the exam's aggregate in its own transaction once the marks have committed, so a failed refresh
+     * never rolls back a teacher's marks.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExamResultsChanged(ExamResultsChangedEvent event) {
+        refreshAfterCommit(event.getTenantId(), event.getExamId());
+    }
+
+    /**
+     * Carries an edited exam's name, date and other dimensions over to its aggregate, and drops the aggregate of a
+     * deleted exam
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExamUpdated(ExamUpdatedEvent event) {
+        refreshAfterCommit(event.getTenantId(), event.getExamId());
+    }
+
+    /**
+     * Two refreshes that both insert an exam's first row collide on its unique key; the loser retries and then
+     * finds the row to lock.
+     */
+    private void refreshAfterCommit(String tenantId, UUID examId) {
+        if (tenantId == null) {
+            return;
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                refreshTransaction.executeWithoutResult(status -> refresh(tenantId, List.of(examId)));
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_REFRESH_ATTEMPTS) {
+                    log.error("Could not refresh grade aggregate of exam {} after {} attempts; rebuild to repair it",
+                            examId, attempt, e);
+                    return;
+                }
+                log.debug("Grade aggregate of exam {} was created concurrently, retrying", examId);
+            } catch (RuntimeException e) {
+                log.error("Could not refresh grade aggregate of exam {}; rebuild to repair it", examId, e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Recomputes the aggregates of the given exams from their results; exams without results, or no longer
+     * present, lose their row. Existing rows are locked before the results are read, so concurrent refreshes of
+     * an exam run one after the other and the last one sees every committed mark.
+     */
+    @Transactional
+    public void refresh(String tenantId, Collection<UUID> examIds) {
+        if (examIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        aggregateRepository.lockForRefresh(tenantId, examIds, now);
+        Map<UUID, GradeAggregate> existing = aggregateRepository.findByTenantIdAndExamIdIn(tenantId, examIds).stream()
+                .collect(Collectors.toMap(GradeAggregate::getExamId, Function.identity()));
+        Map<UUID, Exam> exams = examRepository.findWithTypeByTenantIdAndIdIn(tenantId, examIds).stream()
+                .collect(Collectors.toMap(Exam::getId, Function.identity()));
+        Map<UUID, Object[]> measures = resultRepository.aggregateByExam(tenantId, examIds).stream()
+                .collect(Collectors.toMap(row -> (UUID) row[0], Function.identity()));
+
+        List<GradeAggregate> toSave = new ArrayList<>();
+        List<GradeAggregate> toDelete = new ArrayList<>();
+        for (UUID examId : new LinkedHashSet<>(examIds)) {
+            Exam exam = exams.get(examId);
+            Object[] row = measures.get(examId);
+            GradeAggregate aggregate = existing.get(examId);
+            if (exam == null || row == null) {
+                if (aggregate != null) {
+                    toDelete.add(aggregate);
+                }
+                continue;
+            }
+            if (aggregate == null) {
+                aggregate = GradeAggregate.builder().tenantId(tenantId).examId(examId).build();
+            }
+            copyDimensions(exam, aggregate);
+            aggregate.setStudents(asLong(row[1]));
+            aggregate.setAppeared(asLong(row[2]));
+            aggregate.setPassed(asLong(row[3]));
+            aggregate.setFailed(asLong(row[4]));
+            aggregate.setPercentageSum(row[5] != null ? ((Number) row[5]).doubleValue() : 0);
+            aggregate.setPercentageSquares(row[6] != null ? ((Number) row[6]).doubleValue() : 0);
+            aggregate.setMinPercentage(row[7] != null ? ((Number) row[7]).doubleValue() : null);
+            aggregate.setMaxPercentage(row[8] != null ? ((Number) row[8]).doubleValue() : null);
+            aggregate.setRefreshedAt(now);
+            toSave.add(aggregate);
+        }
+        // Flushed here so a concurrent first insert surfaces as a DataIntegrityViolationException to retry on
+        aggregateRepository.saveAllAndFlush(toSave);
+        aggregateRepository.deleteAll(toDelete);
+        log.debug("Refreshed grade aggregates of {} exams for tenant: {}", examIds.size(), tenantId);
+    }
+
+    /**
+     * Rebuilds the current tenant's cube from all results, for a first load or after exams were edited.
+     *
+     * @return number of exams with an aggregate
+     */
+    @Transactional
+    public long rebuild() {
+        String tenantId = TenantContext.getCurrentTenant();
+        aggregateRepository.deleteByTenantId(tenantId);
+        List<UUID> examIds = examRepository.findIdsByTenantId(tenantId);
+        for (int from = 0; from < examIds.size(); from += REBUILD_CHUNK_SIZE) {
+            refresh(tenantId, examIds.subList(from, Math.min(from + REBUILD_CHUNK_SIZE, examIds.size())));
+        }
+        long count = aggregateRepository.countByTenantId(tenantId);
+        log.info("Rebuilt grade analytics of {} exams for tenant: {}", count, tenantId);
+        return count;
+    }
+
+    // ===== Slice and dice =====
+
+    /**
+     * Rolls up the aggregates of a slice by the requested dimensions.
+     * Averages and standard deviations are weighted by students who appeared, as if computed over the results.
+     */
+    @Transactional(readOnly = true)
+    public GradeAnalyticsResponse analyze(GradeAnalyticsRequest request) {
+        String tenantId = TenantContext.getCurrentTenant();
+        List<GradeAggregate> rows = aggregateRepository.findSlice(tenantId, request.getAcademicYear(),
+                request.getClassId(), request.getSection(), request.getSubjectId(), request.getExamTypeId(),
+                request.getFromDate(), request.getToDate());
+        List<Dimension> groupBy = request.getGroupBy() != null
+                ? request.getGroupBy().stream().distinct().toList()
+                : List.of();
+
+        // Rows come ordered by exam date, so cells keep the order of their first exam
+        Map<List<Object>, Rollup> cells = new LinkedHashMap<>();
+        Rollup total = new Rollup(null, List.of());
+        for (GradeAggregate row : rows) {
+            List<Object> key = groupBy.stream().map(d -> dimensionValue(row, d)).toList();
+            cells.computeIfAbsent(key, k -> new Rollup(row, groupBy)).add(row);
+            total.add(row);
+        }
+
+        return GradeAnalyticsResponse.builder()
+                .groupBy(groupBy)
+                .total(total.toCell())
+                .cells(cells.values().stream().map(Rollup::toCell).toList())
+                .build();
+    }
+
+    private static void copyDimensions(Exam exam, GradeAggregate aggregate) {
+        aggregate.setExamName(exam.getName());
+        aggregate.setExamDate(exam.getExamDate());
+        aggregate.setAcademicYear(exam.getAcademicYear());
+        aggregate.setClassId(exam.getClassId());
+        aggregate.setSection(exam.getSection());
+        aggregate.setSubjectId(exam.getSubjectId());
+        aggregate.setSubjectName(exam.getSubjectName());
+        aggregate.setExamTypeId(exam.getExamType() != null ? exam.getExamType().getId() : null);
+        aggregate.setExamTypeName(exam.getExamType() != null ? exam.getExamType().getName() : null);
+    }
+
+    private static Object dimensionValue(GradeAggregate row, Dimension dimension) {
+        return switch (dimension) {
+            case ACADEMIC_YEAR -> row.getAcademicYear();
+            case CLASS -> row.getClassId();
+            case SECTION -> row.getSection();
+            case SUBJECT -> row.getSubjectId();
+            case EXAM_TYPE -> row.getExamTypeId();
+            case MONTH -> row.getExamDate() != null ? YearMonth.from(row.getExamDate()).toString() : null;
+            case EXAM -> row.getExamId();
+        };
+    }
+
+    private static long asLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+
+    private static Double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * Running totals of one cell. The first row supplies the values of the grouped dimensions.
+     */
+    private static final class Rollup {
+        private final GradeAnalyticsResponse.Cell.CellBuilder cell = GradeAnalyticsResponse.Cell.builder();
+        private int exams;
+        private long students;
+        private long appeared;
+        private long passed;
+        private long failed;
+        private double percentageSum;
+        private double percentageSquares;
+        private Double min;
+        private Double max;
+        private LocalDate firstExamDate;
+        private LocalDate lastExamDate;
+
+        Rollup(GradeAggregate first, List<Dimension> groupBy) {
+            for (Dimension dimension : groupBy) {
+                switch (dimension) {
+                    case ACADEMIC_YEAR -> cell.academicYear(first.getAcademicYear());
+                    case CLASS -> cell.classId(first.getClassId());
+                    case SECTION -> cell.section(first.getSection());
+                    case SUBJECT -> cell.subjectId(first.getSubjectId()).subjectName(first.getSubjectName());
+                    case EXAM_TYPE -> cell.examTypeId(first.getExamTypeId()).examTypeName(first.getExamTypeName());
+                    case MONTH -> cell.month((String) dimensionValue(first, Dimension.MONTH));
+                    case EXAM -> cell.examId(first.getExamId()).examName(first.getExamName());
+                }
+            }
+        }
+
+        void add(GradeAggregate row) {
+            exams++;
+            students += row.getStudents();
+            appeared += row.getAppeared();
+            passed += row.getPassed();
+            failed += row.getFailed();
+            percentageSum += row.getPercentageSum();
+            percentageSquares += row.getPercentageSquares();
+            if (row.getMinPercentage() != null && (min == null || row.getMinPercentage() < min)) {
+                min = row.getMinPercentage();
+            }
+            if (row.getMaxPercentage() != null && (max == null || row.getMaxPercentage() > max)) {
+                max = row.getMaxPercentage();
+            }
+            LocalDate date = row.getExamDate();
+            if (date != null && (firstExamDate == null || date.isBefore(firstExamDate))) {
+                firstExamDate = date;
+            }
+            if (date != null && (lastExamDate == null || date.isAfter(lastExamDate))) {
+                lastExamDate = date;
+            }
+        }
+
+        GradeAnalyticsResponse.Cell toCell() {
+            Double average = null;
+            Double passPercentage = null;
+            Double deviation = null;
+            if (appeared > 0) {
+                double mean = percentageSum / appeared;
+                average = round(mean);
+                passPercentage = round(passed * 100.0 / appeared);
+                deviation = round(Math.sqrt(Math.max(0, percentageSquares / appeared - mean * mean)));
+            }
+            return cell
+                    .exams(exams)
+                    .students(students)
+                    .appeared(appeared)
+                    .passed(passed)
+                    .failed(failed)
+                    .averagePercentage(average)
+                    .passPercentage(passPercentage)
+                    .standardDeviation(deviation)
+                    .lowestPercentage(min != null ? round(min) : null)
+                    .highestPercentage(max != null ? round(max) : null)
+                    .firstExamDate(firstExamDate)
+                    .lastExamDate(lastExamDate)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.schoolmgmt.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolmgmt.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Runs a request at most once per tenant and Idempotency-Key, and replays its stored response to retries.
+ * Responses are kept in Redis for the TTL so a retry reaching any node is a cache hit. Duplicates arriving while
+ * the first attempt still runs wait on it through a local in-flight map, and a claim key in Redis keeps other
+ * nodes from running the same attempt concurrently.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    static final String KEY_PREFIX = "idempotency:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(RedisTemplate<String, String> redisTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${app.idempotency.wait-timeout-seconds:30}") long waitTimeoutSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.waitTimeout = Duration.ofSeconds(waitTimeoutSeconds);
+    }
+
+    /**
+     * A response as replayed to retries, with the caller and request it was recorded for
+     */
+    public record StoredResponse(int status, String contentType, byte[] body, String owner, String fingerprint) {
+    }
+
+    /**
+     * The response of a request, and whether it was replayed instead of executed
+     */
+    public record Execution(StoredResponse response, boolean replayed) {
+    }
+
+    /**
+     * Execution of the request itself, producing the response to store
+     */
+    @FunctionalInterface
+    public interface Action {
+        StoredResponse run() throws Exception;
+    }
+
+    /**
+     * Run the action unless a response for the key is stored or being produced, in which case that one is returned
+     *
+     * @param owner       caller the key belongs to; another caller reusing the key is rejected
+     * @param fingerprint request the key was first used for, e.g. "POST /api/fees/payment"
+     */
+    public Execution execute(String tenantId, String idempotencyKey, String owner, String fingerprint,
+                             Action action) throws Exception {
+        String key = KEY_PREFIX + tenantId + ":" + idempotencyKey;
+
+        StoredResponse stored = read(key);
+        if (stored != null) {
+            return replay(stored, owner, fingerprint);
+        }
+
+        CompletableFuture<StoredResponse> attempt = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, attempt);
+        if (running != null) {
+            log.debug("Waiting for in-flight request with idempotency key {}", key);
+            return replay(await(running), owner, fingerprint);
+        }
+
+        boolean claimed = false;
+        try {
+            // Another node may have finished, or be running, the same attempt
+            stored = read(key);
+            if (stored != null) {
+                attempt.complete(stored);
+                return replay(stored, owner, fingerprint);
+            }
+            claimed = claim(key, owner);
+            if (!claimed) {
+                throw new BusinessException("A request with this Idempotency-Key is still in progress", HttpStatus.CONFLICT);
+            }
+
+            StoredResponse response = action.run();
+            if (isReplayable(response.status())) {
+                write(key, response);
+                attempt.complete(response);
+            } else {
+                attempt.completeExceptionally(new IllegalStateException("Response " + response.status() + " is not replayable"));
+            }
+            return new Execution(response, false);
+        } catch (Exception e) {
+            attempt.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, attempt);
+            if (claimed) {
+                release(key);
+            }
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new BusinessException("A request with this Idempotency-Key is still in progress", HttpStatus.CONFLICT);
+        } catch (ExecutionException e) {
+            throw new BusinessException("The first request with this Idempotency-Key failed; retry it", HttpStatus.CONFLICT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for an in-flight request", e);
+        }
+    }
+
+    private Execution replay(StoredResponse stored, String owner, String fingerprint) {
+        if (!stored.owner().equals(owner) || !stored.fingerprint().equals(fingerprint)) {
+            throw new BusinessException("Idempotency-Key was already used for a different request",
+                    HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        return new Execution(stored, true);
+    }
+
+    /**
+     * Successes and client errors are final; server errors and conflicts are left for the retry to run again
+     */
+    static boolean isReplayable(int status) {
+        return status < 500 && status != HttpStatus.CONFLICT.value() && status != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    // ===== Redis =====
+
+    private StoredResponse read(String key) {
+        try {
+            String value = redisTemplate.opsForValue().get(key);
+            return value != null ? objectMapper.readValue(value, StoredResponse.class) : null;
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable stored response {}: {}", key, e.getMessage());
+            return null;
+        } catch (RuntimeException e) {
+            // Without Redis only the local in-flight map protects against duplicates
+            log.warn("Could not read stored response {} from Redis: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String key, StoredResponse response) {
+        try {
+            redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(response), ttl);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Could not store response {} in Redis: {}", key, e.getMessage());
+        }
+    }
+
+    private boolean claim(String key, String owner) {
+        try {
+            return !Boolean.FALSE.equals(redisTemplate.opsForValue().setIfAbsent(key + ":lock", owner, waitTimeout));
+        } catch (RuntimeException e) {
+            log.warn("Could not claim idempotency key {} in Redis: {}", key, e.getMessage());
+            return true;
+        }
+    }
+
+    private void release(String key) {
+        try {
+            redisTemplate.delete(key + ":lock");
+        } catch (RuntimeException e) {
+            log.warn("Could not release idempotency key {} in Redis: {}", key, e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.schoolmgmt.service;
 
+import com.schoolmgmt.dto.response.LeaveRequestSummary;
+import com.schoolmgmt.event.LeaveStatusChangedEvent;
 import com.schoolmgmt.model.LeaveBalance;
 import com.schoolmgmt.model.LeaveRequest;
 import com.schoolmgmt.model.LeaveType;
@@ -9,6 +11,7 @@ import com.schoolmgmt.repository.LeaveTypeRepository;
 import com.schoolmgmt.util.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -26,6 +29,7 @@ public class LeaveService {
     private final LeaveTypeRepository leaveTypeRepository;
     private final LeaveRequestRepository leaveRequestRepository;
     private final LeaveBalanceRepository leaveBalanceRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ===== Leave Type Operations =====
 
@@ -97,22 +101,22 @@ public class LeaveService {
     }
 
     @Transactional(readOnly = true)
-    public List<LeaveRequest> getMyLeaves(String userId) {
+    public List<LeaveRequestSummary> getMyLeaves(String userId) {
         String tenantId = TenantContext.getCurrentTenant();
-        return leaveRequestRepository.findByTenantIdAndUserIdOrderByCreatedAtDesc(tenantId, userId);
+        return leaveRequestRepository.findSummariesByUser(tenantId, userId);
     }
 
     @Transactional(readOnly = true)
-    public List<LeaveRequest> getPendingApprovals() {
+    public List<LeaveRequestSummary> getPendingApprovals() {
         String tenantId = TenantContext.getCurrentTenant();
-        return leaveRequestRepository.findByTenantIdAndStatusOrderByCreatedAtDesc(
+        return leaveRequestRepository.findSummariesByStatus(
                 tenantId, LeaveRequest.LeaveStatus.PENDING);
     }
 
     @Transactional(readOnly = true)
-    public Page<LeaveRequest> getAllLeaveRequests(Pageable pageable) {
+    public Page<LeaveRequestSummary> getAllLeaveRequests(Pageable pageable) {
         String tenantId = TenantContext.getCurrentTenant();
-        return leaveRequestRepository.findByTenantIdOrderByCreatedAtDesc(tenantId, pageable);
+        return leaveRequestRepository.findSummaries(tenantId, pageable);
     }
 
     @Transactional
@@ -134,7 +138,10 @@ public class LeaveService {
         updateLeaveBalance(request, true);
 
         log.info("Leave {} approved by {}", id, approvedBy);
-        return leaveRequestRepository.save(request);
+        LeaveRequest saved = leaveRequestRepository.save(request);
+        eventPublisher.publishEvent(new LeaveStatusChangedEvent(
+                request.getTenantId(), id, LeaveRequest.LeaveStatus.APPROVED));
+        return saved;
     }
 
     @Transactional
@@ -162,8 +169,10 @@ public class LeaveService {
                 .orElseThrow(() -> new NoSuchElementException("Leave request not found: " + id));
 
         if (request.getStatus() == LeaveRequest.LeaveStatus.APPROVED) {
-            // Restore balance
+            // Restore balance and release any substitutes assigned for the leave
             updateLeaveBalance(request, false);
+            eventPublisher.publishEvent(new LeaveStatusChangedEvent(
+                    request.getTenantId(), id, LeaveRequest.LeaveStatus.CANCELLED));
         }
 
         request.setStatus(LeaveRequest.LeaveStatus.CANCELLED);
@@ -0,0 +1,283 @@
+package com.schoolmgmt.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolmgmt.event.NotificationQueuedEvent;
+import com.schoolmgmt.model.FcmToken;
+import com.schoolmgmt.model.NotificationLog.NotificationStatus;
+import com.schoolmgmt.model.NotificationOutbox;
+import com.schoolmgmt.model.NotificationOutbox.OutboxStatus;
+import com.schoolmgmt.repository.FcmTokenRepository;
+import com.schoolmgmt.repository.NotificationLogRepository;
+import com.schoolmgmt.repository.NotificationOutboxRepository;
+import com.schoolmgmt.service.PushNotificationSender.PushResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the notification outbox: claims due messages in batches, delivers them on a bounded pool outside any
+ * request, and records each outcome on the outbox row and its NotificationLog. Failed deliveries are retried with
+ * exponential backoff and jitter until the attempts run out, after which the message is dead-lettered; after a
+ * partial delivery only the devices not yet reached are retried.
+ * Claims carry a lease, so several nodes can drain the same table and messages of a dead node are picked up again.
+ */
+@Service
+@Slf4j
+public class NotificationOutboxDispatcher {
+
+    private static final TypeReference<Set<String>> TOKENS_TYPE = new TypeReference<>() {};
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationLogRepository notificationLogRepository;
+    private final FcmTokenRepository fcmTokenRepository;
+    private final PushNotificationSender pushSender;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService deliveryPool;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+
+    public NotificationOutboxDispatcher(NotificationOutboxRepository outboxRepository,
+                                        NotificationLogRepository notificationLogRepository,
+                                        FcmTokenRepository fcmTokenRepository,
+                                        PushNotificationSender pushSender,
+                                        ObjectMapper objectMapper,
+                                        PlatformTransactionManager transactionManager,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${app.notifications.outbox.batch-size:100}") int batchSize,
+                                        @Value("${app.notifications.outbox.dispatcher-threads:4}") int dispatcherThreads,
+                                        @Value("${app.notifications.outbox.max-attempts:6}") int maxAttempts,
+                                        @Value("${app.notifications.outbox.initial-backoff-ms:2000}") long initialBackoffMs,
+                                        @Value("${app.notifications.outbox.max-backoff-ms:600000}") long maxBackoffMs,
+                                        @Value("${app.notifications.outbox.lease-seconds:120}") long leaseSeconds) {
+        this.outboxRepository = outboxRepository;
+        this.notificationLogRepository = notificationLogRepository;
+        this.fcmTokenRepository = fcmTokenRepository;
+        this.pushSender = pushSender;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        AtomicInteger threads = new AtomicInteger();
+        this.deliveryPool = Executors.newFixedThreadPool(dispatcherThreads, task -> {
+            Thread thread = new Thread(task, "notification-dispatch-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        deliveryPool.shutdownNow();
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNotificationQueued(NotificationQueuedEvent event) {
+        drain();
+    }
+
+    /**
+     * Pick up retries as they fall due, and anything a missed wake-up left behind
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        drain();
+    }
+
+    /**
+     * Deliver due messages batch by batch until none are left. A call while this node is already draining only
+     * asks the running drain for another round.
+     *
+     * @return number of messages claimed
+     */
+    public int drain() {
+        if (!draining.compareAndSet(false, true)) {
+            drainRequested.set(true);
+            return 0;
+        }
+        int total = 0;
+        try {
+            do {
+                drainRequested.set(false);
+                int found;
+                do {
+                    found = dispatchBatch();
+                    total += found;
+                } while (found == batchSize);
+            } while (drainRequested.get());
+        } catch (RuntimeException e) {
+            log.error("Notification outbox drain failed", e);
+        } finally {
+            draining.set(false);
+        }
+        return total;
+    }
+
+    /**
+     * Claim one batch and deliver it, waiting for the whole batch before the next claim
+     *
+     * @return number of due messages found, claimed by this node or not
+     */
+    private int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        String claimToken = UUID.randomUUID().toString();
+        List<UUID> dueIds = new ArrayList<>();
+        List<NotificationOutbox> claimed = transactionTemplate.execute(status -> {
+            dueIds.addAll(outboxRepository.findDueIds(now, PageRequest.of(0, batchSize)));
+            if (dueIds.isEmpty()) {
+                return List.of();
+            }
+            outboxRepository.claim(dueIds, claimToken, now.plus(lease), now);
+            return outboxRepository.findByClaimToken(claimToken);
+        });
+
+        List<Future<?>> deliveries = new ArrayList<>(claimed.size());
+        for (NotificationOutbox message : claimed) {
+            deliveries.add(deliveryPool.submit(() -> deliver(message)));
+        }
+        for (Future<?> delivery : deliveries) {
+            try {
+                delivery.get();
+            } catch (ExecutionException e) {
+                // The claim lapses and the message is picked up again after the lease
+                log.error("Notification delivery failed unexpectedly", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted dispatching notifications", e);
+            }
+        }
+        return dueIds.size();
+    }
+
+    private void deliver(NotificationOutbox message) {
+        List<FcmToken> tokens = message.getRecipientUserId() != null
+                ? fcmTokenRepository.findByUserIdAndIsActiveTrue(message.getRecipientUserId())
+                : fcmTokenRepository.findByTenantIdAndIsActiveTrue(message.getTenantId());
+        Set<String> pending = readTokens(message.getPendingTokens());
+        if (pending != null) {
+            tokens = tokens.stream().filter(token -> pending.contains(token.getToken())).toList();
+            if (tokens.isEmpty()) {
+                // Earlier attempts reached the other devices, and the ones left have been unregistered since
+                complete(message, OutboxStatus.SENT, message.getAttempts(), null, null);
+                return;
+            }
+        } else if (tokens.isEmpty()) {
+            log.warn("No active FCM tokens for notification {}", message.getNotificationLogId());
+            complete(message, OutboxStatus.DEAD, message.getAttempts(), null, message.getRecipientUserId() != null
+                    ? "No active FCM tokens for user" : "No active tokens found");
+            return;
+        }
+
+        int attempts = message.getAttempts() + 1;
+        String pendingTokens = message.getPendingTokens();
+        try {
+            PushResult result = pushSender.send(tokens, message.getTitle(), message.getBody(), message.getDataPayload());
+            boolean reachedAny = result.delivered() > 0 || pending != null;
+            if (result.retryable() > 0) {
+                // Once some devices have the message, later attempts go to the rest only
+                if (reachedAny) {
+                    pendingTokens = writeTokens(result.retryableTokens());
+                }
+                throw new IllegalStateException(result.retryable() + " devices could not be reached");
+            }
+            if (!reachedAny) {
+                complete(message, OutboxStatus.DEAD, attempts, null, "No device accepted the notification");
+                return;
+            }
+            complete(message, OutboxStatus.SENT, attempts, null, null);
+        } catch (RuntimeException e) {
+            String error = "FCM send failed: " + e.getMessage();
+            if (attempts >= maxAttempts) {
+                log.error("Dead-lettering notification {} after {} attempts: {}",
+                        message.getNotificationLogId(), attempts, e.getMessage());
+                complete(message, OutboxStatus.DEAD, attempts, pendingTokens, error);
+            } else {
+                log.warn("Delivery attempt {} of notification {} failed: {}",
+                        attempts, message.getNotificationLogId(), e.getMessage());
+                complete(message, OutboxStatus.PENDING, attempts, pendingTokens, error);
+            }
+        }
+    }
+
+    private void complete(NotificationOutbox message, OutboxStatus status, int attempts, String pendingTokens,
+                          String error) {
+        LocalDateTime now = LocalDateTime.now();
+        String lastError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        LocalDateTime nextAttemptAt = status == OutboxStatus.PENDING ? now.plus(backoff(attempts)) : now;
+        transactionTemplate.executeWithoutResult(tx -> {
+            int updated = outboxRepository.complete(message.getId(), message.getClaimToken(), status, attempts,
+                    nextAttemptAt, pendingTokens, lastError, status == OutboxStatus.SENT ? now : null);
+            if (updated == 0) {
+                // The lease ran out and another dispatcher owns the message now
+                log.warn("Lost claim on notification {} before recording its delivery", message.getNotificationLogId());
+                return;
+            }
+            NotificationStatus logStatus = switch (status) {
+                case SENT -> NotificationStatus.SENT;
+                case DEAD -> NotificationStatus.FAILED;
+                default -> NotificationStatus.PENDING;
+            };
+            notificationLogRepository.updateDeliveryStatus(message.getNotificationLogId(), logStatus, lastError);
+        });
+        meterRegistry.counter("notifications.outbox.deliveries", "outcome", status.name().toLowerCase()).increment();
+    }
+
+    private Set<String> readTokens(String json) {
+        if (json == null || json.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, TOKENS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt pending tokens on notification outbox", e);
+        }
+    }
+
+    private String writeTokens(List<String> tokens) {
+        try {
+            return objectMapper.writeValueAsString(tokens);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize pending tokens", e);
+        }
+    }
+
+    /**
+     * Exponential backoff from the initial delay, capped, with jitter so retries after an outage spread out
+     */
+    Duration backoff(int attempts) {
+        long delay = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempts - 1, 20));
+        return Duration.ofMillis(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+    }
+}
@@ -1,19 +1,22 @@
 package com.schoolmgmt.service;
 
-import com.schoolmgmt.model.FcmToken;
+import com.schoolmgmt.event.NotificationQueuedEvent;
 import com.schoolmgmt.model.NotificationLog;
+import com.schoolmgmt.model.NotificationOutbox;
 import com.schoolmgmt.model.NotificationTemplate;
-import com.schoolmgmt.repository.FcmTokenRepository;
 import com.schoolmgmt.repository.NotificationLogRepository;
+import com.schoolmgmt.repository.NotificationOutboxRepository;
 import com.schoolmgmt.repository.NotificationTemplateRepository;
 import com.schoolmgmt.util.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.*;
 
 @Service
@@ -21,20 +24,23 @@ import java.util.*;
 @Slf4j
 public class NotificationService {
 
-    private final FcmTokenRepository fcmTokenRepository;
     private final NotificationLogRepository notificationLogRepository;
+    private final NotificationOutboxRepository notificationOutboxRepository;
     private final NotificationTemplateRepository notificationTemplateRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ===== Send Notifications =====
 
+    /**
+     * Log a push notification to a user and queue it in the caller's transaction; it is delivered after commit
+     */
     @Transactional
     public NotificationLog sendToUser(String recipientUserId, String title, String body,
                                        NotificationLog.NotificationType type,
                                        String dataPayload, String senderUserId, String senderName) {
         String tenantId = TenantContext.getCurrentTenant();
 
-        // Create notification log
-        NotificationLog notification = NotificationLog.builder()
+        NotificationLog notification = notificationLogRepository.save(NotificationLog.builder()
                 .tenantId(tenantId)
                 .title(title)
                 .body(body)
@@ -44,42 +50,22 @@ public class NotificationService {
                 .senderName(senderName)
                 .dataPayload(dataPayload)
                 .status(NotificationLog.NotificationStatus.PENDING)
-                .build();
-
-        // Get user's FCM tokens
-        List<FcmToken> tokens = fcmTokenRepository.findByUserIdAndIsActiveTrue(recipientUserId);
-
-        if (tokens.isEmpty()) {
-            log.warn("No active FCM tokens found for user: {}", recipientUserId);
-            notification.setStatus(NotificationLog.NotificationStatus.FAILED);
-            notification.setErrorMessage("No active FCM tokens for user");
-        } else {
-            // Send push notification via FCM
-            boolean sent = sendPushNotification(tokens, title, body, dataPayload);
-            notification.setStatus(sent
-                    ? NotificationLog.NotificationStatus.SENT
-                    : NotificationLog.NotificationStatus.FAILED);
-            if (!sent) {
-                notification.setErrorMessage("FCM send failed");
-            }
-        }
+                .build());
 
-        return notificationLogRepository.save(notification);
+        enqueue(notification);
+        return notification;
     }
 
+    /**
+     * Log a broadcast to a role and queue it in the caller's transaction; it is delivered after commit
+     */
     @Transactional
     public List<NotificationLog> sendToRole(String role, String title, String body,
                                              NotificationLog.NotificationType type,
                                              String dataPayload, String senderUserId, String senderName) {
         String tenantId = TenantContext.getCurrentTenant();
-        List<NotificationLog> notifications = new ArrayList<>();
-
-        // Get all tokens for the tenant
-        List<FcmToken> allTokens = fcmTokenRepository.findByTenantIdAndIsActiveTrue(
-                tenantId);
 
-        // Log notification for the role (broadcast)
-        NotificationLog notification = NotificationLog.builder()
+        NotificationLog notification = notificationLogRepository.save(NotificationLog.builder()
                 .tenantId(tenantId)
                 .title(title)
                 .body(body)
@@ -89,20 +75,10 @@ public class NotificationService {
                 .senderName(senderName)
                 .dataPayload(dataPayload)
                 .status(NotificationLog.NotificationStatus.PENDING)
-                .build();
+                .build());
 
-        if (!allTokens.isEmpty()) {
-            boolean sent = sendPushNotification(allTokens, title, body, dataPayload);
-            notification.setStatus(sent
-                    ? NotificationLog.NotificationStatus.SENT
-                    : NotificationLog.NotificationStatus.FAILED);
-        } else {
-            notification.setStatus(NotificationLog.NotificationStatus.FAILED);
-            notification.setErrorMessage("No active tokens found");
-        }
-
-        notifications.add(notificationLogRepository.save(notification));
-        return notifications;
+        enqueue(notification);
+        return List.of(notification);
     }
 
     @Transactional
@@ -209,25 +185,21 @@ public class NotificationService {
         return notificationLogRepository.findByTenantIdOrderByCreatedAtDesc(tenantId, pageable);
     }
 
-    // ===== Internal: FCM Push =====
-
-    private boolean sendPushNotification(List<FcmToken> tokens, String title, String body,
-                                          String dataPayload) {
-        // TODO: Integrate Firebase Admin SDK for actual push delivery.
-        // For now, log the notification and mark as sent.
-        // When Firebase Admin SDK is added:
-        //   1. Add firebase-admin dependency to pom.xml
-        //   2. Place service-account.json in resources
-        //   3. Initialize FirebaseApp in a @Configuration class
-        //   4. Use FirebaseMessaging.getInstance().sendEachForMulticast(...)
-
-        for (FcmToken token : tokens) {
-            log.info("Push notification queued for token: {} (device: {}) - Title: {}",
-                    token.getToken().substring(0, Math.min(20, token.getToken().length())) + "...",
-                    token.getDeviceName(),
-                    title);
-        }
-
-        return true; // Simulated success until Firebase Admin SDK is integrated
+    // ===== Internal: Outbox =====
+
+    private void enqueue(NotificationLog notification) {
+        NotificationOutbox message = NotificationOutbox.builder()
+                .notificationLogId(notification.getId())
+                .recipientUserId(notification.getRecipientUserId())
+                .recipientRole(notification.getRecipientRole())
+                .title(notification.getTitle())
+                .body(notification.getBody())
+                .dataPayload(notification.getDataPayload())
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+        message.setTenantId(notification.getTenantId());
+
+        notificationOutboxRepository.save(message);
+        eventPublisher.publishEvent(new NotificationQueuedEvent(notification.getTenantId()));
     }
 }
@@ -0,0 +1,273 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.response.NowNextResponse;
+import com.schoolmgmt.event.LeaveStatusChangedEvent;
+import com.schoolmgmt.event.SubstitutionsChangedEvent;
+import com.schoolmgmt.event.TimetableChangedEvent;
+import com.schoolmgmt.model.TimetableEntry;
+import com.schoolmgmt.model.TimetableSubstitution;
+import com.schoolmgmt.repository.TimetableRepository;
+import com.schoolmgmt.repository.TimetableSubstitutionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Per-tenant index of today's timetable for "now and next" lookups.
+ * Each class and teacher has its periods sorted by start time. The answer for all of them only changes at
+ * period boundaries, so it is computed once per interval between boundaries and reused for every request
+ * falling in that interval. The index is rebuilt at day rollover and when the timetable or today's
+ * substitutions change, here or on another node: it remembers the shared timetable and cover versions it was
+ * loaded at, and while Redis is unreachable it is served until it reaches its maximum age.
+ */
+@Component
+@Slf4j
+public class NowNextIndex {
+
+    private static final Comparator<NowNextResponse.Slot> BY_START = Comparator.comparing(NowNextResponse.Slot::getStartTime);
+
+    private final TimetableRepository timetableRepository;
+    private final TimetableSubstitutionRepository substitutionRepository;
+    private final TimetableVersions timetableVersions;
+    private final long syncIntervalMillis;
+    private final long maxAgeMillis;
+
+    private final Map<String, DaySchedule> schedules = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public NowNextIndex(TimetableRepository timetableRepository,
+                        TimetableSubstitutionRepository substitutionRepository,
+                        TimetableVersions timetableVersions,
+                        @Value("${app.timetable.cache.sync-interval-ms:2000}") long syncIntervalMillis,
+                        @Value("${app.timetable.cache.max-age-seconds:600}") long maxAgeSeconds) {
+        this.timetableRepository = timetableRepository;
+        this.substitutionRepository = substitutionRepository;
+        this.timetableVersions = timetableVersions;
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.maxAgeMillis = maxAgeSeconds * 1000;
+    }
+
+    /**
+     * Get the current and next period of every class and teacher of a tenant at a point in time
+     */
+    public NowNextResponse lookup(String tenantId, LocalDateTime at) {
+        return schedule(tenantId, at.toLocalDate()).lookup(at.toLocalTime());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTimetableChanged(TimetableChangedEvent event) {
+        invalidate(event.getTenantId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSubstitutionsChanged(SubstitutionsChangedEvent event) {
+        invalidate(event.getTenantId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLeaveStatusChanged(LeaveStatusChangedEvent event) {
+        invalidate(event.getTenantId());
+    }
+
+    public void invalidate(String tenantId) {
+        if (tenantId == null) {
+            return;
+        }
+        generations.computeIfAbsent(tenantId, k -> new AtomicLong()).incrementAndGet();
+        schedules.remove(tenantId);
+        log.debug("Invalidated now/next schedule for tenant: {}", tenantId);
+    }
+
+    private DaySchedule schedule(String tenantId, LocalDate date) {
+        DaySchedule schedule = schedules.get(tenantId);
+        if (schedule != null && schedule.date.equals(date) && isCurrent(tenantId, schedule)) {
+            return schedule;
+        }
+
+        AtomicLong generation = generations.computeIfAbsent(tenantId, k -> new AtomicLong());
+        long loadedAt = generation.get();
+        // Read the versions before loading, so a write committed meanwhile shows up as newer versions
+        Long timetableVersion = timetableVersions.current(tenantId);
+        Long substitutionsVersion = timetableVersions.currentSubstitutions(tenantId);
+        DaySchedule loaded = load(tenantId, date, timetableVersion, substitutionsVersion);
+        // Keep only the newest day, and never a snapshot a committed write has already made stale
+        schedules.compute(tenantId, (k, current) -> generation.get() != loadedAt
+                || (current != null && current.date.isAfter(date)) ? current : loaded);
+        return loaded;
+    }
+
+    private boolean isCurrent(String tenantId, DaySchedule schedule) {
+        long now = System.currentTimeMillis();
+        if (now - schedule.createdAt >= maxAgeMillis) {
+            return false;
+        }
+        if (now - schedule.checkedAt < syncIntervalMillis) {
+            return true;
+        }
+        // Unknown versions mean Redis is unreachable; keep using the schedule until it is back or too old
+        Long timetableVersion = timetableVersions.current(tenantId);
+        Long substitutionsVersion = timetableVersions.currentSubstitutions(tenantId);
+        if (timetableVersion == null || substitutionsVersion == null
+                || (timetableVersion.equals(schedule.timetableVersion)
+                    && substitutionsVersion.equals(schedule.substitutionsVersion))) {
+            schedule.checkedAt = now;
+            return true;
+        }
+        return false;
+    }
+
+    private DaySchedule load(String tenantId, LocalDate date, Long timetableVersion, Long substitutionsVersion) {
+        long start = System.nanoTime();
+        TimetableEntry.DayOfWeek day = TimetableEntry.DayOfWeek.valueOf(date.getDayOfWeek().name());
+        Map<UUID, TimetableSubstitution> substitutions = new HashMap<>();
+        for (TimetableSubstitution substitution : substitutionRepository.findByTenantIdAndSubstitutionDate(tenantId, date)) {
+            substitutions.put(substitution.getTimetableEntryId(), substitution);
+        }
+
+        List<NowNextResponse.Slot> slots = new ArrayList<>();
+        for (TimetableEntry entry : timetableRepository.findByTenantIdAndDayOfWeekAndIsActiveTrue(tenantId, day)) {
+            if (entry.getPeriod() == null || entry.getPeriod().getStartTime() == null || entry.getPeriod().getEndTime() == null) {
+                continue;
+            }
+            TimetableSubstitution substitution = substitutions.get(entry.getId());
+            slots.add(NowNextResponse.Slot.builder()
+                    .timetableEntryId(entry.getId())
+                    .periodId(entry.getPeriod().getId())
+                    .periodNumber(entry.getPeriod().getPeriodNumber())
+                    .periodName(entry.getPeriod().getName())
+                    .startTime(entry.getPeriod().getStartTime())
+                    .endTime(entry.getPeriod().getEndTime())
+                    .classId(entry.getClassId())
+                    .section(entry.getSection())
+                    .subjectName(entry.getSubjectName())
+                    .teacherId(substitution != null ? substitution.getSubstituteTeacherId() : entry.getTeacherId())
+                    .teacherName(substitution != null ? substitution.getSubstituteTeacherName() : entry.getTeacherName())
+                    .room(entry.getRoom())
+                    .substitute(substitution != null)
+                    .build());
+        }
+
+        DaySchedule schedule = new DaySchedule(date, day, slots, timetableVersion, substitutionsVersion);
+        log.info("Loaded now/next schedule for tenant {} on {}: {} periods in {} us",
+                tenantId, date, slots.size(), (System.nanoTime() - start) / 1_000);
+        return schedule;
+    }
+
+    /**
+     * One tenant's periods on one date, grouped by class section and by teacher
+     */
+    private static final class DaySchedule {
+
+        private final LocalDate date;
+        private final TimetableEntry.DayOfWeek day;
+        private final Map<String, NowNextResponse.Slot[]> classSlots;
+        private final Map<UUID, NowNextResponse.Slot[]> teacherSlots;
+        private final LocalTime[] boundaries;
+        private final Map<Integer, NowNextResponse> answers = new ConcurrentHashMap<>();
+        private final Long timetableVersion;
+        private final Long substitutionsVersion;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long checkedAt = createdAt;
+
+        DaySchedule(LocalDate date, TimetableEntry.DayOfWeek day, List<NowNextResponse.Slot> slots,
+                    Long timetableVersion, Long substitutionsVersion) {
+            this.date = date;
+            this.day = day;
+            this.timetableVersion = timetableVersion;
+            this.substitutionsVersion = substitutionsVersion;
+            this.classSlots = group(slots, slot -> slot.getClassId() + "/" + slot.getSection());
+            this.teacherSlots = group(slots.stream().filter(slot -> slot.getTeacherId() != null).toList(),
+                    NowNextResponse.Slot::getTeacherId);
+            TreeSet<LocalTime> times = new TreeSet<>();
+            for (NowNextResponse.Slot slot : slots) {
+                times.add(slot.getStartTime());
+                times.add(slot.getEndTime());
+            }
+            this.boundaries = times.toArray(new LocalTime[0]);
+        }
+
+        NowNextResponse lookup(LocalTime time) {
+            int segment = upperBound(boundaries, time, Function.identity());
+            return answers.computeIfAbsent(segment, s -> answer(s, time));
+        }
+
+        private NowNextResponse answer(int segment, LocalTime time) {
+            List<NowNextResponse.ClassSchedule> classes = new ArrayList<>(classSlots.size());
+            for (NowNextResponse.Slot[] slots : classSlots.values()) {
+                NowNextResponse.Slot[] found = find(slots, time);
+                if (found[0] != null || found[1] != null) {
+                    classes.add(NowNextResponse.ClassSchedule.builder()
+                            .classId(slots[0].getClassId())
+                            .section(slots[0].getSection())
+                            .current(found[0])
+                            .next(found[1])
+                            .build());
+                }
+            }
+            List<NowNextResponse.TeacherSchedule> teachers = new ArrayList<>(teacherSlots.size());
+            for (NowNextResponse.Slot[] slots : teacherSlots.values()) {
+                NowNextResponse.Slot[] found = find(slots, time);
+                if (found[0] != null || found[1] != null) {
+                    teachers.add(NowNextResponse.TeacherSchedule.builder()
+                            .teacherId(slots[0].getTeacherId())
+                            .teacherName(slots[0].getTeacherName())
+                            .current(found[0])
+                            .next(found[1])
+                            .build());
+                }
+            }
+            return NowNextResponse.builder()
+                    .date(date)
+                    .dayOfWeek(day)
+                    .validFrom(segment > 0 ? boundaries[segment - 1] : null)
+                    .validUntil(segment < boundaries.length ? boundaries[segment] : null)
+                    .classes(classes)
+                    .teachers(teachers)
+                    .build();
+        }
+
+        // Current is the last period started by the time and not yet over; next is the first one after it
+        private static NowNextResponse.Slot[] find(NowNextResponse.Slot[] slots, LocalTime time) {
+            int started = upperBound(slots, time, NowNextResponse.Slot::getStartTime);
+            NowNextResponse.Slot current = started > 0 && time.isBefore(slots[started - 1].getEndTime())
+                    ? slots[started - 1] : null;
+            NowNextResponse.Slot next = started < slots.length ? slots[started] : null;
+            return new NowNextResponse.Slot[]{current, next};
+        }
+
+        // Number of leading elements whose key is at or before the time
+        private static <T> int upperBound(T[] sorted, LocalTime time, Function<T, LocalTime> key) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (key.apply(sorted[mid]).isAfter(time)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        private static <K> Map<K, NowNextResponse.Slot[]> group(List<NowNextResponse.Slot> slots,
+                                                                Function<NowNextResponse.Slot, K> key) {
+            Map<K, List<NowNextResponse.Slot>> grouped = new LinkedHashMap<>();
+            slots.stream().sorted(BY_START)
+                    .forEach(slot -> grouped.computeIfAbsent(key.apply(slot), k -> new ArrayList<>()).add(slot));
+            Map<K, NowNextResponse.Slot[]> sorted = new LinkedHashMap<>();
+            grouped.forEach((k, list) -> sorted.put(k, list.toArray(new NowNextResponse.Slot[0])));
+            return sorted;
+        }
+    }
+}
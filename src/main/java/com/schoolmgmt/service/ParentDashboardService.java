@@ -0,0 +1,256 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.response.FamilyGraphResponse;
+import com.schoolmgmt.dto.response.FeePaymentSummary;
+import com.schoolmgmt.dto.response.ParentDashboardResponse;
+import com.schoolmgmt.dto.response.ParentDashboardResponse.AttendanceSummary;
+import com.schoolmgmt.dto.response.ParentDashboardResponse.PendingFee;
+import com.schoolmgmt.dto.response.ParentDashboardResponse.RecentResult;
+import com.schoolmgmt.dto.response.ParentDashboardResponse.UpcomingExam;
+import com.schoolmgmt.dto.response.ParentResponse;
+import com.schoolmgmt.exception.BusinessException;
+import com.schoolmgmt.exception.ResourceNotFoundException;
+import com.schoolmgmt.model.Exam;
+import com.schoolmgmt.model.ExamResult;
+import com.schoolmgmt.model.User;
+import com.schoolmgmt.util.TenantContext;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Builds the parent home screen in one call.
+ * Sections are loaded concurrently on virtual threads; a section that misses its deadline or fails
+ * is left empty and reported, so one slow module never holds up the whole dashboard.
+ */
+@Service
+@Slf4j
+public class ParentDashboardService {
+
+    public static final String PARENT_DASHBOARD = "parent-dashboard";
+
+    static final String SECTION_ATTENDANCE = "attendance";
+    static final String SECTION_FEES = "fees";
+    static final String SECTION_RESULTS = "results";
+    static final String SECTION_EXAMS = "exams";
+    static final String SECTION_NOTIFICATIONS = "notifications";
+
+    private static final int RECENT_RESULTS_PER_CHILD = 5;
+
+    private final ParentService parentService;
+    private final AttendanceService attendanceService;
+    private final FeeService feeService;
+    private final ExamService examService;
+    private final NotificationService notificationService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long sectionTimeoutMillis;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ParentDashboardService(ParentService parentService,
+                                  AttendanceService attendanceService,
+                                  FeeService feeService,
+                                  ExamService examService,
+                                  NotificationService notificationService,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.parent-dashboard.section-timeout-ms:800}") long sectionTimeoutMillis) {
+        this.parentService = parentService;
+        this.attendanceService = attendanceService;
+        this.feeService = feeService;
+        this.examService = examService;
+        this.notificationService = notificationService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.sectionTimeoutMillis = sectionTimeoutMillis;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Get the dashboard of the signed-in parent; only complete dashboards are cached
+     */
+    @Cacheable(value = PARENT_DASHBOARD,
+            key = "T(com.schoolmgmt.util.TenantContext).requireCurrentTenant() + ':' + #user.referenceId",
+            unless = "#result.partial")
+    public ParentDashboardResponse getDashboard(User user) {
+        String tenantId = TenantContext.requireCurrentTenant();
+        UUID parentId = resolveParentId(user);
+
+        FamilyGraphResponse family = parentService.getFamilyGraphs(List.of(parentId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Parent", "id", parentId));
+        List<ParentResponse.LinkedStudentInfo> children = family.getLinkedStudents();
+        List<UUID> studentIds = children.stream().map(child -> UUID.fromString(child.getId())).toList();
+        Set<UUID> classIds = new LinkedHashSet<>();
+        children.forEach(child -> parseUuid(child.getCurrentClassId()).ifPresent(classIds::add));
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sectionTimeoutMillis);
+        Future<List<AttendanceSummary>> attendance = submit(tenantId, () -> loadAttendance(studentIds));
+        Future<List<PendingFee>> fees = submit(tenantId, () -> loadPendingFees(studentIds));
+        Future<List<RecentResult>> results = submit(tenantId, () -> loadRecentResults(studentIds));
+        Future<List<UpcomingExam>> exams = submit(tenantId, () -> loadUpcomingExams(classIds));
+        Future<Long> unread = submit(tenantId, () -> notificationService.getUnreadCount(user.getUserId()));
+
+        List<String> unavailable = new ArrayList<>();
+        ParentDashboardResponse response = ParentDashboardResponse.builder()
+                .parentId(family.getParentId())
+                .fullName(family.getFullName())
+                .generatedAt(LocalDateTime.now())
+                .children(children)
+                .attendance(await(SECTION_ATTENDANCE, attendance, deadline, unavailable))
+                .pendingFees(await(SECTION_FEES, fees, deadline, unavailable))
+                .recentResults(await(SECTION_RESULTS, results, deadline, unavailable))
+                .upcomingExams(await(SECTION_EXAMS, exams, deadline, unavailable))
+                .unreadNotifications(await(SECTION_NOTIFICATIONS, unread, deadline, unavailable))
+                .unavailableSections(unavailable)
+                .partial(!unavailable.isEmpty())
+                .build();
+
+        if (response.isPartial()) {
+            log.warn("Returning partial dashboard for parent {} in tenant {}; unavailable: {}",
+                    parentId, tenantId, unavailable);
+        }
+        return response;
+    }
+
+    // ===== Sections =====
+
+    private List<AttendanceSummary> loadAttendance(List<UUID> studentIds) {
+        List<AttendanceSummary> summaries = new ArrayList<>(studentIds.size());
+        for (UUID studentId : studentIds) {
+            Map<String, Object> stats = attendanceService.getAttendancePercentage(studentId, null, null);
+            summaries.add(AttendanceSummary.builder()
+                    .studentId(studentId)
+                    .startDate((LocalDate) stats.get("startDate"))
+                    .endDate((LocalDate) stats.get("endDate"))
+                    .totalDays((Long) stats.get("totalDays"))
+                    .presentDays((Long) stats.get("presentDays"))
+                    .absentDays((Long) stats.get("absentDays"))
+                    .lateDays((Long) stats.get("lateDays"))
+                    .attendancePercentage((Double) stats.get("attendancePercentage"))
+                    .build());
+        }
+        return summaries;
+    }
+
+    private List<PendingFee> loadPendingFees(List<UUID> studentIds) {
+        List<PendingFee> pending = new ArrayList<>();
+        for (UUID studentId : studentIds) {
+            for (FeePaymentSummary payment : feeService.getStudentPendingFees(studentId)) {
+                pending.add(PendingFee.builder()
+                        .paymentId(payment.getId())
+                        .studentId(studentId)
+                        .feeType(payment.getFeeTypeName())
+                        .totalAmount(payment.getTotalAmount())
+                        .balanceAmount(payment.getBalanceAmount())
+                        .dueDate(payment.getDueDate())
+                        .status(payment.getPaymentStatus().name())
+                        .build());
+            }
+        }
+        return pending;
+    }
+
+    private List<RecentResult> loadRecentResults(List<UUID> studentIds) {
+        List<RecentResult> recent = new ArrayList<>();
+        for (UUID studentId : studentIds) {
+            examService.getStudentResults(studentId).stream()
+                    .sorted(Comparator.comparing((ExamResult result) -> result.getExam().getExamDate(),
+                            Comparator.nullsLast(Comparator.reverseOrder())))
+                    .limit(RECENT_RESULTS_PER_CHILD)
+                    .forEach(result -> recent.add(RecentResult.builder()
+                            .studentId(studentId)
+                            .examId(result.getExam().getId())
+                            .examName(result.getExam().getName())
+                            .subjectName(result.getExam().getSubjectName())
+                            .examDate(result.getExam().getExamDate())
+                            .marksObtained(result.getMarksObtained())
+                            .maxMarks(result.getMaxMarks())
+                            .percentage(result.getPercentage())
+                            .grade(result.getGrade())
+                            .build()));
+        }
+        return recent;
+    }
+
+    private List<UpcomingExam> loadUpcomingExams(Collection<UUID> classIds) {
+        List<UpcomingExam> upcoming = new ArrayList<>();
+        for (UUID classId : classIds) {
+            for (Exam exam : examService.getUpcomingExamsByClass(classId)) {
+                upcoming.add(UpcomingExam.builder()
+                        .examId(exam.getId())
+                        .classId(classId)
+                        .name(exam.getName())
+                        .subjectName(exam.getSubjectName())
+                        .examDate(exam.getExamDate())
+                        .startTime(exam.getStartTime())
+                        .build());
+            }
+        }
+        upcoming.sort(Comparator.comparing(UpcomingExam::getExamDate, Comparator.nullsLast(Comparator.naturalOrder())));
+        return upcoming;
+    }
+
+    // ===== Fan-out =====
+
+    /**
+     * Run a section on its own virtual thread, inside a read-only transaction of the caller's tenant
+     */
+    private <T> Future<T> submit(String tenantId, Supplier<T> section) {
+        return executor.submit(() -> {
+            TenantContext.setCurrentTenant(tenantId);
+            try {
+                return readOnlyTransaction.execute(status -> section.get());
+            } finally {
+                TenantContext.clear();
+            }
+        });
+    }
+
+    /**
+     * Wait for a section until the shared deadline; on timeout or failure the section is recorded as unavailable
+     */
+    private <T> T await(String section, Future<T> future, long deadline, List<String> unavailable) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Parent dashboard section '{}' timed out after {} ms", section, sectionTimeoutMillis);
+        } catch (ExecutionException e) {
+            log.warn("Parent dashboard section '{}' failed: {}", section, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        unavailable.add(section);
+        return null;
+    }
+
+    private UUID resolveParentId(User user) {
+        if (!"PARENT".equals(user.getReferenceType()) || user.getReferenceId() == null) {
+            throw new BusinessException("Signed-in user is not linked to a parent profile");
+        }
+        return parseUuid(user.getReferenceId())
+                .orElseThrow(() -> new BusinessException("Signed-in user is not linked to a parent profile"));
+    }
+
+    private Optional<UUID> parseUuid(String value) {
+        try {
+            return value == null ? Optional.empty() : Optional.of(UUID.fromString(value));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
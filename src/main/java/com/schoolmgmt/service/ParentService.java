@@ -3,7 +3,9 @@ package com.schoolmgmt.service;
 import com.schoolmgmt.dto.request.CreateParentRequest;
 import com.schoolmgmt.dto.request.ParentFilterRequest;
 import com.schoolmgmt.dto.request.UpdateParentRequest;
+import com.schoolmgmt.dto.response.FamilyGraphResponse;
 import com.schoolmgmt.dto.response.ParentResponse;
+import com.schoolmgmt.event.UserDataChangedEvent;
 import com.schoolmgmt.exception.BusinessException;
 import com.schoolmgmt.exception.ResourceNotFoundException;
 import com.schoolmgmt.model.Parent;
@@ -15,6 +17,7 @@ import com.schoolmgmt.repository.UserRepository;
 import com.schoolmgmt.util.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -38,6 +41,7 @@ public class ParentService {
     private final StudentRepository studentRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Create a new parent/guardian
@@ -113,7 +117,7 @@ public class ParentService {
             }
         }
 
-        return toParentResponse(savedParent);
+        return toParentResponse(savedParent, List.of());
     }
 
     /**
@@ -286,7 +290,9 @@ public class ParentService {
         }
 
         Page<Parent> parents = parentRepository.findAll(spec, pageable);
-        return parents.map(this::toParentResponse);
+        Map<UUID, List<ParentResponse.LinkedStudentInfo>> linkedStudents = loadLinkedStudents(
+                parents.getContent().stream().map(Parent::getId).toList());
+        return parents.map(parent -> toParentResponse(parent, linkedStudents.getOrDefault(parent.getId(), List.of())));
     }
 
     /**
@@ -345,8 +351,10 @@ public class ParentService {
         }
 
         List<Parent> parents = parentRepository.findAllByStudentId(studentId);
+        Map<UUID, List<ParentResponse.LinkedStudentInfo>> linkedStudents = loadLinkedStudents(
+                parents.stream().map(Parent::getId).toList());
         return parents.stream()
-                .map(this::toParentResponse)
+                .map(parent -> toParentResponse(parent, linkedStudents.getOrDefault(parent.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
@@ -405,37 +413,79 @@ public class ParentService {
 
         user.setTenantId(parent.getTenantId());
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserDataChangedEvent(parent.getTenantId()));
 
         return savedUser;
     }
 
     /**
-     * Convert Parent entity to ParentResponse DTO
+     * Get the family graph of the given parents: each parent with linked students, class and section
      */
-    private ParentResponse toParentResponse(Parent parent) {
-        // Build linked students list
-        List<ParentResponse.LinkedStudentInfo> linkedStudents = new ArrayList<>();
+    @Transactional(readOnly = true)
+    public List<FamilyGraphResponse> getFamilyGraphs(Collection<UUID> parentIds) {
+        String tenantId = TenantContext.requireCurrentTenant();
 
-        for (Student child : parent.getChildren()) {
-            linkedStudents.add(ParentResponse.LinkedStudentInfo.builder()
-                    .id(child.getId().toString())
-                    .fullName(child.getFullName())
-                    .rollNumber(child.getRollNumber())
-                    .currentClassId(child.getCurrentClassId())
-                    .relationship("child")
-                    .build());
-        }
+        List<Parent> parents = parentRepository.findAllById(parentIds).stream()
+                .filter(parent -> tenantId.equals(parent.getTenantId()))
+                .toList();
+        Map<UUID, List<ParentResponse.LinkedStudentInfo>> linkedStudents = loadLinkedStudents(
+                parents.stream().map(Parent::getId).toList());
+
+        return parents.stream()
+                .map(parent -> FamilyGraphResponse.builder()
+                        .parentId(parent.getId().toString())
+                        .fullName(parent.getFullName())
+                        .parentType(parent.getParentType().name())
+                        .email(parent.getEmail())
+                        .phone(parent.getPhone())
+                        .linkedStudents(linkedStudents.getOrDefault(parent.getId(), List.of()))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Load children and wards of many parents with two queries, independent of the number of parents
+     */
+    private Map<UUID, List<ParentResponse.LinkedStudentInfo>> loadLinkedStudents(Collection<UUID> parentIds) {
+        Map<UUID, List<ParentResponse.LinkedStudentInfo>> linkedStudents = new HashMap<>();
+        if (parentIds.isEmpty()) {
+            return linkedStudents;
+        }
+        addLinks(linkedStudents, parentRepository.findChildLinksByParentIds(parentIds), "child");
+        addLinks(linkedStudents, parentRepository.findWardLinksByParentIds(parentIds), "ward");
+        return linkedStudents;
+    }
 
-        for (Student ward : parent.getWards()) {
-            linkedStudents.add(ParentResponse.LinkedStudentInfo.builder()
-                    .id(ward.getId().toString())
-                    .fullName(ward.getFullName())
-                    .rollNumber(ward.getRollNumber())
-                    .currentClassId(ward.getCurrentClassId())
-                    .relationship("ward")
-                    .build());
+    private void addLinks(Map<UUID, List<ParentResponse.LinkedStudentInfo>> linkedStudents,
+                          List<Object[]> rows, String relationship) {
+        for (Object[] row : rows) {
+            String middleName = (String) row[3];
+            String fullName = middleName != null && !middleName.isEmpty()
+                    ? row[2] + " " + middleName + " " + row[4]
+                    : row[2] + " " + row[4];
+            linkedStudents.computeIfAbsent((UUID) row[0], key -> new ArrayList<>())
+                    .add(ParentResponse.LinkedStudentInfo.builder()
+                            .id(row[1].toString())
+                            .fullName(fullName)
+                            .rollNumber((String) row[5])
+                            .currentClassId((String) row[6])
+                            .currentSectionId((UUID) row[7])
+                            .relationship(relationship)
+                            .build());
         }
+    }
 
+    /**
+     * Convert Parent entity to ParentResponse DTO
+     */
+    private ParentResponse toParentResponse(Parent parent) {
+        return toParentResponse(parent, loadLinkedStudents(List.of(parent.getId())).getOrDefault(parent.getId(), List.of()));
+    }
+
+    /**
+     * Convert Parent entity to ParentResponse DTO with preloaded linked students
+     */
+    private ParentResponse toParentResponse(Parent parent, List<ParentResponse.LinkedStudentInfo> linkedStudents) {
         return ParentResponse.builder()
                 .id(parent.getId().toString())
                 .firstName(parent.getFirstName())
@@ -0,0 +1,299 @@
+package com.schoolmgmt.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolmgmt.model.FcmToken;
+import com.schoolmgmt.repository.FcmTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers push notifications to devices through the FCM HTTP v1 API, one message per token.
+ * Messages are sent concurrently over one HTTP client, with a window on the requests in flight shared by all
+ * callers, and authorised with an OAuth2 token of the configured service account. Per-token errors are read back:
+ * tokens FCM reports as unregistered are deactivated, and the tokens worth retrying are handed back so the outbox
+ * dispatcher can retry just those.
+ * Called by the outbox dispatcher only, never inside a request transaction.
+ */
+@Component
+@Slf4j
+public class PushNotificationSender {
+
+    private static final Set<String> DEAD_TOKEN_ERRORS = Set.of("UNREGISTERED", "SENDER_ID_MISMATCH");
+    private static final Set<String> RETRYABLE_ERRORS = Set.of("UNAVAILABLE", "INTERNAL", "QUOTA_EXCEEDED");
+    private static final String FCM_ERROR_TYPE = "type.googleapis.com/google.firebase.fcm.v1.FcmError";
+
+    private final FcmTokenRepository fcmTokenRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final String endpoint;
+    private final String credentialsFile;
+    private final String projectId;
+    private final Duration requestTimeout;
+    private final Semaphore inFlight;
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    private final HttpClient httpClient;
+    private volatile FcmCredentials credentials;
+
+    public PushNotificationSender(FcmTokenRepository fcmTokenRepository,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.push.enabled:false}") boolean enabled,
+                                  @Value("${app.push.endpoint:https://fcm.googleapis.com}") String endpoint,
+                                  @Value("${app.push.credentials-file:}") String credentialsFile,
+                                  @Value("${app.push.project-id:}") String projectId,
+                                  @Value("${app.push.max-in-flight:32}") int maxInFlight,
+                                  @Value("${app.push.request-timeout-ms:10000}") long requestTimeoutMs) {
+        this.fcmTokenRepository = fcmTokenRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.endpoint = endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint;
+        this.credentialsFile = credentialsFile;
+        this.projectId = projectId;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(requestTimeout)
+                .build();
+        meterRegistry.gauge("push.requests.in_flight", inFlightRequests);
+    }
+
+    /**
+     * Outcome of a send by token: delivered, the tokens worth retrying, failed for good, and dead tokens deactivated
+     */
+    public record PushResult(int delivered, List<String> retryableTokens, int failed, int deactivated) {
+
+        public int retryable() {
+            return retryableTokens.size();
+        }
+    }
+
+    /**
+     * Send one notification to every token, waiting for all messages to finish
+     */
+    public PushResult send(List<FcmToken> tokens, String title, String body, String dataPayload) {
+        List<String> registrationTokens = tokens.stream().map(FcmToken::getToken).distinct().toList();
+        if (!enabled) {
+            log.info("Push delivery disabled; not sending '{}' to {} devices", title, registrationTokens.size());
+            return new PushResult(registrationTokens.size(), List.of(), 0, 0);
+        }
+
+        String accessToken;
+        try {
+            accessToken = credentials().accessToken();
+        } catch (IOException e) {
+            log.warn("Could not obtain an FCM access token: {}", e.getMessage());
+            return finish(title, 0, registrationTokens, 0, List.of());
+        } catch (IllegalStateException e) {
+            // Missing or rejected service account; retrying will not help
+            log.error("Could not authorise with FCM: {}", e.getMessage());
+            return finish(title, 0, List.of(), registrationTokens.size(), List.of());
+        }
+
+        URI sendUri = URI.create(endpoint + "/v1/projects/" + resolveProjectId() + "/messages:send");
+        Map<String, Object> notification = Map.of("title", title, "body", body);
+        Map<String, String> data = parseData(dataPayload);
+        List<CompletableFuture<Outcome>> sends = new ArrayList<>(registrationTokens.size());
+        for (String token : registrationTokens) {
+            sends.add(sendOne(sendUri, accessToken, token, notification, data));
+        }
+
+        int delivered = 0, failed = 0;
+        List<String> retryableTokens = new ArrayList<>();
+        List<String> deadTokens = new ArrayList<>();
+        List<String> invalidTokens = new ArrayList<>();
+        for (int i = 0; i < sends.size(); i++) {
+            String token = registrationTokens.get(i);
+            switch (sends.get(i).join()) {
+                case DELIVERED -> delivered++;
+                case RETRYABLE -> retryableTokens.add(token);
+                case UNREGISTERED -> deadTokens.add(token);
+                case INVALID -> invalidTokens.add(token);
+                case FAILED -> failed++;
+            }
+        }
+        // INVALID_ARGUMENT blames the token only if the same message reached other devices
+        if (delivered > 0) {
+            deadTokens.addAll(invalidTokens);
+        } else {
+            failed += invalidTokens.size();
+        }
+        deactivate(deadTokens);
+        return finish(title, delivered, retryableTokens, failed + deadTokens.size(), deadTokens);
+    }
+
+    private PushResult finish(String title, int delivered, List<String> retryableTokens, int failed,
+                              List<String> deadTokens) {
+        meterRegistry.counter("push.tokens", "result", "delivered").increment(delivered);
+        meterRegistry.counter("push.tokens", "result", "retryable").increment(retryableTokens.size());
+        meterRegistry.counter("push.tokens", "result", "failed").increment(failed);
+        meterRegistry.counter("push.tokens", "result", "deactivated").increment(deadTokens.size());
+        log.debug("Push '{}': {} delivered, {} retryable, {} failed, {} deactivated",
+                title, delivered, retryableTokens.size(), failed, deadTokens.size());
+        return new PushResult(delivered, List.copyOf(retryableTokens), failed, deadTokens.size());
+    }
+
+    // ===== Messages =====
+
+    private enum Outcome { DELIVERED, RETRYABLE, UNREGISTERED, INVALID, FAILED }
+
+    /**
+     * Send the message to one token once a slot in the in-flight window is free
+     */
+    private CompletableFuture<Outcome> sendOne(URI sendUri, String accessToken, String token,
+                                               Map<String, Object> notification, Map<String, String> data) {
+        HttpRequest request;
+        try {
+            Map<String, Object> message = new LinkedHashMap<>();
+            message.put("token", token);
+            message.put("notification", notification);
+            if (!data.isEmpty()) {
+                message.put("data", data);
+            }
+            message.put("android", Map.of("priority", "high"));
+            request = HttpRequest.newBuilder(sendUri)
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + accessToken)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(Map.of("message", message))))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize push message", e);
+        }
+
+        inFlight.acquireUninterruptibly();
+        inFlightRequests.incrementAndGet();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<HttpResponse<byte[]>> response;
+        try {
+            response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response.handle((reply, error) -> {
+            inFlight.release();
+            inFlightRequests.decrementAndGet();
+            sample.stop(meterRegistry.timer("push.request.duration", "outcome",
+                    error != null ? "error" : reply.statusCode() / 100 + "xx"));
+            if (error != null) {
+                log.debug("Push to a device failed: {}", error.toString());
+                return Outcome.RETRYABLE;
+            }
+            return readResponse(reply, accessToken);
+        });
+    }
+
+    /**
+     * Classify FCM's answer for one token by its status and the FCM error code in the error details
+     */
+    private Outcome readResponse(HttpResponse<byte[]> response, String accessToken) {
+        int status = response.statusCode();
+        if (status == 200) {
+            return Outcome.DELIVERED;
+        }
+        if (status == 401) {
+            // Expired or revoked access token; the next attempt fetches a new one
+            credentials.invalidate(accessToken);
+            return Outcome.RETRYABLE;
+        }
+        String errorCode = errorCode(response.body());
+        if (status == 429 || status >= 500 || RETRYABLE_ERRORS.contains(errorCode)) {
+            return Outcome.RETRYABLE;
+        }
+        if (DEAD_TOKEN_ERRORS.contains(errorCode)) {
+            return Outcome.UNREGISTERED;
+        }
+        if ("INVALID_ARGUMENT".equals(errorCode)) {
+            return Outcome.INVALID;
+        }
+        log.debug("Push provider rejected a message with status {} and error {}", status, errorCode);
+        return Outcome.FAILED;
+    }
+
+    private String errorCode(byte[] body) {
+        try {
+            JsonNode error = objectMapper.readTree(body).path("error");
+            for (JsonNode detail : error.path("details")) {
+                if (FCM_ERROR_TYPE.equals(detail.path("@type").asText())) {
+                    return detail.path("errorCode").asText();
+                }
+            }
+            return error.path("status").asText(null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // ===== Credentials =====
+
+    private FcmCredentials credentials() {
+        if (credentials == null) {
+            synchronized (this) {
+                if (credentials == null) {
+                    if (credentialsFile == null || credentialsFile.isBlank()) {
+                        throw new IllegalStateException("app.push.credentials-file is not set");
+                    }
+                    credentials = new FcmCredentials(Path.of(credentialsFile), objectMapper, httpClient, requestTimeout);
+                }
+            }
+        }
+        return credentials;
+    }
+
+    private String resolveProjectId() {
+        return projectId != null && !projectId.isBlank() ? projectId : credentials.projectId();
+    }
+
+    private void deactivate(List<String> deadTokens) {
+        if (deadTokens.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> deadTokens.forEach(fcmTokenRepository::deactivateToken));
+        log.info("Deactivated {} FCM tokens the push provider no longer accepts", deadTokens.size());
+    }
+
+    /**
+     * FCM data values must be strings; a payload that is not a JSON object is passed on whole
+     */
+    private Map<String, String> parseData(String dataPayload) {
+        if (dataPayload == null || dataPayload.isBlank()) {
+            return Map.of();
+        }
+        Map<String, String> data = new LinkedHashMap<>();
+        try {
+            JsonNode payload = objectMapper.readTree(dataPayload);
+            if (payload.isObject()) {
+                payload.fields().forEachRemaining(field -> data.put(field.getKey(),
+                        field.getValue().isTextual() ? field.getValue().asText() : field.getValue().toString()));
+                return data;
+            }
+        } catch (JsonProcessingException e) {
+            // Not JSON; sent as is
+        }
+        data.put("payload", dataPayload);
+        return data;
+    }
+}
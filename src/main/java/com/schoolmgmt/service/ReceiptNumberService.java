@@ -0,0 +1,60 @@
+package com.schoolmgmt.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * Issues fee receipt numbers in a sequence per tenant and financial year, e.g. RCP-2026-27-000042.
+ * Gap-tolerant numbering hands numbers out from reserved blocks and scales with collection counters;
+ * gapless numbering allocates in the collecting transaction so a rolled-back collection gives its number back.
+ */
+@Service
+@Slf4j
+public class ReceiptNumberService {
+
+    public static final String PREFIX = "RCP-";
+    static final String SEQUENCE_PREFIX = "RECEIPT:";
+
+    private final TenantSequenceAllocator sequenceAllocator;
+    private final boolean gapless;
+    private final int financialYearStartMonth;
+
+    public ReceiptNumberService(TenantSequenceAllocator sequenceAllocator,
+                                @Value("${app.receipts.gapless:false}") boolean gapless,
+                                @Value("${app.receipts.financial-year-start-month:4}") int financialYearStartMonth) {
+        if (financialYearStartMonth < 1 || financialYearStartMonth > 12) {
+            throw new IllegalArgumentException("Financial year start month must be between 1 and 12");
+        }
+        this.sequenceAllocator = sequenceAllocator;
+        this.gapless = gapless;
+        this.financialYearStartMonth = financialYearStartMonth;
+    }
+
+    /**
+     * Allocate the next receipt number of a tenant for a payment made on the given date.
+     * In gapless mode this must run inside the transaction that saves the payment.
+     */
+    public String nextReceiptNumber(String tenantId, LocalDate paymentDate) {
+        String financialYear = financialYear(paymentDate);
+        String sequenceName = SEQUENCE_PREFIX + financialYear;
+        long sequence = gapless
+                ? sequenceAllocator.nextGapless(tenantId, sequenceName)
+                : sequenceAllocator.next(tenantId, sequenceName);
+        return String.format("%s%s-%06d", PREFIX, financialYear, sequence);
+    }
+
+    /**
+     * Label of the financial year containing a date: "2026-27" for a year starting in April 2026,
+     * or just "2026" when financial years follow the calendar
+     */
+    String financialYear(LocalDate date) {
+        if (financialYearStartMonth == 1) {
+            return String.valueOf(date.getYear());
+        }
+        int startYear = date.getMonthValue() >= financialYearStartMonth ? date.getYear() : date.getYear() - 1;
+        return String.format("%d-%02d", startYear, (startYear + 1) % 100);
+    }
+}
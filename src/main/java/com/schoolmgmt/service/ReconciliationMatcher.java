@@ -0,0 +1,184 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.model.ReconciliationIssue.IssueReason;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * In-memory indexes of the open payments of a reconciliation period, matched against statement lines in one pass.
+ * References (transaction ids, UTRs, receipt numbers) go into a hash index; amounts into a sorted index by amount
+ * and date, so tolerance lookups only visit nearby candidates. Each payment is matched at most once.
+ */
+class ReconciliationMatcher {
+
+    static final String PAYMENT_TRANSACTION = "PAYMENT_TRANSACTION";
+    static final String FEE_PAYMENT = "FEE_PAYMENT";
+
+    private static final int MIN_REFERENCE_LENGTH = 6;
+
+    private final long amountTolerance;
+    private final int dateToleranceDays;
+    private final Map<String, List<Candidate>> byReference = new HashMap<>();
+    private final TreeMap<Long, TreeMap<LocalDate, List<Candidate>>> byAmount = new TreeMap<>();
+    private int size;
+
+    ReconciliationMatcher(BigDecimal amountTolerance, int dateToleranceDays) {
+        this.amountTolerance = toPaise(amountTolerance);
+        this.dateToleranceDays = dateToleranceDays;
+    }
+
+    /**
+     * An open payment that a statement line may settle
+     */
+    static final class Candidate {
+        final String type;
+        final UUID id;
+        final long amount;
+        final LocalDate date;
+        boolean matched;
+
+        Candidate(String type, UUID id, long amount, LocalDate date) {
+            this.type = type;
+            this.id = id;
+            this.amount = amount;
+            this.date = date;
+        }
+    }
+
+    /**
+     * Result of matching one line: the payment it settles, or the reason it needs review and the likeliest payment
+     */
+    record Outcome(Candidate match, IssueReason reason, Candidate hint) {
+
+        static Outcome matched(Candidate candidate) {
+            candidate.matched = true;
+            return new Outcome(candidate, null, null);
+        }
+
+        static Outcome issue(IssueReason reason, Candidate hint) {
+            return new Outcome(null, reason, hint);
+        }
+    }
+
+    void add(String type, UUID id, BigDecimal amount, LocalDate date, String... references) {
+        if (amount == null || date == null) {
+            return;
+        }
+        Candidate candidate = new Candidate(type, id, toPaise(amount), date);
+        Set<String> keys = new HashSet<>();
+        for (String reference : references) {
+            String key = normalize(reference);
+            if (key != null && keys.add(key)) {
+                byReference.computeIfAbsent(key, k -> new ArrayList<>(1)).add(candidate);
+            }
+        }
+        byAmount.computeIfAbsent(candidate.amount, k -> new TreeMap<>())
+                .computeIfAbsent(date, k -> new ArrayList<>(1)).add(candidate);
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Match a readable credit line, first by reference and otherwise by amount and date
+     */
+    Outcome match(LocalDate date, BigDecimal amount, String reference, String description) {
+        long paise = toPaise(amount);
+        for (String key : referenceKeys(reference, description)) {
+            List<Candidate> candidates = byReference.get(key);
+            if (candidates != null) {
+                return matchByReference(candidates, date, paise);
+            }
+        }
+        return matchByAmount(date, paise);
+    }
+
+    private Outcome matchByReference(List<Candidate> candidates, LocalDate date, long paise) {
+        List<Candidate> open = candidates.stream().filter(candidate -> !candidate.matched).toList();
+        if (open.isEmpty()) {
+            return Outcome.issue(IssueReason.DUPLICATE, candidates.get(0));
+        }
+        List<Candidate> fitting = open.stream()
+                .filter(candidate -> Math.abs(candidate.amount - paise) <= amountTolerance)
+                .toList();
+        if (fitting.isEmpty()) {
+            return Outcome.issue(IssueReason.AMOUNT_MISMATCH, open.get(0));
+        }
+        return pickClosest(fitting, date, paise);
+    }
+
+    private Outcome matchByAmount(LocalDate date, long paise) {
+        List<Candidate> fitting = new ArrayList<>();
+        for (TreeMap<LocalDate, List<Candidate>> byDate
+                : byAmount.subMap(paise - amountTolerance, true, paise + amountTolerance, true).values()) {
+            for (List<Candidate> sameDay : byDate.subMap(date.minusDays(dateToleranceDays), true,
+                    date.plusDays(dateToleranceDays), true).values()) {
+                for (Candidate candidate : sameDay) {
+                    if (!candidate.matched) {
+                        fitting.add(candidate);
+                    }
+                }
+            }
+        }
+        if (fitting.isEmpty()) {
+            return Outcome.issue(IssueReason.UNMATCHED, null);
+        }
+        return pickClosest(fitting, date, paise);
+    }
+
+    /**
+     * Take the candidate nearest in date, then in amount; a tie between two is left for review
+     */
+    private Outcome pickClosest(List<Candidate> candidates, LocalDate date, long paise) {
+        if (candidates.size() == 1) {
+            return Outcome.matched(candidates.get(0));
+        }
+        Comparator<Candidate> closeness = Comparator
+                .comparingLong((Candidate candidate) -> Math.abs(ChronoUnit.DAYS.between(candidate.date, date)))
+                .thenComparingLong(candidate -> Math.abs(candidate.amount - paise));
+        List<Candidate> sorted = new ArrayList<>(candidates);
+        sorted.sort(closeness);
+        if (closeness.compare(sorted.get(0), sorted.get(1)) == 0) {
+            return Outcome.issue(IssueReason.AMBIGUOUS, sorted.get(0));
+        }
+        return Outcome.matched(sorted.get(0));
+    }
+
+    /**
+     * The reference column first, then reference-like tokens of the narration, e.g. "UPI/412345678901/FEES"
+     */
+    private static List<String> referenceKeys(String reference, String description) {
+        List<String> keys = new ArrayList<>(4);
+        String key = normalize(reference);
+        if (key != null) {
+            keys.add(key);
+        }
+        if (description != null) {
+            for (String token : description.split("[^A-Za-z0-9_-]+")) {
+                String tokenKey = normalize(token);
+                if (tokenKey != null && tokenKey.chars().anyMatch(Character::isDigit) && !keys.contains(tokenKey)) {
+                    keys.add(tokenKey);
+                }
+            }
+        }
+        return keys;
+    }
+
+    static String normalize(String reference) {
+        if (reference == null) {
+            return null;
+        }
+        String key = reference.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]", "");
+        return key.length() >= MIN_REFERENCE_LENGTH ? key : null;
+    }
+
+    static long toPaise(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+}
@@ -0,0 +1,174 @@
+package com.schoolmgmt.service;
+
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import com.schoolmgmt.model.ExamResult;
+import com.schoolmgmt.repository.ExamResultRepository;
+import com.schoolmgmt.repository.StudentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders PDF report cards for a whole class and streams them into a ZIP archive.
+ * Results are fetched for a chunk of students per query, and each card is rendered from the Thymeleaf template
+ * to HTML and then to PDF on a fixed worker pool.
+ * Each card goes into the archive as soon as it is done, and only a few are in flight at a time, so memory
+ * stays flat however large the class.
+ */
+@Service
+@Slf4j
+public class ReportCardBatchService {
+
+    static final String TEMPLATE = "report/report-card";
+    private static final int FETCH_CHUNK = 200;
+
+    private final StudentRepository studentRepository;
+    private final ExamResultRepository resultRepository;
+    private final TemplateEngine templateEngine;
+    private final ExecutorService renderPool;
+    private final int maxInFlight;
+
+    public ReportCardBatchService(StudentRepository studentRepository,
+                                  ExamResultRepository resultRepository,
+                                  TemplateEngine templateEngine,
+                                  @Value("${app.report-cards.render-threads:4}") int renderThreads) {
+        this.studentRepository = studentRepository;
+        this.resultRepository = resultRepository;
+        this.templateEngine = templateEngine;
+        AtomicInteger threads = new AtomicInteger();
+        this.renderPool = Executors.newFixedThreadPool(renderThreads, task -> {
+            Thread thread = new Thread(task, "report-card-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxInFlight = renderThreads * 2;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    /**
+     * Write the report cards of a class, or of one section, to the stream as a ZIP with one PDF per student
+     *
+     * @return number of report cards written
+     */
+    public int writeClassReportCards(String tenantId, String classId, UUID sectionId, String academicYear,
+                                     OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        List<Object[]> students = sectionId != null
+                ? studentRepository.findReportCardStudentsInSection(tenantId, classId, sectionId)
+                : studentRepository.findReportCardStudents(tenantId, classId);
+
+        CompletionService<RenderedCard> completion = new ExecutorCompletionService<>(renderPool);
+        Set<Future<RenderedCard>> inFlight = new HashSet<>();
+        ZipOutputStream zip = new ZipOutputStream(out);
+        int written = 0;
+        try {
+            for (int from = 0; from < students.size(); from += FETCH_CHUNK) {
+                List<Object[]> chunk = students.subList(from, Math.min(from + FETCH_CHUNK, students.size()));
+                Map<UUID, List<ExamResult>> results = fetchResults(tenantId, chunk, academicYear);
+                for (Object[] student : chunk) {
+                    if (inFlight.size() >= maxInFlight) {
+                        write(zip, next(completion, inFlight));
+                        written++;
+                    }
+                    List<ExamResult> studentResults = results.getOrDefault((UUID) student[0], List.of());
+                    inFlight.add(completion.submit(() -> render(student, studentResults, academicYear)));
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                write(zip, next(completion, inFlight));
+                written++;
+            }
+            zip.finish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Report card rendering was interrupted", e);
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+
+        log.info("Rendered {} report cards for class {} of tenant {} in {} ms",
+                written, classId, tenantId, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return written;
+    }
+
+    private Map<UUID, List<ExamResult>> fetchResults(String tenantId, List<Object[]> students, String academicYear) {
+        List<UUID> studentIds = students.stream().map(student -> (UUID) student[0]).toList();
+        Map<UUID, List<ExamResult>> byStudent = new HashMap<>();
+        for (ExamResult result : resultRepository.findReportCardResults(tenantId, studentIds, academicYear)) {
+            byStudent.computeIfAbsent(result.getStudentId(), id -> new ArrayList<>()).add(result);
+        }
+        return byStudent;
+    }
+
+    private RenderedCard render(Object[] student, List<ExamResult> results, String academicYear) throws IOException {
+        String studentName = (Objects.toString(student[1], "") + " " + Objects.toString(student[2], "")).trim();
+        double overallPercentage = ExamService.overallPercentage(results);
+
+        Context context = new Context();
+        context.setVariable("studentName", studentName);
+        context.setVariable("rollNumber", student[3]);
+        context.setVariable("academicYear", academicYear);
+        context.setVariable("results", results);
+        context.setVariable("overallPercentage", overallPercentage);
+        context.setVariable("overallGrade", ExamService.getOverallGrade(overallPercentage));
+        context.setVariable("totalExams", results.size());
+        context.setVariable("examsTaken", results.stream().filter(r -> !Boolean.TRUE.equals(r.getIsAbsent())).count());
+
+        // Roll number first so the archive lists cards in class order; the id suffix keeps names unique
+        String fileName = String.format("%s-%s-%s.pdf", Objects.toString(student[3], "na"),
+                studentName.replaceAll("[^A-Za-z0-9]+", "_"), student[0].toString().substring(0, 8));
+        return new RenderedCard(fileName, toPdf(templateEngine.process(TEMPLATE, context)));
+    }
+
+    private static byte[] toPdf(String html) throws IOException {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream(16 * 1024);
+        PdfRendererBuilder builder = new PdfRendererBuilder();
+        builder.useFastMode();
+        builder.withHtmlContent(html, null);
+        builder.toStream(pdf);
+        builder.run();
+        return pdf.toByteArray();
+    }
+
+    private static RenderedCard next(CompletionService<RenderedCard> completion, Set<Future<RenderedCard>> inFlight)
+            throws InterruptedException {
+        Future<RenderedCard> done = completion.take();
+        inFlight.remove(done);
+        try {
+            return done.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to render report card", e.getCause());
+        }
+    }
+
+    private static void write(ZipOutputStream zip, RenderedCard card) throws IOException {
+        zip.putNextEntry(new ZipEntry(card.getFileName()));
+        zip.write(card.getContent());
+        zip.closeEntry();
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class RenderedCard {
+        private final String fileName;
+        private final byte[] content;
+    }
+}
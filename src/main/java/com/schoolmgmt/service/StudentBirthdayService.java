@@ -0,0 +1,145 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.response.BirthdayDigest;
+import com.schoolmgmt.model.NotificationLog;
+import com.schoolmgmt.model.Tenant;
+import com.schoolmgmt.repository.NotificationLogRepository;
+import com.schoolmgmt.repository.StudentRepository;
+import com.schoolmgmt.repository.TenantRepository;
+import com.schoolmgmt.util.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service for student birthday lookups.
+ * Each tenant's list for the day is computed once by a scheduled job and served from cache.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StudentBirthdayService {
+
+    public static final String BIRTHDAY_DIGEST = "birthday-digest";
+
+    private final StudentRepository studentRepository;
+    private final TenantRepository tenantRepository;
+    private final NotificationService notificationService;
+    private final NotificationLogRepository notificationLogRepository;
+    private final ClusterLockService clusterLockService;
+    private final CacheManager cacheManager;
+
+    /**
+     * Get today's birthdays for the current tenant
+     */
+    @Cacheable(value = BIRTHDAY_DIGEST,
+            key = "T(com.schoolmgmt.util.TenantContext).requireCurrentTenant() + ':' + T(java.time.LocalDate).now()")
+    @Transactional(readOnly = true)
+    public BirthdayDigest getTodaysBirthdays() {
+        return buildDigest(TenantContext.requireCurrentTenant(), LocalDate.now());
+    }
+
+    /**
+     * Build the birthday list of a tenant for a day
+     */
+    @Transactional(readOnly = true)
+    public BirthdayDigest buildDigest(String tenantId, LocalDate date) {
+        List<Integer> monthDays = new ArrayList<>();
+        monthDays.add(monthDay(date));
+        // Leap-day birthdays are celebrated on 28 February in other years
+        if (!date.isLeapYear() && date.getMonthValue() == 2 && date.getDayOfMonth() == 28) {
+            monthDays.add(229);
+        }
+
+        List<BirthdayDigest.BirthdayEntry> students = new ArrayList<>();
+        for (Object[] row : studentRepository.findBirthdaysOn(tenantId, monthDays)) {
+            LocalDate dateOfBirth = (LocalDate) row[5];
+            students.add(BirthdayDigest.BirthdayEntry.builder()
+                    .studentId((UUID) row[0])
+                    .firstName((String) row[1])
+                    .lastName((String) row[2])
+                    .currentClassId((String) row[3])
+                    .currentSectionId((UUID) row[4])
+                    .age(Period.between(dateOfBirth, date).getYears())
+                    .build());
+        }
+
+        return BirthdayDigest.builder()
+                .date(date)
+                .count(students.size())
+                .students(students)
+                .build();
+    }
+
+    /**
+     * Precompute every active tenant's birthday list shortly after midnight and cache it on this node.
+     * Staff are notified once per tenant and day: under a cluster lock, and only if no node has sent today's digest.
+     */
+    @Scheduled(cron = "${app.birthdays.digest-cron:0 5 0 * * *}")
+    public void publishDailyDigests() {
+        int backfilled = studentRepository.backfillBirthMonthDay();
+        if (backfilled > 0) {
+            log.info("Backfilled birth month-day for {} students", backfilled);
+        }
+
+        LocalDate today = LocalDate.now();
+        Cache cache = cacheManager.getCache(BIRTHDAY_DIGEST);
+        for (Tenant tenant : tenantRepository.findAllActive()) {
+            String tenantId = tenant.getIdentifier();
+            TenantContext.setCurrentTenant(tenantId);
+            try {
+                BirthdayDigest digest = buildDigest(tenantId, today);
+                if (cache != null) {
+                    cache.put(tenantId + ":" + today, digest);
+                }
+                if (digest.getCount() > 0) {
+                    boolean ran = clusterLockService.runExclusively("birthday-digest:" + tenantId,
+                            () -> notifyStaff(tenantId, digest));
+                    if (!ran) {
+                        log.info("Birthday digest of tenant {} is being sent by another node", tenantId);
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to publish birthday digest for tenant: {}", tenantId, e);
+            } finally {
+                TenantContext.clear();
+            }
+        }
+        log.info("Published birthday digests for {}", today);
+    }
+
+    private void notifyStaff(String tenantId, BirthdayDigest digest) {
+        if (notificationLogRepository.existsByTenantIdAndNotificationTypeAndCreatedAtGreaterThanEqual(
+                tenantId, NotificationLog.NotificationType.BIRTHDAY, digest.getDate().atStartOfDay())) {
+            log.debug("Birthday digest of tenant {} was already sent today", tenantId);
+            return;
+        }
+        notificationService.sendToRole("TEACHER", "Today's birthdays", digestMessage(digest),
+                NotificationLog.NotificationType.BIRTHDAY, null, null, "System");
+    }
+
+    private String digestMessage(BirthdayDigest digest) {
+        List<String> names = digest.getStudents().stream()
+                .limit(5)
+                .map(student -> student.getFirstName() + " " + student.getLastName())
+                .toList();
+        String message = String.join(", ", names);
+        int others = digest.getCount() - names.size();
+        return others > 0 ? message + " and " + others + " more" : message;
+    }
+
+    private int monthDay(LocalDate date) {
+        return date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+}
@@ -4,12 +4,14 @@ import com.opencsv.CSVReader;
 import com.opencsv.CSVWriter;
 import com.opencsv.exceptions.CsvValidationException;
 import com.schoolmgmt.dto.response.BulkImportResult;
+import com.schoolmgmt.event.StudentDataChangedEvent;
 import com.schoolmgmt.exception.BusinessException;
 import com.schoolmgmt.model.Student;
 import com.schoolmgmt.repository.StudentRepository;
 import com.schoolmgmt.util.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -30,6 +32,7 @@ import java.util.*;
 public class StudentBulkService {
 
     private final StudentRepository studentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final String[] CSV_HEADERS = {
             "rollNumber", "firstName", "lastName", "dateOfBirth", "gender",
@@ -147,6 +150,9 @@ public class StudentBulkService {
         }
 
         log.info("Import completed: total={}, success={}, errors={}", totalRows, successCount, errors.size());
+        if (successCount > 0) {
+            eventPublisher.publishEvent(new StudentDataChangedEvent(tenantId));
+        }
 
         return BulkImportResult.builder()
                 .totalRows(totalRows)
@@ -0,0 +1,385 @@
+package com.schoolmgmt.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolmgmt.dto.request.BulkPromotionRequest.ClassMapping;
+import com.schoolmgmt.event.StudentDataChangedEvent;
+import com.schoolmgmt.event.StudentPromotionRequestedEvent;
+import com.schoolmgmt.model.Section;
+import com.schoolmgmt.model.StudentPromotionHistory;
+import com.schoolmgmt.model.StudentPromotionHistory.PromotionOutcome;
+import com.schoolmgmt.model.StudentPromotionRun;
+import com.schoolmgmt.model.TeacherClass;
+import com.schoolmgmt.repository.SectionRepository;
+import com.schoolmgmt.repository.StudentPromotionHistoryRepository;
+import com.schoolmgmt.repository.StudentPromotionRunRepository;
+import com.schoolmgmt.repository.StudentRepository;
+import com.schoolmgmt.repository.TeacherClassRepository;
+import com.schoolmgmt.util.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Executes bulk promotion runs in the background.
+ * Students are processed per class mapping in keyset chunks; each chunk records its history rows, applies
+ * one set-based UPDATE per target section and advances the run cursor in a single transaction, so a run
+ * interrupted at any point resumes without moving a student twice. Students whose roll number is already
+ * taken in the target class, e.g. by a detained student, move in under the next free number.
+ */
+@Component
+@Slf4j
+public class StudentPromotionEngine {
+
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+    private static final TypeReference<List<ClassMapping>> MAPPINGS_TYPE = new TypeReference<>() {};
+    private static final TypeReference<Set<UUID>> IDS_TYPE = new TypeReference<>() {};
+
+    private final StudentPromotionRunRepository runRepository;
+    private final StudentPromotionHistoryRepository historyRepository;
+    private final StudentRepository studentRepository;
+    private final SectionRepository sectionRepository;
+    private final TeacherClassRepository teacherClassRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    private final Set<UUID> activeRuns = ConcurrentHashMap.newKeySet();
+
+    public StudentPromotionEngine(StudentPromotionRunRepository runRepository,
+                                  StudentPromotionHistoryRepository historyRepository,
+                                  StudentRepository studentRepository,
+                                  SectionRepository sectionRepository,
+                                  TeacherClassRepository teacherClassRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.promotion.chunk-size:500}") int chunkSize) {
+        this.runRepository = runRepository;
+        this.historyRepository = historyRepository;
+        this.studentRepository = studentRepository;
+        this.sectionRepository = sectionRepository;
+        this.teacherClassRepository = teacherClassRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPromotionRequested(StudentPromotionRequestedEvent event) {
+        execute(event.getRunId(), event.getTenantId());
+    }
+
+    /**
+     * Check if a run is currently being executed on this node
+     */
+    public boolean isExecuting(UUID runId) {
+        return activeRuns.contains(runId);
+    }
+
+    /**
+     * Execute a run from its stored cursor until it completes or fails
+     */
+    public void execute(UUID runId, String tenantId) {
+        if (!activeRuns.add(runId)) {
+            log.warn("Promotion run {} is already executing", runId);
+            return;
+        }
+        TenantContext.setCurrentTenant(tenantId);
+        try {
+            transactionTemplate.executeWithoutResult(status -> markStarted(runId));
+
+            boolean finished = false;
+            while (!finished) {
+                finished = Boolean.TRUE.equals(transactionTemplate.execute(status -> processNextChunk(runId, tenantId)));
+            }
+
+            transactionTemplate.executeWithoutResult(status -> completeRun(runId, tenantId));
+            eventPublisher.publishEvent(new StudentDataChangedEvent(tenantId));
+            log.info("Promotion run {} completed for tenant: {}", runId, tenantId);
+        } catch (RuntimeException e) {
+            log.error("Promotion run {} failed for tenant: {}", runId, tenantId, e);
+            transactionTemplate.executeWithoutResult(status -> markFailed(runId, e));
+            // Chunks committed before the failure have already moved students
+            eventPublisher.publishEvent(new StudentDataChangedEvent(tenantId));
+        } finally {
+            activeRuns.remove(runId);
+            TenantContext.clear();
+        }
+    }
+
+    private void markStarted(UUID runId) {
+        StudentPromotionRun run = loadRun(runId);
+        run.setStatus(StudentPromotionRun.PromotionStatus.RUNNING);
+        run.setErrorMessage(null);
+        if (run.getStartedAt() == null) {
+            run.setStartedAt(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Process one chunk of the current mapping; returns true once every mapping is exhausted
+     */
+    private boolean processNextChunk(UUID runId, String tenantId) {
+        StudentPromotionRun run = loadRun(runId);
+        List<ClassMapping> mappings = readJson(run.getMappings(), MAPPINGS_TYPE, List.of());
+        int mappingIndex = run.getCurrentMappingIndex();
+        if (mappingIndex >= mappings.size()) {
+            return true;
+        }
+
+        ClassMapping mapping = mappings.get(mappingIndex);
+        UUID afterId = run.getLastStudentId() != null ? run.getLastStudentId() : FIRST_ID;
+        PageRequest chunk = PageRequest.of(0, chunkSize);
+        List<Object[]> rows = mapping.getFromSectionId() != null
+                ? studentRepository.findPromotionChunkInSection(tenantId, mapping.getFromClassId(),
+                        mapping.getFromSectionId(), afterId, chunk)
+                : studentRepository.findPromotionChunk(tenantId, mapping.getFromClassId(), afterId, chunk);
+
+        if (rows.isEmpty()) {
+            run.setCurrentMappingIndex(mappingIndex + 1);
+            run.setLastStudentId(null);
+            return false;
+        }
+
+        Set<UUID> detained = readJson(run.getDetainedStudentIds(), IDS_TYPE, Set.of());
+        Set<UUID> graduated = readJson(run.getGraduatedStudentIds(), IDS_TYPE, Set.of());
+        Map<UUID, UUID> sectionTargets = resolveSectionTargets(tenantId, mapping);
+
+        List<StudentPromotionHistory> history = new ArrayList<>(rows.size());
+        Map<UUID, List<UUID>> movesBySection = new HashMap<>();
+        Map<UUID, String> rollNumbers = new HashMap<>();
+        List<UUID> graduates = new ArrayList<>();
+        int detainedCount = 0;
+
+        for (Object[] row : rows) {
+            UUID studentId = (UUID) row[0];
+            UUID sectionId = (UUID) row[1];
+
+            if (detained.contains(studentId)) {
+                history.add(historyEntry(run, tenantId, studentId, mapping.getFromClassId(), sectionId,
+                        mapping.getFromClassId(), sectionId, PromotionOutcome.DETAINED));
+                detainedCount++;
+            } else if (mapping.getToClassId() == null || graduated.contains(studentId)) {
+                history.add(historyEntry(run, tenantId, studentId, mapping.getFromClassId(), sectionId,
+                        null, null, PromotionOutcome.GRADUATED));
+                graduates.add(studentId);
+            } else {
+                UUID targetSection = mapping.getToSectionId() != null || sectionId == null
+                        ? mapping.getToSectionId()
+                        : sectionTargets.get(sectionId);
+                if (sectionId != null && targetSection == null) {
+                    throw new IllegalStateException("Class " + mapping.getToClassId()
+                            + " has no section matching section " + sectionId + " of class " + mapping.getFromClassId());
+                }
+                history.add(historyEntry(run, tenantId, studentId, mapping.getFromClassId(), sectionId,
+                        mapping.getToClassId(), targetSection, PromotionOutcome.PROMOTED));
+                movesBySection.computeIfAbsent(targetSection, key -> new ArrayList<>()).add(studentId);
+                rollNumbers.put(studentId, (String) row[2]);
+            }
+        }
+
+        historyRepository.saveAll(history);
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<UUID, String> renumbered = renumberCollisions(tenantId, mapping, rollNumbers);
+        int promotedCount = 0;
+        for (Map.Entry<UUID, List<UUID>> move : movesBySection.entrySet()) {
+            List<UUID> unchanged = new ArrayList<>(move.getValue().size());
+            for (UUID studentId : move.getValue()) {
+                if (renumbered.containsKey(studentId)) {
+                    promotedCount += studentRepository.moveStudent(tenantId, studentId, mapping.getToClassId(),
+                            move.getKey(), renumbered.get(studentId), now);
+                } else {
+                    unchanged.add(studentId);
+                }
+            }
+            if (!unchanged.isEmpty()) {
+                promotedCount += studentRepository.moveStudents(tenantId, unchanged, mapping.getToClassId(),
+                        move.getKey(), now);
+            }
+        }
+        int graduatedCount = graduates.isEmpty() ? 0 : studentRepository.graduateStudents(tenantId, graduates, now);
+
+        // The bulk updates cleared the persistence context, so the cursor is written back explicitly
+        run.setLastStudentId((UUID) rows.get(rows.size() - 1)[0]);
+        run.setProcessedStudents(run.getProcessedStudents() + rows.size());
+        run.setPromotedCount(run.getPromotedCount() + promotedCount);
+        run.setDetainedCount(run.getDetainedCount() + detainedCount);
+        run.setGraduatedCount(run.getGraduatedCount() + graduatedCount);
+        runRepository.save(run);
+
+        log.debug("Promotion run {}: mapping {} processed {} students", runId, mappingIndex, rows.size());
+        return false;
+    }
+
+    /**
+     * Pick new roll numbers for the moving students whose number is already taken in the target class.
+     * New numbers follow the highest number in either class, so they clash neither with students already
+     * in the target nor with those still to come from the source.
+     */
+    private Map<UUID, String> renumberCollisions(String tenantId, ClassMapping mapping, Map<UUID, String> rollNumbers) {
+        if (rollNumbers.isEmpty()) {
+            return Map.of();
+        }
+        Set<String> taken = new HashSet<>(studentRepository.findRollNumbersInClass(tenantId, mapping.getToClassId()));
+        Map<UUID, String> renumbered = new TreeMap<>();
+        rollNumbers.forEach((studentId, rollNumber) -> {
+            if (taken.contains(rollNumber)) {
+                renumbered.put(studentId, rollNumber);
+            }
+        });
+        if (renumbered.isEmpty()) {
+            return Map.of();
+        }
+
+        Set<String> used = new HashSet<>(taken);
+        used.addAll(studentRepository.findRollNumbersInClass(tenantId, mapping.getFromClassId()));
+        int next = used.stream().mapToInt(this::parseRollNumber).max().orElse(0) + 1;
+        for (Map.Entry<UUID, String> entry : renumbered.entrySet()) {
+            log.info("Promotion: student {} moves to class {} as roll number {} instead of {}",
+                    entry.getKey(), mapping.getToClassId(), next, entry.getValue());
+            entry.setValue(String.valueOf(next++));
+        }
+        return renumbered;
+    }
+
+    private int parseRollNumber(String rollNumber) {
+        try {
+            return Integer.parseInt(rollNumber.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Map each section of the source class to the section with the same name in the target class
+     */
+    private Map<UUID, UUID> resolveSectionTargets(String tenantId, ClassMapping mapping) {
+        if (mapping.getToClassId() == null || mapping.getToSectionId() != null) {
+            return Map.of();
+        }
+        UUID fromClassId = parseUuid(mapping.getFromClassId());
+        UUID toClassId = parseUuid(mapping.getToClassId());
+        if (fromClassId == null || toClassId == null) {
+            return Map.of();
+        }
+
+        Map<String, UUID> targetsByName = sectionRepository.findByTenantIdAndSchoolClassId(tenantId, toClassId).stream()
+                .collect(Collectors.toMap(Section::getName, Section::getId, (first, second) -> first));
+        Map<UUID, UUID> targets = new HashMap<>();
+        for (Section section : sectionRepository.findByTenantIdAndSchoolClassId(tenantId, fromClassId)) {
+            UUID target = targetsByName.get(section.getName());
+            if (target != null) {
+                targets.put(section.getId(), target);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Close the old year's teacher assignments and carry them over to the new year, then finish the run
+     */
+    private void completeRun(UUID runId, String tenantId) {
+        StudentPromotionRun run = loadRun(runId);
+
+        if (run.getFromAcademicYearId() != null && !Boolean.TRUE.equals(run.getTeacherAssignmentsRolledOver())) {
+            LocalDate today = LocalDate.now();
+            if (run.getToAcademicYearId() != null) {
+                List<TeacherClass> renewed = teacherClassRepository
+                        .findAssignmentsForAcademicYearTransition(run.getFromAcademicYearId(), tenantId).stream()
+                        .map(assignment -> renewAssignment(assignment, run.getToAcademicYearId(), tenantId, today))
+                        .toList();
+                teacherClassRepository.saveAll(renewed);
+                log.info("Promotion run {}: carried over {} teacher assignments", runId, renewed.size());
+            }
+            teacherClassRepository.deactivateAssignmentsForAcademicYear(run.getFromAcademicYearId(), tenantId, today);
+            run.setTeacherAssignmentsRolledOver(true);
+        }
+
+        run.setStatus(StudentPromotionRun.PromotionStatus.COMPLETED);
+        run.setCompletedAt(LocalDateTime.now());
+        runRepository.save(run);
+    }
+
+    private void markFailed(UUID runId, RuntimeException e) {
+        StudentPromotionRun run = loadRun(runId);
+        run.setStatus(StudentPromotionRun.PromotionStatus.FAILED);
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        run.setErrorMessage(message != null && message.length() > 1000 ? message.substring(0, 1000) : message);
+    }
+
+    private TeacherClass renewAssignment(TeacherClass assignment, UUID academicYearId, String tenantId, LocalDate today) {
+        TeacherClass renewed = TeacherClass.builder()
+                .teacherId(assignment.getTeacherId())
+                .sectionId(assignment.getSectionId())
+                .subjectId(assignment.getSubjectId())
+                .academicYearId(academicYearId)
+                .assignedDate(today)
+                .assignedBy(assignment.getAssignedBy())
+                .remarks(assignment.getRemarks())
+                .build();
+        renewed.setTenantId(tenantId);
+        return renewed;
+    }
+
+    private StudentPromotionHistory historyEntry(StudentPromotionRun run, String tenantId, UUID studentId,
+                                                 String fromClassId, UUID fromSectionId,
+                                                 String toClassId, UUID toSectionId, PromotionOutcome outcome) {
+        StudentPromotionHistory entry = StudentPromotionHistory.builder()
+                .runId(run.getId())
+                .studentId(studentId)
+                .fromClassId(fromClassId)
+                .fromSectionId(fromSectionId)
+                .toClassId(toClassId)
+                .toSectionId(toSectionId)
+                .fromAcademicYearId(run.getFromAcademicYearId())
+                .toAcademicYearId(run.getToAcademicYearId())
+                .outcome(outcome)
+                .build();
+        entry.setTenantId(tenantId);
+        return entry;
+    }
+
+    private StudentPromotionRun loadRun(UUID runId) {
+        return runRepository.findById(runId)
+                .orElseThrow(() -> new IllegalStateException("Promotion run not found: " + runId));
+    }
+
+    private <T> T readJson(String json, TypeReference<T> type, T defaultValue) {
+        if (json == null || json.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt promotion run data", e);
+        }
+    }
+
+    private UUID parseUuid(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.schoolmgmt.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolmgmt.dto.request.BulkPromotionRequest;
+import com.schoolmgmt.dto.request.BulkPromotionRequest.ClassMapping;
+import com.schoolmgmt.dto.response.PromotionRunResponse;
+import com.schoolmgmt.event.StudentPromotionRequestedEvent;
+import com.schoolmgmt.exception.BusinessException;
+import com.schoolmgmt.exception.ResourceNotFoundException;
+import com.schoolmgmt.model.Section;
+import com.schoolmgmt.model.Student;
+import com.schoolmgmt.model.StudentPromotionRun;
+import com.schoolmgmt.model.StudentPromotionRun.PromotionStatus;
+import com.schoolmgmt.repository.SectionRepository;
+import com.schoolmgmt.repository.StudentPromotionRunRepository;
+import com.schoolmgmt.repository.StudentRepository;
+import com.schoolmgmt.util.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Service for year-end bulk promotion of students.
+ * Runs are validated and persisted here and executed in the background by {@link StudentPromotionEngine}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class StudentPromotionService {
+
+    private static final Set<PromotionStatus> IN_PROGRESS = EnumSet.of(PromotionStatus.PENDING, PromotionStatus.RUNNING);
+
+    private final StudentPromotionRunRepository runRepository;
+    private final StudentRepository studentRepository;
+    private final SectionRepository sectionRepository;
+    private final StudentPromotionEngine promotionEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Start a bulk promotion run
+     */
+    public PromotionRunResponse startPromotion(BulkPromotionRequest request) {
+        String tenantId = TenantContext.requireCurrentTenant();
+        if (runRepository.existsByTenantIdAndStatusIn(tenantId, IN_PROGRESS)) {
+            throw new BusinessException("A promotion run is already in progress");
+        }
+
+        List<ClassMapping> mappings = orderMappings(request.getMappings());
+        mappings.forEach(mapping -> checkSectionTargets(tenantId, mapping));
+        Set<String> sourceClassIds = new HashSet<>();
+        mappings.forEach(mapping -> sourceClassIds.add(mapping.getFromClassId()));
+
+        StudentPromotionRun run = StudentPromotionRun.builder()
+                .fromAcademicYearId(request.getFromAcademicYearId())
+                .toAcademicYearId(request.getToAcademicYearId())
+                .mappings(toJson(mappings))
+                .detainedStudentIds(toJson(request.getDetainedStudentIds()))
+                .graduatedStudentIds(toJson(request.getGraduatedStudentIds()))
+                .totalStudents((int) studentRepository.countByTenantIdAndStatusAndCurrentClassIdIn(
+                        tenantId, Student.StudentStatus.ACTIVE, sourceClassIds))
+                .build();
+        run.setTenantId(tenantId);
+
+        StudentPromotionRun savedRun = runRepository.save(run);
+        eventPublisher.publishEvent(new StudentPromotionRequestedEvent(tenantId, savedRun.getId()));
+        log.info("Promotion run {} created for tenant: {} ({} students)", savedRun.getId(), tenantId, savedRun.getTotalStudents());
+
+        return toResponse(savedRun);
+    }
+
+    /**
+     * Resume an interrupted or failed promotion run from its last committed chunk
+     */
+    public PromotionRunResponse resumePromotion(UUID runId) {
+        StudentPromotionRun run = findRun(runId);
+        if (run.getStatus() == PromotionStatus.COMPLETED) {
+            throw new BusinessException("Promotion run is already completed");
+        }
+        if (promotionEngine.isExecuting(runId)) {
+            throw new BusinessException("Promotion run is already executing");
+        }
+
+        run.setStatus(PromotionStatus.PENDING);
+        eventPublisher.publishEvent(new StudentPromotionRequestedEvent(run.getTenantId(), runId));
+        log.info("Promotion run {} resumed at mapping {}", runId, run.getCurrentMappingIndex());
+
+        return toResponse(run);
+    }
+
+    /**
+     * Get promotion run progress
+     */
+    @Transactional(readOnly = true)
+    public PromotionRunResponse getPromotionRun(UUID runId) {
+        return toResponse(findRun(runId));
+    }
+
+    /**
+     * Get promotion runs of the current tenant
+     */
+    @Transactional(readOnly = true)
+    public Page<PromotionRunResponse> getPromotionRuns(Pageable pageable) {
+        String tenantId = TenantContext.requireCurrentTenant();
+        return runRepository.findByTenantIdOrderByCreatedAtDesc(tenantId, pageable).map(this::toResponse);
+    }
+
+    /**
+     * Order mappings so every target class is emptied before students move into it
+     */
+    private List<ClassMapping> orderMappings(List<ClassMapping> mappings) {
+        Set<String> classLevelSources = new HashSet<>();
+        Set<String> sectionLevelSources = new HashSet<>();
+        Set<String> seen = new HashSet<>();
+        for (ClassMapping mapping : mappings) {
+            if (mapping.getFromClassId().equals(mapping.getToClassId())) {
+                throw new BusinessException("Class cannot be promoted to itself: " + mapping.getFromClassId());
+            }
+            if (!seen.add(mapping.getFromClassId() + ":" + mapping.getFromSectionId())) {
+                throw new BusinessException("Duplicate mapping for class: " + mapping.getFromClassId());
+            }
+            (mapping.getFromSectionId() == null ? classLevelSources : sectionLevelSources).add(mapping.getFromClassId());
+        }
+        classLevelSources.retainAll(sectionLevelSources);
+        if (!classLevelSources.isEmpty()) {
+            throw new BusinessException("Class mapped both as a whole and by section: " + classLevelSources);
+        }
+
+        List<ClassMapping> remaining = new ArrayList<>(mappings);
+        List<ClassMapping> ordered = new ArrayList<>(mappings.size());
+        while (!remaining.isEmpty()) {
+            Set<String> pendingSources = new HashSet<>();
+            remaining.forEach(mapping -> pendingSources.add(mapping.getFromClassId()));
+
+            List<ClassMapping> ready = remaining.stream()
+                    .filter(mapping -> mapping.getToClassId() == null || !pendingSources.contains(mapping.getToClassId()))
+                    .toList();
+            if (ready.isEmpty()) {
+                throw new BusinessException("Class mappings form a cycle");
+            }
+            ordered.addAll(ready);
+            remaining.removeAll(ready);
+        }
+        return ordered;
+    }
+
+    /**
+     * Make sure every section moving up without an explicit target has a section of the same name to go to
+     */
+    private void checkSectionTargets(String tenantId, ClassMapping mapping) {
+        if (mapping.getToClassId() == null || mapping.getToSectionId() != null) {
+            return;
+        }
+        UUID fromClassId = parseUuid(mapping.getFromClassId());
+        if (fromClassId == null) {
+            return;
+        }
+        List<Section> sources = sectionRepository.findByTenantIdAndSchoolClassId(tenantId, fromClassId).stream()
+                .filter(section -> mapping.getFromSectionId() == null || section.getId().equals(mapping.getFromSectionId()))
+                .toList();
+        if (sources.isEmpty()) {
+            return;
+        }
+        UUID toClassId = parseUuid(mapping.getToClassId());
+        Set<String> targetNames = new HashSet<>();
+        if (toClassId != null) {
+            sectionRepository.findByTenantIdAndSchoolClassId(tenantId, toClassId)
+                    .forEach(section -> targetNames.add(section.getName()));
+        }
+        for (Section source : sources) {
+            if (!targetNames.contains(source.getName())) {
+                throw new BusinessException("Class " + mapping.getToClassId() + " has no section "
+                        + source.getName() + " for the students of class " + mapping.getFromClassId());
+            }
+        }
+    }
+
+    private UUID parseUuid(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private StudentPromotionRun findRun(UUID runId) {
+        String tenantId = TenantContext.requireCurrentTenant();
+        return runRepository.findByIdAndTenantId(runId, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Promotion run", "id", runId));
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value != null ? value : List.of());
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("Invalid promotion request");
+        }
+    }
+
+    private PromotionRunResponse toResponse(StudentPromotionRun run) {
+        double progress = run.getTotalStudents() > 0
+                ? Math.min(100.0, run.getProcessedStudents() * 100.0 / run.getTotalStudents())
+                : (run.getStatus() == PromotionStatus.COMPLETED ? 100.0 : 0.0);
+        return PromotionRunResponse.builder()
+                .id(run.getId())
+                .fromAcademicYearId(run.getFromAcademicYearId())
+                .toAcademicYearId(run.getToAcademicYearId())
+                .status(run.getStatus().name())
+                .totalStudents(run.getTotalStudents())
+                .processedStudents(run.getProcessedStudents())
+                .promotedCount(run.getPromotedCount())
+                .detainedCount(run.getDetainedCount())
+                .graduatedCount(run.getGraduatedCount())
+                .progressPercentage(progress)
+                .errorMessage(run.getErrorMessage())
+                .startedAt(run.getStartedAt())
+                .completedAt(run.getCompletedAt())
+                .createdAt(run.getCreatedAt())
+                .build();
+    }
+}
@@ -8,6 +8,8 @@ import com.schoolmgmt.dto.request.StudentFilterRequest;
 import com.schoolmgmt.dto.request.UpdateStudentRequest;
 import com.schoolmgmt.dto.response.StudentResponse;
 import com.schoolmgmt.dto.response.StudentStatistics;
+import com.schoolmgmt.event.StudentDataChangedEvent;
+import com.schoolmgmt.event.UserDataChangedEvent;
 import com.schoolmgmt.exception.BusinessException;
 import com.schoolmgmt.exception.ResourceNotFoundException;
 import com.schoolmgmt.model.Student;
@@ -17,6 +19,8 @@ import com.schoolmgmt.repository.UserRepository;
 import com.schoolmgmt.util.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -39,6 +43,8 @@ public class StudentService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TenantSequenceAllocator tenantSequenceAllocator;
 
     /**
      * Create a new student
@@ -137,6 +143,7 @@ public class StudentService {
             }
         }
 
+        eventPublisher.publishEvent(new StudentDataChangedEvent(tenantId));
         return toStudentResponse(savedStudent);
     }
 
@@ -194,6 +201,7 @@ public class StudentService {
 
         Student updatedStudent = studentRepository.save(student);
         log.info("Student updated: {} - {}", updatedStudent.getRollNumber(), updatedStudent.getFullName());
+        eventPublisher.publishEvent(new StudentDataChangedEvent(tenantId));
 
         return toStudentResponse(updatedStudent);
     }
@@ -275,6 +283,7 @@ public class StudentService {
         
         Student.StudentStatus studentStatus = Student.StudentStatus.valueOf(status.toUpperCase());
         studentRepository.updateStatus(studentId, studentStatus);
+        eventPublisher.publishEvent(new StudentDataChangedEvent(tenantId));
         
         log.info("Student status updated: {} to {}", student.getRollNumber(), status);
     }
@@ -295,48 +304,48 @@ public class StudentService {
         
         student.softDelete(tenantId);
         studentRepository.save(student);
+        eventPublisher.publishEvent(new StudentDataChangedEvent(tenantId));
         
         log.info("Student soft deleted: {}", student.getRollNumber());
     }
 
     /**
-     * Get student statistics
+     * Get student statistics (one grouped query, cached per tenant until students change)
      */
     @Transactional(readOnly = true)
+    @Cacheable(value = DashboardCacheInvalidator.STUDENT_STATISTICS,
+            key = "T(com.schoolmgmt.util.TenantContext).requireCurrentTenant()")
     public StudentStatistics getStudentStatistics() {
         String tenantId = TenantContext.requireCurrentTenant();
 
-        long activeStudents = studentRepository.countByTenantIdAndStatus(tenantId, Student.StudentStatus.ACTIVE);
-
-        // Get statistics by class (also gives us male/female counts in a single query)
-        List<Object[]> classStats = studentRepository.getStudentStatisticsByClass(tenantId);
         Map<String, Long> studentsByClass = new HashMap<>();
+        Map<String, Long> studentsByStatus = new HashMap<>();
+        long totalStudents = 0;
+        long activeStudents = 0;
         long maleStudents = 0;
         long femaleStudents = 0;
 
-        for (Object[] stat : classStats) {
-            String classId = (String) stat[0];
-            Long count = (Long) stat[1];
-            Long males = (Long) stat[2];
-            Long females = (Long) stat[3];
-
-            studentsByClass.put(classId, count);
-            maleStudents += males;
-            femaleStudents += females;
-        }
-
-        // Build status counts: query each status once (7 queries instead of N+1 with null)
-        // This is more explicit and avoids the countByTenantIdAndStatus(tenantId, null) call
-        // which may not behave as expected with null status parameter
-        Map<String, Long> studentsByStatus = new HashMap<>();
-        long totalStudents = 0;
+        for (Object[] row : studentRepository.getStudentCountsByClassStatusAndGender(tenantId)) {
+            String classId = (String) row[0];
+            Student.StudentStatus status = (Student.StudentStatus) row[1];
+            Student.Gender gender = (Student.Gender) row[2];
+            long count = (Long) row[3];
 
-        for (Student.StudentStatus status : Student.StudentStatus.values()) {
-            long count = studentRepository.countByTenantIdAndStatus(tenantId, status);
-            if (count > 0) {
-                studentsByStatus.put(status.name(), count);
-            }
             totalStudents += count;
+            studentsByStatus.merge(status.name(), count, Long::sum);
+
+            // Class and gender breakdowns only cover active students
+            if (status == Student.StudentStatus.ACTIVE) {
+                activeStudents += count;
+                if (classId != null) {
+                    studentsByClass.merge(classId, count, Long::sum);
+                }
+                if (gender == Student.Gender.MALE) {
+                    maleStudents += count;
+                } else if (gender == Student.Gender.FEMALE) {
+                    femaleStudents += count;
+                }
+            }
         }
 
         return StudentStatistics.builder()
@@ -353,10 +362,13 @@ public class StudentService {
      * Create user account for student
      */
     private User createUserForStudent(Student student) {
-        String username = generateUsername(student);
+        String userCode = tenantSequenceAllocator.nextUserCode(student.getTenantId());
+        String username = generateUsername(student, userCode);
         String defaultPassword = generateDefaultPassword();
         
         User user = User.builder()
+                .userId(userCode)
+                .username(username)
                 .email(student.getEmail())
                 .password(passwordEncoder.encode(defaultPassword))
                 .firstName(student.getFirstName())
@@ -371,6 +383,7 @@ public class StudentService {
         
         user.setTenantId(student.getTenantId());
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserDataChangedEvent(student.getTenantId()));
         
         // Send welcome email with credentials
         // emailService.sendStudentCredentials(student, username, defaultPassword);
@@ -379,22 +392,13 @@ public class StudentService {
     }
 
     /**
-     * Generate username for student
+     * Generate username for student as "{userCode}_{first}.{last}"; the name part never contains '_',
+     * so the separator keeps usernames of different code and name pairs apart
      */
-    private String generateUsername(Student student) {
+    private String generateUsername(Student student, String userCode) {
         String base = student.getFirstName().toLowerCase() + "." + 
                      student.getLastName().toLowerCase();
-        base = base.replaceAll("[^a-z0-9.]", "");
-        
-        String username = base;
-        int counter = 1;
-        
-        while (userRepository.existsByUsernameAndTenantId(username, student.getTenantId())) {
-            username = base + counter;
-            counter++;
-        }
-        
-        return username;
+        return userCode + "_" + base.replaceAll("[^a-z0-9.]", "");
     }
 
     /**
@@ -0,0 +1,493 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.request.SubstitutionAssignmentRequest;
+import com.schoolmgmt.dto.response.SubstitutionPlan;
+import com.schoolmgmt.event.LeaveStatusChangedEvent;
+import com.schoolmgmt.event.SubstitutionsChangedEvent;
+import com.schoolmgmt.exception.TimetableConflictException;
+import com.schoolmgmt.model.LeaveRequest;
+import com.schoolmgmt.model.TeacherSubject;
+import com.schoolmgmt.model.TimetableEntry;
+import com.schoolmgmt.model.TimetableSubstitution;
+import com.schoolmgmt.repository.LeaveRequestRepository;
+import com.schoolmgmt.repository.TeacherRepository;
+import com.schoolmgmt.repository.TeacherSubjectRepository;
+import com.schoolmgmt.repository.TimetableRepository;
+import com.schoolmgmt.repository.TimetableSubstitutionRepository;
+import com.schoolmgmt.util.TenantContext;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Finds and assigns substitute teachers for the periods left uncovered by an approved leave.
+ * Candidates are ranked from in-memory data only: free periods come from the timetable occupancy bitsets,
+ * absences and subject competence from a per-tenant index of approved leaves, teacher-subject assignments
+ * and existing substitutions. The index is rebuilt when leaves or substitutions change, at day rollover
+ * and after a configurable time-to-live.
+ */
+@Service
+@Slf4j
+public class SubstitutionService {
+
+    private static final Comparator<SubstitutionPlan.Candidate> CANDIDATE_ORDER =
+            Comparator.comparing(SubstitutionPlan.Candidate::isSubjectMatch).reversed()
+                    .thenComparingInt(SubstitutionPlan.Candidate::getPeriodsThatDay)
+                    .thenComparingInt(SubstitutionPlan.Candidate::getPeriodsThisWeek)
+                    .thenComparing(SubstitutionPlan.Candidate::getTeacherName, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final TimetableConflictEngine conflictEngine;
+    private final TimetableRepository timetableRepository;
+    private final TimetableSubstitutionRepository substitutionRepository;
+    private final LeaveRequestRepository leaveRequestRepository;
+    private final TeacherRepository teacherRepository;
+    private final TeacherSubjectRepository teacherSubjectRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration indexTtl;
+
+    private final Map<String, Index> indexes = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public SubstitutionService(TimetableConflictEngine conflictEngine,
+                               TimetableRepository timetableRepository,
+                               TimetableSubstitutionRepository substitutionRepository,
+                               LeaveRequestRepository leaveRequestRepository,
+                               TeacherRepository teacherRepository,
+                               TeacherSubjectRepository teacherSubjectRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${app.substitutions.index-ttl-minutes:15}") long indexTtlMinutes) {
+        this.conflictEngine = conflictEngine;
+        this.timetableRepository = timetableRepository;
+        this.substitutionRepository = substitutionRepository;
+        this.leaveRequestRepository = leaveRequestRepository;
+        this.teacherRepository = teacherRepository;
+        this.teacherSubjectRepository = teacherSubjectRepository;
+        this.eventPublisher = eventPublisher;
+        this.indexTtl = Duration.ofMinutes(indexTtlMinutes);
+    }
+
+    // ===== Planning =====
+
+    /**
+     * List the absent teacher's periods from today to the end of the leave, each with its ranked candidates
+     */
+    @Transactional(readOnly = true)
+    public SubstitutionPlan getPlan(UUID leaveRequestId, int limit) {
+        Plan plan = plan(TenantContext.getCurrentTenant(), leaveRequestId);
+        List<SubstitutionPlan.AffectedPeriod> periods = new ArrayList<>(plan.getAffected().size());
+        for (Affected period : plan.getAffected()) {
+            List<SubstitutionPlan.Candidate> candidates = plan.getIndex().isCovered(period)
+                    ? List.of()
+                    : rank(plan, period, Set.of(), Map.of(), limit);
+            periods.add(describe(plan, period, candidates));
+        }
+        return summarize(plan, periods);
+    }
+
+    /**
+     * Assign substitutes for an approved leave. Explicit assignments are validated against the same index
+     * used for ranking; without any, every uncovered period gets its best-ranked free teacher, spreading
+     * the extra load across candidates.
+     */
+    @Transactional
+    public Map<String, Object> assign(UUID leaveRequestId, SubstitutionAssignmentRequest request, String assignedBy) {
+        String tenantId = TenantContext.getCurrentTenant();
+        Plan plan = plan(tenantId, leaveRequestId);
+        Set<String> reserved = new HashSet<>();
+        Map<String, Integer> extraLoad = new HashMap<>();
+        List<TimetableSubstitution> substitutions = new ArrayList<>();
+        List<SubstitutionPlan.AffectedPeriod> unassigned = new ArrayList<>();
+
+        if (request == null || request.getAssignments() == null || request.getAssignments().isEmpty()) {
+            for (Affected period : plan.getAffected()) {
+                if (plan.getIndex().isCovered(period)) {
+                    continue;
+                }
+                List<SubstitutionPlan.Candidate> best = rank(plan, period, reserved, extraLoad, 1);
+                if (best.isEmpty()) {
+                    unassigned.add(describe(plan, period, List.of()));
+                } else {
+                    substitutions.add(reserve(plan, period, best.get(0).getTeacherId(), reserved, extraLoad, assignedBy));
+                }
+            }
+        } else {
+            Map<String, Affected> byKey = plan.getAffected().stream()
+                    .collect(Collectors.toMap(Affected::coverageKey, period -> period));
+            Map<String, List<String>> errors = new LinkedHashMap<>();
+            List<SubstitutionAssignmentRequest.Assignment> assignments = request.getAssignments();
+            for (int i = 0; i < assignments.size(); i++) {
+                SubstitutionAssignmentRequest.Assignment assignment = assignments.get(i);
+                Affected period = byKey.get(coverageKey(assignment.getTimetableEntryId(), assignment.getDate()));
+                String error;
+                if (period == null) {
+                    error = "Entry is not taught by the absent teacher on " + assignment.getDate();
+                } else if (plan.getIndex().isCovered(period)) {
+                    error = "Period is already covered on " + assignment.getDate();
+                } else if (!plan.getIndex().getTeacherNames().containsKey(assignment.getTeacherId())) {
+                    error = "Teacher not found or not active: " + assignment.getTeacherId();
+                } else if (!isAvailable(plan, period, assignment.getTeacherId(), reserved)) {
+                    error = "Teacher is not free for this period on " + assignment.getDate();
+                } else {
+                    substitutions.add(reserve(plan, period, assignment.getTeacherId(), reserved, extraLoad, assignedBy));
+                    continue;
+                }
+                errors.put("assignments[" + i + "]", List.of(error));
+            }
+            if (!errors.isEmpty()) {
+                throw new TimetableConflictException("Substitute assignments clash with the timetable", errors);
+            }
+        }
+
+        List<TimetableSubstitution> saved = substitutions.isEmpty() ? List.of() : substitutionRepository.saveAll(substitutions);
+        if (!saved.isEmpty()) {
+            eventPublisher.publishEvent(new SubstitutionsChangedEvent(tenantId));
+        }
+        log.info("Assigned {} substitutes for leave {}, {} periods left uncovered",
+                saved.size(), leaveRequestId, unassigned.size());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("assigned", saved);
+        result.put("unassigned", unassigned);
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public List<TimetableSubstitution> getSubstitutions(LocalDate date) {
+        return substitutionRepository.findByTenantIdAndSubstitutionDate(TenantContext.getCurrentTenant(), date);
+    }
+
+    // ===== Index maintenance =====
+
+    /**
+     * Drop the substitutions of a cancelled leave in the same transaction as the cancellation
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void releaseCancelledLeave(LeaveStatusChangedEvent event) {
+        if (event.getStatus() == LeaveRequest.LeaveStatus.CANCELLED) {
+            int removed = substitutionRepository.deleteByTenantIdAndLeaveRequestId(
+                    event.getTenantId(), event.getLeaveRequestId());
+            log.info("Removed {} substitutions of cancelled leave {}", removed, event.getLeaveRequestId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLeaveStatusChanged(LeaveStatusChangedEvent event) {
+        invalidate(event.getTenantId());
+        if (event.getStatus() == LeaveRequest.LeaveStatus.APPROVED) {
+            // Warm both models so the substitution screen opened after an approval answers from memory
+            try {
+                index(event.getTenantId());
+                conflictEngine.occupancy(event.getTenantId());
+            } catch (RuntimeException e) {
+                log.warn("Could not preload substitution index for tenant {}: {}", event.getTenantId(), e.getMessage());
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSubstitutionsChanged(SubstitutionsChangedEvent event) {
+        invalidate(event.getTenantId());
+    }
+
+    public void invalidate(String tenantId) {
+        if (tenantId == null) {
+            return;
+        }
+        generations.computeIfAbsent(tenantId, k -> new AtomicLong()).incrementAndGet();
+        indexes.remove(tenantId);
+        log.debug("Invalidated substitution index for tenant: {}", tenantId);
+    }
+
+    Index index(String tenantId) {
+        Index index = indexes.get(tenantId);
+        if (index != null && index.getLoadedOn().equals(LocalDate.now())
+                && System.nanoTime() - index.getLoadedAtNanos() < indexTtl.toNanos()) {
+            return index;
+        }
+
+        AtomicLong generation = generations.computeIfAbsent(tenantId, k -> new AtomicLong());
+        long loadedAt = generation.get();
+        Index loaded = load(tenantId);
+        // A write committed while loading makes the snapshot stale; serve it for this call but don't keep it
+        indexes.compute(tenantId, (k, current) -> generation.get() == loadedAt ? loaded : current);
+        return loaded;
+    }
+
+    private Index load(String tenantId) {
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        Index index = new Index(today, start);
+
+        for (Object[] row : teacherRepository.findActiveTeacherIdentities(tenantId)) {
+            UUID teacherId = (UUID) row[0];
+            index.getTeacherNames().put(teacherId, fullName((String) row[1], (String) row[2]));
+            if (row[3] != null) {
+                index.getTeacherByUser().put((String) row[3], teacherId);
+            }
+        }
+        for (TeacherSubject assignment : teacherSubjectRepository.findActiveAssignmentsByTenant(tenantId)) {
+            index.getSubjectTeachers().computeIfAbsent(assignment.getSubjectId(), k -> new HashSet<>())
+                    .add(assignment.getTeacherId());
+        }
+        for (Object[] row : leaveRequestRepository.findApprovedLeaveRanges(tenantId, today)) {
+            UUID teacherId = index.getTeacherByUser().get((String) row[1]);
+            if (teacherId != null) {
+                index.getLeaves().computeIfAbsent(teacherId, k -> new ArrayList<>())
+                        .add(new LocalDate[]{(LocalDate) row[2], (LocalDate) row[3]});
+            }
+        }
+        // From the start of the week, so weekly loads include cover already given this week
+        for (TimetableSubstitution substitution : substitutionRepository
+                .findByTenantIdAndSubstitutionDateGreaterThanEqual(tenantId, weekStart(today))) {
+            index.add(substitution);
+        }
+
+        log.info("Loaded substitution index for tenant {}: {} teachers, {} on leave, {} substitutions in {} us",
+                tenantId, index.getTeacherNames().size(), index.getLeaves().size(), index.getCoverage().size(),
+                (System.nanoTime() - start) / 1_000);
+        return index;
+    }
+
+    // ===== Helpers =====
+
+    private Plan plan(String tenantId, UUID leaveRequestId) {
+        LeaveRequest leave = leaveRequestRepository.findById(leaveRequestId)
+                .filter(request -> tenantId.equals(request.getTenantId()))
+                .orElseThrow(() -> new NoSuchElementException("Leave request not found: " + leaveRequestId));
+        if (leave.getStatus() != LeaveRequest.LeaveStatus.APPROVED) {
+            throw new IllegalArgumentException("Substitutes can only be planned for an approved leave");
+        }
+
+        Index index = index(tenantId);
+        UUID teacherId = index.getTeacherByUser().get(leave.getUserId());
+        if (teacherId == null) {
+            throw new IllegalArgumentException("Leave request does not belong to an active teacher");
+        }
+
+        TimetableConflictEngine.Occupancy occupancy = conflictEngine.occupancy(tenantId);
+        Map<TimetableEntry.DayOfWeek, List<TimetableEntry>> entriesByDay = timetableRepository
+                .findByTenantIdAndTeacherIdAndIsActiveTrue(tenantId, teacherId).stream()
+                .filter(entry -> entry.getPeriod() != null && entry.getDayOfWeek() != null)
+                .sorted(Comparator.comparing(entry -> entry.getPeriod().getPeriodNumber(),
+                        Comparator.nullsLast(Comparator.naturalOrder())))
+                .collect(Collectors.groupingBy(TimetableEntry::getDayOfWeek,
+                        () -> new EnumMap<>(TimetableEntry.DayOfWeek.class), Collectors.toList()));
+
+        List<Affected> affected = new ArrayList<>();
+        LocalDate from = leave.getStartDate().isBefore(index.getLoadedOn()) ? index.getLoadedOn() : leave.getStartDate();
+        for (LocalDate date = from; !date.isAfter(leave.getEndDate()); date = date.plusDays(1)) {
+            TimetableEntry.DayOfWeek day = TimetableEntry.DayOfWeek.valueOf(date.getDayOfWeek().name());
+            for (TimetableEntry entry : entriesByDay.getOrDefault(day, List.of())) {
+                affected.add(new Affected(entry, date, day, occupancy.slot(day, entry.getPeriod().getId())));
+            }
+        }
+        return new Plan(leave, teacherId, index, occupancy, affected);
+    }
+
+    private List<SubstitutionPlan.Candidate> rank(Plan plan, Affected period, Set<String> reserved,
+                                                  Map<String, Integer> extraLoad, int limit) {
+        Index index = plan.getIndex();
+        Set<UUID> subjectTeachers = index.getSubjectTeachers().getOrDefault(period.getEntry().getSubjectId(), Set.of());
+        List<SubstitutionPlan.Candidate> candidates = new ArrayList<>();
+        for (Map.Entry<UUID, String> teacher : index.getTeacherNames().entrySet()) {
+            UUID teacherId = teacher.getKey();
+            if (!isAvailable(plan, period, teacherId, reserved)) {
+                continue;
+            }
+            candidates.add(SubstitutionPlan.Candidate.builder()
+                    .teacherId(teacherId)
+                    .teacherName(teacher.getValue())
+                    .subjectMatch(subjectTeachers.contains(teacherId))
+                    .periodsThatDay(plan.getOccupancy().teacherPeriods(teacherId, period.getDay())
+                            + index.substitutionLoad(period.getDate(), teacherId)
+                            + extraLoad.getOrDefault(loadKey(period.getDate(), teacherId), 0))
+                    .periodsThisWeek(plan.getOccupancy().teacherPeriods(teacherId)
+                            + index.weeklySubstitutionLoad(period.getDate(), teacherId)
+                            + extraLoad.getOrDefault(weekLoadKey(period.getDate(), teacherId), 0))
+                    .build());
+        }
+        candidates.sort(CANDIDATE_ORDER);
+        return candidates.size() > limit ? new ArrayList<>(candidates.subList(0, limit)) : candidates;
+    }
+
+    private boolean isAvailable(Plan plan, Affected period, UUID teacherId, Set<String> reserved) {
+        UUID periodId = period.getEntry().getPeriod().getId();
+        return !teacherId.equals(plan.getTeacherId())
+                && !plan.getOccupancy().teacherClashes(teacherId, period.getSlot())
+                && !plan.getIndex().isOnLeave(teacherId, period.getDate())
+                && !plan.getIndex().isSubstituting(teacherId, period.getDate(), periodId)
+                && !reserved.contains(busyKey(teacherId, period.getDate(), periodId));
+    }
+
+    private TimetableSubstitution reserve(Plan plan, Affected period, UUID teacherId, Set<String> reserved,
+                                          Map<String, Integer> extraLoad, String assignedBy) {
+        TimetableEntry entry = period.getEntry();
+        reserved.add(busyKey(teacherId, period.getDate(), entry.getPeriod().getId()));
+        extraLoad.merge(loadKey(period.getDate(), teacherId), 1, Integer::sum);
+        extraLoad.merge(weekLoadKey(period.getDate(), teacherId), 1, Integer::sum);
+        return TimetableSubstitution.builder()
+                .tenantId(plan.getLeave().getTenantId())
+                .timetableEntryId(entry.getId())
+                .substitutionDate(period.getDate())
+                .periodId(entry.getPeriod().getId())
+                .classId(entry.getClassId())
+                .section(entry.getSection())
+                .subjectId(entry.getSubjectId())
+                .subjectName(entry.getSubjectName())
+                .originalTeacherId(plan.getTeacherId())
+                .substituteTeacherId(teacherId)
+                .substituteTeacherName(plan.getIndex().getTeacherNames().get(teacherId))
+                .leaveRequestId(plan.getLeave().getId())
+                .createdBy(assignedBy)
+                .build();
+    }
+
+    private SubstitutionPlan.AffectedPeriod describe(Plan plan, Affected period, List<SubstitutionPlan.Candidate> candidates) {
+        TimetableEntry entry = period.getEntry();
+        TimetableSubstitution covered = plan.getIndex().getCoverage().get(period.coverageKey());
+        return SubstitutionPlan.AffectedPeriod.builder()
+                .timetableEntryId(entry.getId())
+                .date(period.getDate())
+                .dayOfWeek(period.getDay())
+                .periodId(entry.getPeriod().getId())
+                .periodNumber(entry.getPeriod().getPeriodNumber())
+                .periodName(entry.getPeriod().getName())
+                .classId(entry.getClassId())
+                .section(entry.getSection())
+                .subjectId(entry.getSubjectId())
+                .subjectName(entry.getSubjectName())
+                .room(entry.getRoom())
+                .substituteTeacherId(covered != null ? covered.getSubstituteTeacherId() : null)
+                .substituteTeacherName(covered != null ? covered.getSubstituteTeacherName() : null)
+                .candidates(candidates)
+                .build();
+    }
+
+    private SubstitutionPlan summarize(Plan plan, List<SubstitutionPlan.AffectedPeriod> periods) {
+        int covered = (int) periods.stream().filter(period -> period.getSubstituteTeacherId() != null).count();
+        return SubstitutionPlan.builder()
+                .leaveRequestId(plan.getLeave().getId())
+                .teacherId(plan.getTeacherId())
+                .teacherName(plan.getIndex().getTeacherNames().get(plan.getTeacherId()))
+                .startDate(plan.getLeave().getStartDate())
+                .endDate(plan.getLeave().getEndDate())
+                .coveredPeriods(covered)
+                .uncoveredPeriods(periods.size() - covered)
+                .periods(periods)
+                .build();
+    }
+
+    private static String fullName(String firstName, String lastName) {
+        return ((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "")).trim();
+    }
+
+    private static String coverageKey(UUID entryId, LocalDate date) {
+        return entryId + "/" + date;
+    }
+
+    private static String busyKey(UUID teacherId, LocalDate date, UUID periodId) {
+        return teacherId + "/" + date + "/" + periodId;
+    }
+
+    private static String loadKey(LocalDate date, UUID teacherId) {
+        return date + "/" + teacherId;
+    }
+
+    private static String weekLoadKey(LocalDate date, UUID teacherId) {
+        return "week/" + weekStart(date) + "/" + teacherId;
+    }
+
+    private static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Plan {
+        private final LeaveRequest leave;
+        private final UUID teacherId;
+        private final Index index;
+        private final TimetableConflictEngine.Occupancy occupancy;
+        private final List<Affected> affected;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Affected {
+        private final TimetableEntry entry;
+        private final LocalDate date;
+        private final TimetableEntry.DayOfWeek day;
+        private final int slot;
+
+        String coverageKey() {
+            return SubstitutionService.coverageKey(entry.getId(), date);
+        }
+    }
+
+    /**
+     * Leave, competence and substitution data of one tenant from {@code loadedOn} onwards
+     */
+    @Getter
+    @RequiredArgsConstructor
+    static final class Index {
+        private final LocalDate loadedOn;
+        private final long loadedAtNanos;
+        private final Map<UUID, String> teacherNames = new HashMap<>();
+        private final Map<String, UUID> teacherByUser = new HashMap<>();
+        private final Map<UUID, Set<UUID>> subjectTeachers = new HashMap<>();
+        private final Map<UUID, List<LocalDate[]>> leaves = new HashMap<>();
+        private final Map<String, TimetableSubstitution> coverage = new HashMap<>();
+        private final Set<String> busy = new HashSet<>();
+        private final Map<String, Integer> load = new HashMap<>();
+
+        void add(TimetableSubstitution substitution) {
+            coverage.put(coverageKey(substitution.getTimetableEntryId(), substitution.getSubstitutionDate()), substitution);
+            busy.add(busyKey(substitution.getSubstituteTeacherId(), substitution.getSubstitutionDate(), substitution.getPeriodId()));
+            load.merge(loadKey(substitution.getSubstitutionDate(), substitution.getSubstituteTeacherId()), 1, Integer::sum);
+            load.merge(weekLoadKey(substitution.getSubstitutionDate(), substitution.getSubstituteTeacherId()), 1, Integer::sum);
+        }
+
+        boolean isCovered(Affected period) {
+            return coverage.containsKey(period.coverageKey());
+        }
+
+        boolean isOnLeave(UUID teacherId, LocalDate date) {
+            for (LocalDate[] range : leaves.getOrDefault(teacherId, List.of())) {
+                if (!date.isBefore(range[0]) && !date.isAfter(range[1])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isSubstituting(UUID teacherId, LocalDate date, UUID periodId) {
+            return busy.contains(busyKey(teacherId, date, periodId));
+        }
+
+        int substitutionLoad(LocalDate date, UUID teacherId) {
+            return load.getOrDefault(loadKey(date, teacherId), 0);
+        }
+
+        /**
+         * Periods covered by the teacher in the Monday-to-Sunday week of {@code date}
+         */
+        int weeklySubstitutionLoad(LocalDate date, UUID teacherId) {
+            return load.getOrDefault(weekLoadKey(date, teacherId), 0);
+        }
+    }
+}
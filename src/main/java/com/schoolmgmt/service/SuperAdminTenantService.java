@@ -42,6 +42,7 @@ public class SuperAdminTenantService {
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
     private final ClassSectionService classSectionService;
+    private final TenantSequenceAllocator tenantSequenceAllocator;
 
     /**
      * Create a new tenant as SuperAdmin
@@ -492,15 +493,9 @@ public class SuperAdminTenantService {
             throw new BusinessException("Username already exists: " + adminUserRequest.getUsername());
         }
         
-        String tenantPrefix = tenant.getIdentifier();
-        Integer lastSequence = userRepository.findMaxSequenceForTenant(tenantPrefix);
-        if (lastSequence == null) {
-            lastSequence = 0;
-        }
-        
         String userId = adminUserRequest.getUserId();
         if (userId == null || userId.trim().isEmpty()) {
-            userId = String.format("%s%05d", tenantPrefix, lastSequence + 1);
+            userId = tenantSequenceAllocator.nextUserCode(tenant.getIdentifier());
         }
         
         User adminUser = User.builder()
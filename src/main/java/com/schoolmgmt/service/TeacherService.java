@@ -2,10 +2,12 @@ package com.schoolmgmt.service;
 
 import com.schoolmgmt.dto.request.TeacherCreationRequest;
 import com.schoolmgmt.dto.request.TeacherAssignmentRequest;
+import com.schoolmgmt.event.UserDataChangedEvent;
 import com.schoolmgmt.exception.ResourceNotFoundException;
 import com.schoolmgmt.model.*;
 import com.schoolmgmt.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -26,6 +28,7 @@ public class TeacherService {
     private final AcademicYearRepository academicYearRepository;
     private final TeacherClassRepository teacherClassRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Teacher createTeacher(TeacherCreationRequest request) {
@@ -42,6 +45,7 @@ public class TeacherService {
                 .isActive(true)
                 .build();
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserDataChangedEvent(savedUser.getTenantId()));
 
         // 2. Create the Teacher profile with domain-specific info.
         Teacher teacher = Teacher.builder()
@@ -145,6 +149,7 @@ public class TeacherService {
             User user = teacher.getUser();
             user.setActive(false);
             userRepository.save(user);
+            eventPublisher.publishEvent(new UserDataChangedEvent(user.getTenantId()));
         }
         
         teacherRepository.save(teacher);
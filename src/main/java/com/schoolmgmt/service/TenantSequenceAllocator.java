@@ -0,0 +1,170 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.model.TenantSequence;
+import com.schoolmgmt.repository.TenantSequenceRepository;
+import com.schoolmgmt.repository.UserRepository;
+import com.schoolmgmt.util.UserIdGeneratorBasedonTenantIdentifies;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Hands out per-tenant sequence numbers from memory, reserving them from the database in blocks (hi/lo).
+ * A reservation is one atomic UPDATE in its own transaction, so numbers never collide across threads or
+ * nodes; numbers left in a block when a node stops are skipped, which makes the sequences gap-tolerant.
+ * Sequences that must not skip numbers use {@link #nextGapless}, which allocates inside the caller's transaction.
+ */
+@Service
+@Slf4j
+public class TenantSequenceAllocator {
+
+    public static final String USER_CODE = "USER_CODE";
+
+    private static final int USER_CODE_LENGTH = 5;
+
+    private final TenantSequenceRepository tenantSequenceRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate requiresNewTransaction;
+    private final int blockSize;
+
+    private final ConcurrentMap<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public TenantSequenceAllocator(TenantSequenceRepository tenantSequenceRepository,
+                                   UserRepository userRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.sequences.block-size:50}") int blockSize) {
+        this.tenantSequenceRepository = tenantSequenceRepository;
+        this.userRepository = userRepository;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Allocate the next user code of a tenant (e.g. TEN00100042)
+     */
+    public String nextUserCode(String tenantId) {
+        long sequence = next(tenantId, USER_CODE, () -> lastUsedUserSequence(tenantId));
+        return UserIdGeneratorBasedonTenantIdentifies.formatCode(tenantId, sequence, USER_CODE_LENGTH);
+    }
+
+    /**
+     * Allocate the next value of a tenant sequence that starts at 1
+     */
+    public long next(String tenantId, String sequenceName) {
+        return next(tenantId, sequenceName, () -> 0L);
+    }
+
+    /**
+     * Allocate the next value of a tenant sequence.
+     * {@code lastUsed} is consulted only once, when the sequence row is first created, so sequences can be
+     * introduced over existing data without re-issuing numbers already handed out.
+     */
+    public long next(String tenantId, String sequenceName, LongSupplier lastUsed) {
+        Block block = blocks.computeIfAbsent(tenantId + ":" + sequenceName, key -> new Block());
+        synchronized (block) {
+            if (block.next >= block.limit) {
+                long limit = reserve(tenantId, sequenceName, lastUsed);
+                block.next = limit - blockSize;
+                block.limit = limit;
+                log.debug("Reserved {} block [{}, {}) for tenant: {}", sequenceName, block.next, limit, tenantId);
+            }
+            return block.next++;
+        }
+    }
+
+    /**
+     * Allocate the next value of a tenant sequence (starting at 1) in the caller's transaction.
+     * The sequence row stays locked until that transaction ends and a rollback gives the number back, so
+     * committed numbers have no gaps; the price is that concurrent callers queue behind each other's commits.
+     */
+    public long nextGapless(String tenantId, String sequenceName) {
+        if (tenantSequenceRepository.increment(tenantId, sequenceName, LocalDateTime.now()) == 0) {
+            createSequence(tenantId, sequenceName);
+            if (tenantSequenceRepository.increment(tenantId, sequenceName, LocalDateTime.now()) == 0) {
+                throw new IllegalStateException("Sequence disappeared: " + sequenceName);
+            }
+        }
+        return tenantSequenceRepository.findNextValue(tenantId, sequenceName)
+                .orElseThrow(() -> new IllegalStateException("Sequence disappeared: " + sequenceName)) - 1;
+    }
+
+    /**
+     * Creates a sequence row starting at 1 in its own transaction, so a concurrent creation on another node
+     * does not roll back the caller
+     */
+    private void createSequence(String tenantId, String sequenceName) {
+        try {
+            requiresNewTransaction.executeWithoutResult(status -> {
+                if (tenantSequenceRepository.findNextValue(tenantId, sequenceName).isEmpty()) {
+                    tenantSequenceRepository.saveAndFlush(TenantSequence.builder()
+                            .tenantId(tenantId)
+                            .sequenceName(sequenceName)
+                            .nextValue(1L)
+                            .updatedAt(LocalDateTime.now())
+                            .build());
+                    log.info("Created sequence {} for tenant: {}", sequenceName, tenantId);
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Sequence {} of tenant {} was created concurrently", sequenceName, tenantId);
+        }
+    }
+
+    private long reserve(String tenantId, String sequenceName, LongSupplier lastUsed) {
+        try {
+            return requiresNewTransaction.execute(status -> reserveBlock(tenantId, sequenceName, lastUsed));
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the sequence row first; advancing it now succeeds
+            return requiresNewTransaction.execute(status -> reserveBlock(tenantId, sequenceName, lastUsed));
+        }
+    }
+
+    /**
+     * Returns the exclusive upper bound of the reserved block
+     */
+    private long reserveBlock(String tenantId, String sequenceName, LongSupplier lastUsed) {
+        if (tenantSequenceRepository.advance(tenantId, sequenceName, blockSize, LocalDateTime.now()) > 0) {
+            return tenantSequenceRepository.findNextValue(tenantId, sequenceName)
+                    .orElseThrow(() -> new IllegalStateException("Sequence disappeared: " + sequenceName));
+        }
+
+        long limit = lastUsed.getAsLong() + 1 + blockSize;
+        tenantSequenceRepository.saveAndFlush(TenantSequence.builder()
+                .tenantId(tenantId)
+                .sequenceName(sequenceName)
+                .nextValue(limit)
+                .updatedAt(LocalDateTime.now())
+                .build());
+        log.info("Created sequence {} for tenant: {}", sequenceName, tenantId);
+        return limit;
+    }
+
+    /**
+     * Highest numeric suffix among the tenant's user codes. Compared as numbers, not strings, so codes that outgrew
+     * the zero-padded width still count and custom codes sharing the prefix are ignored.
+     */
+    private long lastUsedUserSequence(String tenantId) {
+        return userRepository.findUserIdsWithPrefix(tenantId, tenantId).stream()
+                .map(userId -> userId.substring(tenantId.length()))
+                .filter(suffix -> !suffix.isEmpty() && suffix.length() <= 18
+                        && suffix.chars().allMatch(Character::isDigit))
+                .mapToLong(Long::parseLong)
+                .max()
+                .orElse(0L);
+    }
+
+    private static final class Block {
+        private long next;
+        private long limit;
+    }
+}
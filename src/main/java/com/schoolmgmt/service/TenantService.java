@@ -9,6 +9,7 @@ import com.schoolmgmt.dto.request.UpdateTenantRequest;
 import com.schoolmgmt.dto.response.TenantRegistrationResponse;
 import com.schoolmgmt.dto.response.TenantResponse;
 import com.schoolmgmt.dto.response.TenantStatistics;
+import com.schoolmgmt.event.TenantUsageChangedEvent;
 import com.schoolmgmt.exception.BusinessException;
 import com.schoolmgmt.exception.ResourceNotFoundException;
 import com.schoolmgmt.model.Tenant;
@@ -17,10 +18,11 @@ import com.schoolmgmt.repository.TenantRepository;
 import com.schoolmgmt.repository.UserRepository;
 import com.schoolmgmt.util.TenantContext;
 import com.schoolmgmt.util.TenantIdFormatter;
-import com.schoolmgmt.util.UserIdGeneratorBasedonTenantIdentifies;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -43,6 +45,8 @@ public class TenantService implements TenantServiceInterface {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TenantSequenceAllocator tenantSequenceAllocator;
 
     String adminUserid;
 
@@ -216,15 +220,17 @@ public class TenantService implements TenantServiceInterface {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(value = DashboardCacheInvalidator.TENANT_STATISTICS,
+            key = "T(com.schoolmgmt.util.TenantContext).requireCurrentTenant()")
     public TenantStatistics getTenantStatistics() {
         String tenantId = TenantContext.requireCurrentTenant();
         Tenant tenant = tenantRepository.findByIdentifier(tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tenant", "identifier", tenantId));
 
         Map<String, Long> usersByRole = new HashMap<>();
-        for (User.UserRole role : User.UserRole.values()) {
-            long count = userRepository.countActiveUsersByRoleAndTenant(role, tenantId);
-            if (count > 0) usersByRole.put(role.name(), count);
+        for (Object[] row : userRepository.countActiveUsersGroupedByRole(tenantId)) {
+            usersByRole.put(((User.UserRole) row[0]).name(), (Long) row[1]);
         }
 
         long totalStudents = usersByRole.getOrDefault("STUDENT", 0L);
@@ -287,6 +293,7 @@ public class TenantService implements TenantServiceInterface {
         Tenant tenant = tenantRepository.findByIdentifier(tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tenant", "identifier", tenantId));
         tenantRepository.updateStorageUsage(tenant.getId(), delta);
+        eventPublisher.publishEvent(new TenantUsageChangedEvent(tenantId));
     }
 
     // ---------------------- Private Helper Methods ----------------------
@@ -316,12 +323,6 @@ public class TenantService implements TenantServiceInterface {
         if (userRepository.existsByUsernameAndTenantId(request.getUsername(), tenantIdentifier)) {
             throw new BusinessException("Username already exists: " + request.getUsername());
         }
-        String tenantPrefix=tenantIdentifier;
-        // Fetch max sequence for this tenant from DB (service layer)
-        Integer lastSequence = userRepository.findMaxSequenceForTenant(tenantPrefix);
-        if (lastSequence == null) {
-            lastSequence = 0; // first user
-        }
 
         if (userRepository.existsByPhone(request.getPhone())) {
             throw new BusinessException("Phone number  already exists: " + request.getPhone());
@@ -332,9 +333,8 @@ public class TenantService implements TenantServiceInterface {
         }
 
 
-        // Generate user code using util with configurable integer length
-
-         adminUserid = UserIdGeneratorBasedonTenantIdentifies.generateNextCode(tenantPrefix, lastSequence, 5);
+        // Allocate the user code from the tenant's block-reserved sequence
+        adminUserid = tenantSequenceAllocator.nextUserCode(tenantIdentifier);
 
 
         User adminUser = User.builder()
@@ -0,0 +1,307 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.event.TimetableChangedEvent;
+import com.schoolmgmt.model.Period;
+import com.schoolmgmt.model.TimetableEntry;
+import com.schoolmgmt.repository.PeriodRepository;
+import com.schoolmgmt.repository.TimetableRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-tenant in-memory occupancy model of the timetable.
+ * Every class, section, teacher and room has a bitset over (period × day) slots, so a clash check is a
+ * single bit lookup instead of a query. Models are loaded on first use and dropped when the timetable changes.
+ * Changes made on other nodes are seen through the shared timetable version: clash checks for writes compare
+ * it every time, reads at most every sync interval. While Redis is unreachable a model is kept up to its maximum age.
+ */
+@Component
+@Slf4j
+public class TimetableConflictEngine {
+
+    static final int DAYS = TimetableEntry.DayOfWeek.values().length;
+
+    private final TimetableRepository timetableRepository;
+    private final PeriodRepository periodRepository;
+    private final TimetableVersions timetableVersions;
+    private final long syncIntervalMillis;
+    private final long maxAgeMillis;
+
+    private final Map<String, Model> models = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public TimetableConflictEngine(TimetableRepository timetableRepository,
+                                   PeriodRepository periodRepository,
+                                   TimetableVersions timetableVersions,
+                                   @Value("${app.timetable.cache.sync-interval-ms:2000}") long syncIntervalMillis,
+                                   @Value("${app.timetable.cache.max-age-seconds:600}") long maxAgeSeconds) {
+        this.timetableRepository = timetableRepository;
+        this.periodRepository = periodRepository;
+        this.timetableVersions = timetableVersions;
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.maxAgeMillis = maxAgeSeconds * 1000;
+    }
+
+    /**
+     * Find clashes of the given entries with the tenant's timetable and with each other.
+     * Conflicts are keyed by the entry's position in the list; an empty map means every entry fits.
+     */
+    public Map<String, List<String>> findConflicts(String tenantId, List<TimetableEntry> entries) {
+        Occupancy existing = occupancy(tenantId, 0);
+        Occupancy pending = new Occupancy(existing.periodSlots);
+        Map<String, List<String>> conflicts = new LinkedHashMap<>();
+
+        for (int i = 0; i < entries.size(); i++) {
+            TimetableEntry entry = entries.get(i);
+            if (Boolean.FALSE.equals(entry.getIsActive())) {
+                continue;
+            }
+            if (entry.getDayOfWeek() == null || entry.getPeriod() == null || entry.getPeriod().getId() == null
+                    || entry.getClassId() == null) {
+                conflicts.put("entries[" + i + "]", List.of("Day, period and class are required"));
+                continue;
+            }
+            int slot = existing.slot(entry.getDayOfWeek(), entry.getPeriod().getId());
+            List<String> clashes = new ArrayList<>(3);
+            if (existing.classClashes(entry, slot) || pending.classClashes(entry, slot)) {
+                clashes.add("Class already has a timetable entry for this period on " + entry.getDayOfWeek());
+            }
+            if (existing.teacherClashes(entry.getTeacherId(), slot) || pending.teacherClashes(entry.getTeacherId(), slot)) {
+                clashes.add("Teacher is already assigned to another class for this period on " + entry.getDayOfWeek());
+            }
+            if (existing.roomClashes(entry.getRoom(), slot) || pending.roomClashes(entry.getRoom(), slot)) {
+                clashes.add("Room " + entry.getRoom() + " is already in use for this period on " + entry.getDayOfWeek());
+            }
+
+            if (clashes.isEmpty()) {
+                pending.occupy(entry.getClassId(), entry.getSection(), entry.getTeacherId(), entry.getRoom(), slot);
+            } else {
+                conflicts.put("entries[" + i + "]", clashes);
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Check whether a teacher or room can take over an existing entry's slot
+     */
+    public List<String> findReassignmentConflicts(String tenantId, TimetableEntry entry, UUID newTeacherId, String newRoom) {
+        Occupancy existing = occupancy(tenantId, 0);
+        int slot = existing.slot(entry.getDayOfWeek(), entry.getPeriod().getId());
+        List<String> clashes = new ArrayList<>(2);
+        if (newTeacherId != null && !newTeacherId.equals(entry.getTeacherId()) && existing.teacherClashes(newTeacherId, slot)) {
+            clashes.add("Teacher is already assigned to another class for this period on " + entry.getDayOfWeek());
+        }
+        if (newRoom != null && !Occupancy.roomKey(newRoom).equals(Occupancy.roomKey(entry.getRoom()))
+                && existing.roomClashes(newRoom, slot)) {
+            clashes.add("Room " + newRoom + " is already in use for this period on " + entry.getDayOfWeek());
+        }
+        return clashes;
+    }
+
+    /**
+     * Get the occupancy model of a tenant, loading it from the database if needed
+     */
+    public Occupancy occupancy(String tenantId) {
+        return occupancy(tenantId, syncIntervalMillis);
+    }
+
+    private Occupancy occupancy(String tenantId, long syncInterval) {
+        Model model = models.get(tenantId);
+        if (model != null && isCurrent(tenantId, model, syncInterval)) {
+            return model.occupancy;
+        }
+        if (model != null) {
+            models.remove(tenantId, model);
+        }
+
+        AtomicLong generation = generations.computeIfAbsent(tenantId, k -> new AtomicLong());
+        long loadedAt = generation.get();
+        // Read the version before loading, so a write committed meanwhile shows up as a newer version
+        Long version = timetableVersions.current(tenantId);
+        Occupancy loaded = load(tenantId);
+        // A write committed while loading makes the snapshot stale; serve it for this call but don't keep it
+        models.compute(tenantId, (k, current) -> generation.get() == loadedAt
+                ? new Model(loaded, version, System.currentTimeMillis()) : current);
+        return loaded;
+    }
+
+    private boolean isCurrent(String tenantId, Model model, long syncInterval) {
+        long now = System.currentTimeMillis();
+        if (now - model.createdAt >= maxAgeMillis) {
+            return false;
+        }
+        if (now - model.checkedAt < syncInterval) {
+            return true;
+        }
+        // Unknown version means Redis is unreachable; keep using the model until it is back or too old
+        Long version = timetableVersions.current(tenantId);
+        if (version == null || version.equals(model.version)) {
+            model.checkedAt = now;
+            return true;
+        }
+        return false;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTimetableChanged(TimetableChangedEvent event) {
+        invalidate(event.getTenantId());
+    }
+
+    public void invalidate(String tenantId) {
+        if (tenantId == null) {
+            return;
+        }
+        generations.computeIfAbsent(tenantId, k -> new AtomicLong()).incrementAndGet();
+        models.remove(tenantId);
+        log.debug("Invalidated timetable occupancy for tenant: {}", tenantId);
+    }
+
+    private static final class Model {
+        private final Occupancy occupancy;
+        private final Long version;
+        private final long createdAt;
+        private volatile long checkedAt;
+
+        Model(Occupancy occupancy, Long version, long createdAt) {
+            this.occupancy = occupancy;
+            this.version = version;
+            this.createdAt = createdAt;
+            this.checkedAt = createdAt;
+        }
+    }
+
+    private Occupancy load(String tenantId) {
+        long start = System.nanoTime();
+        Map<UUID, Integer> periodSlots = new ConcurrentHashMap<>();
+        for (Period period : periodRepository.findByTenantIdOrderByPeriodNumber(tenantId)) {
+            periodSlots.putIfAbsent(period.getId(), periodSlots.size());
+        }
+
+        Occupancy model = new Occupancy(periodSlots);
+        List<Object[]> rows = timetableRepository.findActiveSlots(tenantId);
+        for (Object[] row : rows) {
+            int slot = model.slot((TimetableEntry.DayOfWeek) row[5], (UUID) row[6]);
+            model.occupy((UUID) row[1], (String) row[2], (UUID) row[3], (String) row[4], slot);
+        }
+        log.info("Loaded timetable occupancy for tenant {}: {} entries in {} us",
+                tenantId, rows.size(), (System.nanoTime() - start) / 1_000);
+        return model;
+    }
+
+    /**
+     * Occupied slots of one tenant. Slot index is {@code periodIndex * DAYS + day.ordinal()}, so new periods
+     * only append slots and never shift existing ones.
+     */
+    public static final class Occupancy {
+
+        private final Map<UUID, Integer> periodSlots;
+        private final Map<UUID, BitSet> classSlots = new HashMap<>();
+        private final Map<UUID, BitSet> wholeClassSlots = new HashMap<>();
+        private final Map<String, BitSet> sectionSlots = new HashMap<>();
+        private final Map<UUID, BitSet> teacherSlots = new HashMap<>();
+        private final Map<String, BitSet> roomSlots = new HashMap<>();
+
+        Occupancy(Map<UUID, Integer> periodSlots) {
+            this.periodSlots = periodSlots;
+        }
+
+        public int slot(TimetableEntry.DayOfWeek day, UUID periodId) {
+            Integer periodIndex = periodSlots.get(periodId);
+            if (periodIndex == null) {
+                synchronized (periodSlots) {
+                    periodIndex = periodSlots.computeIfAbsent(periodId, id -> periodSlots.size());
+                }
+            }
+            return periodIndex * DAYS + day.ordinal();
+        }
+
+        /**
+         * Slots in which a teacher is teaching; empty for a teacher with no entries
+         */
+        public BitSet teacherSlots(UUID teacherId) {
+            BitSet slots = teacherSlots.get(teacherId);
+            return slots != null ? (BitSet) slots.clone() : new BitSet();
+        }
+
+        public Set<UUID> teacherIds() {
+            return Collections.unmodifiableSet(teacherSlots.keySet());
+        }
+
+        /**
+         * Number of periods a teacher teaches in the week
+         */
+        public int teacherPeriods(UUID teacherId) {
+            BitSet slots = teacherSlots.get(teacherId);
+            return slots != null ? slots.cardinality() : 0;
+        }
+
+        /**
+         * Number of periods a teacher teaches on one day of the week
+         */
+        public int teacherPeriods(UUID teacherId, TimetableEntry.DayOfWeek day) {
+            BitSet slots = teacherSlots.get(teacherId);
+            int count = 0;
+            if (slots != null) {
+                for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+                    if (slot % DAYS == day.ordinal()) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        // A whole-class entry (no section) clashes with any entry of the class; a section entry clashes with
+        // entries of the same section and with whole-class entries
+        boolean classClashes(TimetableEntry entry, int slot) {
+            if (entry.getSection() == null) {
+                return isSet(classSlots.get(entry.getClassId()), slot);
+            }
+            return isSet(wholeClassSlots.get(entry.getClassId()), slot)
+                    || isSet(sectionSlots.get(sectionKey(entry.getClassId(), entry.getSection())), slot);
+        }
+
+        boolean teacherClashes(UUID teacherId, int slot) {
+            return teacherId != null && isSet(teacherSlots.get(teacherId), slot);
+        }
+
+        boolean roomClashes(String room, int slot) {
+            return room != null && !room.isBlank() && isSet(roomSlots.get(roomKey(room)), slot);
+        }
+
+        void occupy(UUID classId, String section, UUID teacherId, String room, int slot) {
+            classSlots.computeIfAbsent(classId, k -> new BitSet()).set(slot);
+            if (section == null) {
+                wholeClassSlots.computeIfAbsent(classId, k -> new BitSet()).set(slot);
+            } else {
+                sectionSlots.computeIfAbsent(sectionKey(classId, section), k -> new BitSet()).set(slot);
+            }
+            if (teacherId != null) {
+                teacherSlots.computeIfAbsent(teacherId, k -> new BitSet()).set(slot);
+            }
+            if (room != null && !room.isBlank()) {
+                roomSlots.computeIfAbsent(roomKey(room), k -> new BitSet()).set(slot);
+            }
+        }
+
+        private static boolean isSet(BitSet bits, int slot) {
+            return bits != null && bits.get(slot);
+        }
+
+        private static String sectionKey(UUID classId, String section) {
+            return classId + "/" + section;
+        }
+
+        static String roomKey(String room) {
+            return room == null ? "" : room.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+}
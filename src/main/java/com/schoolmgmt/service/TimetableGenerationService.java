@@ -0,0 +1,376 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.request.TimetableGenerationRequest;
+import com.schoolmgmt.dto.response.TimetableGenerationResult;
+import com.schoolmgmt.event.TimetableChangedEvent;
+import com.schoolmgmt.model.Period;
+import com.schoolmgmt.model.SchoolClass;
+import com.schoolmgmt.model.Section;
+import com.schoolmgmt.model.Subject;
+import com.schoolmgmt.model.TeacherClass;
+import com.schoolmgmt.model.TimetableEntry;
+import com.schoolmgmt.model.TimetableEntry.DayOfWeek;
+import com.schoolmgmt.repository.PeriodRepository;
+import com.schoolmgmt.repository.SchoolClassRepository;
+import com.schoolmgmt.repository.SectionRepository;
+import com.schoolmgmt.repository.TeacherClassRepository;
+import com.schoolmgmt.repository.TeacherRepository;
+import com.schoolmgmt.repository.TeacherSubjectRepository;
+import com.schoolmgmt.repository.TimetableRepository;
+import com.schoolmgmt.util.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Generates clash-free timetables from period definitions, subject weekly periods and teacher assignments.
+ * Inputs are read in one transaction, the search runs outside any transaction, and the result is written
+ * in a single batched insert.
+ */
+@Service
+@Slf4j
+public class TimetableGenerationService {
+
+    private static final List<DayOfWeek> DEFAULT_DAYS = List.of(
+            DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY);
+    private static final long DEFAULT_SEED = 42L;
+
+    private final PeriodRepository periodRepository;
+    private final TimetableRepository timetableRepository;
+    private final SchoolClassRepository schoolClassRepository;
+    private final SectionRepository sectionRepository;
+    private final TeacherClassRepository teacherClassRepository;
+    private final TeacherSubjectRepository teacherSubjectRepository;
+    private final TeacherRepository teacherRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final int timeBudgetSeconds;
+    private final long maxIterations;
+    private final int parallelism;
+    private final int threads;
+
+    public TimetableGenerationService(PeriodRepository periodRepository,
+                                      TimetableRepository timetableRepository,
+                                      SchoolClassRepository schoolClassRepository,
+                                      SectionRepository sectionRepository,
+                                      TeacherClassRepository teacherClassRepository,
+                                      TeacherSubjectRepository teacherSubjectRepository,
+                                      TeacherRepository teacherRepository,
+                                      ApplicationEventPublisher eventPublisher,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${app.timetable.generator.time-budget-seconds:30}") int timeBudgetSeconds,
+                                      @Value("${app.timetable.generator.max-iterations:500000}") long maxIterations,
+                                      @Value("${app.timetable.generator.parallelism:4}") int parallelism) {
+        this.periodRepository = periodRepository;
+        this.timetableRepository = timetableRepository;
+        this.schoolClassRepository = schoolClassRepository;
+        this.sectionRepository = sectionRepository;
+        this.teacherClassRepository = teacherClassRepository;
+        this.teacherSubjectRepository = teacherSubjectRepository;
+        this.teacherRepository = teacherRepository;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.timeBudgetSeconds = timeBudgetSeconds;
+        this.maxIterations = maxIterations;
+        // Logical workers stay as configured so every node generates the same timetable; only threads are capped
+        this.parallelism = Math.max(1, parallelism);
+        this.threads = Math.min(this.parallelism, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Generate a timetable for the requested classes and save it unless it is a preview or still has clashes
+     */
+    public TimetableGenerationResult generate(TimetableGenerationRequest request) {
+        String tenantId = TenantContext.requireCurrentTenant();
+        GenerationInput input = readOnlyTransaction.execute(status -> loadInput(tenantId, request));
+
+        long seed = request.getSeed() != null ? request.getSeed() : DEFAULT_SEED;
+        int budget = request.getTimeBudgetSeconds() != null ? request.getTimeBudgetSeconds() : timeBudgetSeconds;
+        TimetableSolver.Solution solution = TimetableSolver.solve(
+                input.problem, seed, parallelism, threads, maxIterations, Duration.ofSeconds(budget));
+        log.info("Timetable search for tenant {}: {} lessons, {} clashes, {} soft violations, {} iterations in {} ms",
+                tenantId, input.problem.lessonCount(), solution.getHardViolations(), solution.getSoftViolations(),
+                solution.getIterations(), solution.getElapsedMillis());
+
+        List<TimetableEntry> entries = input.toEntries(tenantId, solution, request.getAcademicYear());
+        TimetableGenerationResult.TimetableGenerationResultBuilder result = TimetableGenerationResult.builder()
+                .seed(seed)
+                .sections(input.groups.size())
+                .teachers(input.teacherIds.size())
+                .lessonsRequested(input.problem.lessonCount())
+                .hardViolations(solution.getHardViolations())
+                .softViolations(solution.getSoftViolations())
+                .iterations(solution.getIterations())
+                .elapsedMillis(solution.getElapsedMillis())
+                .timeBudgetExhausted(solution.isTimeBudgetExhausted())
+                .warnings(input.warnings);
+
+        if (solution.getHardViolations() > 0) {
+            return result.status("INFEASIBLE").build();
+        }
+        if (request.isDryRun()) {
+            return result.status("PREVIEW").entries(entries).build();
+        }
+
+        writeTransaction.executeWithoutResult(status -> {
+            if (request.isReplaceExisting()) {
+                int removed = timetableRepository.deleteByTenantIdAndClassIdIn(tenantId, input.classIds);
+                log.info("Removed {} existing timetable entries for tenant {}", removed, tenantId);
+            }
+            timetableRepository.saveAll(entries);
+            eventPublisher.publishEvent(new TimetableChangedEvent(tenantId));
+        });
+        log.info("Saved {} generated timetable entries for tenant {}", entries.size(), tenantId);
+        return result.status("SAVED").entriesCreated(entries.size()).build();
+    }
+
+    private GenerationInput loadInput(String tenantId, TimetableGenerationRequest request) {
+        List<Period> periods = periodRepository.findByTenantIdAndIsBreakFalseOrderByPeriodNumber(tenantId).stream()
+                .filter(period -> !Boolean.FALSE.equals(period.getIsActive()))
+                .toList();
+        if (periods.isEmpty()) {
+            throw new IllegalArgumentException("No teaching periods are defined");
+        }
+        List<DayOfWeek> days = request.getDays() == null || request.getDays().isEmpty()
+                ? DEFAULT_DAYS
+                : request.getDays().stream().distinct().sorted().toList();
+
+        List<SchoolClass> classes = (request.getClassIds() == null || request.getClassIds().isEmpty()
+                ? schoolClassRepository.findAllByTenantId(tenantId)
+                : schoolClassRepository.findAllById(request.getClassIds())).stream()
+                .filter(schoolClass -> tenantId.equals(schoolClass.getTenantId()))
+                .sorted(Comparator.comparing(SchoolClass::getName, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(SchoolClass::getId))
+                .toList();
+        if (classes.isEmpty()) {
+            throw new IllegalArgumentException("No classes found to schedule");
+        }
+        Set<UUID> classIds = classes.stream().map(SchoolClass::getId).collect(Collectors.toSet());
+
+        List<Object[]> existing = timetableRepository.findActiveSlots(tenantId);
+        if (!request.isReplaceExisting() && existing.stream().anyMatch(row -> classIds.contains((UUID) row[1]))) {
+            throw new IllegalArgumentException(
+                    "Selected classes already have a timetable; set replaceExisting to regenerate it");
+        }
+
+        Map<UUID, List<Section>> sectionsByClass = sectionRepository.findAllByTenantId(tenantId).stream()
+                .filter(section -> classIds.contains(section.getSchoolClassId()))
+                .sorted(Comparator.comparing(Section::getName).thenComparing(Section::getId))
+                .collect(Collectors.groupingBy(Section::getSchoolClassId));
+
+        Map<String, UUID> assignedTeachers = new HashMap<>();
+        teacherClassRepository.findByTenantIdAndIsActiveTrue(tenantId).stream()
+                .filter(assignment -> assignment.getSectionId() != null && assignment.getSubjectId() != null)
+                .sorted(Comparator.comparing(TeacherClass::getTeacherId))
+                .forEach(assignment -> assignedTeachers.putIfAbsent(
+                        assignment.getSectionId() + ":" + assignment.getSubjectId(), assignment.getTeacherId()));
+
+        Map<UUID, List<UUID>> competentTeachers = new HashMap<>();
+        teacherSubjectRepository.findActiveAssignmentsByTenant(tenantId).forEach(teacherSubject ->
+                competentTeachers.computeIfAbsent(teacherSubject.getSubjectId(), k -> new ArrayList<>())
+                        .add(teacherSubject.getTeacherId()));
+        competentTeachers.values().forEach(Collections::sort);
+
+        GenerationInput input = new GenerationInput(periods, days, classIds);
+        Map<UUID, Integer> teacherLoad = new HashMap<>();
+        for (SchoolClass schoolClass : classes) {
+            List<Subject> subjects = schoolClass.getSubjects().stream()
+                    .filter(subject -> !Boolean.FALSE.equals(subject.getIsActive()))
+                    .sorted(Comparator.comparing(Subject::getName).thenComparing(Subject::getId))
+                    .toList();
+            List<Section> sections = sectionsByClass.getOrDefault(schoolClass.getId(), Collections.singletonList(null));
+
+            for (Section section : sections) {
+                String groupName = schoolClass.getName() + (section != null ? " " + section.getName() : "");
+                int group = input.addGroup(schoolClass.getId(), section != null ? section.getName() : null);
+                int groupLessons = 0;
+
+                for (Subject subject : subjects) {
+                    Integer hours = request.getWeeklyPeriods() != null && request.getWeeklyPeriods().containsKey(subject.getId())
+                            ? request.getWeeklyPeriods().get(subject.getId())
+                            : subject.getCreditHours();
+                    if (hours == null || hours <= 0) {
+                        input.warnings.add("No weekly periods set for " + subject.getName() + " in " + groupName);
+                        continue;
+                    }
+                    UUID teacherId = section != null ? assignedTeachers.get(section.getId() + ":" + subject.getId()) : null;
+                    if (teacherId == null) {
+                        // Spread unassigned subjects over competent teachers, least loaded first
+                        teacherId = competentTeachers.getOrDefault(subject.getId(), List.of()).stream()
+                                .min(Comparator.comparingInt((UUID id) -> teacherLoad.getOrDefault(id, 0)))
+                                .orElse(null);
+                    }
+                    if (teacherId == null) {
+                        input.warnings.add("No teacher available for " + subject.getName() + " in " + groupName);
+                        continue;
+                    }
+                    teacherLoad.merge(teacherId, hours, Integer::sum);
+                    input.addLessons(group, subject, teacherId, hours);
+                    groupLessons += hours;
+                }
+                if (groupLessons > input.slotCount()) {
+                    input.warnings.add(groupName + " needs " + groupLessons + " periods but the week has only "
+                            + input.slotCount());
+                }
+            }
+        }
+
+        // Teachers stay busy in classes that are not being regenerated
+        for (Object[] row : existing) {
+            UUID teacherId = (UUID) row[3];
+            if (teacherId != null && !classIds.contains((UUID) row[1])) {
+                input.blockSlot(teacherId, (DayOfWeek) row[5], (UUID) row[6]);
+            }
+        }
+        if (request.getTeacherUnavailability() != null) {
+            for (TimetableGenerationRequest.TeacherUnavailability unavailability : request.getTeacherUnavailability()) {
+                input.blockUnavailable(unavailability.getTeacherId(), unavailability.getDayOfWeek(), unavailability.getPeriodNumber());
+            }
+        }
+
+        teacherRepository.findAllById(input.teacherIds).forEach(teacher ->
+                input.teacherNames.put(teacher.getId(), teacher.getFullName()));
+        input.build();
+        return input;
+    }
+
+    /**
+     * Maps entities to the solver's integer indexes and back
+     */
+    private static final class GenerationInput {
+
+        private final List<Period> periods;
+        private final List<DayOfWeek> days;
+        private final Set<UUID> classIds;
+        private final Map<UUID, Integer> periodIndex = new HashMap<>();
+        private final Map<Integer, Integer> periodNumberIndex = new HashMap<>();
+
+        private final List<UUID> groupClassIds = new ArrayList<>();
+        private final List<String> groups = new ArrayList<>();
+        private final List<UUID> teacherIds = new ArrayList<>();
+        private final Map<UUID, Integer> teacherIndex = new HashMap<>();
+        private final Map<UUID, String> teacherNames = new HashMap<>();
+        private final List<Subject> subjects = new ArrayList<>();
+        private final Map<UUID, Integer> subjectIndex = new HashMap<>();
+        private final Map<UUID, BitSet> blocked = new HashMap<>();
+        private final List<String> warnings = new ArrayList<>();
+
+        private final List<Integer> lessonGroup = new ArrayList<>();
+        private final List<Integer> lessonTeacher = new ArrayList<>();
+        private final List<Integer> lessonSubject = new ArrayList<>();
+        private TimetableSolver.Problem problem;
+
+        GenerationInput(List<Period> periods, List<DayOfWeek> days, Set<UUID> classIds) {
+            this.periods = periods;
+            this.days = days;
+            this.classIds = classIds;
+            for (int i = 0; i < periods.size(); i++) {
+                periodIndex.put(periods.get(i).getId(), i);
+                periodNumberIndex.put(periods.get(i).getPeriodNumber(), i);
+            }
+        }
+
+        int slotCount() {
+            return periods.size() * days.size();
+        }
+
+        int addGroup(UUID classId, String section) {
+            groupClassIds.add(classId);
+            groups.add(section);
+            return groups.size() - 1;
+        }
+
+        void addLessons(int group, Subject subject, UUID teacherId, int hours) {
+            int teacher = teacherIndex.computeIfAbsent(teacherId, id -> {
+                teacherIds.add(id);
+                return teacherIds.size() - 1;
+            });
+            int subjectSlot = subjectIndex.computeIfAbsent(subject.getId(), id -> {
+                subjects.add(subject);
+                return subjects.size() - 1;
+            });
+            for (int h = 0; h < hours; h++) {
+                lessonGroup.add(group);
+                lessonTeacher.add(teacher);
+                lessonSubject.add(subjectSlot);
+            }
+        }
+
+        void blockSlot(UUID teacherId, DayOfWeek day, UUID periodId) {
+            Integer period = periodIndex.get(periodId);
+            int dayIndex = days.indexOf(day);
+            if (period != null && dayIndex >= 0) {
+                blocked.computeIfAbsent(teacherId, k -> new BitSet()).set(dayIndex * periods.size() + period);
+            }
+        }
+
+        void blockUnavailable(UUID teacherId, DayOfWeek day, Integer periodNumber) {
+            int dayIndex = days.indexOf(day);
+            if (dayIndex < 0) {
+                return;
+            }
+            BitSet bits = blocked.computeIfAbsent(teacherId, k -> new BitSet());
+            if (periodNumber == null) {
+                bits.set(dayIndex * periods.size(), (dayIndex + 1) * periods.size());
+            } else if (periodNumberIndex.containsKey(periodNumber)) {
+                bits.set(dayIndex * periods.size() + periodNumberIndex.get(periodNumber));
+            }
+        }
+
+        void build() {
+            BitSet[] teacherBlocked = new BitSet[teacherIds.size()];
+            for (int t = 0; t < teacherIds.size(); t++) {
+                teacherBlocked[t] = blocked.get(teacherIds.get(t));
+            }
+            problem = TimetableSolver.Problem.builder()
+                    .slotsPerDay(periods.size())
+                    .days(days.size())
+                    .groupCount(groups.size())
+                    .teacherCount(teacherIds.size())
+                    .subjectCount(subjects.size())
+                    .lessonGroup(lessonGroup.stream().mapToInt(Integer::intValue).toArray())
+                    .lessonTeacher(lessonTeacher.stream().mapToInt(Integer::intValue).toArray())
+                    .lessonSubject(lessonSubject.stream().mapToInt(Integer::intValue).toArray())
+                    .teacherBlocked(teacherBlocked)
+                    .build();
+        }
+
+        List<TimetableEntry> toEntries(String tenantId, TimetableSolver.Solution solution, String academicYear) {
+            int perDay = periods.size();
+            List<TimetableEntry> entries = new ArrayList<>(problem.lessonCount());
+            for (int l = 0; l < problem.lessonCount(); l++) {
+                int slot = solution.getLessonSlots()[l];
+                int group = problem.getLessonGroup()[l];
+                UUID teacherId = teacherIds.get(problem.getLessonTeacher()[l]);
+                Subject subject = subjects.get(problem.getLessonSubject()[l]);
+                entries.add(TimetableEntry.builder()
+                        .tenantId(tenantId)
+                        .dayOfWeek(days.get(slot / perDay))
+                        .period(periods.get(slot % perDay))
+                        .classId(groupClassIds.get(group))
+                        .section(groups.get(group))
+                        .subjectId(subject.getId())
+                        .subjectName(subject.getName())
+                        .teacherId(teacherId)
+                        .teacherName(teacherNames.get(teacherId))
+                        .academicYear(academicYear)
+                        .build());
+            }
+            entries.sort(Comparator.comparing(TimetableEntry::getClassId)
+                    .thenComparing(TimetableEntry::getSection, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(TimetableEntry::getDayOfWeek)
+                    .thenComparing(entry -> entry.getPeriod().getPeriodNumber()));
+            return entries;
+        }
+    }
+}
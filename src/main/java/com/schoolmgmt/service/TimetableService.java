@@ -1,5 +1,7 @@
 package com.schoolmgmt.service;
 
+import com.schoolmgmt.event.TimetableChangedEvent;
+import com.schoolmgmt.exception.TimetableConflictException;
 import com.schoolmgmt.model.Period;
 import com.schoolmgmt.model.TimetableEntry;
 import com.schoolmgmt.repository.PeriodRepository;
@@ -7,6 +9,7 @@ import com.schoolmgmt.repository.TimetableRepository;
 import com.schoolmgmt.util.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +23,8 @@ public class TimetableService {
 
     private final PeriodRepository periodRepository;
     private final TimetableRepository timetableRepository;
+    private final TimetableConflictEngine conflictEngine;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ===== Period Operations =====
 
@@ -34,7 +39,9 @@ public class TimetableService {
         }
 
         log.info("Creating period {} for tenant {}", period.getName(), tenantId);
-        return periodRepository.save(period);
+        Period saved = periodRepository.save(period);
+        eventPublisher.publishEvent(new TimetableChangedEvent(tenantId));
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -60,12 +67,15 @@ public class TimetableService {
         if (updated.getIsBreak() != null) existing.setIsBreak(updated.getIsBreak());
         if (updated.getIsActive() != null) existing.setIsActive(updated.getIsActive());
 
-        return periodRepository.save(existing);
+        Period saved = periodRepository.save(existing);
+        eventPublisher.publishEvent(new TimetableChangedEvent(saved.getTenantId()));
+        return saved;
     }
 
     @Transactional
     public void deletePeriod(UUID periodId) {
         periodRepository.deleteById(periodId);
+        eventPublisher.publishEvent(new TimetableChangedEvent(TenantContext.getCurrentTenant()));
     }
 
     // ===== Timetable Operations =====
@@ -75,35 +85,34 @@ public class TimetableService {
         String tenantId = TenantContext.getCurrentTenant();
         entry.setTenantId(tenantId);
 
-        // Check for class conflicts
-        List<TimetableEntry> classConflicts = timetableRepository.findConflictingClassEntries(
-                tenantId, entry.getClassId(), entry.getDayOfWeek(), entry.getPeriod().getId());
-        if (!classConflicts.isEmpty()) {
-            throw new IllegalArgumentException(
-                    "Class already has a timetable entry for this period on " + entry.getDayOfWeek());
-        }
-
-        // Check for teacher conflicts
-        if (entry.getTeacherId() != null) {
-            List<TimetableEntry> teacherConflicts = timetableRepository.findConflictingTeacherEntries(
-                    tenantId, entry.getTeacherId(), entry.getDayOfWeek(), entry.getPeriod().getId());
-            if (!teacherConflicts.isEmpty()) {
-                throw new IllegalArgumentException(
-                        "Teacher is already assigned to another class for this period on " + entry.getDayOfWeek());
-            }
+        Map<String, List<String>> conflicts = conflictEngine.findConflicts(tenantId, List.of(entry));
+        if (!conflicts.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", conflicts.values().iterator().next()));
         }
 
         log.info("Creating timetable entry for class {} on {} period {}",
                 entry.getClassId(), entry.getDayOfWeek(), entry.getPeriod().getPeriodNumber());
-        return timetableRepository.save(entry);
+        TimetableEntry saved = timetableRepository.save(entry);
+        eventPublisher.publishEvent(new TimetableChangedEvent(tenantId));
+        return saved;
     }
 
     @Transactional
     public List<TimetableEntry> createBulkEntries(List<TimetableEntry> entries) {
         String tenantId = TenantContext.getCurrentTenant();
         entries.forEach(e -> e.setTenantId(tenantId));
+
+        // Validate the whole submission first so the caller gets every clash in one response
+        Map<String, List<String>> conflicts = conflictEngine.findConflicts(tenantId, entries);
+        if (!conflicts.isEmpty()) {
+            throw new TimetableConflictException(
+                    conflicts.size() + " of " + entries.size() + " timetable entries conflict", conflicts);
+        }
+
         log.info("Creating {} timetable entries", entries.size());
-        return timetableRepository.saveAll(entries);
+        List<TimetableEntry> saved = timetableRepository.saveAll(entries);
+        eventPublisher.publishEvent(new TimetableChangedEvent(tenantId));
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -141,18 +150,20 @@ public class TimetableService {
 
     @Transactional(readOnly = true)
     public Map<String, List<TimetableEntry>> getClassWeeklyTimetable(UUID classId) {
-        List<TimetableEntry> entries = getClassTimetable(classId);
-        return entries.stream()
-                .collect(Collectors.groupingBy(
-                        e -> e.getDayOfWeek().name(),
-                        LinkedHashMap::new,
-                        Collectors.toList()));
+        return groupByDay(getClassTimetable(classId));
     }
 
     @Transactional(readOnly = true)
     public Map<String, List<TimetableEntry>> getTeacherWeeklyTimetable(UUID teacherId) {
-        List<TimetableEntry> entries = getTeacherTimetable(teacherId);
+        return groupByDay(getTeacherTimetable(teacherId));
+    }
+
+    // Days in week order and entries in period order, so the same timetable always serializes identically
+    private Map<String, List<TimetableEntry>> groupByDay(List<TimetableEntry> entries) {
         return entries.stream()
+                .sorted(Comparator.comparing(TimetableEntry::getDayOfWeek)
+                        .thenComparing(e -> e.getPeriod() != null ? e.getPeriod().getPeriodNumber() : null,
+                                Comparator.nullsLast(Comparator.naturalOrder())))
                 .collect(Collectors.groupingBy(
                         e -> e.getDayOfWeek().name(),
                         LinkedHashMap::new,
@@ -164,6 +175,29 @@ public class TimetableService {
         TimetableEntry existing = timetableRepository.findById(entryId)
                 .orElseThrow(() -> new NoSuchElementException("Timetable entry not found: " + entryId));
 
+        if (Boolean.TRUE.equals(existing.getIsActive())) {
+            List<String> conflicts = conflictEngine.findReassignmentConflicts(
+                    existing.getTenantId(), existing, updated.getTeacherId(), updated.getRoom());
+            if (!conflicts.isEmpty()) {
+                throw new IllegalArgumentException(String.join("; ", conflicts));
+            }
+        } else if (Boolean.TRUE.equals(updated.getIsActive())) {
+            // An inactive entry holds no slot, so reactivating it is checked like a new entry with the updated values
+            TimetableEntry reactivated = TimetableEntry.builder()
+                    .tenantId(existing.getTenantId())
+                    .dayOfWeek(existing.getDayOfWeek())
+                    .period(existing.getPeriod())
+                    .classId(existing.getClassId())
+                    .section(existing.getSection())
+                    .teacherId(updated.getTeacherId() != null ? updated.getTeacherId() : existing.getTeacherId())
+                    .room(updated.getRoom() != null ? updated.getRoom() : existing.getRoom())
+                    .build();
+            Map<String, List<String>> conflicts = conflictEngine.findConflicts(existing.getTenantId(), List.of(reactivated));
+            if (!conflicts.isEmpty()) {
+                throw new IllegalArgumentException(String.join("; ", conflicts.values().iterator().next()));
+            }
+        }
+
         if (updated.getSubjectName() != null) existing.setSubjectName(updated.getSubjectName());
         if (updated.getSubjectId() != null) existing.setSubjectId(updated.getSubjectId());
         if (updated.getTeacherId() != null) existing.setTeacherId(updated.getTeacherId());
@@ -171,17 +205,21 @@ public class TimetableService {
         if (updated.getRoom() != null) existing.setRoom(updated.getRoom());
         if (updated.getIsActive() != null) existing.setIsActive(updated.getIsActive());
 
-        return timetableRepository.save(existing);
+        TimetableEntry saved = timetableRepository.save(existing);
+        eventPublisher.publishEvent(new TimetableChangedEvent(saved.getTenantId()));
+        return saved;
     }
 
     @Transactional
     public void deleteEntry(UUID entryId) {
         timetableRepository.deleteById(entryId);
+        eventPublisher.publishEvent(new TimetableChangedEvent(TenantContext.getCurrentTenant()));
     }
 
     @Transactional
     public void deleteClassTimetable(UUID classId) {
         String tenantId = TenantContext.getCurrentTenant();
         timetableRepository.deleteByTenantIdAndClassId(tenantId, classId);
+        eventPublisher.publishEvent(new TimetableChangedEvent(tenantId));
     }
 }
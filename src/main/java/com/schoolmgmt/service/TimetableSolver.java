@@ -0,0 +1,432 @@
+package com.schoolmgmt.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Clash-free timetable search over an integer model of the school.
+ * Each lesson is one period of a subject for one class section, taught by a fixed teacher. Workers run an
+ * independent greedy construction followed by tabu local search from their own seed; the best worker wins,
+ * ties going to the lowest worker index, so a given seed always yields the same timetable unless the time
+ * budget cuts the search short.
+ */
+public final class TimetableSolver {
+
+    private static final long HARD = 1_000;
+
+    private TimetableSolver() {
+    }
+
+    /**
+     * Problem in solver terms. Slots are numbered {@code day * slotsPerDay + period}.
+     */
+    @Value
+    @Builder
+    public static class Problem {
+        int slotsPerDay;
+        int days;
+        int groupCount;
+        int teacherCount;
+        int subjectCount;
+        int[] lessonGroup;
+        int[] lessonTeacher;
+        int[] lessonSubject;
+        /** Slots each teacher cannot teach in; may be null or contain nulls */
+        BitSet[] teacherBlocked;
+
+        int slotCount() {
+            return slotsPerDay * days;
+        }
+
+        int lessonCount() {
+            return lessonGroup.length;
+        }
+    }
+
+    @Value
+    public static class Solution {
+        int[] lessonSlots;
+        /** Clashing pairs plus lessons placed in a blocked slot; zero means the timetable is usable */
+        long hardViolations;
+        /** Pairs of lessons of the same subject on the same day beyond an even spread */
+        long softViolations;
+        long iterations;
+        int worker;
+        boolean timeBudgetExhausted;
+        long elapsedMillis;
+    }
+
+    public static Solution solve(Problem problem, long seed, int workers, long maxIterations, Duration timeBudget) {
+        return solve(problem, seed, workers, workers, maxIterations, timeBudget);
+    }
+
+    /**
+     * Run {@code workers} searches on at most {@code threads} threads. The result depends on the seed and the
+     * number of workers only, so a smaller host runs the same searches one after another instead of fewer of them.
+     */
+    public static Solution solve(Problem problem, long seed, int workers, int threads, long maxIterations,
+                                 Duration timeBudget) {
+        long start = System.nanoTime();
+        long deadline = start + timeBudget.toNanos();
+        int workerCount = Math.max(1, workers);
+        int threadCount = Math.max(1, Math.min(threads, workerCount));
+        AtomicInteger optimalWorker = new AtomicInteger(Integer.MAX_VALUE);
+
+        List<Solution> solutions = new ArrayList<>(workerCount);
+        if (threadCount == 1) {
+            for (int i = 0; i < workerCount; i++) {
+                solutions.add(new Search(problem, seed, i, optimalWorker).run(maxIterations, deadline, start));
+            }
+        } else {
+            try (ExecutorService executor = Executors.newFixedThreadPool(threadCount)) {
+                List<Future<Solution>> futures = new ArrayList<>(workerCount);
+                for (int i = 0; i < workerCount; i++) {
+                    Search search = new Search(problem, seed, i, optimalWorker);
+                    futures.add(executor.submit(() -> search.run(maxIterations, deadline, start)));
+                }
+                for (Future<Solution> future : futures) {
+                    solutions.add(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Timetable generation was interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Timetable generation failed", e.getCause());
+            }
+        }
+
+        return solutions.stream()
+                .min(Comparator.comparingLong(Solution::getHardViolations)
+                        .thenComparingLong(Solution::getSoftViolations)
+                        .thenComparingInt(Solution::getWorker))
+                .orElseThrow();
+    }
+
+    /**
+     * One worker's search state. Loads are kept per (group, slot), (teacher, slot) and (group, subject, day),
+     * so the cost change of any move is computed in constant time.
+     */
+    private static final class Search {
+
+        private final Problem problem;
+        private final Random random;
+        private final int worker;
+        private final AtomicInteger optimalWorker;
+        private final int slots;
+        private final int perDay;
+        private final int lessons;
+
+        private final int[] slotOf;
+        private final int[] groupLoad;
+        private final int[] teacherLoad;
+        private final int[] subjectDay;
+        private final boolean[] blocked;
+        private final int[][] groupLessons;
+        private final long[] tabuUntil;
+        private final long softLowerBound;
+
+        private long hard;
+        private long soft;
+
+        Search(Problem problem, long seed, int worker, AtomicInteger optimalWorker) {
+            this.problem = problem;
+            this.random = new Random(seed * 0x9E3779B97F4A7C15L + worker);
+            this.worker = worker;
+            this.optimalWorker = optimalWorker;
+            this.slots = problem.slotCount();
+            this.perDay = problem.getSlotsPerDay();
+            this.lessons = problem.lessonCount();
+
+            this.slotOf = new int[lessons];
+            this.groupLoad = new int[problem.getGroupCount() * slots];
+            this.teacherLoad = new int[problem.getTeacherCount() * slots];
+            this.subjectDay = new int[problem.getGroupCount() * problem.getSubjectCount() * problem.getDays()];
+            this.blocked = new boolean[problem.getTeacherCount() * slots];
+            this.tabuUntil = new long[lessons * slots];
+
+            BitSet[] teacherBlocked = problem.getTeacherBlocked();
+            if (teacherBlocked != null) {
+                for (int t = 0; t < teacherBlocked.length; t++) {
+                    if (teacherBlocked[t] == null) {
+                        continue;
+                    }
+                    for (int s = teacherBlocked[t].nextSetBit(0); s >= 0 && s < slots; s = teacherBlocked[t].nextSetBit(s + 1)) {
+                        blocked[t * slots + s] = true;
+                    }
+                }
+            }
+
+            List<List<Integer>> byGroup = new ArrayList<>();
+            for (int g = 0; g < problem.getGroupCount(); g++) {
+                byGroup.add(new ArrayList<>());
+            }
+            for (int l = 0; l < lessons; l++) {
+                byGroup.get(problem.getLessonGroup()[l]).add(l);
+            }
+            this.groupLessons = byGroup.stream()
+                    .map(list -> list.stream().mapToInt(Integer::intValue).toArray())
+                    .toArray(int[][]::new);
+            this.softLowerBound = softLowerBound();
+        }
+
+        Solution run(long maxIterations, long deadline, long start) {
+            construct();
+            int[] best = slotOf.clone();
+            long bestHard = hard;
+            long bestSoft = soft;
+            long iteration = 0;
+            boolean timedOut = false;
+
+            while (iteration < maxIterations && !isOptimal()) {
+                if ((iteration & 1023) == 0) {
+                    if (System.nanoTime() > deadline) {
+                        timedOut = true;
+                        break;
+                    }
+                    if (optimalWorker.get() < worker) {
+                        // A lower-indexed worker already has an optimal timetable, which this worker can't beat
+                        break;
+                    }
+                }
+                iteration++;
+                step(iteration, bestHard * HARD + bestSoft);
+
+                if (hard < bestHard || (hard == bestHard && soft < bestSoft)) {
+                    bestHard = hard;
+                    bestSoft = soft;
+                    System.arraycopy(slotOf, 0, best, 0, lessons);
+                }
+            }
+            if (bestHard == 0 && bestSoft == softLowerBound) {
+                optimalWorker.accumulateAndGet(worker, Math::min);
+            }
+
+            return new Solution(best, bestHard, bestSoft - softLowerBound, iteration, worker, timedOut,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+
+        private boolean isOptimal() {
+            return hard == 0 && soft == softLowerBound;
+        }
+
+        // ===== Construction =====
+
+        /**
+         * Place lessons one by one into their cheapest slot, busiest teachers first
+         */
+        private void construct() {
+            int[] teacherLessons = new int[problem.getTeacherCount()];
+            for (int l = 0; l < lessons; l++) {
+                teacherLessons[problem.getLessonTeacher()[l]]++;
+            }
+            Integer[] order = new Integer[lessons];
+            for (int l = 0; l < lessons; l++) {
+                order[l] = l;
+            }
+            Collections.shuffle(Arrays.asList(order), random);
+            Arrays.sort(order, Comparator.comparingInt((Integer l) -> -teacherLessons[problem.getLessonTeacher()[l]]));
+
+            for (int l : order) {
+                int bestSlot = -1;
+                long bestCost = Long.MAX_VALUE;
+                int ties = 0;
+                for (int s = 0; s < slots; s++) {
+                    long cost = addCost(l, s);
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestSlot = s;
+                        ties = 1;
+                    } else if (cost == bestCost && random.nextInt(++ties) == 0) {
+                        bestSlot = s;
+                    }
+                }
+                add(l, bestSlot);
+            }
+        }
+
+        // ===== Local search =====
+
+        /**
+         * Move or swap one conflicting lesson using the best non-tabu neighbour, even if it is worse
+         */
+        private void step(long iteration, long bestCost) {
+            int l = pickLesson();
+            int current = slotOf[l];
+            long cost = hard * HARD + soft;
+
+            long bestDelta = Long.MAX_VALUE;
+            int bestSlot = -1;
+            int bestSwap = -1;
+            int ties = 0;
+
+            for (int s = 0; s < slots; s++) {
+                if (s == current) {
+                    continue;
+                }
+                long delta = moveDelta(l, s);
+                if (isTabu(l, s, iteration) && cost + delta >= bestCost) {
+                    continue;
+                }
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestSlot = s;
+                    bestSwap = -1;
+                    ties = 1;
+                } else if (delta == bestDelta && random.nextInt(++ties) == 0) {
+                    bestSlot = s;
+                    bestSwap = -1;
+                }
+            }
+
+            for (int m : groupLessons[problem.getLessonGroup()[l]]) {
+                int other = slotOf[m];
+                if (m == l || other == current) {
+                    continue;
+                }
+                long delta = swapDelta(l, m);
+                if ((isTabu(l, other, iteration) || isTabu(m, current, iteration)) && cost + delta >= bestCost) {
+                    continue;
+                }
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestSlot = -1;
+                    bestSwap = m;
+                    ties = 1;
+                } else if (delta == bestDelta && random.nextInt(++ties) == 0) {
+                    bestSlot = -1;
+                    bestSwap = m;
+                }
+            }
+
+            long tenure = iteration + 7 + random.nextInt(8);
+            if (bestSwap >= 0) {
+                int other = slotOf[bestSwap];
+                remove(l);
+                remove(bestSwap);
+                add(l, other);
+                add(bestSwap, current);
+                tabuUntil[l * slots + current] = tenure;
+                tabuUntil[bestSwap * slots + other] = tenure;
+            } else {
+                int target = bestSlot >= 0 ? bestSlot : random.nextInt(slots);
+                if (target != current) {
+                    remove(l);
+                    add(l, target);
+                    tabuUntil[l * slots + current] = tenure;
+                }
+            }
+        }
+
+        /**
+         * Sample a lesson that is involved in a violation; fall back to any lesson to keep the search moving
+         */
+        private int pickLesson() {
+            for (int attempt = 0; attempt < 64; attempt++) {
+                int l = random.nextInt(lessons);
+                if (currentCost(l) > 0) {
+                    return l;
+                }
+            }
+            return random.nextInt(lessons);
+        }
+
+        private boolean isTabu(int lesson, int slot, long iteration) {
+            return tabuUntil[lesson * slots + slot] > iteration;
+        }
+
+        // ===== Incremental cost =====
+
+        private long currentCost(int l) {
+            int s = slotOf[l];
+            int g = problem.getLessonGroup()[l];
+            int t = problem.getLessonTeacher()[l];
+            long clashes = (groupLoad[g * slots + s] - 1) + (teacherLoad[t * slots + s] - 1) + (blocked[t * slots + s] ? 1 : 0);
+            return clashes * HARD + subjectDay[subjectDayIndex(l, s / perDay)] - 1;
+        }
+
+        private long addCost(int l, int s) {
+            int g = problem.getLessonGroup()[l];
+            int t = problem.getLessonTeacher()[l];
+            long clashes = groupLoad[g * slots + s] + teacherLoad[t * slots + s] + (blocked[t * slots + s] ? 1 : 0);
+            return clashes * HARD + subjectDay[subjectDayIndex(l, s / perDay)];
+        }
+
+        private long moveDelta(int l, int s) {
+            int current = slotOf[l];
+            long added = addCost(l, s);
+            if (current / perDay == s / perDay) {
+                // The lesson's own subject-day count moves with it
+                added -= 1;
+            }
+            return added - currentCost(l);
+        }
+
+        private long swapDelta(int l, int m) {
+            int sl = slotOf[l];
+            int sm = slotOf[m];
+            long before = hard * HARD + soft;
+            remove(l);
+            remove(m);
+            add(l, sm);
+            add(m, sl);
+            long after = hard * HARD + soft;
+            remove(l);
+            remove(m);
+            add(l, sl);
+            add(m, sm);
+            return after - before;
+        }
+
+        private void add(int l, int s) {
+            int g = problem.getLessonGroup()[l];
+            int t = problem.getLessonTeacher()[l];
+            int sd = subjectDayIndex(l, s / perDay);
+            hard += groupLoad[g * slots + s]++ + teacherLoad[t * slots + s]++ + (blocked[t * slots + s] ? 1 : 0);
+            soft += subjectDay[sd]++;
+            slotOf[l] = s;
+        }
+
+        private void remove(int l) {
+            int s = slotOf[l];
+            int g = problem.getLessonGroup()[l];
+            int t = problem.getLessonTeacher()[l];
+            int sd = subjectDayIndex(l, s / perDay);
+            hard -= --groupLoad[g * slots + s] + --teacherLoad[t * slots + s] + (blocked[t * slots + s] ? 1 : 0);
+            soft -= --subjectDay[sd];
+        }
+
+        private int subjectDayIndex(int l, int day) {
+            int g = problem.getLessonGroup()[l];
+            int k = problem.getLessonSubject()[l];
+            return (g * problem.getSubjectCount() + k) * problem.getDays() + day;
+        }
+
+        /**
+         * Same-day pairs that remain even when every subject is spread as evenly as possible over the week
+         */
+        private long softLowerBound() {
+            Map<Long, Integer> weekly = new HashMap<>();
+            for (int l = 0; l < lessons; l++) {
+                long key = (long) problem.getLessonGroup()[l] * problem.getSubjectCount() + problem.getLessonSubject()[l];
+                weekly.merge(key, 1, Integer::sum);
+            }
+            long bound = 0;
+            int days = problem.getDays();
+            for (int count : weekly.values()) {
+                int perDayCount = count / days;
+                int extra = count % days;
+                bound += (long) extra * pairs(perDayCount + 1) + (long) (days - extra) * pairs(perDayCount);
+            }
+            return bound;
+        }
+
+        private static long pairs(int n) {
+            return (long) n * (n - 1) / 2;
+        }
+    }
+}
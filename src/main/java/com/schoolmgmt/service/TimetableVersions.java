@@ -0,0 +1,93 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.event.LeaveStatusChangedEvent;
+import com.schoolmgmt.event.SubstitutionsChangedEvent;
+import com.schoolmgmt.event.TimetableChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Change counters of each tenant's timetable and of its substitute cover, shared through Redis.
+ * Nodes holding timetable snapshots compare the counters they loaded at with the current ones, so a write
+ * committed on any node reaches the snapshots of every node.
+ */
+@Component
+@Slf4j
+public class TimetableVersions {
+
+    private static final String KEY_PREFIX = "timetable:version:";
+    private static final String SUBSTITUTIONS_KEY_PREFIX = "timetable:substitutions:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Duration redisTtl;
+
+    public TimetableVersions(RedisTemplate<String, String> redisTemplate,
+                             @Value("${app.timetable.cache.redis-ttl-hours:72}") long redisTtlHours) {
+        this.redisTemplate = redisTemplate;
+        this.redisTtl = Duration.ofHours(redisTtlHours);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTimetableChanged(TimetableChangedEvent event) {
+        if (event.getTenantId() != null) {
+            increment(KEY_PREFIX + event.getTenantId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSubstitutionsChanged(SubstitutionsChangedEvent event) {
+        if (event.getTenantId() != null) {
+            increment(SUBSTITUTIONS_KEY_PREFIX + event.getTenantId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLeaveStatusChanged(LeaveStatusChangedEvent event) {
+        if (event.getTenantId() != null) {
+            increment(SUBSTITUTIONS_KEY_PREFIX + event.getTenantId());
+        }
+    }
+
+    /**
+     * Get the tenant's current timetable version
+     *
+     * @return the version, 0 if the timetable has not changed lately, or null while Redis is unreachable
+     */
+    public Long current(String tenantId) {
+        return read(KEY_PREFIX + tenantId);
+    }
+
+    /**
+     * Get the tenant's current version of substitute cover, moved on by substitution and leave changes
+     *
+     * @return the version, 0 if cover has not changed lately, or null while Redis is unreachable
+     */
+    public Long currentSubstitutions(String tenantId) {
+        return read(SUBSTITUTIONS_KEY_PREFIX + tenantId);
+    }
+
+    private Long read(String key) {
+        try {
+            String value = redisTemplate.opsForValue().get(key);
+            return value != null ? Long.parseLong(value) : 0L;
+        } catch (RuntimeException e) {
+            log.warn("Could not read {} from Redis: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void increment(String key) {
+        try {
+            redisTemplate.opsForValue().increment(key);
+            redisTemplate.expire(key, redisTtl);
+        } catch (RuntimeException e) {
+            log.warn("Could not share change {} through Redis: {}", key, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.schoolmgmt.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolmgmt.event.TimetableChangedEvent;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Per-tenant snapshot of serialized weekly timetables, keyed by class or teacher.
+ * Views are built on first request and dropped together when the tenant's timetable or periods change.
+ * A snapshot remembers the shared timetable version it was built at and is rebuilt once another node moves the
+ * version on; while Redis is unreachable it is served until it reaches its maximum age.
+ * The ETag is a hash of the serialized body, so every node hands out the same tag for the same timetable.
+ */
+@Component
+@Slf4j
+public class TimetableViewCache {
+
+    private final TimetableService timetableService;
+    private final ObjectMapper objectMapper;
+    private final TimetableVersions timetableVersions;
+    private final long syncIntervalMillis;
+    private final long maxAgeMillis;
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public TimetableViewCache(TimetableService timetableService,
+                              ObjectMapper objectMapper,
+                              TimetableVersions timetableVersions,
+                              @Value("${app.timetable.cache.sync-interval-ms:2000}") long syncIntervalMillis,
+                              @Value("${app.timetable.cache.max-age-seconds:600}") long maxAgeSeconds) {
+        this.timetableService = timetableService;
+        this.objectMapper = objectMapper;
+        this.timetableVersions = timetableVersions;
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.maxAgeMillis = maxAgeSeconds * 1000;
+    }
+
+    /**
+     * Get the serialized weekly timetable of a class
+     */
+    public View classWeek(String tenantId, UUID classId) {
+        return view(tenantId, "class:" + classId, () -> timetableService.getClassWeeklyTimetable(classId));
+    }
+
+    /**
+     * Get the serialized weekly timetable of a teacher
+     */
+    public View teacherWeek(String tenantId, UUID teacherId) {
+        return view(tenantId, "teacher:" + teacherId, () -> timetableService.getTeacherWeeklyTimetable(teacherId));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTimetableChanged(TimetableChangedEvent event) {
+        invalidate(event.getTenantId());
+    }
+
+    public void invalidate(String tenantId) {
+        if (tenantId == null) {
+            return;
+        }
+        generations.computeIfAbsent(tenantId, k -> new AtomicLong()).incrementAndGet();
+        Snapshot removed = snapshots.remove(tenantId);
+        log.debug("Invalidated {} timetable views for tenant: {}", removed != null ? removed.views.size() : 0, tenantId);
+    }
+
+    private View view(String tenantId, String key, Supplier<Object> loader) {
+        Snapshot snapshot = snapshot(tenantId);
+        View view = snapshot != null ? snapshot.views.get(key) : null;
+        if (view != null) {
+            return view;
+        }
+
+        AtomicLong generation = generations.computeIfAbsent(tenantId, k -> new AtomicLong());
+        long loadedAt = generation.get();
+        // Read the version before loading, so a write committed meanwhile shows up as a newer version
+        Long version = snapshot != null ? snapshot.version : timetableVersions.current(tenantId);
+        View loaded = serialize(loader.get());
+        // A write committed while loading makes the view stale; serve it for this call but don't keep it
+        snapshots.compute(tenantId, (k, current) -> {
+            if (generation.get() != loadedAt) {
+                return current;
+            }
+            Snapshot target = current != null && Objects.equals(current.version, version)
+                    ? current : new Snapshot(version, System.currentTimeMillis());
+            target.views.put(key, loaded);
+            return target;
+        });
+        return loaded;
+    }
+
+    /**
+     * Get the tenant's snapshot if it is still in step with the shared timetable version
+     */
+    private Snapshot snapshot(String tenantId) {
+        Snapshot snapshot = snapshots.get(tenantId);
+        if (snapshot == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (now - snapshot.createdAt >= maxAgeMillis) {
+            snapshots.remove(tenantId, snapshot);
+            return null;
+        }
+        if (now - snapshot.checkedAt < syncIntervalMillis) {
+            return snapshot;
+        }
+
+        // Unknown version means Redis is unreachable; keep serving the snapshot until it is back or too old
+        Long version = timetableVersions.current(tenantId);
+        if (version == null || version.equals(snapshot.version)) {
+            snapshot.checkedAt = now;
+            return snapshot;
+        }
+        snapshots.remove(tenantId, snapshot);
+        return null;
+    }
+
+    private View serialize(Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return new View(json, "\"tt-" + HexFormat.of().formatHex(digest, 0, 16) + "\"");
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to serialize timetable view", e);
+        }
+    }
+
+    private static final class Snapshot {
+        private final Long version;
+        private final long createdAt;
+        private final Map<String, View> views = new ConcurrentHashMap<>();
+        private volatile long checkedAt;
+
+        Snapshot(Long version, long createdAt) {
+            this.version = version;
+            this.createdAt = createdAt;
+            this.checkedAt = createdAt;
+        }
+    }
+
+    /**
+     * Serialized JSON body of a timetable view with its strong ETag
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class View {
+        private final byte[] json;
+        private final String etag;
+    }
+}
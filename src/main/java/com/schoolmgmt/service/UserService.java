@@ -4,12 +4,14 @@ import com.schoolmgmt.dto.request.CreateUserRequest;
 import com.schoolmgmt.dto.request.UpdateUserRequest;
 import com.schoolmgmt.dto.response.UserResponse;
 import com.schoolmgmt.dto.response.UserStatistics;
+import com.schoolmgmt.event.UserDataChangedEvent;
 import com.schoolmgmt.exception.ResourceNotFoundException;
 import com.schoolmgmt.model.User;
 import com.schoolmgmt.repository.UserRepository;
 import com.schoolmgmt.util.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -17,7 +19,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -34,6 +38,7 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Get all users for current tenant
@@ -110,6 +115,7 @@ public class UserService {
         
         user.setTenantId(tenantId);
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserDataChangedEvent(tenantId));
         
         // Send invitation email if requested
         if (request.isSendInvitation()) {
@@ -175,6 +181,7 @@ public class UserService {
         }
         
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserDataChangedEvent(user.getTenantId()));
         log.info("User status updated: {} to {}", user.getEmail(), status);
     }
 
@@ -195,6 +202,7 @@ public class UserService {
         user.softDelete(TenantContext.getCurrentTenant());
         
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserDataChangedEvent(user.getTenantId()));
         log.info("User soft deleted: {}", user.getEmail());
     }
 
@@ -214,6 +222,7 @@ public class UserService {
         user.getRoles().add(userRole);
         
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserDataChangedEvent(user.getTenantId()));
         log.info("Role {} assigned to user: {}", role, user.getEmail());
     }
 
@@ -233,6 +242,7 @@ public class UserService {
         user.getRoles().remove(userRole);
         
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserDataChangedEvent(user.getTenantId()));
         log.info("Role {} removed from user: {}", role, user.getEmail());
     }
 
@@ -281,13 +291,17 @@ public class UserService {
         String tenantId = TenantContext.requireCurrentTenant();
 
         // Use tenant-scoped queries instead of count() which counts ALL users across tenants
-        long teachers = userRepository.countActiveUsersByRoleAndTenant(User.UserRole.TEACHER, tenantId);
-        long students = userRepository.countActiveUsersByRoleAndTenant(User.UserRole.STUDENT, tenantId);
-        long parents = userRepository.countActiveUsersByRoleAndTenant(User.UserRole.PARENT, tenantId);
-        long admins = userRepository.countActiveUsersByRoleAndTenant(User.UserRole.ADMIN, tenantId);
+        Map<User.UserRole, Long> activeByRole = new EnumMap<>(User.UserRole.class);
+        for (Object[] row : userRepository.countActiveUsersGroupedByRole(tenantId)) {
+            activeByRole.put((User.UserRole) row[0], (Long) row[1]);
+        }
+        long teachers = activeByRole.getOrDefault(User.UserRole.TEACHER, 0L);
+        long students = activeByRole.getOrDefault(User.UserRole.STUDENT, 0L);
+        long parents = activeByRole.getOrDefault(User.UserRole.PARENT, 0L);
+        long admins = activeByRole.getOrDefault(User.UserRole.ADMIN, 0L);
 
         long activeUsers = teachers + students + parents + admins;
-        long totalUsers = userRepository.findByTenantId(tenantId).size();
+        long totalUsers = userRepository.countByTenantId(tenantId);
 
         return UserStatistics.builder()
                 .totalUsers(totalUsers)
@@ -0,0 +1,126 @@
+package com.schoolmgmt.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolmgmt.dto.ApiResponse;
+import com.schoolmgmt.exception.BusinessException;
+import com.schoolmgmt.service.IdempotencyService;
+import com.schoolmgmt.service.IdempotencyService.Execution;
+import com.schoolmgmt.service.IdempotencyService.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Makes POSTs to payment and fee endpoints safe to retry: a request carrying an Idempotency-Key runs once per
+ * tenant and key, and retries get the first response back with an Idempotent-Replayed header.
+ * Runs after the security chain, so the tenant and caller are known, and before tenant cleanup.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final List<String> paths;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public IdempotencyFilter(IdempotencyService idempotencyService,
+                             ObjectMapper objectMapper,
+                             @Value("${app.idempotency.paths:/api/payments/**,/api/fees/**}") List<String> paths) {
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.paths = paths;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return paths.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY_HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        String tenantId = TenantContext.getCurrentTenant();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (tenantId == null || authentication == null || !authentication.isAuthenticated()) {
+            // Unauthenticated requests are rejected further down; there is nothing to replay
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String owner = authentication.getName();
+        String fingerprint = request.getMethod() + " " + request.getRequestURI();
+        try {
+            Execution execution = idempotencyService.execute(tenantId, key, owner, fingerprint, () -> {
+                ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+                try {
+                    filterChain.doFilter(request, wrapper);
+                    return new StoredResponse(wrapper.getStatus(), wrapper.getContentType(),
+                            wrapper.getContentAsByteArray(), owner, fingerprint);
+                } finally {
+                    wrapper.copyBodyToResponse();
+                }
+            });
+            if (execution.replayed()) {
+                log.debug("Replayed response for idempotency key {} on {}", key, fingerprint);
+                writeReplay(response, execution.response());
+            }
+        } catch (BusinessException e) {
+            writeError(response, e.getStatus(), e.getMessage());
+        } catch (ServletException | IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        }
+    }
+
+    private void writeReplay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(message));
+    }
+}
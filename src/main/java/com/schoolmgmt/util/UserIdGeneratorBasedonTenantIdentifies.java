@@ -18,7 +18,18 @@ public class UserIdGeneratorBasedonTenantIdentifies{
      * @return Generated unique code (e.g., TEN00100001)
      */
     public static String generateNextCode(String tenantPrefix, int lastSequence, int numberLength) {
-        int nextSequence = lastSequence + 1;
-        return tenantPrefix + String.format("%0" + numberLength + "d", nextSequence);
+        return formatCode(tenantPrefix, lastSequence + 1, numberLength);
+    }
+
+    /**
+     * Format an already allocated sequence number as a code with tenant prefix.
+     *
+     * @param tenantPrefix  The prefix (e.g., TEN001)
+     * @param sequence      The allocated sequence number
+     * @param numberLength  Minimum number of digits for the integer part (e.g., 5 -> 00042)
+     * @return Formatted code (e.g., TEN00100042)
+     */
+    public static String formatCode(String tenantPrefix, long sequence, int numberLength) {
+        return tenantPrefix + String.format("%0" + numberLength + "d", sequence);
     }
 }
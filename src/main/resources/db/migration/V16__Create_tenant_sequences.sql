@@ -0,0 +1,18 @@
+-- V16__Create_tenant_sequences.sql
+-- Per-tenant number sequences reserved in blocks (hi/lo) for user codes and usernames
+
+CREATE TABLE IF NOT EXISTS tenant_sequences (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id VARCHAR(50) NOT NULL,
+    sequence_name VARCHAR(50) NOT NULL,
+    next_value BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP,
+    CONSTRAINT uk_tenant_sequence_name UNIQUE (tenant_id, sequence_name)
+);
+
+-- Seeding reads the highest existing user code once per tenant
+CREATE INDEX IF NOT EXISTS idx_user_tenant_user_id ON users(tenant_id, user_id);
+
+COMMENT ON TABLE tenant_sequences IS 'High-water marks of per-tenant sequences; allocators reserve blocks with a single atomic UPDATE';
+COMMENT ON COLUMN tenant_sequences.next_value IS 'First value not yet reserved by any application node';
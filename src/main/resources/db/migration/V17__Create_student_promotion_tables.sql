@@ -0,0 +1,65 @@
+-- V17__Create_student_promotion_tables.sql
+-- Year-end bulk promotion runs (resumable cursor + progress) and per-student promotion history
+
+CREATE TABLE IF NOT EXISTS student_promotion_runs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id VARCHAR(50) NOT NULL,
+    from_academic_year_id UUID,
+    to_academic_year_id UUID,
+    mappings TEXT NOT NULL,
+    detained_student_ids TEXT,
+    graduated_student_ids TEXT,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    total_students INTEGER DEFAULT 0,
+    processed_students INTEGER DEFAULT 0,
+    promoted_count INTEGER DEFAULT 0,
+    detained_count INTEGER DEFAULT 0,
+    graduated_count INTEGER DEFAULT 0,
+    current_mapping_index INTEGER DEFAULT 0,
+    last_student_id UUID,
+    teacher_assignments_rolled_over BOOLEAN DEFAULT FALSE,
+    error_message VARCHAR(1000),
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(100),
+    updated_by VARCHAR(100),
+    version BIGINT DEFAULT 0,
+    is_deleted BOOLEAN DEFAULT FALSE,
+    deleted_at TIMESTAMP,
+    deleted_by VARCHAR(100)
+);
+
+CREATE INDEX IF NOT EXISTS idx_promotion_run_tenant_status ON student_promotion_runs(tenant_id, status);
+
+CREATE TABLE IF NOT EXISTS student_promotion_history (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id VARCHAR(50) NOT NULL,
+    run_id UUID NOT NULL REFERENCES student_promotion_runs(id),
+    student_id UUID NOT NULL,
+    from_class_id VARCHAR(255),
+    from_section_id UUID,
+    to_class_id VARCHAR(255),
+    to_section_id UUID,
+    from_academic_year_id UUID,
+    to_academic_year_id UUID,
+    outcome VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(100),
+    updated_by VARCHAR(100),
+    version BIGINT DEFAULT 0,
+    is_deleted BOOLEAN DEFAULT FALSE,
+    deleted_at TIMESTAMP,
+    deleted_by VARCHAR(100),
+    CONSTRAINT uk_promotion_history_run_student UNIQUE (run_id, student_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_promotion_history_student ON student_promotion_history(student_id, tenant_id);
+
+-- Keyset chunks walk a class by student id
+CREATE INDEX IF NOT EXISTS idx_student_tenant_class_status_id ON students(tenant_id, current_class_id, status, id);
+
+COMMENT ON TABLE student_promotion_runs IS 'Bulk promotion runs; current_mapping_index + last_student_id form the resume cursor';
+COMMENT ON TABLE student_promotion_history IS 'Where each student moved in a promotion run (PROMOTED, DETAINED, GRADUATED)';
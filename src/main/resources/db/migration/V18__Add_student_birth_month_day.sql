@@ -0,0 +1,14 @@
+-- V18__Add_student_birth_month_day.sql
+-- Birthday lookups: a maintained month-day column replaces EXTRACT(MONTH/DAY FROM date_of_birth),
+-- which idx_student_dob cannot serve
+
+ALTER TABLE students ADD COLUMN IF NOT EXISTS birth_month_day INTEGER;
+
+UPDATE students
+SET birth_month_day = EXTRACT(MONTH FROM date_of_birth) * 100 + EXTRACT(DAY FROM date_of_birth)
+WHERE birth_month_day IS NULL AND date_of_birth IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_student_tenant_birth_md ON students(tenant_id, birth_month_day);
+
+COMMENT ON COLUMN students.birth_month_day IS 'month * 100 + day of date_of_birth; maintained by the application';
+COMMENT ON INDEX idx_student_tenant_birth_md IS 'Performance: indexed birthday lookups per tenant';
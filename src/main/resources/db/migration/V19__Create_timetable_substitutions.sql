@@ -0,0 +1,27 @@
+-- V19__Create_timetable_substitutions.sql
+-- Substitute teachers covering timetable entries while the regular teacher is on approved leave
+
+CREATE TABLE IF NOT EXISTS timetable_substitutions (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id VARCHAR(50) NOT NULL,
+    timetable_entry_id UUID NOT NULL REFERENCES timetable_entries(id) ON DELETE CASCADE,
+    substitution_date DATE NOT NULL,
+    period_id UUID NOT NULL REFERENCES periods(id),
+    class_id UUID NOT NULL,
+    section VARCHAR(10),
+    subject_id UUID,
+    subject_name VARCHAR(100),
+    original_teacher_id UUID NOT NULL,
+    substitute_teacher_id UUID NOT NULL,
+    substitute_teacher_name VARCHAR(200),
+    leave_request_id UUID REFERENCES leave_requests(id) ON DELETE CASCADE,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    created_by VARCHAR(100),
+    CONSTRAINT uk_tt_sub_entry_date UNIQUE (tenant_id, timetable_entry_id, substitution_date),
+    CONSTRAINT uk_tt_sub_teacher_date_period UNIQUE (tenant_id, substitute_teacher_id, substitution_date, period_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_tt_sub_tenant_date ON timetable_substitutions(tenant_id, substitution_date);
+CREATE INDEX IF NOT EXISTS idx_tt_sub_leave ON timetable_substitutions(leave_request_id);
+
+COMMENT ON TABLE timetable_substitutions IS 'Per-date substitute teacher assignments for timetable entries';
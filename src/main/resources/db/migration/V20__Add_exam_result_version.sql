@@ -0,0 +1,6 @@
+-- V20__Add_exam_result_version.sql
+-- Optimistic locking for exam results so bulk marks entry can detect concurrent edits
+
+ALTER TABLE exam_results ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN exam_results.version IS 'Optimistic lock version, incremented on every update';
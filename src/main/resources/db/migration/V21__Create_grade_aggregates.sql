@@ -0,0 +1,34 @@
+-- V21__Create_grade_aggregates.sql
+-- Per-exam result aggregates for grade analytics, refreshed whenever marks of the exam change
+
+CREATE TABLE IF NOT EXISTS grade_aggregates (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id VARCHAR(50) NOT NULL,
+    exam_id UUID NOT NULL REFERENCES exams(id) ON DELETE CASCADE,
+    exam_name VARCHAR(200),
+    exam_date DATE,
+    academic_year VARCHAR(20),
+    class_id UUID,
+    section VARCHAR(10),
+    subject_id UUID,
+    subject_name VARCHAR(100),
+    exam_type_id UUID,
+    exam_type_name VARCHAR(100),
+    students BIGINT NOT NULL DEFAULT 0,
+    appeared BIGINT NOT NULL DEFAULT 0,
+    passed BIGINT NOT NULL DEFAULT 0,
+    failed BIGINT NOT NULL DEFAULT 0,
+    percentage_sum DOUBLE PRECISION NOT NULL DEFAULT 0,
+    percentage_squares DOUBLE PRECISION NOT NULL DEFAULT 0,
+    min_percentage DOUBLE PRECISION,
+    max_percentage DOUBLE PRECISION,
+    refreshed_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_grade_agg_exam UNIQUE (tenant_id, exam_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_grade_agg_tenant_year ON grade_aggregates(tenant_id, academic_year);
+CREATE INDEX IF NOT EXISTS idx_grade_agg_tenant_class ON grade_aggregates(tenant_id, class_id);
+CREATE INDEX IF NOT EXISTS idx_grade_agg_tenant_subject ON grade_aggregates(tenant_id, subject_id);
+
+COMMENT ON TABLE grade_aggregates IS 'Grade analytics cube at exam grain: dimensions copied from the exam, measures rolled up from exam_results';
+COMMENT ON COLUMN grade_aggregates.percentage_squares IS 'Sum of squared percentages of students who appeared, for standard deviation across any roll-up';
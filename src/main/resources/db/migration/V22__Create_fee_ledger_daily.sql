@@ -0,0 +1,40 @@
+-- V22__Create_fee_ledger_daily.sql
+-- Per-day fee totals by class and fee type, adjusted in the same transaction as the payments they summarise
+
+CREATE TABLE IF NOT EXISTS fee_ledger_daily (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id VARCHAR(50) NOT NULL,
+    ledger_date DATE NOT NULL,
+    class_id UUID NOT NULL,
+    fee_type_id UUID NOT NULL,
+    payments BIGINT NOT NULL DEFAULT 0,
+    paid_amount DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    collected_amount DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    pending_amount DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    overdue_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_fee_ledger_day UNIQUE (tenant_id, ledger_date, class_id, fee_type_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_fee_ledger_tenant_date ON fee_ledger_daily(tenant_id, ledger_date);
+
+-- Backfill from existing payments, computed like FeePaymentRepository.summarizeLedgerByTenant
+INSERT INTO fee_ledger_daily (tenant_id, ledger_date, class_id, fee_type_id, payments, paid_amount,
+                              collected_amount, pending_amount, overdue_count)
+SELECT fp.tenant_id::text,
+       COALESCE(fp.payment_date, CAST(fp.created_at AS DATE), CURRENT_DATE),
+       fs.class_id,
+       fs.fee_type_id,
+       COUNT(*),
+       SUM(CASE WHEN fp.payment_date IS NULL THEN 0 ELSE fp.amount_paid END),
+       SUM(CASE WHEN fp.payment_status IN ('PAID', 'PARTIAL') THEN fp.amount_paid ELSE 0 END),
+       SUM(CASE WHEN fp.payment_status IN ('PENDING', 'PARTIAL', 'OVERDUE') THEN COALESCE(fp.balance_amount, 0) ELSE 0 END),
+       SUM(CASE WHEN fp.payment_status = 'OVERDUE' THEN 1 ELSE 0 END)
+FROM fee_payments fp
+JOIN fee_structures fs ON fs.id = fp.fee_structure_id
+GROUP BY fp.tenant_id, COALESCE(fp.payment_date, CAST(fp.created_at AS DATE), CURRENT_DATE), fs.class_id, fs.fee_type_id
+ON CONFLICT (tenant_id, ledger_date, class_id, fee_type_id) DO NOTHING;
+
+COMMENT ON TABLE fee_ledger_daily IS 'Fee collection ledger per tenant, day, class and fee type; read by collection reports instead of fee_payments';
+COMMENT ON COLUMN fee_ledger_daily.ledger_date IS 'Payment date, or the day an unpaid fee was raised';
+COMMENT ON COLUMN fee_ledger_daily.paid_amount IS 'Amount paid on the day whatever the status; collected_amount counts PAID and PARTIAL payments only';
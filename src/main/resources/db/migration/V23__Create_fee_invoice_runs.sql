@@ -0,0 +1,35 @@
+-- V23__Create_fee_invoice_runs.sql
+-- Bulk term invoice generation runs (resumable cursor + progress)
+
+CREATE TABLE IF NOT EXISTS fee_invoice_runs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id VARCHAR(50) NOT NULL,
+    academic_year VARCHAR(20),
+    term VARCHAR(20),
+    fee_structure_ids TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    total_invoices INTEGER DEFAULT 0,
+    processed_invoices INTEGER DEFAULT 0,
+    created_count INTEGER DEFAULT 0,
+    skipped_count INTEGER DEFAULT 0,
+    current_structure_index INTEGER DEFAULT 0,
+    last_student_id UUID,
+    error_message VARCHAR(1000),
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(100),
+    updated_by VARCHAR(100),
+    version BIGINT DEFAULT 0,
+    is_deleted BOOLEAN DEFAULT FALSE,
+    deleted_at TIMESTAMP,
+    deleted_by VARCHAR(100)
+);
+
+CREATE INDEX IF NOT EXISTS idx_invoice_run_tenant_status ON fee_invoice_runs(tenant_id, status);
+
+-- Existing dues of a chunk are looked up by fee structure and student
+CREATE INDEX IF NOT EXISTS idx_fee_payment_structure_student ON fee_payments(tenant_id, fee_structure_id, student_id);
+
+COMMENT ON TABLE fee_invoice_runs IS 'Bulk invoice runs; current_structure_index + last_student_id form the resume cursor';
@@ -0,0 +1,69 @@
+-- V24__Create_bank_reconciliation_tables.sql
+-- Bank/UPI statement reconciliation runs, the lines left for review, and the reconciled marker on payments
+
+CREATE TABLE IF NOT EXISTS bank_reconciliations (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id VARCHAR(50) NOT NULL,
+    file_name VARCHAR(255),
+    period_from DATE NOT NULL,
+    period_to DATE NOT NULL,
+    amount_tolerance DECIMAL(12,2) DEFAULT 0,
+    date_tolerance_days INTEGER DEFAULT 0,
+    status VARCHAR(20) NOT NULL DEFAULT 'PROCESSING',
+    total_lines INTEGER DEFAULT 0,
+    matched_count INTEGER DEFAULT 0,
+    issue_count INTEGER DEFAULT 0,
+    skipped_count INTEGER DEFAULT 0,
+    error_message VARCHAR(1000),
+    completed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(100),
+    updated_by VARCHAR(100),
+    version BIGINT DEFAULT 0,
+    is_deleted BOOLEAN DEFAULT FALSE,
+    deleted_at TIMESTAMP,
+    deleted_by VARCHAR(100)
+);
+
+CREATE INDEX IF NOT EXISTS idx_bank_recon_tenant_created ON bank_reconciliations(tenant_id, created_at);
+
+CREATE TABLE IF NOT EXISTS reconciliation_issues (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id VARCHAR(50) NOT NULL,
+    reconciliation_id UUID NOT NULL REFERENCES bank_reconciliations(id),
+    line_number INTEGER NOT NULL,
+    value_date DATE,
+    amount DECIMAL(12,2),
+    reference VARCHAR(200),
+    description VARCHAR(500),
+    reason VARCHAR(30) NOT NULL,
+    candidate_type VARCHAR(30),
+    candidate_id UUID,
+    resolved BOOLEAN DEFAULT FALSE,
+    resolution_note VARCHAR(500),
+    resolved_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(100),
+    updated_by VARCHAR(100),
+    version BIGINT DEFAULT 0,
+    is_deleted BOOLEAN DEFAULT FALSE,
+    deleted_at TIMESTAMP,
+    deleted_by VARCHAR(100)
+);
+
+CREATE INDEX IF NOT EXISTS idx_recon_issue_reconciliation ON reconciliation_issues(reconciliation_id, line_number);
+CREATE INDEX IF NOT EXISTS idx_recon_issue_tenant_resolved ON reconciliation_issues(tenant_id, resolved);
+
+ALTER TABLE payment_transactions ADD COLUMN IF NOT EXISTS reconciled_at TIMESTAMP;
+ALTER TABLE payment_transactions ADD COLUMN IF NOT EXISTS reconciliation_id UUID;
+ALTER TABLE fee_payments ADD COLUMN IF NOT EXISTS reconciled_at TIMESTAMP;
+ALTER TABLE fee_payments ADD COLUMN IF NOT EXISTS reconciliation_id UUID;
+
+-- Open candidates of a period are loaded per tenant among payments not yet reconciled
+CREATE INDEX IF NOT EXISTS idx_payment_tx_unreconciled ON payment_transactions(tenant_id, payment_date) WHERE reconciled_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_fee_payment_unreconciled ON fee_payments(tenant_id, payment_date) WHERE reconciled_at IS NULL;
+
+COMMENT ON TABLE bank_reconciliations IS 'Uploaded bank/UPI statements matched against open payment transactions and fee payments';
+COMMENT ON TABLE reconciliation_issues IS 'Statement lines left for manual review (UNMATCHED, AMBIGUOUS, AMOUNT_MISMATCH, DUPLICATE, INVALID_LINE)';
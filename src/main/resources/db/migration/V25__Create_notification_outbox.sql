@@ -0,0 +1,34 @@
+-- V25__Create_notification_outbox.sql
+-- Push notifications waiting for delivery, written in the same transaction as the change that triggers them
+
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id VARCHAR(50) NOT NULL,
+    notification_log_id UUID NOT NULL,
+    recipient_user_id VARCHAR(50),
+    recipient_role VARCHAR(30),
+    title VARCHAR(200) NOT NULL,
+    body VARCHAR(1000) NOT NULL,
+    data_payload VARCHAR(2000),
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    claim_token VARCHAR(36),
+    locked_until TIMESTAMP,
+    last_error VARCHAR(500),
+    sent_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP,
+    created_by VARCHAR(100),
+    updated_by VARCHAR(100),
+    version BIGINT DEFAULT 0,
+    is_deleted BOOLEAN DEFAULT FALSE,
+    deleted_at TIMESTAMP,
+    deleted_by VARCHAR(100)
+);
+
+-- The dispatcher polls for due messages and for claims whose lease ran out
+CREATE INDEX IF NOT EXISTS idx_notif_outbox_due ON notification_outbox(status, next_attempt_at);
+CREATE INDEX IF NOT EXISTS idx_notif_outbox_claim ON notification_outbox(claim_token);
+
+COMMENT ON TABLE notification_outbox IS 'Push notifications awaiting delivery (PENDING, PROCESSING, SENT, DEAD after the last retry)';
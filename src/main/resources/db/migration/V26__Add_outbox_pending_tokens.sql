@@ -0,0 +1,6 @@
+-- V26__Add_outbox_pending_tokens.sql
+-- Devices a partly delivered notification still has to reach, so a retry goes to those devices only
+
+ALTER TABLE notification_outbox ADD COLUMN IF NOT EXISTS pending_tokens TEXT;
+
+COMMENT ON COLUMN notification_outbox.pending_tokens IS 'JSON array of FCM tokens left to deliver after a partial delivery; NULL until some device has been reached';
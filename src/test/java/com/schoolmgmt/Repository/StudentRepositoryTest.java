@@ -0,0 +1,73 @@
+package com.schoolmgmt.Repository;
+
+import com.schoolmgmt.model.Student;
+import com.schoolmgmt.repository.StudentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class StudentRepositoryTest {
+
+    private static final String TENANT_ID = "TEN001";
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private int rollNumber;
+
+    @BeforeEach
+    void setUp() {
+        student(TENANT_ID, "class-9", Student.StudentStatus.ACTIVE, Student.Gender.MALE);
+        student(TENANT_ID, "class-9", Student.StudentStatus.ACTIVE, Student.Gender.MALE);
+        student(TENANT_ID, "class-9", Student.StudentStatus.ACTIVE, Student.Gender.FEMALE);
+        student(TENANT_ID, "class-9", Student.StudentStatus.INACTIVE, Student.Gender.FEMALE);
+        student(TENANT_ID, "class-10", Student.StudentStatus.ACTIVE, Student.Gender.FEMALE);
+        student(TENANT_ID, null, Student.StudentStatus.GRADUATED, Student.Gender.MALE);
+        student(TENANT_ID, "class-10", Student.StudentStatus.ACTIVE, Student.Gender.MALE).softDelete("admin");
+        student("TEN002", "class-9", Student.StudentStatus.ACTIVE, Student.Gender.MALE);
+        studentRepository.flush();
+    }
+
+    @Test
+    @DisplayName("Should count a tenant's students by class, status and gender, leaving out deleted ones")
+    void getStudentCountsByClassStatusAndGender_GroupsCounts() {
+        List<Object[]> rows = studentRepository.getStudentCountsByClassStatusAndGender(TENANT_ID);
+
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put(row[0] + "/" + row[1] + "/" + row[2], (Long) row[3]);
+        }
+        assertEquals(Map.of(
+                "class-9/ACTIVE/MALE", 2L,
+                "class-9/ACTIVE/FEMALE", 1L,
+                "class-9/INACTIVE/FEMALE", 1L,
+                "class-10/ACTIVE/FEMALE", 1L,
+                "null/GRADUATED/MALE", 1L), counts);
+    }
+
+    private Student student(String tenantId, String classId, Student.StudentStatus status, Student.Gender gender) {
+        Student student = Student.builder()
+                .rollNumber(String.valueOf(++rollNumber))
+                .firstName("Student" + rollNumber)
+                .lastName("Test")
+                .dateOfBirth(LocalDate.of(2012, 1, 1))
+                .gender(gender)
+                .currentClassId(classId)
+                .status(status)
+                .admissionDate(LocalDate.of(2020, 6, 1))
+                .emergencyContactPhone("9999999999")
+                .build();
+        student.setTenantId(tenantId);
+        return studentRepository.save(student);
+    }
+}
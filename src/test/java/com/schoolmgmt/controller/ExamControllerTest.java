@@ -1,13 +1,18 @@
 package com.schoolmgmt.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolmgmt.dto.response.ExamStatistics;
 import com.schoolmgmt.model.Exam;
 import com.schoolmgmt.model.ExamResult;
 import com.schoolmgmt.model.ExamType;
 import com.schoolmgmt.security.JwtAuthenticationEntryPoint;
 import com.schoolmgmt.security.JwtAuthenticationFilter;
 import com.schoolmgmt.security.JwtService;
+import com.schoolmgmt.service.ExamLeaderboardService;
 import com.schoolmgmt.service.ExamService;
+import com.schoolmgmt.service.GradeAnalyticsService;
+import com.schoolmgmt.service.ReportCardBatchService;
+import com.schoolmgmt.util.IdempotencyFilter;
 import com.schoolmgmt.util.TenantCleanupFilter;
 import com.schoolmgmt.util.TenantInterceptor;
 import org.junit.jupiter.api.BeforeEach;
@@ -52,6 +57,15 @@ class ExamControllerTest {
     @MockBean
     private ExamService examService;
 
+    @MockBean
+    private ReportCardBatchService reportCardBatchService;
+
+    @MockBean
+    private ExamLeaderboardService examLeaderboardService;
+
+    @MockBean
+    private GradeAnalyticsService gradeAnalyticsService;
+
     // Security infrastructure beans required by SecurityConfig
     @MockBean
     private JwtService jwtService;
@@ -71,6 +85,9 @@ class ExamControllerTest {
     @MockBean
     private TenantCleanupFilter tenantCleanupFilter;
 
+    @MockBean
+    private IdempotencyFilter idempotencyFilter;
+
     @MockBean
     private org.springframework.data.jpa.mapping.JpaMetamodelMappingContext jpaMetamodelMappingContext;
 
@@ -384,15 +401,16 @@ class ExamControllerTest {
     @DisplayName("GET /api/exams/{examId}/statistics - should return exam statistics")
     @WithMockUser(roles = "TEACHER")
     void getExamStatistics_shouldReturnStatistics() throws Exception {
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("totalStudents", 30);
-        stats.put("averagePercentage", 72.5);
-        stats.put("passed", 25L);
-        stats.put("failed", 5L);
-        stats.put("passPercentage", 83.33);
-        stats.put("highestMarks", 98.0);
-        stats.put("lowestMarks", 15.0);
-        stats.put("topper", "John Doe");
+        ExamStatistics stats = ExamStatistics.builder()
+                .totalStudents(30)
+                .averagePercentage(72.5)
+                .passed(25L)
+                .failed(5L)
+                .passPercentage(83.33)
+                .highestMarks(98.0)
+                .lowestMarks(15.0)
+                .topper("John Doe")
+                .build();
 
         when(examService.getExamStatistics(examId)).thenReturn(stats);
 
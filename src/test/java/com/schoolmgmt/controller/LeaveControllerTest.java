@@ -1,6 +1,7 @@
 package com.schoolmgmt.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolmgmt.dto.response.LeaveRequestSummary;
 import com.schoolmgmt.model.LeaveBalance;
 import com.schoolmgmt.model.LeaveRequest;
 import com.schoolmgmt.model.LeaveType;
@@ -9,6 +10,7 @@ import com.schoolmgmt.security.JwtAuthenticationEntryPoint;
 import com.schoolmgmt.security.JwtAuthenticationFilter;
 import com.schoolmgmt.security.JwtService;
 import com.schoolmgmt.service.LeaveService;
+import com.schoolmgmt.util.IdempotencyFilter;
 import com.schoolmgmt.util.TenantCleanupFilter;
 import com.schoolmgmt.util.TenantInterceptor;
 import org.junit.jupiter.api.AfterEach;
@@ -72,6 +74,9 @@ class LeaveControllerTest {
     @MockBean
     private TenantCleanupFilter tenantCleanupFilter;
 
+    @MockBean
+    private IdempotencyFilter idempotencyFilter;
+
     @MockBean
     private org.springframework.data.jpa.mapping.JpaMetamodelMappingContext jpaMetamodelMappingContext;
 
@@ -224,10 +229,10 @@ class LeaveControllerTest {
     @Test
     @DisplayName("GET /api/leave/my - should return leaves for authenticated user")
     void getMyLeaves_shouldReturnUserLeaves() throws Exception {
-        LeaveRequest secondRequest = LeaveRequest.builder()
+        LeaveRequestSummary secondRequest = LeaveRequestSummary.builder()
                 .id(UUID.randomUUID())
-                .tenantId("tenant-001")
-                .leaveType(casualLeaveType)
+                .leaveTypeId(casualLeaveTypeId)
+                .leaveTypeName("CASUAL")
                 .userId("user-001")
                 .userName("Jane Teacher")
                 .startDate(LocalDate.now().plusDays(10))
@@ -237,13 +242,14 @@ class LeaveControllerTest {
                 .status(LeaveRequest.LeaveStatus.APPROVED)
                 .build();
 
-        when(leaveService.getMyLeaves("user-001")).thenReturn(List.of(sampleLeaveRequest, secondRequest));
+        when(leaveService.getMyLeaves("user-001")).thenReturn(List.of(sampleSummary(), secondRequest));
 
         mockMvc.perform(get("/api/leave/my")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$[0].status", is("PENDING")))
+                .andExpect(jsonPath("$[0].leaveTypeName", is("SICK")))
                 .andExpect(jsonPath("$[1].status", is("APPROVED")))
                 .andExpect(jsonPath("$[1].reason", is("Family event")));
 
@@ -257,7 +263,7 @@ class LeaveControllerTest {
     @Test
     @DisplayName("GET /api/leave/requests/pending - should return pending leave requests")
     void getPendingApprovals_shouldReturnPendingRequests() throws Exception {
-        when(leaveService.getPendingApprovals()).thenReturn(List.of(sampleLeaveRequest));
+        when(leaveService.getPendingApprovals()).thenReturn(List.of(sampleSummary()));
 
         mockMvc.perform(get("/api/leave/requests/pending")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -451,4 +457,21 @@ class LeaveControllerTest {
 
         verify(leaveService, times(1)).getLeaveBalance("user-001", "2024-2025");
     }
+
+    private LeaveRequestSummary sampleSummary() {
+        return LeaveRequestSummary.builder()
+                .id(leaveRequestId)
+                .leaveTypeId(sickLeaveTypeId)
+                .leaveTypeName("SICK")
+                .userId("user-001")
+                .userName("Jane Teacher")
+                .userRole("TEACHER")
+                .startDate(sampleLeaveRequest.getStartDate())
+                .endDate(sampleLeaveRequest.getEndDate())
+                .totalDays(3)
+                .reason("Medical appointment")
+                .status(LeaveRequest.LeaveStatus.PENDING)
+                .createdAt(sampleLeaveRequest.getCreatedAt())
+                .build();
+    }
 }
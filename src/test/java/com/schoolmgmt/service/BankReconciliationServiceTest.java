@@ -0,0 +1,312 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.response.BankReconciliationResponse;
+import com.schoolmgmt.dto.response.ReconciliationIssueResponse;
+import com.schoolmgmt.exception.BusinessException;
+import com.schoolmgmt.model.FeePayment;
+import com.schoolmgmt.model.FeeStructure;
+import com.schoolmgmt.model.FeeType;
+import com.schoolmgmt.model.PaymentTransaction;
+import com.schoolmgmt.repository.*;
+import com.schoolmgmt.util.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reconciles statements against a real database, flushing every couple of lines so a statement spans
+ * several transactions, and checks the payments marked reconciled and the lines left for review.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Slf4j
+class BankReconciliationServiceTest {
+
+    @Autowired private BankReconciliationRepository reconciliationRepository;
+    @Autowired private ReconciliationIssueRepository issueRepository;
+    @Autowired private PaymentTransactionRepository paymentTransactionRepository;
+    @Autowired private FeePaymentRepository feePaymentRepository;
+    @Autowired private FeeTypeRepository feeTypeRepository;
+    @Autowired private FeeStructureRepository feeStructureRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private static final LocalDate DAY = LocalDate.of(2026, 10, 5);
+
+    private BankReconciliationService service;
+    private TransactionTemplate transaction;
+    private String tenantId;
+    private FeeStructure structure;
+    private PaymentTransaction upiTransaction;
+    private PaymentTransaction cardTransaction;
+    private FeePayment neftFee;
+    private FeePayment smallFee;
+
+    @BeforeEach
+    void setUp() {
+        // Every flush commits, so each test keeps to its own tenant
+        tenantId = UUID.randomUUID().toString();
+        TenantContext.setCurrentTenant(tenantId);
+        transaction = new TransactionTemplate(transactionManager);
+        service = new BankReconciliationService(reconciliationRepository, issueRepository,
+                paymentTransactionRepository, feePaymentRepository, transactionManager, 2);
+
+        transaction.executeWithoutResult(status -> {
+            FeeType tuition = feeTypeRepository.save(FeeType.builder().tenantId(tenantId).name("Tuition").build());
+            structure = feeStructureRepository.save(FeeStructure.builder().tenantId(tenantId).feeType(tuition)
+                    .classId(UUID.randomUUID()).amount(new BigDecimal("5000.00")).build());
+
+            upiTransaction = transaction("UPI", "UPI412345678901", null, "5000.00", DAY);
+            cardTransaction = transaction("CARD", "TXN-1", "pay_ABC123456", "1200.00", DAY);
+            transaction("CASH", "CASH-00001", null, "999.00", DAY);
+
+            neftFee = fee(FeePayment.PaymentMode.BANK_TRANSFER, "NEFT998877", "3000.00", DAY);
+            fee(FeePayment.PaymentMode.UPI, null, "2500.00", DAY.plusDays(1));
+            fee(FeePayment.PaymentMode.UPI, null, "2500.00", DAY.plusDays(1));
+            smallFee = fee(FeePayment.PaymentMode.UPI, null, "750.00", DAY);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should match by reference or amount and date, and keep every other line for review")
+    void reconcile_MatchesAndRecordsIssues() throws Exception {
+        String csv = """
+                Account Statement,XYZ Bank
+                Account,0012345
+                Txn Date,Narration,Ref No,Debit,Credit,Balance
+                05/10/2026,UPI/412345678901/FEES,UPI412345678901,,"5,000.00",10000
+                05-Oct-2026,CARD SETTLEMENT pay_ABC123456,,,1200.00,11200
+                05/10/2026,NEFT-SCHOOL FEES,NEFT998877,,3100.00,14300
+                06/10/2026,UPI CREDIT,,,2500.00,16800
+                06/10/2026,UPI CREDIT,,,749.50,17549.50
+                05/10/2026,BANK CHARGES,,500.00,,17049.50
+                07/10/2026,UPI/412345678901/FEES,UPI412345678901,,5000.00,22049.50
+                not a date,UNKNOWN,,,abc,
+                05/10/2026,UNKNOWN CREDIT,,,99999.00,
+                """;
+
+        BankReconciliationResponse result = reconcile(csv, "statement.csv");
+
+        assertEquals("COMPLETED", result.getStatus());
+        assertEquals(9, result.getTotalLines());
+        assertEquals(3, result.getMatchedCount());
+        assertEquals(1, result.getSkippedCount());
+        assertEquals(5, result.getIssueCount());
+
+        PaymentTransaction upi = paymentTransactionRepository.findById(upiTransaction.getId()).orElseThrow();
+        assertEquals("SUCCESS", upi.getStatus());
+        assertEquals(result.getId(), upi.getReconciliationId());
+        assertNotNull(paymentTransactionRepository.findById(cardTransaction.getId()).orElseThrow().getReconciledAt());
+        assertNotNull(feePaymentRepository.findById(smallFee.getId()).orElseThrow().getReconciledAt());
+        assertNull(feePaymentRepository.findById(neftFee.getId()).orElseThrow().getReconciledAt());
+
+        List<ReconciliationIssueResponse> issues = service.getIssues(result.getId(), true, PageRequest.of(0, 20)).getContent();
+        assertEquals(List.of("AMOUNT_MISMATCH", "AMBIGUOUS", "DUPLICATE", "INVALID_LINE", "UNMATCHED"),
+                issues.stream().map(ReconciliationIssueResponse::getReason).toList());
+        assertEquals(List.of(6, 7, 10, 11, 12), issues.stream().map(ReconciliationIssueResponse::getLineNumber).toList());
+        assertEquals(neftFee.getId(), issues.get(0).getCandidateId());
+        assertEquals(ReconciliationMatcher.FEE_PAYMENT, issues.get(0).getCandidateType());
+    }
+
+    @Test
+    @DisplayName("Should confirm the suggested payment when a review issue is resolved")
+    void resolveIssue_ConfirmsCandidate() throws Exception {
+        BankReconciliationResponse result = reconcile("""
+                Date,Description,Reference,Amount
+                2026-10-05,NEFT-SCHOOL FEES,NEFT998877,3100.00
+                """, "statement.csv");
+        ReconciliationIssueResponse issue = service.getIssues(result.getId(), true, PageRequest.of(0, 20)).getContent().get(0);
+
+        ReconciliationIssueResponse resolved = service.resolveIssue(issue.getId(), true, "Parent paid late fee too");
+
+        assertTrue(resolved.getResolved());
+        assertEquals(result.getId(), feePaymentRepository.findById(neftFee.getId()).orElseThrow().getReconciliationId());
+        assertTrue(service.getIssues(result.getId(), true, PageRequest.of(0, 20)).isEmpty());
+        assertThrows(BusinessException.class, () -> service.resolveIssue(issue.getId(), false, null));
+    }
+
+    @Test
+    @DisplayName("Should read XLSX statements with date cells and numeric amounts")
+    void reconcile_Xlsx() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Statement");
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("dd-mmm-yy"));
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("Value Date");
+            header.createCell(1).setCellValue("UTR");
+            header.createCell(2).setCellValue("Credit Amount");
+            Row line = sheet.createRow(1);
+            line.createCell(0).setCellValue(DAY);
+            line.getCell(0).setCellStyle(dateStyle);
+            line.createCell(1).setCellValue("UPI412345678901");
+            line.createCell(2).setCellValue(5000.0);
+            workbook.write(bytes);
+        }
+
+        BankReconciliationResponse result = service.reconcile(new ByteArrayInputStream(bytes.toByteArray()),
+                "statement.xlsx", DAY.minusDays(7), DAY, new BigDecimal("1.00"), 2);
+
+        assertEquals(1, result.getMatchedCount());
+        assertEquals(0, result.getIssueCount());
+    }
+
+    @Test
+    @DisplayName("Should fail the reconciliation when the statement has no recognizable header")
+    void reconcile_NoHeader_Throws() {
+        assertThrows(BusinessException.class, () -> reconcile("just,some,text\n1,2,3\n", "statement.csv"));
+        assertEquals("FAILED", reconciliationRepository.findByTenantIdOrderByCreatedAtDesc(tenantId,
+                PageRequest.of(0, 1)).getContent().get(0).getStatus().name());
+    }
+
+    @Test
+    @DisplayName("Should reopen the payments already matched when a statement fails partway")
+    void reconcile_FailsPartway_UndoesWrittenBatches() throws Exception {
+        StringBuilder csv = new StringBuilder("""
+                Date,Description,Reference,Amount
+                2026-10-05,UPI/412345678901/FEES,UPI412345678901,5000.00
+                2026-10-05,CARD SETTLEMENT pay_ABC123456,,1200.00
+                2026-10-05,UPI CREDIT,,749.50
+                """);
+        // Enough unmatched lines after the matches that several batches are written before the upload breaks
+        while (csv.length() < 64 * 1024) {
+            csv.append("2026-10-05,UNKNOWN CREDIT,,99999.00\n");
+        }
+        byte[] statement = csv.toString().getBytes(StandardCharsets.UTF_8);
+        InputStream broken = new FilterInputStream(new ByteArrayInputStream(statement)) {
+            private int read;
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (read > statement.length / 2) {
+                    throw new IOException("Connection reset");
+                }
+                int count = super.read(buffer, offset, length);
+                read += Math.max(count, 0);
+                return count;
+            }
+        };
+
+        assertThrows(IOException.class, () -> service.reconcile(broken, "statement.csv",
+                DAY.minusDays(7), DAY.plusDays(7), new BigDecimal("1.00"), 2));
+
+        BankReconciliationResponse failed = service.getReconciliations(PageRequest.of(0, 1)).getContent().get(0);
+        assertEquals("FAILED", failed.getStatus());
+        assertTrue(failed.getTotalLines() > 3);
+        assertEquals(0, failed.getMatchedCount());
+        assertTrue(service.getIssues(failed.getId(), false, PageRequest.of(0, 20)).isEmpty());
+        PaymentTransaction upi = paymentTransactionRepository.findById(upiTransaction.getId()).orElseThrow();
+        assertNull(upi.getReconciledAt());
+        assertNull(upi.getReconciliationId());
+        assertEquals("PENDING", upi.getStatus());
+        assertNull(feePaymentRepository.findById(smallFee.getId()).orElseThrow().getReconciledAt());
+
+        BankReconciliationResponse retried = reconcile(new String(statement, StandardCharsets.UTF_8), "statement.csv");
+        assertEquals("COMPLETED", retried.getStatus());
+        assertEquals(3, retried.getMatchedCount());
+        assertEquals("SUCCESS", paymentTransactionRepository.findById(upiTransaction.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: reconciling a 300,000 line statement")
+    void benchmark_LargeStatement() throws Exception {
+        int payments = 50_000;
+        transaction.executeWithoutResult(status -> {
+            List<PaymentTransaction> open = new ArrayList<>(payments);
+            for (int i = 0; i < payments; i++) {
+                PaymentTransaction tx = PaymentTransaction.builder().paymentMethod("UPI").paymentType("TUITION_FEE")
+                        .transactionId("UTR" + (100_000_000L + i)).amount(BigDecimal.valueOf(1000 + i % 500))
+                        .paymentDate(DAY.atStartOfDay()).build();
+                tx.setTenantId(tenantId);
+                open.add(tx);
+            }
+            paymentTransactionRepository.saveAll(open);
+        });
+
+        Path file = Files.createTempFile("statement-", ".csv");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write("Txn Date,Narration,Ref No,Debit,Credit\n");
+                for (int i = 0; i < 300_000; i++) {
+                    String reference = i < payments ? "UTR" + (100_000_000L + i) : "OTHER" + i;
+                    writer.write("05/10/2026,UPI CREDIT," + reference + ",," + (1000 + i % 500) + ".00\n");
+                }
+            }
+
+            long start = System.nanoTime();
+            BankReconciliationService large = new BankReconciliationService(reconciliationRepository,
+                    issueRepository, paymentTransactionRepository, feePaymentRepository, transactionManager, 1000);
+            BankReconciliationResponse result;
+            try (InputStream input = Files.newInputStream(file)) {
+                result = large.reconcile(input, "statement.csv", DAY, DAY, BigDecimal.ZERO, 0);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            assertEquals(300_000, result.getTotalLines());
+            // Every payment by reference, and the seeded card payment by amount
+            assertEquals(payments + 1, result.getMatchedCount());
+            log.info("Reconciliation: {} lines in {} s, {} lines/s, heap used {} MB",
+                    result.getTotalLines(), String.format("%.2f", seconds), Math.round(result.getTotalLines() / seconds),
+                    (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) >> 20);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private BankReconciliationResponse reconcile(String statement, String fileName) throws IOException {
+        return service.reconcile(new ByteArrayInputStream(statement.getBytes(StandardCharsets.UTF_8)), fileName,
+                DAY.minusDays(7), DAY.plusDays(7), new BigDecimal("1.00"), 2);
+    }
+
+    private PaymentTransaction transaction(String method, String transactionId, String gatewayReference,
+                                           String amount, LocalDate date) {
+        PaymentTransaction tx = PaymentTransaction.builder()
+                .paymentMethod(method)
+                .paymentType("TUITION_FEE")
+                .transactionId(transactionId)
+                .gatewayReference(gatewayReference)
+                .amount(new BigDecimal(amount))
+                .paymentDate(date.atTime(10, 0))
+                .build();
+        tx.setTenantId(tenantId);
+        return paymentTransactionRepository.save(tx);
+    }
+
+    private FeePayment fee(FeePayment.PaymentMode mode, String transactionId, String amount, LocalDate date) {
+        return feePaymentRepository.save(FeePayment.builder().tenantId(tenantId).feeStructure(structure)
+                .studentId(UUID.randomUUID()).amountPaid(new BigDecimal(amount)).totalAmount(new BigDecimal(amount))
+                .paymentMode(mode).transactionId(transactionId).paymentDate(date).build());
+    }
+}
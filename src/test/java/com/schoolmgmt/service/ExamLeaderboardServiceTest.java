@@ -0,0 +1,139 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.response.LeaderboardResponse;
+import com.schoolmgmt.event.ExamResultsChangedEvent;
+import com.schoolmgmt.event.ExamResultsChangedEvent.ResultChange;
+import com.schoolmgmt.repository.ExamResultRepository;
+import com.schoolmgmt.util.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExamLeaderboardServiceTest {
+
+    @Mock private ExamResultRepository resultRepository;
+    @Mock private RedisTemplate<String, String> redisTemplate;
+    @Mock private ValueOperations<String, String> valueOperations;
+    @Mock private ZSetOperations<String, String> zSetOperations;
+    @Mock private HashOperations<String, Object, Object> hashOperations;
+
+    private static final String TENANT_ID = "TEN001";
+    private final UUID examId = UUID.randomUUID();
+    private final UUID asha = UUID.randomUUID();
+    private final UUID bala = UUID.randomUUID();
+    private final UUID chitra = UUID.randomUUID();
+    private final UUID dev = UUID.randomUUID();
+    private String key;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setCurrentTenant(TENANT_ID);
+        key = "leaderboard:" + TENANT_ID + ":" + examId;
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        lenient().doReturn(hashOperations).when(redisTemplate).opsForHash();
+
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{asha, "Asha", 90.0});
+        rows.add(new Object[]{bala, "Bala", 90.0});
+        rows.add(new Object[]{chitra, "Chitra", 80.5});
+        rows.add(new Object[]{dev, "Dev", 70.0});
+        lenient().when(resultRepository.findLeaderboardEntries(TENANT_ID, examId)).thenReturn(rows);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should rank equal marks together and seed Redis from one database load")
+    void getTop_RanksTiesAndSeedsRedis() {
+        ExamLeaderboardService service = service(60_000);
+
+        LeaderboardResponse top = service.getTop(examId, 3);
+        LeaderboardResponse last = service.getStanding(examId, dev);
+
+        assertEquals(4, top.getParticipants());
+        assertEquals(List.of(asha, bala, chitra),
+                top.getStandings().stream().map(LeaderboardResponse.Standing::getStudentId).toList());
+        assertEquals(List.of(1, 1, 3), top.getStandings().stream().map(LeaderboardResponse.Standing::getRank).toList());
+        assertEquals(4, last.getStandings().get(0).getRank());
+        verify(resultRepository, times(1)).findLeaderboardEntries(TENANT_ID, examId);
+        verify(zSetOperations).add(eq(key), argThat((Set<ZSetOperations.TypedTuple<String>> tuples) -> tuples.size() == 4));
+    }
+
+    @Test
+    @DisplayName("Should apply committed marks in place without reloading the exam")
+    void onExamResultsChanged_UpdatesRanksIncrementally() {
+        ExamLeaderboardService service = service(60_000);
+        service.getTop(examId, 10);
+        when(redisTemplate.hasKey(key)).thenReturn(true);
+        when(valueOperations.increment(key + ":version")).thenReturn(1L);
+
+        service.onExamResultsChanged(new ExamResultsChangedEvent(TENANT_ID, examId, List.of(
+                new ResultChange(dev, "Dev", 95.0, false),
+                new ResultChange(bala, "Bala", 0.0, true))));
+
+        assertEquals(1, service.getStanding(examId, dev).getStandings().get(0).getRank());
+        assertEquals(2, service.getStanding(examId, asha).getStandings().get(0).getRank());
+        assertEquals(3, service.getTop(examId, 10).getParticipants());
+        assertThrows(NoSuchElementException.class, () -> service.getStanding(examId, bala));
+        verify(resultRepository, times(1)).findLeaderboardEntries(TENANT_ID, examId);
+        verify(zSetOperations).remove(key, bala.toString());
+    }
+
+    @Test
+    @DisplayName("Should rebuild from the Redis sorted set when another node changed the exam")
+    void getTop_RebuildsFromRedisWhenBehind() {
+        ExamLeaderboardService service = service(0);
+        when(valueOperations.get(key + ":version")).thenReturn(null, null, "3");
+        service.getTop(examId, 10);
+
+        Set<ZSetOperations.TypedTuple<String>> shared = new LinkedHashSet<>(List.of(
+                ZSetOperations.TypedTuple.of(dev.toString(), 99.0),
+                ZSetOperations.TypedTuple.of(asha.toString(), 90.0)));
+        when(zSetOperations.rangeWithScores(key, 0, -1)).thenReturn(shared);
+        when(hashOperations.entries(key + ":names")).thenReturn(Map.of(dev.toString(), "Dev", asha.toString(), "Asha"));
+
+        LeaderboardResponse top = service.getTop(examId, 10);
+
+        assertEquals(2, top.getParticipants());
+        assertEquals("Dev", top.getStandings().get(0).getStudentName());
+        assertEquals(1, top.getStandings().get(0).getRank());
+        verify(resultRepository, times(1)).findLeaderboardEntries(TENANT_ID, examId);
+    }
+
+    @Test
+    @DisplayName("Should keep serving ranks from the database when Redis is unavailable")
+    void getStanding_WorksWithoutRedis() {
+        ExamLeaderboardService service = service(0);
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertEquals(3, service.getStanding(examId, chitra).getStandings().get(0).getRank());
+        assertEquals(3, service.getStanding(examId, chitra).getStandings().get(0).getRank());
+
+        verify(resultRepository, times(1)).findLeaderboardEntries(TENANT_ID, examId);
+        verify(zSetOperations, never()).add(anyString(), anySet());
+    }
+
+    private ExamLeaderboardService service(long syncIntervalMillis) {
+        return new ExamLeaderboardService(resultRepository, redisTemplate, syncIntervalMillis, 72);
+    }
+}
@@ -0,0 +1,157 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.request.MarksEntryRequest;
+import com.schoolmgmt.dto.response.BulkMarksResult;
+import com.schoolmgmt.dto.response.BulkMarksResult.Outcome;
+import com.schoolmgmt.model.Exam;
+import com.schoolmgmt.model.ExamResult;
+import com.schoolmgmt.model.ExamType;
+import com.schoolmgmt.repository.ExamRepository;
+import com.schoolmgmt.repository.ExamResultRepository;
+import com.schoolmgmt.repository.ExamTypeRepository;
+import com.schoolmgmt.util.TenantContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the bulk marks upsert against a real database.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50"
+})
+class ExamMarksUpsertTest {
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private ExamResultRepository resultRepository;
+
+    @Autowired
+    private ExamTypeRepository examTypeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ExamService examService;
+    private Statistics statistics;
+    private Exam exam;
+    private final List<UUID> students = IntStream.range(0, 40).mapToObj(i -> UUID.randomUUID()).toList();
+
+    private static final String TENANT_ID = "TEN001";
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setCurrentTenant(TENANT_ID);
+        examService = new ExamService(examRepository, resultRepository, examTypeRepository,
+                mock(ApplicationEventPublisher.class));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        ExamType examType = examTypeRepository.save(ExamType.builder().tenantId(TENANT_ID).name("Unit Test").build());
+        exam = examRepository.save(Exam.builder().tenantId(TENANT_ID).name("Maths Unit 1").examType(examType)
+                .classId(UUID.randomUUID()).examDate(LocalDate.of(2026, 10, 1)).maxMarks(50).build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should insert a whole sheet in one batch and treat a resubmission as a no-op")
+    void upsertMarks_IdempotentResubmit() {
+        List<MarksEntryRequest> sheet = students.stream().map(id -> entry(id, 30.0, null)).toList();
+
+        statistics.clear();
+        BulkMarksResult first = upsert(sheet);
+
+        // Exam, existing results and one batched insert
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(40, first.getInserted());
+        assertEquals(40, resultRepository.findByExamId(exam.getId()).size());
+        assertEquals(0L, first.getRows().get(0).getVersion());
+
+        statistics.clear();
+        BulkMarksResult second = upsert(sheet);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(40, second.getUnchanged());
+        assertEquals(0, second.getInserted() + second.getUpdated());
+        assertEquals(40, resultRepository.findByExamId(exam.getId()).size());
+    }
+
+    @Test
+    @DisplayName("Should update changed rows and reject rows based on a stale version")
+    void upsertMarks_DetectsStaleVersion() {
+        BulkMarksResult first = upsert(List.of(entry(students.get(0), 20.0, null), entry(students.get(1), 25.0, null)));
+        Long version = first.getRows().get(0).getVersion();
+
+        BulkMarksResult edit = upsert(List.of(entry(students.get(0), 22.0, version)));
+        assertEquals(Outcome.UPDATED, edit.getRows().get(0).getOutcome());
+        assertEquals(version + 1, edit.getRows().get(0).getVersion());
+
+        BulkMarksResult stale = upsert(List.of(entry(students.get(0), 45.0, version), entry(students.get(1), 26.0, null)));
+
+        assertEquals(Outcome.CONFLICT, stale.getRows().get(0).getOutcome());
+        assertEquals(Outcome.UPDATED, stale.getRows().get(1).getOutcome());
+        ExamResult kept = resultRepository.findByExamIdAndStudentId(exam.getId(), students.get(0)).orElseThrow();
+        assertEquals(22.0, kept.getMarksObtained());
+    }
+
+    @Test
+    @DisplayName("Should report rows above the exam's maximum marks and duplicate students without writing them")
+    void upsertMarks_RejectsInvalidRows() {
+        MarksEntryRequest absent = MarksEntryRequest.builder().studentId(students.get(2)).isAbsent(true).build();
+
+        BulkMarksResult result = upsert(List.of(
+                entry(students.get(0), 51.0, null),
+                entry(students.get(1), 40.0, null),
+                entry(students.get(1), 41.0, null),
+                absent,
+                MarksEntryRequest.builder().studentId(students.get(3)).build()));
+
+        assertEquals(List.of(Outcome.INVALID, Outcome.INSERTED, Outcome.INVALID, Outcome.INSERTED, Outcome.INVALID),
+                result.getRows().stream().map(BulkMarksResult.RowOutcome::getOutcome).toList());
+        assertEquals("Marks must be between 0 and 50", result.getRows().get(0).getMessage());
+        assertEquals(3, result.getInvalid());
+        assertEquals(ExamResult.ResultStatus.ABSENT,
+                resultRepository.findByExamIdAndStudentId(exam.getId(), students.get(2)).orElseThrow().getResultStatus());
+    }
+
+    // Each call stands for a separate request with its own persistence context
+    private BulkMarksResult upsert(List<MarksEntryRequest> sheet) {
+        BulkMarksResult result = examService.upsertMarks(exam.getId(), sheet, "teacher");
+        entityManager.clear();
+        return result;
+    }
+
+    private MarksEntryRequest entry(UUID studentId, double marks, Long version) {
+        return MarksEntryRequest.builder().studentId(studentId).studentName("Student").marksObtained(marks)
+                .version(version).build();
+    }
+}
@@ -0,0 +1,126 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.response.ExamStatistics;
+import com.schoolmgmt.model.Exam;
+import com.schoolmgmt.model.ExamResult;
+import com.schoolmgmt.model.ExamType;
+import com.schoolmgmt.repository.ExamRepository;
+import com.schoolmgmt.repository.ExamResultRepository;
+import com.schoolmgmt.repository.ExamTypeRepository;
+import com.schoolmgmt.util.TenantContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the single-pass exam statistics query against a real database.
+ */
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ExamStatisticsQueryTest {
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private ExamResultRepository resultRepository;
+
+    @Autowired
+    private ExamTypeRepository examTypeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ExamService examService;
+    private Exam exam;
+
+    private static final String TENANT_ID = "TEN001";
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setCurrentTenant(TENANT_ID);
+        examService = new ExamService(examRepository, resultRepository, examTypeRepository,
+                mock(ApplicationEventPublisher.class));
+
+        ExamType examType = examTypeRepository.save(ExamType.builder().tenantId(TENANT_ID).name("Unit Test").build());
+        exam = examRepository.save(Exam.builder().tenantId(TENANT_ID).name("Maths Unit 1").examType(examType)
+                .classId(UUID.randomUUID()).examDate(LocalDate.of(2026, 10, 1)).build());
+
+        // Marks 10, 20, ..., 90 plus a tie at 90 and one absentee
+        double[] marks = {10, 20, 30, 40, 50, 60, 70, 80, 90, 90};
+        for (int i = 0; i < marks.length; i++) {
+            result("Student " + i, marks[i], false);
+        }
+        result("Absentee", 0, true);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should compute aggregates, ranks and percentiles in one statement")
+    void getExamStatistics_SinglePass() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ExamStatistics stats = examService.getExamStatistics(exam.getId());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(11, stats.getTotalStudents());
+        assertEquals(10, stats.getAppeared());
+        assertEquals(1, stats.getAbsent());
+        assertEquals(54.0, stats.getMeanMarks(), 1e-9);
+        assertEquals(55.0, stats.getMedianMarks(), 1e-9);
+        assertEquals(90.0, stats.getHighestMarks());
+        assertEquals(10.0, stats.getLowestMarks());
+        assertEquals(Math.sqrt(744), stats.getStandardDeviation(), 1e-6);
+        assertEquals(7, stats.getPassed());
+        assertEquals(3, stats.getFailed());
+
+        assertEquals(11, stats.getRankings().size());
+        assertEquals(1, stats.getRankings().get(0).getRank());
+        assertEquals(1, stats.getRankings().get(1).getRank());
+        assertEquals(3, stats.getRankings().get(2).getRank());
+        assertEquals(100.0 * 8 / 9, stats.getRankings().get(0).getPercentile(), 0.01);
+        assertEquals(0.0, stats.getRankings().get(9).getPercentile());
+        assertNull(stats.getRankings().get(10).getRank());
+        assertEquals("Absentee", stats.getRankings().get(10).getStudentName());
+    }
+
+    @Test
+    @DisplayName("Should return empty statistics for an exam without results")
+    void getExamStatistics_NoResults() {
+        ExamStatistics stats = examService.getExamStatistics(UUID.randomUUID());
+
+        assertEquals(0, stats.getTotalStudents());
+        assertTrue(stats.getRankings().isEmpty());
+        assertNull(stats.getTopper());
+    }
+
+    private void result(String name, double marks, boolean absent) {
+        resultRepository.save(ExamResult.builder().tenantId(TENANT_ID).exam(exam).studentId(UUID.randomUUID())
+                .studentName(name).marksObtained(marks).maxMarks(100).isAbsent(absent).build());
+    }
+}
@@ -0,0 +1,240 @@
+package com.schoolmgmt.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolmgmt.dto.request.GenerateInvoicesRequest;
+import com.schoolmgmt.dto.response.InvoiceRunResponse;
+import com.schoolmgmt.exception.BusinessException;
+import com.schoolmgmt.model.FeePayment;
+import com.schoolmgmt.model.FeeStructure;
+import com.schoolmgmt.model.FeeType;
+import com.schoolmgmt.model.Student;
+import com.schoolmgmt.repository.*;
+import com.schoolmgmt.util.TenantContext;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Generates term invoices against a real database, in small chunks so a run spans several transactions,
+ * and checks the dues created, the skipped duplicates and the fee ledger.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Slf4j
+class FeeInvoiceEngineTest {
+
+    @Autowired private FeeInvoiceRunRepository runRepository;
+    @Autowired private FeeTypeRepository feeTypeRepository;
+    @Autowired private FeeStructureRepository feeStructureRepository;
+    @Autowired private FeePaymentRepository feePaymentRepository;
+    @Autowired private FeeLedgerRepository feeLedgerRepository;
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private TenantSequenceRepository tenantSequenceRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private FeeLedgerService feeLedgerService;
+    private FeeService feeService;
+    private TransactionTemplate transaction;
+    private String tenantId;
+    private final UUID classA = UUID.randomUUID();
+    private final UUID classB = UUID.randomUUID();
+    private FeeStructure tuitionA;
+    private FeeStructure transportB;
+    private UUID alreadyInvoiced;
+
+    @BeforeEach
+    void setUp() {
+        // Every chunk commits, so each test keeps to its own tenant
+        tenantId = UUID.randomUUID().toString();
+        TenantContext.setCurrentTenant(tenantId);
+        transaction = new TransactionTemplate(transactionManager);
+        feeLedgerService = new FeeLedgerService(feeLedgerRepository, feePaymentRepository, feeTypeRepository,
+                transactionManager);
+        ReceiptNumberService receipts = new ReceiptNumberService(
+                new TenantSequenceAllocator(tenantSequenceRepository, userRepository, transactionManager, 50), false, 4);
+        feeService = new FeeService(feeTypeRepository, feeStructureRepository, feePaymentRepository, receipts,
+                feeLedgerService);
+
+        transaction.executeWithoutResult(status -> {
+            FeeType tuition = feeTypeRepository.save(FeeType.builder().tenantId(tenantId).name("Tuition").build());
+            FeeType transport = feeTypeRepository.save(FeeType.builder().tenantId(tenantId).name("Transport").build());
+            tuitionA = structure(tuition, classA, "1000.00", 10.0, "TERM-1", true);
+            transportB = structure(transport, classB, "500.00", 0.0, "TERM-1", true);
+            structure(tuition, classA, "1000.00", 0.0, "TERM-1", false);
+            structure(tuition, classA, "1000.00", 0.0, "TERM-2", true);
+
+            List<Student> students = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                students.add(student(classA, "A" + i, Student.StudentStatus.ACTIVE));
+            }
+            students.add(student(classA, "A-left", Student.StudentStatus.TRANSFERRED));
+            for (int i = 0; i < 3; i++) {
+                students.add(student(classB, "B" + i, Student.StudentStatus.ACTIVE));
+            }
+            studentRepository.saveAll(students);
+            alreadyInvoiced = students.get(0).getId();
+        });
+
+        // One student already paid part of the term's tuition at the counter
+        transaction.executeWithoutResult(status -> feeService.collectFee(FeePayment.builder()
+                .feeStructure(tuitionA).studentId(alreadyInvoiced).amountPaid(new BigDecimal("400.00"))
+                .totalAmount(new BigDecimal("900.00")).paymentMode(FeePayment.PaymentMode.CASH).build()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should invoice every active student once per fee structure, with the discount applied")
+    void execute_CreatesDuesAndUpdatesLedger() {
+        InvoiceRunResponse run = runInvoices(engine(2), "TERM-1");
+
+        assertEquals("COMPLETED", run.getStatus());
+        assertEquals(8, run.getTotalInvoices());
+        assertEquals(8, run.getProcessedInvoices());
+        assertEquals(7, run.getCreatedCount());
+        assertEquals(1, run.getSkippedCount());
+        assertEquals(100.0, run.getProgressPercentage());
+
+        List<FeePayment> pending = feePaymentRepository.findByTenantIdAndPaymentStatus(tenantId,
+                FeePayment.PaymentStatus.PENDING);
+        assertEquals(7, pending.size());
+        assertEquals(3, pending.stream().filter(p -> p.getFeeStructure().getId().equals(transportB.getId())).count());
+        FeePayment tuitionDue = pending.stream()
+                .filter(p -> p.getFeeStructure().getId().equals(tuitionA.getId())).findFirst().orElseThrow();
+        assertAmount(new BigDecimal("900.00"), tuitionDue.getTotalAmount());
+        assertAmount(new BigDecimal("100.00"), tuitionDue.getDiscountAmount());
+        assertAmount(new BigDecimal("900.00"), tuitionDue.getBalanceAmount());
+        assertTrue(tuitionDue.getStudentName().startsWith("Student A"));
+        assertEquals(1, feePaymentRepository.findInvoicedStudentIds(tenantId, tuitionA.getId(),
+                Set.of(alreadyInvoiced)).size());
+
+        Map<String, Object> report = transaction.execute(status -> feeService.getCollectionReport());
+        assertAmount(feePaymentRepository.getTotalPendingByTenant(tenantId), report.get("totalPending"));
+        // 500.00 left on the counter payment, 4 tuition dues of 900.00 and 3 transport dues of 500.00
+        assertAmount(new BigDecimal("5600.00"), report.get("totalPending"));
+    }
+
+    @Test
+    @DisplayName("Should skip every student when the term is invoiced again")
+    void execute_Rerun_IsIdempotent() {
+        FeeInvoiceEngine engine = engine(3);
+        runInvoices(engine, "TERM-1");
+
+        InvoiceRunResponse rerun = runInvoices(engine, "TERM-1");
+
+        assertEquals("COMPLETED", rerun.getStatus());
+        assertEquals(0, rerun.getCreatedCount());
+        assertEquals(8, rerun.getSkippedCount());
+        assertEquals(7, feePaymentRepository.findByTenantIdAndPaymentStatus(tenantId,
+                FeePayment.PaymentStatus.PENDING).size());
+    }
+
+    @Test
+    @DisplayName("Should reject a run when no active fee structure matches")
+    void startInvoiceRun_NoStructures_Throws() {
+        FeeInvoiceService service = service(engine(2));
+
+        assertThrows(BusinessException.class, () -> transaction.execute(status ->
+                service.startInvoiceRun(GenerateInvoicesRequest.builder().term("TERM-9").build())));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: invoicing a 10,000 student school")
+    void benchmark_TenThousandStudents() {
+        transaction.executeWithoutResult(status -> {
+            List<Student> students = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                students.add(student(i % 2 == 0 ? classA : classB, "S" + i, Student.StudentStatus.ACTIVE));
+            }
+            studentRepository.saveAll(students);
+        });
+
+        long start = System.nanoTime();
+        InvoiceRunResponse run = runInvoices(engine(1000), "TERM-1");
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertEquals("COMPLETED", run.getStatus());
+        assertEquals(10_007, run.getCreatedCount());
+        log.info("Invoices: {} in {} s, {} invoices/s",
+                run.getCreatedCount(), String.format("%.2f", seconds), Math.round(run.getCreatedCount() / seconds));
+        assertTrue(seconds < 60, "Invoice run took " + seconds + " s");
+    }
+
+    /**
+     * Starts a run like the controller would and executes it on this thread instead of the async listener
+     */
+    private InvoiceRunResponse runInvoices(FeeInvoiceEngine engine, String term) {
+        FeeInvoiceService service = service(engine);
+        InvoiceRunResponse started = transaction.execute(status ->
+                service.startInvoiceRun(GenerateInvoicesRequest.builder().term(term).build()));
+        engine.execute(started.getId(), tenantId);
+        TenantContext.setCurrentTenant(tenantId);
+        return service.getInvoiceRun(started.getId());
+    }
+
+    private FeeInvoiceEngine engine(int chunkSize) {
+        return new FeeInvoiceEngine(runRepository, feeStructureRepository, feePaymentRepository, studentRepository,
+                feeLedgerService, entityManager, objectMapper, transactionManager, chunkSize);
+    }
+
+    private FeeInvoiceService service(FeeInvoiceEngine engine) {
+        return new FeeInvoiceService(runRepository, feeStructureRepository, studentRepository, engine,
+                mock(ApplicationEventPublisher.class), objectMapper);
+    }
+
+    private FeeStructure structure(FeeType feeType, UUID classId, String amount, double discount, String term,
+                                   boolean active) {
+        return feeStructureRepository.save(FeeStructure.builder().tenantId(tenantId).feeType(feeType)
+                .classId(classId).amount(new BigDecimal(amount)).discountPercentage(discount)
+                .dueDate(LocalDate.now().plusDays(30)).academicYear("2026-27").term(term).isActive(active).build());
+    }
+
+    private Student student(UUID classId, String roll, Student.StudentStatus status) {
+        Student student = Student.builder()
+                .rollNumber(roll)
+                .firstName("Student")
+                .lastName(roll)
+                .dateOfBirth(LocalDate.of(2015, 1, 1))
+                .gender(Student.Gender.MALE)
+                .currentClassId(classId.toString())
+                .admissionDate(LocalDate.of(2020, 6, 1))
+                .emergencyContactPhone("9999999999")
+                .status(status)
+                .build();
+        student.setTenantId(tenantId);
+        return student;
+    }
+
+    private static void assertAmount(BigDecimal expected, Object actual) {
+        assertEquals(0, expected.compareTo((BigDecimal) actual), () -> "expected " + expected + " but was " + actual);
+    }
+}
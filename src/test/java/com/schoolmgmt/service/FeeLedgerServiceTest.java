@@ -0,0 +1,184 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.request.FeeLedgerRequest;
+import com.schoolmgmt.dto.request.FeeLedgerRequest.Dimension;
+import com.schoolmgmt.dto.response.FeeLedgerResponse;
+import com.schoolmgmt.model.FeePayment;
+import com.schoolmgmt.model.FeeStructure;
+import com.schoolmgmt.model.FeeType;
+import com.schoolmgmt.repository.*;
+import com.schoolmgmt.util.TenantContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Collects fees through {@link FeeService} against a real database and checks the daily ledger
+ * against the same totals computed from the payments.
+ */
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class FeeLedgerServiceTest {
+
+    @Autowired private FeeTypeRepository feeTypeRepository;
+    @Autowired private FeeStructureRepository feeStructureRepository;
+    @Autowired private FeePaymentRepository feePaymentRepository;
+    @Autowired private FeeLedgerRepository feeLedgerRepository;
+    @Autowired private TenantSequenceRepository tenantSequenceRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private FeeService feeService;
+    private FeeLedgerService feeLedgerService;
+    private String tenantId;
+    private final UUID classA = UUID.randomUUID();
+    private final UUID classB = UUID.randomUUID();
+    private FeeType tuition;
+    private FeeStructure tuitionA;
+    private FeeStructure transportB;
+
+    @BeforeEach
+    void setUp() {
+        // Ledger rows are created in their own transactions, so each test keeps to its own tenant
+        tenantId = UUID.randomUUID().toString();
+        TenantContext.setCurrentTenant(tenantId);
+        feeLedgerService = new FeeLedgerService(feeLedgerRepository, feePaymentRepository, feeTypeRepository,
+                transactionManager);
+        ReceiptNumberService receipts = new ReceiptNumberService(
+                new TenantSequenceAllocator(tenantSequenceRepository, userRepository, transactionManager, 50), false, 4);
+        feeService = new FeeService(feeTypeRepository, feeStructureRepository, feePaymentRepository, receipts,
+                feeLedgerService);
+
+        tuition = feeTypeRepository.save(FeeType.builder().tenantId(tenantId).name("Tuition").build());
+        FeeType transport = feeTypeRepository.save(FeeType.builder().tenantId(tenantId).name("Transport").build());
+        tuitionA = feeStructureRepository.save(FeeStructure.builder().tenantId(tenantId).feeType(tuition)
+                .classId(classA).amount(new BigDecimal("5000.00")).dueDate(LocalDate.now().plusDays(30)).build());
+        transportB = feeStructureRepository.save(FeeStructure.builder().tenantId(tenantId).feeType(transport)
+                .classId(classB).amount(new BigDecimal("1200.00")).dueDate(LocalDate.now().plusDays(30)).build());
+
+        collect(tuitionA, "5000.00", "5000.00");
+        collect(tuitionA, "2000.00", "5000.00");
+        collect(transportB, "1200.00", "1200.00");
+        invoice(transportB, "1200.00");
+        entityManager.flush();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should report the same totals as the payments, from one ledger query")
+    void getCollectionReport_MatchesPayments() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Map<String, Object> report = feeService.getCollectionReport();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertAmount(feePaymentRepository.getTotalCollectedByTenant(tenantId), report.get("totalCollected"));
+        assertAmount(feePaymentRepository.getTotalPendingByTenant(tenantId), report.get("totalPending"));
+        assertAmount(new BigDecimal("8200.00"), report.get("monthlyCollection"));
+        assertAmount(new BigDecimal("4200.00"), report.get("totalPending"));
+        assertEquals(0L, report.get("overdueCount"));
+    }
+
+    @Test
+    @DisplayName("Should move a payment's amounts when its status changes and a late fee is added")
+    void recordChange_AppliesDeltas() {
+        FeePayment unpaid = feePaymentRepository.findByTenantIdAndPaymentStatus(tenantId, FeePayment.PaymentStatus.PENDING).get(0);
+        FeeLedgerService.Contribution before = FeeLedgerService.Contribution.of(unpaid);
+        unpaid.setPaymentStatus(FeePayment.PaymentStatus.OVERDUE);
+        unpaid.setLateFeeAmount(new BigDecimal("100.00"));
+        unpaid.setBalanceAmount(unpaid.getBalanceAmount().add(new BigDecimal("100.00")));
+        feePaymentRepository.save(unpaid);
+        feeLedgerService.recordChange(before, unpaid);
+        entityManager.flush();
+
+        Map<String, Object> report = feeService.getCollectionReport();
+
+        assertEquals(1L, report.get("overdueCount"));
+        assertEquals(feePaymentRepository.countOverdueByTenant(tenantId), report.get("overdueCount"));
+        assertAmount(new BigDecimal("4300.00"), report.get("totalPending"));
+        assertAmount(feePaymentRepository.getTotalPendingByTenant(tenantId), report.get("totalPending"));
+    }
+
+    @Test
+    @DisplayName("Should break the ledger down by fee type and by class and month")
+    void drillDown_GroupsLedgerRows() {
+        FeeLedgerResponse byFeeType = feeLedgerService.drillDown(
+                FeeLedgerRequest.builder().groupBy(List.of(Dimension.FEE_TYPE)).build());
+
+        assertEquals(2, byFeeType.getBuckets().size());
+        FeeLedgerResponse.Bucket tuitionBucket = byFeeType.getBuckets().stream()
+                .filter(b -> b.getFeeTypeId().equals(tuition.getId())).findFirst().orElseThrow();
+        assertEquals("Tuition", tuitionBucket.getFeeTypeName());
+        assertEquals(2, tuitionBucket.getPayments());
+        assertAmount(new BigDecimal("7000.00"), tuitionBucket.getCollectedAmount());
+        assertAmount(new BigDecimal("3000.00"), tuitionBucket.getPendingAmount());
+        assertNull(tuitionBucket.getClassId());
+
+        FeeLedgerResponse byClassAndMonth = feeLedgerService.drillDown(FeeLedgerRequest.builder()
+                .groupBy(List.of(Dimension.CLASS, Dimension.MONTH)).build());
+        FeeLedgerResponse.Bucket classBBucket = byClassAndMonth.getBuckets().stream()
+                .filter(b -> b.getClassId().equals(classB)).findFirst().orElseThrow();
+        assertEquals(2, classBBucket.getPayments());
+        assertEquals(java.time.YearMonth.now().toString(), classBBucket.getMonth());
+        assertAmount(new BigDecimal("1200.00"), classBBucket.getPaidAmount());
+
+        FeeLedgerResponse later = feeLedgerService.drillDown(FeeLedgerRequest.builder()
+                .fromDate(LocalDate.now().plusDays(1)).build());
+        assertTrue(later.getBuckets().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should rebuild the ledger from payments with the same totals")
+    void rebuild_RecomputesLedger() {
+        Map<String, Object> maintained = feeService.getCollectionReport();
+
+        assertEquals(2, feeLedgerService.rebuild());
+        entityManager.flush();
+        entityManager.clear();
+
+        Map<String, Object> rebuilt = feeService.getCollectionReport();
+        assertAmount((BigDecimal) maintained.get("totalCollected"), rebuilt.get("totalCollected"));
+        assertAmount((BigDecimal) maintained.get("totalPending"), rebuilt.get("totalPending"));
+        assertAmount((BigDecimal) maintained.get("monthlyCollection"), rebuilt.get("monthlyCollection"));
+    }
+
+    private void collect(FeeStructure structure, String paid, String total) {
+        feeService.collectFee(FeePayment.builder().feeStructure(structure).studentId(UUID.randomUUID())
+                .amountPaid(new BigDecimal(paid)).totalAmount(new BigDecimal(total))
+                .paymentMode(FeePayment.PaymentMode.CASH).build());
+    }
+
+    private void invoice(FeeStructure structure, String total) {
+        FeePayment saved = feePaymentRepository.save(FeePayment.builder().tenantId(tenantId).feeStructure(structure)
+                .studentId(UUID.randomUUID()).amountPaid(BigDecimal.ZERO).totalAmount(new BigDecimal(total)).build());
+        feeLedgerService.recordNew(saved);
+    }
+
+    private static void assertAmount(BigDecimal expected, Object actual) {
+        assertEquals(0, expected.compareTo((BigDecimal) actual), () -> "expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,240 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.model.FeePayment;
+import com.schoolmgmt.model.FeeStructure;
+import com.schoolmgmt.model.FeeType;
+import com.schoolmgmt.model.NotificationLog;
+import com.schoolmgmt.model.Parent;
+import com.schoolmgmt.model.Student;
+import com.schoolmgmt.model.User;
+import com.schoolmgmt.repository.*;
+import com.schoolmgmt.util.TenantContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Sweeps overdue fees against a real database, in small chunks so a sweep spans several transactions,
+ * and checks the payments, the fee ledger and the reminders sent.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class FeeOverdueSweeperTest {
+
+    @Autowired private FeeTypeRepository feeTypeRepository;
+    @Autowired private FeeStructureRepository feeStructureRepository;
+    @Autowired private FeePaymentRepository feePaymentRepository;
+    @Autowired private FeeLedgerRepository feeLedgerRepository;
+    @Autowired private TenantRepository tenantRepository;
+    @Autowired private TenantSequenceRepository tenantSequenceRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private ParentRepository parentRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private DataSource dataSource;
+
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ClusterLockService clusterLockService;
+    private FeeOverdueSweeper sweeper;
+    private FeeService feeService;
+    private String tenantId;
+    private final UUID classA = UUID.randomUUID();
+    private final UUID classB = UUID.randomUUID();
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        // Every chunk commits, so each test keeps to its own tenant
+        tenantId = UUID.randomUUID().toString();
+        TenantContext.setCurrentTenant(tenantId);
+        FeeLedgerService feeLedgerService = new FeeLedgerService(feeLedgerRepository, feePaymentRepository,
+                feeTypeRepository, transactionManager);
+        ReceiptNumberService receipts = new ReceiptNumberService(
+                new TenantSequenceAllocator(tenantSequenceRepository, userRepository, transactionManager, 50), false, 4);
+        feeService = new FeeService(feeTypeRepository, feeStructureRepository, feePaymentRepository, receipts,
+                feeLedgerService);
+        clusterLockService = new ClusterLockService(dataSource);
+        sweeper = new FeeOverdueSweeper(feePaymentRepository, studentRepository, tenantRepository, feeLedgerService,
+                notificationService, clusterLockService, transactionManager, meterRegistry, 2);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            FeeType tuition = feeTypeRepository.save(FeeType.builder().tenantId(tenantId).name("Tuition").build());
+            FeeStructure pastDueA = structure(tuition, classA, TODAY.minusDays(5), "100.00");
+            FeeStructure pastDueB = structure(tuition, classB, TODAY.minusDays(1), "50.00");
+            FeeStructure dueToday = structure(tuition, classB, TODAY, "50.00");
+
+            // Two unpaid fees of a student with a parent, a part payment, a payment in full and fees of class B
+            UUID twoUnpaid = student("1", classA, "STU1", "PAR1");
+            invoice(pastDueA, twoUnpaid, feeLedgerService);
+            invoice(pastDueA, twoUnpaid, feeLedgerService);
+            collect(pastDueA, student("2", classA, "STU2", null), "400.00");
+            collect(pastDueA, student("3", classA, "STU3", "PAR3"), "1000.00");
+            UUID classBStudent = student("1", classB, "STU4", null);
+            invoice(pastDueB, classBStudent, feeLedgerService);
+            invoice(dueToday, classBStudent, feeLedgerService);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should mark unpaid fees past due as overdue with late fees, in set-based chunks")
+    void sweepTenant_MarksOverdueAndUpdatesLedger() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertEquals(4, sweeper.sweepTenant(tenantId, TODAY));
+
+        assertEquals(0, statistics.getEntityStatistics(FeePayment.class.getName()).getLoadCount());
+        assertEquals(4L, feePaymentRepository.countOverdueByTenant(tenantId));
+        // The fee structure is loaded lazily, so the payments are checked within a transaction
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (FeePayment overdue : feePaymentRepository.findByTenantIdAndPaymentStatus(tenantId,
+                    FeePayment.PaymentStatus.OVERDUE)) {
+                BigDecimal lateFee = overdue.getFeeStructure().getLateFee();
+                assertEquals(0, lateFee.compareTo(overdue.getLateFeeAmount()));
+                assertEquals(0, overdue.getTotalAmount().subtract(overdue.getAmountPaid()).add(lateFee)
+                        .compareTo(overdue.getBalanceAmount()));
+            }
+        });
+        assertEquals(1, feePaymentRepository.findByTenantIdAndPaymentStatus(tenantId,
+                FeePayment.PaymentStatus.PENDING).size());
+
+        Map<String, Object> report = feeService.getCollectionReport();
+        assertEquals(feePaymentRepository.countOverdueByTenant(tenantId), report.get("overdueCount"));
+        assertAmount(feePaymentRepository.getTotalPendingByTenant(tenantId), report.get("totalPending"));
+        assertAmount(feePaymentRepository.getTotalCollectedByTenant(tenantId), report.get("totalCollected"));
+
+        // Only the students with newly overdue fees and their parents; the student who paid in full is left alone
+        for (String user : new String[]{"STU1", "PAR1"}) {
+            verify(notificationService).sendToUser(eq(user), anyString(), contains("2 fee payments are"),
+                    eq(NotificationLog.NotificationType.FEE_REMINDER), isNull(), isNull(), eq("System"));
+        }
+        for (String user : new String[]{"STU2", "STU4"}) {
+            verify(notificationService).sendToUser(eq(user), anyString(), contains("1 fee payment is"),
+                    eq(NotificationLog.NotificationType.FEE_REMINDER), isNull(), isNull(), eq("System"));
+        }
+        verify(notificationService, never()).sendToUser(eq("STU3"), any(), any(), any(), any(), any(), any());
+        verify(notificationService, never()).sendToUser(eq("PAR3"), any(), any(), any(), any(), any(), any());
+        verify(notificationService, never()).sendToClass(any(), any(), any(), any(), any(), any(), any());
+        assertEquals(4.0, meterRegistry.counter("fees.overdue.sweep.payments").count());
+        assertEquals(4.0, meterRegistry.counter("fees.overdue.sweep.reminders").count());
+        assertEquals(1, meterRegistry.timer("fees.overdue.sweep.duration").count());
+    }
+
+    @Test
+    @DisplayName("Should not sweep or remind again once fees are overdue")
+    void sweepTenant_SecondSweepTouchesNothing() {
+        sweeper.sweepTenant(tenantId, TODAY);
+        clearInvocations(notificationService);
+
+        assertEquals(0, sweeper.sweepTenant(tenantId, TODAY));
+
+        verifyNoInteractions(notificationService);
+        assertEquals(4L, feePaymentRepository.countOverdueByTenant(tenantId));
+    }
+
+    @Test
+    @DisplayName("Should skip a tenant while another sweep holds its lock")
+    void sweepTenant_SkipsWhenLocked() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> clusterLockService.runExclusively("fee-overdue-sweep:" + tenantId, () -> {
+            locked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        holder.start();
+        try {
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+            assertEquals(0, sweeper.sweepTenant(tenantId, TODAY));
+            assertEquals(0L, feePaymentRepository.countOverdueByTenant(tenantId));
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+
+        assertEquals(4, sweeper.sweepTenant(tenantId, TODAY));
+    }
+
+    private FeeStructure structure(FeeType feeType, UUID classId, LocalDate dueDate, String lateFee) {
+        return feeStructureRepository.save(FeeStructure.builder().tenantId(tenantId).feeType(feeType)
+                .classId(classId).amount(new BigDecimal("1000.00")).dueDate(dueDate)
+                .lateFee(new BigDecimal(lateFee)).build());
+    }
+
+    /**
+     * Save a student with a user account, and a parent with one unless no parent user is given
+     */
+    private UUID student(String rollNumber, UUID classId, String userId, String parentUserId) {
+        Student student = Student.builder().rollNumber(rollNumber).firstName("Student").lastName(userId)
+                .dateOfBirth(LocalDate.of(2015, 1, 1)).gender(Student.Gender.MALE).currentClassId(classId.toString())
+                .admissionDate(LocalDate.of(2020, 6, 1)).emergencyContactPhone("9999999999")
+                .user(user(userId, User.UserRole.STUDENT)).build();
+        student.setTenantId(tenantId);
+        if (parentUserId != null) {
+            Parent parent = Parent.builder().firstName("Parent").lastName(parentUserId)
+                    .parentType(Parent.ParentType.FATHER).email(parentUserId + "@test.com").phone("9000000000")
+                    .user(user(parentUserId, User.UserRole.PARENT)).build();
+            parent.setTenantId(tenantId);
+            student.getParents().add(parentRepository.save(parent));
+        }
+        return studentRepository.save(student).getId();
+    }
+
+    private User user(String userId, User.UserRole role) {
+        User user = User.builder().userId(userId).email(userId + "@test.com").password("secret")
+                .firstName("User").lastName(userId).role(role).build();
+        user.setTenantId(tenantId);
+        return userRepository.save(user);
+    }
+
+    private void collect(FeeStructure structure, UUID studentId, String paid) {
+        feeService.collectFee(FeePayment.builder().feeStructure(structure).studentId(studentId)
+                .amountPaid(new BigDecimal(paid)).totalAmount(new BigDecimal("1000.00"))
+                .paymentMode(FeePayment.PaymentMode.CASH).build());
+    }
+
+    private void invoice(FeeStructure structure, UUID studentId, FeeLedgerService feeLedgerService) {
+        FeePayment saved = feePaymentRepository.save(FeePayment.builder().tenantId(tenantId).feeStructure(structure)
+                .studentId(studentId).amountPaid(BigDecimal.ZERO).totalAmount(new BigDecimal("1000.00")).build());
+        feeLedgerService.recordNew(saved);
+    }
+
+    private static void assertAmount(BigDecimal expected, Object actual) {
+        assertEquals(0, expected.compareTo((BigDecimal) actual), () -> "expected " + expected + " but was " + actual);
+    }
+}
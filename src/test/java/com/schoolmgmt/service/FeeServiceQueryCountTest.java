@@ -0,0 +1,146 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.response.FeePaymentSummary;
+import com.schoolmgmt.model.FeePayment;
+import com.schoolmgmt.model.FeeStructure;
+import com.schoolmgmt.model.FeeType;
+import com.schoolmgmt.repository.FeePaymentRepository;
+import com.schoolmgmt.repository.FeeStructureRepository;
+import com.schoolmgmt.repository.FeeTypeRepository;
+import com.schoolmgmt.util.TenantContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Guards the fee payment listings against loading fee structures and fee types row by row.
+ */
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class FeeServiceQueryCountTest {
+
+    @Autowired
+    private FeeTypeRepository feeTypeRepository;
+
+    @Autowired
+    private FeeStructureRepository feeStructureRepository;
+
+    @Autowired
+    private FeePaymentRepository feePaymentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private FeeService feeService;
+
+    private static final String TENANT_ID = "TEN001";
+    private static final UUID STUDENT_ID = UUID.randomUUID();
+
+    private UUID receiptId;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setCurrentTenant(TENANT_ID);
+        feeService = new FeeService(feeTypeRepository, feeStructureRepository, feePaymentRepository,
+                mock(ReceiptNumberService.class), mock(FeeLedgerService.class));
+
+        // Ten structures over five fee types, so per-row loading would show up as extra statements
+        for (int t = 0; t < 5; t++) {
+            FeeType feeType = feeTypeRepository.save(FeeType.builder().tenantId(TENANT_ID).name("Fee" + t).build());
+            for (int c = 0; c < 2; c++) {
+                FeeStructure structure = feeStructureRepository.save(FeeStructure.builder().tenantId(TENANT_ID)
+                        .feeType(feeType).classId(UUID.randomUUID()).amount(new BigDecimal("1000.00"))
+                        .dueDate(LocalDate.of(2026, 4, 1 + t)).build());
+                for (int i = 0; i < 6; i++) {
+                    FeePayment payment = feePaymentRepository.save(FeePayment.builder().tenantId(TENANT_ID)
+                            .feeStructure(structure).studentId(i == 0 ? STUDENT_ID : UUID.randomUUID())
+                            .amountPaid(BigDecimal.ZERO).totalAmount(new BigDecimal("1000.00"))
+                            .paymentStatus(i % 3 == 0 ? FeePayment.PaymentStatus.OVERDUE : FeePayment.PaymentStatus.PENDING)
+                            .paymentDate(LocalDate.of(2026, 4, 1 + i)).build());
+                    receiptId = payment.getId();
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should list a page of 50 payments with fee type names in a constant number of queries")
+    void getAllPayments_ConstantQueries() {
+        Statistics statistics = statistics();
+
+        Page<FeePaymentSummary> page = feeService.getAllPayments(
+                PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, "paymentDate")));
+
+        assertEquals(50, page.getContent().size());
+        assertEquals(60, page.getTotalElements());
+        assertTrue(page.getContent().stream().allMatch(payment -> payment.getFeeTypeName().startsWith("Fee")));
+        // Page query + count query
+        assertTrue(statistics.getPrepareStatementCount() <= 2,
+                "Expected at most 2 statements but was " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should list student and overdue payments in one query each")
+    void studentAndOverdueListings_SingleQuery() {
+        Statistics statistics = statistics();
+
+        List<FeePaymentSummary> studentPayments = feeService.getStudentPayments(STUDENT_ID);
+        List<FeePaymentSummary> pending = feeService.getStudentPendingFees(STUDENT_ID);
+        List<FeePaymentSummary> overdue = feeService.getOverduePayments();
+
+        assertEquals(10, studentPayments.size());
+        assertEquals(10, pending.size());
+        assertEquals(20, overdue.size());
+        assertTrue(overdue.stream().allMatch(payment -> payment.getDueDate() != null));
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should fetch a receipt with its fee structure and fee type in one query")
+    void getPaymentById_FetchesGraphInOneQuery() {
+        Statistics statistics = statistics();
+
+        FeePayment receipt = feeService.getPaymentById(receiptId);
+
+        assertTrue(Hibernate.isInitialized(receipt.getFeeStructure()));
+        assertTrue(Hibernate.isInitialized(receipt.getFeeStructure().getFeeType()));
+        assertEquals("Fee4", receipt.getFeeStructure().getFeeType().getName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
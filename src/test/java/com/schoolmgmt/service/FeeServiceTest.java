@@ -1,5 +1,6 @@
 package com.schoolmgmt.service;
 
+import com.schoolmgmt.dto.response.FeePaymentSummary;
 import com.schoolmgmt.model.FeePayment;
 import com.schoolmgmt.model.FeeStructure;
 import com.schoolmgmt.model.FeeType;
@@ -27,6 +28,7 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -47,6 +49,12 @@ class FeeServiceTest {
     @Mock
     private FeePaymentRepository feePaymentRepository;
 
+    @Mock
+    private ReceiptNumberService receiptNumberService;
+
+    @Mock
+    private FeeLedgerService feeLedgerService;
+
     private MockedStatic<TenantContext> tenantContextMock;
 
     private static final String TENANT_ID = UUID.randomUUID().toString();
@@ -60,6 +68,9 @@ class FeeServiceTest {
     void setUp() {
         tenantContextMock = mockStatic(TenantContext.class);
         tenantContextMock.when(TenantContext::getCurrentTenant).thenReturn(TENANT_ID);
+        AtomicLong receipts = new AtomicLong();
+        lenient().when(receiptNumberService.nextReceiptNumber(eq(TENANT_ID), any(LocalDate.class)))
+                .thenAnswer(invocation -> String.format("RCP-2026-27-%06d", receipts.incrementAndGet()));
 
         tuitionFeeType = FeeType.builder()
                 .id(UUID.randomUUID())
@@ -85,6 +96,7 @@ class FeeServiceTest {
                 .term("Term 1")
                 .isActive(true)
                 .build();
+        lenient().when(feeStructureRepository.findById(feeStructure.getId())).thenReturn(Optional.of(feeStructure));
     }
 
     @AfterEach
@@ -131,6 +143,7 @@ class FeeServiceTest {
             assertNotNull(result.getId());
             assertEquals(TENANT_ID, result.getTenantId());
             assertEquals(LocalDate.now(), result.getPaymentDate());
+            verify(feeLedgerService).recordNew(result);
 
             // Receipt number should start with "RCP-"
             assertNotNull(result.getReceiptNumber());
@@ -211,6 +224,41 @@ class FeeServiceTest {
             assertNotEquals(result1.getReceiptNumber(), result2.getReceiptNumber(),
                     "Receipt numbers should be unique for different payments");
         }
+
+        @Test
+        @DisplayName("should record the stored fee structure when the request carries only its id")
+        void collectFee_shouldLoadFeeStructureById() {
+            // Arrange
+            FeePayment inputPayment = FeePayment.builder()
+                    .feeStructure(FeeStructure.builder().id(feeStructure.getId()).classId(UUID.randomUUID()).build())
+                    .studentId(STUDENT_ID)
+                    .amountPaid(new BigDecimal("5000.00"))
+                    .totalAmount(new BigDecimal("5000.00"))
+                    .paymentMode(FeePayment.PaymentMode.CASH)
+                    .build();
+            when(feePaymentRepository.save(any(FeePayment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            // Act
+            FeePayment result = feeService.collectFee(inputPayment);
+
+            // Assert
+            assertSame(feeStructure, result.getFeeStructure());
+            verify(feeLedgerService).recordNew(argThat(payment ->
+                    payment.getFeeStructure().getClassId().equals(feeStructure.getClassId())
+                            && payment.getFeeStructure().getFeeType().getId().equals(tuitionFeeType.getId())));
+        }
+
+        @Test
+        @DisplayName("should reject a payment without a fee structure or with another tenant's")
+        void collectFee_shouldRejectMissingOrForeignFeeStructure() {
+            FeeStructure foreign = FeeStructure.builder().id(UUID.randomUUID()).tenantId("OTHER").build();
+            when(feeStructureRepository.findById(foreign.getId())).thenReturn(Optional.of(foreign));
+
+            assertThrows(IllegalArgumentException.class, () -> feeService.collectFee(FeePayment.builder().build()));
+            assertThrows(NoSuchElementException.class, () ->
+                    feeService.collectFee(FeePayment.builder().feeStructure(foreign).build()));
+            verifyNoInteractions(feePaymentRepository, feeLedgerService);
+        }
     }
 
     // =========================================================================
@@ -230,15 +278,8 @@ class FeeServiceTest {
             Long overdueCount = 5L;
             BigDecimal monthlyCollection = new BigDecimal("30000.00");
 
-            when(feePaymentRepository.getTotalCollectedByTenant(TENANT_ID))
-                    .thenReturn(totalCollected);
-            when(feePaymentRepository.getTotalPendingByTenant(TENANT_ID))
-                    .thenReturn(totalPending);
-            when(feePaymentRepository.countOverdueByTenant(TENANT_ID))
-                    .thenReturn(overdueCount);
-            when(feePaymentRepository.getCollectionBetweenDates(
-                    eq(TENANT_ID), any(LocalDate.class), any(LocalDate.class)))
-                    .thenReturn(monthlyCollection);
+            when(feeLedgerService.getTotals(eq(TENANT_ID), any(LocalDate.class), any(LocalDate.class)))
+                    .thenReturn(new FeeLedgerService.Totals(totalCollected, totalPending, overdueCount, monthlyCollection));
 
             // Act
             Map<String, Object> report = feeService.getCollectionReport();
@@ -249,21 +290,15 @@ class FeeServiceTest {
             assertEquals(totalPending, report.get("totalPending"));
             assertEquals(overdueCount, report.get("overdueCount"));
             assertEquals(monthlyCollection, report.get("monthlyCollection"));
+            verifyNoInteractions(feePaymentRepository);
         }
 
         @Test
-        @DisplayName("should return zero defaults when repository returns nulls")
+        @DisplayName("should return zero defaults when the ledger is empty")
         void getCollectionReport_withNullValues_shouldReturnZeroDefaults() {
             // Arrange
-            when(feePaymentRepository.getTotalCollectedByTenant(TENANT_ID))
-                    .thenReturn(null);
-            when(feePaymentRepository.getTotalPendingByTenant(TENANT_ID))
-                    .thenReturn(null);
-            when(feePaymentRepository.countOverdueByTenant(TENANT_ID))
-                    .thenReturn(null);
-            when(feePaymentRepository.getCollectionBetweenDates(
-                    eq(TENANT_ID), any(LocalDate.class), any(LocalDate.class)))
-                    .thenReturn(null);
+            when(feeLedgerService.getTotals(eq(TENANT_ID), any(LocalDate.class), any(LocalDate.class)))
+                    .thenReturn(new FeeLedgerService.Totals(null, null, null, null));
 
             // Act
             Map<String, Object> report = feeService.getCollectionReport();
@@ -283,22 +318,15 @@ class FeeServiceTest {
             LocalDate expectedMonthStart = LocalDate.now().withDayOfMonth(1);
             LocalDate expectedMonthEnd = LocalDate.now();
 
-            when(feePaymentRepository.getTotalCollectedByTenant(TENANT_ID))
-                    .thenReturn(BigDecimal.ZERO);
-            when(feePaymentRepository.getTotalPendingByTenant(TENANT_ID))
-                    .thenReturn(BigDecimal.ZERO);
-            when(feePaymentRepository.countOverdueByTenant(TENANT_ID))
-                    .thenReturn(0L);
-            when(feePaymentRepository.getCollectionBetweenDates(
-                    eq(TENANT_ID), eq(expectedMonthStart), eq(expectedMonthEnd)))
-                    .thenReturn(new BigDecimal("10000.00"));
+            when(feeLedgerService.getTotals(TENANT_ID, expectedMonthStart, expectedMonthEnd))
+                    .thenReturn(new FeeLedgerService.Totals(BigDecimal.ZERO, BigDecimal.ZERO, 0L,
+                            new BigDecimal("10000.00")));
 
             // Act
             Map<String, Object> report = feeService.getCollectionReport();
 
             // Assert
-            verify(feePaymentRepository).getCollectionBetweenDates(
-                    TENANT_ID, expectedMonthStart, expectedMonthEnd);
+            verify(feeLedgerService).getTotals(TENANT_ID, expectedMonthStart, expectedMonthEnd);
             assertEquals(new BigDecimal("10000.00"), report.get("monthlyCollection"));
         }
     }
@@ -315,10 +343,10 @@ class FeeServiceTest {
         @DisplayName("should return all payments for a specific student")
         void getStudentPayments_shouldReturnStudentSpecificPayments() {
             // Arrange
-            FeePayment payment1 = FeePayment.builder()
+            FeePaymentSummary payment1 = FeePaymentSummary.builder()
                     .id(UUID.randomUUID())
-                    .tenantId(TENANT_ID)
-                    .feeStructure(feeStructure)
+                    .feeStructureId(feeStructure.getId())
+                    .feeTypeName(tuitionFeeType.getName())
                     .studentId(STUDENT_ID)
                     .studentName(STUDENT_NAME)
                     .amountPaid(new BigDecimal("5000.00"))
@@ -329,10 +357,10 @@ class FeeServiceTest {
                     .paymentDate(LocalDate.now().minusDays(30))
                     .build();
 
-            FeePayment payment2 = FeePayment.builder()
+            FeePaymentSummary payment2 = FeePaymentSummary.builder()
                     .id(UUID.randomUUID())
-                    .tenantId(TENANT_ID)
-                    .feeStructure(feeStructure)
+                    .feeStructureId(feeStructure.getId())
+                    .feeTypeName(tuitionFeeType.getName())
                     .studentId(STUDENT_ID)
                     .studentName(STUDENT_NAME)
                     .amountPaid(new BigDecimal("3000.00"))
@@ -344,11 +372,11 @@ class FeeServiceTest {
                     .paymentDate(LocalDate.now().minusDays(5))
                     .build();
 
-            when(feePaymentRepository.findByTenantIdAndStudentId(TENANT_ID, STUDENT_ID))
+            when(feePaymentRepository.findSummariesByStudent(TENANT_ID, STUDENT_ID))
                     .thenReturn(List.of(payment1, payment2));
 
             // Act
-            List<FeePayment> payments = feeService.getStudentPayments(STUDENT_ID);
+            List<FeePaymentSummary> payments = feeService.getStudentPayments(STUDENT_ID);
 
             // Assert
             assertNotNull(payments);
@@ -359,14 +387,14 @@ class FeeServiceTest {
                     "All payments should belong to the requested student");
 
             // Verify payment details
-            FeePayment paidPayment = payments.stream()
+            FeePaymentSummary paidPayment = payments.stream()
                     .filter(p -> p.getPaymentStatus() == FeePayment.PaymentStatus.PAID)
                     .findFirst()
                     .orElseThrow();
             assertEquals(new BigDecimal("5000.00"), paidPayment.getAmountPaid());
             assertEquals(FeePayment.PaymentMode.CASH, paidPayment.getPaymentMode());
 
-            FeePayment partialPayment = payments.stream()
+            FeePaymentSummary partialPayment = payments.stream()
                     .filter(p -> p.getPaymentStatus() == FeePayment.PaymentStatus.PARTIAL)
                     .findFirst()
                     .orElseThrow();
@@ -379,11 +407,11 @@ class FeeServiceTest {
         void getStudentPayments_withNoPayments_shouldReturnEmptyList() {
             // Arrange
             UUID newStudentId = UUID.randomUUID();
-            when(feePaymentRepository.findByTenantIdAndStudentId(TENANT_ID, newStudentId))
+            when(feePaymentRepository.findSummariesByStudent(TENANT_ID, newStudentId))
                     .thenReturn(Collections.emptyList());
 
             // Act
-            List<FeePayment> payments = feeService.getStudentPayments(newStudentId);
+            List<FeePaymentSummary> payments = feeService.getStudentPayments(newStudentId);
 
             // Assert
             assertNotNull(payments);
@@ -394,14 +422,14 @@ class FeeServiceTest {
         @DisplayName("should query with correct tenant ID from context")
         void getStudentPayments_shouldUseTenantIdFromContext() {
             // Arrange
-            when(feePaymentRepository.findByTenantIdAndStudentId(TENANT_ID, STUDENT_ID))
+            when(feePaymentRepository.findSummariesByStudent(TENANT_ID, STUDENT_ID))
                     .thenReturn(Collections.emptyList());
 
             // Act
             feeService.getStudentPayments(STUDENT_ID);
 
             // Assert
-            verify(feePaymentRepository).findByTenantIdAndStudentId(TENANT_ID, STUDENT_ID);
+            verify(feePaymentRepository).findSummariesByStudent(TENANT_ID, STUDENT_ID);
         }
     }
 
@@ -417,10 +445,10 @@ class FeeServiceTest {
         @DisplayName("should return only pending, partial, and overdue fees for a student")
         void getStudentPendingFees_shouldReturnOnlyOutstandingFees() {
             // Arrange
-            FeePayment pendingPayment = FeePayment.builder()
+            FeePaymentSummary pendingPayment = FeePaymentSummary.builder()
                     .id(UUID.randomUUID())
-                    .tenantId(TENANT_ID)
-                    .feeStructure(feeStructure)
+                    .feeStructureId(feeStructure.getId())
+                    .feeTypeName(tuitionFeeType.getName())
                     .studentId(STUDENT_ID)
                     .amountPaid(BigDecimal.ZERO)
                     .totalAmount(new BigDecimal("5000.00"))
@@ -428,10 +456,10 @@ class FeeServiceTest {
                     .paymentStatus(FeePayment.PaymentStatus.PENDING)
                     .build();
 
-            FeePayment overduePayment = FeePayment.builder()
+            FeePaymentSummary overduePayment = FeePaymentSummary.builder()
                     .id(UUID.randomUUID())
-                    .tenantId(TENANT_ID)
-                    .feeStructure(feeStructure)
+                    .feeStructureId(feeStructure.getId())
+                    .feeTypeName(tuitionFeeType.getName())
                     .studentId(STUDENT_ID)
                     .amountPaid(BigDecimal.ZERO)
                     .totalAmount(new BigDecimal("3000.00"))
@@ -439,12 +467,12 @@ class FeeServiceTest {
                     .paymentStatus(FeePayment.PaymentStatus.OVERDUE)
                     .build();
 
-            when(feePaymentRepository.findByTenantIdAndStudentIdAndPaymentStatusIn(
+            when(feePaymentRepository.findSummariesByStudentAndStatusIn(
                     eq(TENANT_ID), eq(STUDENT_ID), anyList()))
                     .thenReturn(List.of(pendingPayment, overduePayment));
 
             // Act
-            List<FeePayment> pendingFees = feeService.getStudentPendingFees(STUDENT_ID);
+            List<FeePaymentSummary> pendingFees = feeService.getStudentPendingFees(STUDENT_ID);
 
             // Assert
             assertNotNull(pendingFees);
@@ -520,22 +548,22 @@ class FeeServiceTest {
         @DisplayName("should return only overdue payments for the tenant")
         void getOverduePayments_shouldReturnOverdueOnly() {
             // Arrange
-            FeePayment overduePayment = FeePayment.builder()
+            FeePaymentSummary overduePayment = FeePaymentSummary.builder()
                     .id(UUID.randomUUID())
-                    .tenantId(TENANT_ID)
-                    .feeStructure(feeStructure)
+                    .feeStructureId(feeStructure.getId())
+                    .feeTypeName(tuitionFeeType.getName())
                     .studentId(STUDENT_ID)
                     .amountPaid(BigDecimal.ZERO)
                     .totalAmount(new BigDecimal("5000.00"))
                     .paymentStatus(FeePayment.PaymentStatus.OVERDUE)
                     .build();
 
-            when(feePaymentRepository.findByTenantIdAndPaymentStatus(
+            when(feePaymentRepository.findSummariesByStatus(
                     TENANT_ID, FeePayment.PaymentStatus.OVERDUE))
                     .thenReturn(List.of(overduePayment));
 
             // Act
-            List<FeePayment> overduePayments = feeService.getOverduePayments();
+            List<FeePaymentSummary> overduePayments = feeService.getOverduePayments();
 
             // Assert
             assertNotNull(overduePayments);
@@ -0,0 +1,287 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.request.GradeAnalyticsRequest;
+import com.schoolmgmt.dto.request.GradeAnalyticsRequest.Dimension;
+import com.schoolmgmt.dto.request.MarksEntryRequest;
+import com.schoolmgmt.dto.response.GradeAnalyticsResponse;
+import com.schoolmgmt.event.ExamResultsChangedEvent;
+import com.schoolmgmt.event.ExamUpdatedEvent;
+import com.schoolmgmt.model.Exam;
+import com.schoolmgmt.model.ExamType;
+import com.schoolmgmt.model.GradeAggregate;
+import com.schoolmgmt.repository.ExamRepository;
+import com.schoolmgmt.repository.ExamResultRepository;
+import com.schoolmgmt.repository.ExamTypeRepository;
+import com.schoolmgmt.repository.GradeAggregateRepository;
+import com.schoolmgmt.util.TenantContext;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the grade analytics cube against a real database, with marks entered through {@link ExamService}
+ * so the aggregates are refreshed by its change events once the marks commit.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class GradeAnalyticsServiceTest {
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private ExamResultRepository resultRepository;
+
+    @Autowired
+    private ExamTypeRepository examTypeRepository;
+
+    @Autowired
+    private GradeAggregateRepository aggregateRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ExamService examService;
+    private GradeAnalyticsService analyticsService;
+    private TransactionTemplate transaction;
+
+    // Marks commit, so each test keeps to its own tenant
+    private String tenantId;
+    private final UUID classA = UUID.randomUUID();
+    private final UUID classB = UUID.randomUUID();
+    private final UUID maths = UUID.randomUUID();
+    private final UUID science = UUID.randomUUID();
+    private final List<UUID> students = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+    private Exam classBMaths;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = UUID.randomUUID().toString();
+        TenantContext.setCurrentTenant(tenantId);
+        transaction = new TransactionTemplate(transactionManager);
+        analyticsService = new GradeAnalyticsService(aggregateRepository, examRepository, resultRepository,
+                transactionManager);
+        // Delivered after commit, like the transactional event listener
+        examService = new ExamService(examRepository, resultRepository, examTypeRepository,
+                event -> TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        if (event instanceof ExamUpdatedEvent updated) {
+                            analyticsService.onExamUpdated(updated);
+                        } else {
+                            analyticsService.onExamResultsChanged((ExamResultsChangedEvent) event);
+                        }
+                    }
+                }));
+
+        ExamType unitTest = examTypeRepository.save(ExamType.builder().tenantId(tenantId).name("Unit Test").build());
+        ExamType term = examTypeRepository.save(ExamType.builder().tenantId(tenantId).name("Term").build());
+
+        Exam classAMaths = exam("Maths Unit 1", unitTest, classA, maths, "Mathematics", LocalDate.of(2026, 7, 10));
+        classBMaths = exam("Maths Term 1", term, classB, maths, "Mathematics", LocalDate.of(2026, 9, 15));
+        Exam classAScience = exam("Science Term 1", term, classA, science, "Science", LocalDate.of(2026, 9, 20));
+
+        marks(classAMaths, 40.0, 60.0, 80.0, null);
+        marks(classBMaths, 20.0, 50.0);
+        marks(classAScience, 90.0, 70.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should roll up exams by subject with weighted averages and spread")
+    void analyze_GroupsBySubject() {
+        GradeAnalyticsResponse response = analyticsService.analyze(
+                GradeAnalyticsRequest.builder().groupBy(List.of(Dimension.SUBJECT)).build());
+
+        assertEquals(2, response.getCells().size());
+        GradeAnalyticsResponse.Cell mathematics = response.getCells().get(0);
+        assertEquals(maths, mathematics.getSubjectId());
+        assertEquals("Mathematics", mathematics.getSubjectName());
+        assertNull(mathematics.getClassId());
+        assertEquals(2, mathematics.getExams());
+        assertEquals(6, mathematics.getStudents());
+        assertEquals(5, mathematics.getAppeared());
+        assertEquals(4, mathematics.getPassed());
+        assertEquals(1, mathematics.getFailed());
+        assertEquals(50.0, mathematics.getAveragePercentage());
+        assertEquals(80.0, mathematics.getPassPercentage());
+        assertEquals(20.0, mathematics.getStandardDeviation());
+        assertEquals(20.0, mathematics.getLowestPercentage());
+        assertEquals(80.0, mathematics.getHighestPercentage());
+        assertEquals(LocalDate.of(2026, 7, 10), mathematics.getFirstExamDate());
+        assertEquals(LocalDate.of(2026, 9, 15), mathematics.getLastExamDate());
+
+        GradeAnalyticsResponse.Cell sci = response.getCells().get(1);
+        assertEquals(80.0, sci.getAveragePercentage());
+        assertEquals(10.0, sci.getStandardDeviation());
+
+        assertEquals(3, response.getTotal().getExams());
+        assertEquals(7, response.getTotal().getAppeared());
+        assertEquals(58.57, response.getTotal().getAveragePercentage());
+    }
+
+    @Test
+    @DisplayName("Should slice by class and dice by exam type and month")
+    void analyze_FiltersAndGroupsByManyDimensions() {
+        GradeAnalyticsResponse response = analyticsService.analyze(GradeAnalyticsRequest.builder()
+                .classId(classA)
+                .groupBy(List.of(Dimension.EXAM_TYPE, Dimension.MONTH))
+                .build());
+
+        assertEquals(2, response.getCells().size());
+        assertEquals("Unit Test", response.getCells().get(0).getExamTypeName());
+        assertEquals("2026-07", response.getCells().get(0).getMonth());
+        assertEquals(60.0, response.getCells().get(0).getAveragePercentage());
+        assertEquals("Term", response.getCells().get(1).getExamTypeName());
+        assertEquals("2026-09", response.getCells().get(1).getMonth());
+        assertEquals(80.0, response.getCells().get(1).getAveragePercentage());
+
+        GradeAnalyticsResponse none = analyticsService.analyze(GradeAnalyticsRequest.builder()
+                .classId(classA).fromDate(LocalDate.of(2027, 1, 1)).build());
+        assertEquals(0, none.getTotal().getExams());
+        assertNull(none.getTotal().getAveragePercentage());
+    }
+
+    @Test
+    @DisplayName("Should refresh only the changed exam when marks are corrected")
+    void upsertMarks_RefreshesAggregateIncrementally() {
+        transaction.executeWithoutResult(status -> examService.upsertMarks(classBMaths.getId(),
+                List.of(MarksEntryRequest.builder().studentId(students.get(0)).studentName("Student 0")
+                        .marksObtained(80.0).build()), "teacher"));
+
+        GradeAnalyticsResponse response = analyticsService.analyze(GradeAnalyticsRequest.builder()
+                .subjectId(maths).build());
+
+        assertEquals(62.0, response.getTotal().getAveragePercentage());
+        assertEquals(5, response.getTotal().getPassed());
+        assertEquals(0, response.getTotal().getFailed());
+        assertEquals(3, aggregateRepository.countByTenantId(tenantId));
+    }
+
+    @Test
+    @DisplayName("Should carry an edited exam's name and date over to its aggregate")
+    void updateExam_RefreshesAggregateDimensions() {
+        transaction.executeWithoutResult(status -> examService.updateExam(classBMaths.getId(),
+                Exam.builder().name("Maths Term 1 (retake)").examDate(LocalDate.of(2026, 10, 2)).build()));
+
+        GradeAnalyticsResponse response = analyticsService.analyze(GradeAnalyticsRequest.builder()
+                .classId(classB).groupBy(List.of(Dimension.EXAM, Dimension.MONTH)).build());
+
+        assertEquals(1, response.getCells().size());
+        assertEquals("Maths Term 1 (retake)", response.getCells().get(0).getExamName());
+        assertEquals("2026-10", response.getCells().get(0).getMonth());
+        assertEquals(35.0, response.getCells().get(0).getAveragePercentage());
+    }
+
+    @Test
+    @DisplayName("Should keep one up-to-date row when refreshes of a new exam race")
+    void onExamResultsChanged_ConcurrentFirstRefreshes() throws Exception {
+        ExamType quiz = examTypeRepository.save(ExamType.builder().tenantId(tenantId).name("Quiz").build());
+        Exam exam = exam("Maths Quiz", quiz, classA, maths, "Mathematics", LocalDate.of(2026, 10, 5));
+        ExamService silent = new ExamService(examRepository, resultRepository, examTypeRepository, event -> { });
+        transaction.executeWithoutResult(status -> silent.upsertMarks(exam.getId(), List.of(
+                MarksEntryRequest.builder().studentId(students.get(0)).studentName("Student 0").marksObtained(30.0).build(),
+                MarksEntryRequest.builder().studentId(students.get(1)).studentName("Student 1").marksObtained(90.0).build()),
+                "teacher"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> refreshes = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                refreshes.add(executor.submit(() -> {
+                    start.await();
+                    analyticsService.onExamResultsChanged(new ExamResultsChangedEvent(tenantId, exam.getId()));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> refresh : refreshes) {
+                refresh.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<GradeAggregate> rows = aggregateRepository.findByTenantIdAndExamIdIn(tenantId, List.of(exam.getId()));
+        assertEquals(1, rows.size());
+        assertEquals(2, rows.get(0).getAppeared());
+        assertEquals(120.0, rows.get(0).getPercentageSum());
+    }
+
+    @Test
+    @DisplayName("Should answer dashboards from the aggregates in a single statement")
+    void analyze_ReadsOnlyAggregates() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        analyticsService.analyze(GradeAnalyticsRequest.builder()
+                .academicYear("2026-27").groupBy(List.of(Dimension.CLASS, Dimension.SUBJECT)).build());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityStatistics("com.schoolmgmt.model.ExamResult").getLoadCount());
+    }
+
+    @Test
+    @DisplayName("Should rebuild the cube from all results")
+    void rebuild_RecreatesAggregates() {
+        transaction.executeWithoutResult(status -> aggregateRepository.deleteByTenantId(tenantId));
+
+        Long rebuilt = transaction.execute(status -> analyticsService.rebuild());
+        assertEquals(3L, rebuilt);
+
+        GradeAnalyticsResponse response = analyticsService.analyze(GradeAnalyticsRequest.builder().build());
+        assertEquals(3, response.getTotal().getExams());
+        assertEquals(58.57, response.getTotal().getAveragePercentage());
+    }
+
+    private Exam exam(String name, ExamType type, UUID classId, UUID subjectId, String subjectName, LocalDate date) {
+        return examRepository.save(Exam.builder().tenantId(tenantId).name(name).examType(type).classId(classId)
+                .subjectId(subjectId).subjectName(subjectName).examDate(date).academicYear("2026-27").build());
+    }
+
+    /**
+     * Enters marks for the first students in order; null marks the student absent.
+     */
+    private void marks(Exam exam, Double... marks) {
+        List<MarksEntryRequest> sheet = new ArrayList<>();
+        for (int i = 0; i < marks.length; i++) {
+            sheet.add(MarksEntryRequest.builder().studentId(students.get(i)).studentName("Student " + i)
+                    .marksObtained(marks[i]).isAbsent(marks[i] == null).build());
+        }
+        transaction.executeWithoutResult(status -> examService.upsertMarks(exam.getId(), sheet, "teacher"));
+    }
+}
@@ -0,0 +1,212 @@
+package com.schoolmgmt.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolmgmt.exception.BusinessException;
+import com.schoolmgmt.service.IdempotencyService.Execution;
+import com.schoolmgmt.service.IdempotencyService.StoredResponse;
+import com.schoolmgmt.util.IdempotencyFilter;
+import com.schoolmgmt.util.TenantContext;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock private RedisTemplate<String, String> redisTemplate;
+    @Mock private ValueOperations<String, String> valueOperations;
+
+    private static final String TENANT_ID = "TEN001";
+    private static final String FINGERPRINT = "POST /api/fees/payment";
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(valueOperations.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        lenient().doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        lenient().when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(invocation -> redis.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null);
+        lenient().when(redisTemplate.delete(anyString())).thenAnswer(invocation -> redis.remove(invocation.<String>getArgument(0)) != null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should run concurrent duplicates once and hand every caller the same response")
+    void execute_ConcurrentDuplicates_RunOnce() throws Exception {
+        IdempotencyService service = service();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IdempotencyService.Action action = () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return response(201, "receipt-1");
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<Execution> first = executor.submit(() -> service.execute(TENANT_ID, "key-1", "admin", FINGERPRINT, action));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            List<Future<Execution>> duplicates = List.of(
+                    executor.submit(() -> service.execute(TENANT_ID, "key-1", "admin", FINGERPRINT, action)),
+                    executor.submit(() -> service.execute(TENANT_ID, "key-1", "admin", FINGERPRINT, action)),
+                    executor.submit(() -> service.execute(TENANT_ID, "key-1", "admin", FINGERPRINT, action)));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertFalse(first.get(5, TimeUnit.SECONDS).replayed());
+            for (Future<Execution> duplicate : duplicates) {
+                Execution execution = duplicate.get(5, TimeUnit.SECONDS);
+                assertTrue(execution.replayed());
+                assertEquals(201, execution.response().status());
+                assertEquals("receipt-1", new String(execution.response().body(), StandardCharsets.UTF_8));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, runs.get());
+        assertFalse(redis.containsKey(IdempotencyService.KEY_PREFIX + TENANT_ID + ":key-1:lock"));
+    }
+
+    @Test
+    @DisplayName("Should replay a stored response on another node and keep keys apart per tenant")
+    void execute_StoredResponse_ReplayedAcrossNodesPerTenant() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        IdempotencyService.Action action = () -> response(201, "receipt-" + runs.incrementAndGet());
+
+        service().execute(TENANT_ID, "key-1", "admin", FINGERPRINT, action);
+        Execution retry = service().execute(TENANT_ID, "key-1", "admin", FINGERPRINT, action);
+        Execution otherTenant = service().execute("TEN002", "key-1", "admin", FINGERPRINT, action);
+
+        assertTrue(retry.replayed());
+        assertEquals("receipt-1", new String(retry.response().body(), StandardCharsets.UTF_8));
+        assertFalse(otherTenant.replayed());
+        assertEquals(2, runs.get());
+        verify(valueOperations).set(eq(IdempotencyService.KEY_PREFIX + TENANT_ID + ":key-1"), anyString(),
+                eq(Duration.ofHours(24)));
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused for another endpoint or by another caller")
+    void execute_KeyReusedForDifferentRequest_Rejected() throws Exception {
+        IdempotencyService service = service();
+        service.execute(TENANT_ID, "key-1", "admin", FINGERPRINT, () -> response(201, "receipt-1"));
+
+        BusinessException otherEndpoint = assertThrows(BusinessException.class, () ->
+                service.execute(TENANT_ID, "key-1", "admin", "POST /api/payments", () -> response(201, "x")));
+        BusinessException otherCaller = assertThrows(BusinessException.class, () ->
+                service.execute(TENANT_ID, "key-1", "accountant", FINGERPRINT, () -> response(201, "x")));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, otherEndpoint.getStatus());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, otherCaller.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should run a retry again after a server error, and without Redis still run it")
+    void execute_ServerErrorOrRedisDown_RunsAgain() throws Exception {
+        IdempotencyService service = service();
+        AtomicInteger runs = new AtomicInteger();
+
+        Execution failed = service.execute(TENANT_ID, "key-1", "admin", FINGERPRINT, () -> {
+            runs.incrementAndGet();
+            return response(500, "error");
+        });
+        Execution retried = service.execute(TENANT_ID, "key-1", "admin", FINGERPRINT, () -> {
+            runs.incrementAndGet();
+            return response(201, "receipt-1");
+        });
+
+        assertFalse(failed.replayed());
+        assertFalse(retried.replayed());
+        assertEquals(2, runs.get());
+
+        when(redisTemplate.opsForValue()).thenThrow(new RedisConnectionFailureException("down"));
+        Execution withoutRedis = service.execute(TENANT_ID, "key-2", "admin", FINGERPRINT, () -> response(201, "receipt-2"));
+        assertEquals(201, withoutRedis.response().status());
+    }
+
+    @Test
+    @DisplayName("Should pass the first POST through the filter and replay it to the retry")
+    void filter_RetriedPost_Replayed() throws Exception {
+        IdempotencyFilter filter = new IdempotencyFilter(service(), objectMapper, List.of("/api/payments/**", "/api/fees/**"));
+        TenantContext.setCurrentTenant(TENANT_ID);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("admin", null, List.of()));
+        AtomicInteger handled = new AtomicInteger();
+        HttpServlet controller = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.setStatus(201);
+                response.setContentType("application/json");
+                response.getWriter().write("{\"receipt\":\"RCP-" + handled.incrementAndGet() + "\"}");
+            }
+        };
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(post("key-1"), first, new MockFilterChain(controller));
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+        filter.doFilter(post("key-1"), retry, new MockFilterChain(controller));
+        MockHttpServletResponse blankKey = new MockHttpServletResponse();
+        filter.doFilter(post(" "), blankKey, new MockFilterChain(controller));
+
+        assertEquals(1, handled.get());
+        assertEquals(201, first.getStatus());
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(201, retry.getStatus());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals("application/json", retry.getContentType());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals(400, blankKey.getStatus());
+    }
+
+    private IdempotencyService service() {
+        return new IdempotencyService(redisTemplate, objectMapper, 24, 5);
+    }
+
+    private static StoredResponse response(int status, String body) {
+        return new StoredResponse(status, "text/plain", body.getBytes(StandardCharsets.UTF_8), "admin", FINGERPRINT);
+    }
+
+    private static MockHttpServletRequest post(String key) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/fees/payment");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        return request;
+    }
+}
@@ -0,0 +1,126 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.response.LeaveRequestSummary;
+import com.schoolmgmt.model.LeaveBalance;
+import com.schoolmgmt.model.LeaveRequest;
+import com.schoolmgmt.model.LeaveType;
+import com.schoolmgmt.repository.LeaveBalanceRepository;
+import com.schoolmgmt.repository.LeaveRequestRepository;
+import com.schoolmgmt.repository.LeaveTypeRepository;
+import com.schoolmgmt.util.TenantContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Guards the leave listings against loading leave types row by row.
+ */
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class LeaveServiceQueryCountTest {
+
+    @Autowired
+    private LeaveTypeRepository leaveTypeRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private LeaveService leaveService;
+
+    private static final String TENANT_ID = "TEN001";
+    private static final String ACADEMIC_YEAR = "2026-2027";
+    private static final List<String> LEAVE_TYPES = List.of("SICK", "CASUAL", "EARNED", "MATERNITY", "UNPAID");
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setCurrentTenant(TENANT_ID);
+        leaveService = new LeaveService(leaveTypeRepository, leaveRequestRepository, leaveBalanceRepository,
+                mock(ApplicationEventPublisher.class));
+
+        for (int t = 0; t < LEAVE_TYPES.size(); t++) {
+            LeaveType leaveType = leaveTypeRepository.save(LeaveType.builder().tenantId(TENANT_ID)
+                    .name(LEAVE_TYPES.get(t)).build());
+            leaveBalanceRepository.save(LeaveBalance.builder().tenantId(TENANT_ID).userId("teacher-0")
+                    .leaveType(leaveType).academicYear(ACADEMIC_YEAR).totalAllocated(10).build());
+            for (int i = 0; i < 8; i++) {
+                LocalDate start = LocalDate.of(2026, 6, 1).plusDays(t * 10L + i);
+                leaveRequestRepository.save(LeaveRequest.builder().tenantId(TENANT_ID).leaveType(leaveType)
+                        .userId("teacher-" + (i % 4)).userName("Teacher " + (i % 4))
+                        .startDate(start).endDate(start).reason("Leave " + i)
+                        .status(i % 2 == 0 ? LeaveRequest.LeaveStatus.PENDING : LeaveRequest.LeaveStatus.APPROVED)
+                        .build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should list leave requests with leave type names in one query per listing")
+    void leaveListings_ConstantQueries() {
+        Statistics statistics = statistics();
+
+        List<LeaveRequestSummary> mine = leaveService.getMyLeaves("teacher-0");
+        List<LeaveRequestSummary> pending = leaveService.getPendingApprovals();
+        Page<LeaveRequestSummary> page = leaveService.getAllLeaveRequests(
+                PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        assertEquals(10, mine.size());
+        assertEquals(20, pending.size());
+        assertEquals(40, page.getContent().size());
+        assertTrue(page.getContent().stream().allMatch(request -> LEAVE_TYPES.contains(request.getLeaveTypeName())));
+        // The count query is skipped for a complete first page
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should fetch leave balances with their leave types in one query")
+    void getLeaveBalance_FetchesLeaveTypesInOneQuery() {
+        Statistics statistics = statistics();
+
+        List<LeaveBalance> balances = leaveService.getLeaveBalance("teacher-0", ACADEMIC_YEAR);
+
+        assertEquals(5, balances.size());
+        assertTrue(balances.stream().allMatch(balance -> Hibernate.isInitialized(balance.getLeaveType())));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -1,5 +1,6 @@
 package com.schoolmgmt.service;
 
+import com.schoolmgmt.event.LeaveStatusChangedEvent;
 import com.schoolmgmt.model.LeaveBalance;
 import com.schoolmgmt.model.LeaveRequest;
 import com.schoolmgmt.model.LeaveType;
@@ -17,6 +18,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -46,6 +48,9 @@ class LeaveServiceTest {
     @Mock
     private LeaveBalanceRepository leaveBalanceRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private MockedStatic<TenantContext> tenantContextMock;
 
     private static final String TENANT_ID = UUID.randomUUID().toString();
@@ -273,6 +278,7 @@ class LeaveServiceTest {
             verify(leaveBalanceRepository).save(argThat(b ->
                     b.getUsed() == 5));
             verify(leaveRequestRepository).save(any(LeaveRequest.class));
+            verify(eventPublisher).publishEvent(any(LeaveStatusChangedEvent.class));
         }
 
         @Test
@@ -339,6 +345,7 @@ class LeaveServiceTest {
             verify(leaveRequestRepository).save(any(LeaveRequest.class));
             // Balance should NOT be updated on rejection
             verify(leaveBalanceRepository, never()).save(any());
+            verify(eventPublisher, never()).publishEvent(any());
         }
 
         @Test
@@ -435,6 +442,8 @@ class LeaveServiceTest {
             assertEquals(LeaveRequest.LeaveStatus.CANCELLED, result.getStatus());
             // Balance should be restored: used goes from 5 to 5 - 3 = 2
             verify(leaveBalanceRepository).save(argThat(b -> b.getUsed() == 2));
+            verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof LeaveStatusChangedEvent changed
+                    && changed.getStatus() == LeaveRequest.LeaveStatus.CANCELLED));
         }
 
         @Test
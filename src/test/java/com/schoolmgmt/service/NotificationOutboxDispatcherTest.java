@@ -0,0 +1,238 @@
+package com.schoolmgmt.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolmgmt.event.NotificationQueuedEvent;
+import com.schoolmgmt.model.FcmToken;
+import com.schoolmgmt.model.NotificationLog;
+import com.schoolmgmt.model.NotificationLog.NotificationStatus;
+import com.schoolmgmt.model.NotificationOutbox;
+import com.schoolmgmt.model.NotificationOutbox.OutboxStatus;
+import com.schoolmgmt.repository.FcmTokenRepository;
+import com.schoolmgmt.repository.NotificationLogRepository;
+import com.schoolmgmt.repository.NotificationOutboxRepository;
+import com.schoolmgmt.repository.NotificationTemplateRepository;
+import com.schoolmgmt.service.PushNotificationSender.PushResult;
+import com.schoolmgmt.util.TenantContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Queues notifications through the outbox against a real database and drains it with a stubbed push sender,
+ * covering delivery, retries with backoff, dead-lettering and claims left behind by a dead dispatcher.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationOutboxDispatcherTest {
+
+    @Autowired private NotificationOutboxRepository outboxRepository;
+    @Autowired private NotificationLogRepository notificationLogRepository;
+    @Autowired private NotificationTemplateRepository notificationTemplateRepository;
+    @Autowired private FcmTokenRepository fcmTokenRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private final PushNotificationSender pushSender = mock(PushNotificationSender.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NotificationService notificationService;
+    private NotificationOutboxDispatcher dispatcher;
+    private TransactionTemplate transactionTemplate;
+    private String tenantId;
+    private String parent;
+    private String teacher;
+
+    @BeforeEach
+    void setUp() {
+        // Deliveries commit, so each test keeps to its own tenant and users, and drains only its own messages
+        outboxRepository.deleteAll();
+        tenantId = UUID.randomUUID().toString();
+        parent = "P-" + tenantId;
+        teacher = "T-" + tenantId;
+        TenantContext.setCurrentTenant(tenantId);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        notificationService = new NotificationService(notificationLogRepository, outboxRepository,
+                notificationTemplateRepository, eventPublisher);
+        dispatcher = new NotificationOutboxDispatcher(outboxRepository, notificationLogRepository, fcmTokenRepository,
+                pushSender, new ObjectMapper(), transactionManager, meterRegistry, 2, 2, 3, 60_000, 600_000, 120);
+        token(parent);
+        token(parent);
+        when(pushSender.send(anyList(), anyString(), anyString(), any())).thenAnswer(invocation ->
+                new PushResult(invocation.<List<?>>getArgument(0).size(), List.of(), 0, 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should queue with the caller's transaction and queue nothing when it rolls back")
+    void send_QueuedInCallersTransaction() {
+        NotificationLog queued = transactionTemplate.execute(status -> notificationService.sendToUser(parent,
+                "Fee due", "Term 2 fee is due", NotificationLog.NotificationType.FEE_REMINDER, null, "admin", "Admin"));
+        transactionTemplate.executeWithoutResult(status -> {
+            notificationService.sendToUser(parent, "Rolled back", "Never sent",
+                    NotificationLog.NotificationType.CUSTOM, null, "admin", "Admin");
+            status.setRollbackOnly();
+        });
+
+        assertEquals(NotificationStatus.PENDING, queued.getStatus());
+        assertEquals(1, outboxRepository.countByTenantIdAndStatus(tenantId, OutboxStatus.PENDING));
+        assertEquals(1, notificationLogRepository.findByTenantIdOrderByCreatedAtDesc(tenantId,
+                Pageable.unpaged()).getTotalElements());
+        verify(eventPublisher, times(2)).publishEvent(any(NotificationQueuedEvent.class));
+        verifyNoInteractions(pushSender);
+    }
+
+    @Test
+    @DisplayName("Should deliver queued messages in batches and record each outcome on its log")
+    void drain_DeliversBatchesAndUpdatesLogs() {
+        for (int i = 0; i < 5; i++) {
+            notificationService.sendToUser(parent, "Notice " + i, "Body", NotificationLog.NotificationType.ANNOUNCEMENT,
+                    null, "admin", "Admin");
+        }
+        NotificationLog noDevice = notificationService.sendToUser(teacher, "Notice", "Body",
+                NotificationLog.NotificationType.ANNOUNCEMENT, null, "admin", "Admin");
+
+        int claimed = dispatcher.drain();
+
+        assertEquals(6, claimed);
+        verify(pushSender, times(5)).send(argThat(tokens -> tokens.size() == 2), anyString(), eq("Body"), isNull());
+        assertEquals(5, outboxRepository.countByTenantIdAndStatus(tenantId, OutboxStatus.SENT));
+        assertEquals(1, outboxRepository.countByTenantIdAndStatus(tenantId, OutboxStatus.DEAD));
+        NotificationLog failed = notificationLogRepository.findById(noDevice.getId()).orElseThrow();
+        assertEquals(NotificationStatus.FAILED, failed.getStatus());
+        assertEquals("No active FCM tokens for user", failed.getErrorMessage());
+        assertEquals(5, notificationLogRepository.findByTenantIdOrderByCreatedAtDesc(tenantId,
+                Pageable.unpaged()).stream()
+                .filter(log -> log.getStatus() == NotificationStatus.SENT).count());
+        assertEquals(0, dispatcher.drain());
+    }
+
+    @Test
+    @DisplayName("Should retry failed deliveries with backoff and dead-letter after the last attempt")
+    void drain_FailingDelivery_RetriedThenDeadLettered() {
+        doThrow(new IllegalStateException("provider unavailable"))
+                .when(pushSender).send(anyList(), anyString(), anyString(), any());
+        NotificationLog notification = notificationService.sendToRole("ADMIN", "Emergency", "Fire drill",
+                NotificationLog.NotificationType.ANNOUNCEMENT, null, "admin", "Admin").get(0);
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.drain();
+        NotificationOutbox retry = message(notification.getId());
+        assertEquals(OutboxStatus.PENDING, retry.getStatus());
+        assertEquals(1, retry.getAttempts());
+        assertTrue(retry.getNextAttemptAt().isAfter(before.plusSeconds(29)));
+        assertTrue(retry.getNextAttemptAt().isBefore(before.plusSeconds(61)));
+        assertEquals(NotificationStatus.PENDING, notificationLogRepository.findById(notification.getId()).orElseThrow().getStatus());
+
+        // Not due yet
+        assertEquals(0, dispatcher.drain());
+
+        makeDue(notification.getId());
+        dispatcher.drain();
+        assertEquals(2, message(notification.getId()).getAttempts());
+
+        makeDue(notification.getId());
+        dispatcher.drain();
+        NotificationOutbox dead = message(notification.getId());
+        assertEquals(OutboxStatus.DEAD, dead.getStatus());
+        assertEquals(3, dead.getAttempts());
+        assertTrue(dead.getLastError().contains("provider unavailable"));
+        assertEquals(NotificationStatus.FAILED, notificationLogRepository.findById(notification.getId()).orElseThrow().getStatus());
+        verify(pushSender, times(3)).send(anyList(), anyString(), anyString(), any());
+        assertEquals(1.0, meterRegistry.counter("notifications.outbox.deliveries", "outcome", "dead").count());
+    }
+
+    @Test
+    @DisplayName("Should keep a partly delivered message pending and retry only the devices it missed")
+    void drain_PartialDelivery_RetriesRemainingDevicesOnly() {
+        String missed = fcmTokenRepository.findByUserIdAndIsActiveTrue(parent).get(1).getToken();
+        when(pushSender.send(anyList(), anyString(), anyString(), any()))
+                .thenReturn(new PushResult(1, List.of(missed), 0, 0))
+                .thenAnswer(invocation -> new PushResult(invocation.<List<?>>getArgument(0).size(), List.of(), 0, 0));
+        NotificationLog notification = notificationService.sendToUser(parent, "Fee due", "Body",
+                NotificationLog.NotificationType.FEE_REMINDER, null, "admin", "Admin");
+
+        dispatcher.drain();
+        NotificationOutbox retry = message(notification.getId());
+        assertEquals(OutboxStatus.PENDING, retry.getStatus());
+        assertEquals("[\"" + missed + "\"]", retry.getPendingTokens());
+        assertEquals(NotificationStatus.PENDING, notificationLogRepository.findById(notification.getId()).orElseThrow().getStatus());
+
+        makeDue(notification.getId());
+        dispatcher.drain();
+
+        NotificationOutbox sent = message(notification.getId());
+        assertEquals(OutboxStatus.SENT, sent.getStatus());
+        assertEquals(2, sent.getAttempts());
+        assertNull(sent.getPendingTokens());
+        verify(pushSender).send(argThat(tokens -> tokens.size() == 1 && tokens.get(0).getToken().equals(missed)),
+                anyString(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should take over messages whose claim lease ran out and leave live claims alone")
+    void drain_ExpiredLease_Reclaimed() {
+        NotificationLog abandoned = notificationService.sendToUser(parent, "Abandoned", "Body",
+                NotificationLog.NotificationType.CUSTOM, null, "admin", "Admin");
+        NotificationLog inFlight = notificationService.sendToUser(parent, "In flight", "Body",
+                NotificationLog.NotificationType.CUSTOM, null, "admin", "Admin");
+        claimElsewhere(abandoned.getId(), LocalDateTime.now().minusSeconds(1));
+        claimElsewhere(inFlight.getId(), LocalDateTime.now().plusMinutes(2));
+
+        dispatcher.drain();
+
+        assertEquals(OutboxStatus.SENT, message(abandoned.getId()).getStatus());
+        assertEquals(OutboxStatus.PROCESSING, message(inFlight.getId()).getStatus());
+        verify(pushSender, times(1)).send(anyList(), eq("Abandoned"), anyString(), any());
+    }
+
+    private void token(String userId) {
+        fcmTokenRepository.save(FcmToken.builder()
+                .userId(userId)
+                .tenantId(tenantId)
+                .token(UUID.randomUUID().toString())
+                .deviceType(FcmToken.DeviceType.ANDROID)
+                .build());
+    }
+
+    private NotificationOutbox message(UUID notificationLogId) {
+        return outboxRepository.findAll().stream()
+                .filter(message -> message.getNotificationLogId().equals(notificationLogId))
+                .findFirst().orElseThrow();
+    }
+
+    private void makeDue(UUID notificationLogId) {
+        NotificationOutbox message = message(notificationLogId);
+        message.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxRepository.save(message);
+    }
+
+    private void claimElsewhere(UUID notificationLogId, LocalDateTime lockedUntil) {
+        NotificationOutbox message = message(notificationLogId);
+        message.setStatus(OutboxStatus.PROCESSING);
+        message.setClaimToken(UUID.randomUUID().toString());
+        message.setLockedUntil(lockedUntil);
+        outboxRepository.save(message);
+    }
+}
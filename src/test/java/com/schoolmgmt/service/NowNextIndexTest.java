@@ -0,0 +1,162 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.response.NowNextResponse;
+import com.schoolmgmt.event.TimetableChangedEvent;
+import com.schoolmgmt.model.Period;
+import com.schoolmgmt.model.TimetableEntry;
+import com.schoolmgmt.model.TimetableEntry.DayOfWeek;
+import com.schoolmgmt.model.TimetableSubstitution;
+import com.schoolmgmt.repository.TimetableRepository;
+import com.schoolmgmt.repository.TimetableSubstitutionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NowNextIndexTest {
+
+    @Mock
+    private TimetableRepository timetableRepository;
+
+    @Mock
+    private TimetableSubstitutionRepository substitutionRepository;
+
+    @Mock
+    private TimetableVersions timetableVersions;
+
+    private NowNextIndex nowNextIndex;
+
+    private static final String TENANT_ID = "TEN001";
+    private static final LocalDate MONDAY = LocalDate.of(2026, 10, 19);
+    private final Period first = period(1, 9, 0);
+    private final Period second = period(2, 10, 0);
+    private final UUID classId = UUID.randomUUID();
+    private final UUID teacherId = UUID.randomUUID();
+    private final UUID substituteId = UUID.randomUUID();
+    private TimetableEntry firstLesson;
+
+    @BeforeEach
+    void setUp() {
+        nowNextIndex = new NowNextIndex(timetableRepository, substitutionRepository, timetableVersions, 2000, 600);
+        firstLesson = entry(first, "Mathematics");
+        lenient().when(timetableRepository.findByTenantIdAndDayOfWeekAndIsActiveTrue(TENANT_ID, DayOfWeek.MONDAY))
+                .thenReturn(List.of(entry(second, "Science"), firstLesson));
+        lenient().when(substitutionRepository.findByTenantIdAndSubstitutionDate(eq(TENANT_ID), any())).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("Should return the current and next period of classes and teachers")
+    void lookup_DuringFirstPeriod() {
+        NowNextResponse response = nowNextIndex.lookup(TENANT_ID, MONDAY.atTime(9, 20));
+
+        assertEquals(1, response.getClasses().size());
+        NowNextResponse.ClassSchedule schedule = response.getClasses().get(0);
+        assertEquals("Mathematics", schedule.getCurrent().getSubjectName());
+        assertEquals("Science", schedule.getNext().getSubjectName());
+        assertEquals(teacherId, response.getTeachers().get(0).getTeacherId());
+        assertEquals(LocalTime.of(9, 0), response.getValidFrom());
+        assertEquals(LocalTime.of(9, 45), response.getValidUntil());
+    }
+
+    @Test
+    @DisplayName("Should report only the next period during a break and nothing current after school")
+    void lookup_BetweenAndAfterPeriods() {
+        NowNextResponse inBreak = nowNextIndex.lookup(TENANT_ID, MONDAY.atTime(9, 50));
+        NowNextResponse afterSchool = nowNextIndex.lookup(TENANT_ID, MONDAY.atTime(15, 0));
+
+        assertNull(inBreak.getClasses().get(0).getCurrent());
+        assertEquals("Science", inBreak.getClasses().get(0).getNext().getSubjectName());
+        assertTrue(afterSchool.getClasses().isEmpty());
+        assertNull(afterSchool.getValidUntil());
+    }
+
+    @Test
+    @DisplayName("Should reuse the answer within a period and reload at day rollover and on edits")
+    void lookup_ReusesAnswersAndRefreshes() {
+        NowNextResponse early = nowNextIndex.lookup(TENANT_ID, MONDAY.atTime(9, 5));
+        NowNextResponse late = nowNextIndex.lookup(TENANT_ID, MONDAY.atTime(9, 40));
+        assertSame(early, late);
+        verify(timetableRepository, times(1)).findByTenantIdAndDayOfWeekAndIsActiveTrue(TENANT_ID, DayOfWeek.MONDAY);
+
+        nowNextIndex.lookup(TENANT_ID, MONDAY.plusDays(1).atTime(9, 5));
+        verify(timetableRepository).findByTenantIdAndDayOfWeekAndIsActiveTrue(TENANT_ID, DayOfWeek.TUESDAY);
+
+        nowNextIndex.onTimetableChanged(new TimetableChangedEvent(TENANT_ID));
+        nowNextIndex.lookup(TENANT_ID, MONDAY.plusDays(1).atTime(9, 5));
+        verify(timetableRepository, times(2)).findByTenantIdAndDayOfWeekAndIsActiveTrue(TENANT_ID, DayOfWeek.TUESDAY);
+    }
+
+    @Test
+    @DisplayName("Should show today's substitute instead of the absent teacher")
+    void lookup_AppliesSubstitutions() {
+        when(substitutionRepository.findByTenantIdAndSubstitutionDate(TENANT_ID, MONDAY)).thenReturn(List.of(
+                TimetableSubstitution.builder().timetableEntryId(firstLesson.getId())
+                        .substituteTeacherId(substituteId).substituteTeacherName("Sub Teacher").build()));
+
+        NowNextResponse response = nowNextIndex.lookup(TENANT_ID, LocalDateTime.of(MONDAY, LocalTime.of(9, 10)));
+
+        NowNextResponse.Slot current = response.getClasses().get(0).getCurrent();
+        assertTrue(current.isSubstitute());
+        assertEquals(substituteId, current.getTeacherId());
+        assertEquals(2, response.getTeachers().size());
+    }
+
+    @Test
+    @DisplayName("Should reload once another node changed the timetable or today's cover")
+    void lookup_ChangedOnOtherNode_Reloaded() {
+        // Check the shared versions on every lookup
+        nowNextIndex = new NowNextIndex(timetableRepository, substitutionRepository, timetableVersions, 0, 600);
+        when(timetableVersions.current(TENANT_ID)).thenReturn(3L, 3L, 3L, 3L, 4L);
+        when(timetableVersions.currentSubstitutions(TENANT_ID)).thenReturn(1L, 1L, 2L);
+
+        nowNextIndex.lookup(TENANT_ID, MONDAY.atTime(9, 5));
+        nowNextIndex.lookup(TENANT_ID, MONDAY.atTime(9, 10));
+        verify(timetableRepository, times(1)).findByTenantIdAndDayOfWeekAndIsActiveTrue(TENANT_ID, DayOfWeek.MONDAY);
+
+        // Substitutions changed elsewhere
+        nowNextIndex.lookup(TENANT_ID, MONDAY.atTime(9, 15));
+        verify(timetableRepository, times(2)).findByTenantIdAndDayOfWeekAndIsActiveTrue(TENANT_ID, DayOfWeek.MONDAY);
+
+        // Timetable changed elsewhere
+        nowNextIndex.lookup(TENANT_ID, MONDAY.atTime(9, 20));
+        verify(timetableRepository, times(3)).findByTenantIdAndDayOfWeekAndIsActiveTrue(TENANT_ID, DayOfWeek.MONDAY);
+    }
+
+    @Test
+    @DisplayName("Should keep serving the schedule while Redis is unreachable")
+    void lookup_RedisDown_ServesSchedule() {
+        nowNextIndex = new NowNextIndex(timetableRepository, substitutionRepository, timetableVersions, 0, 600);
+        when(timetableVersions.current(TENANT_ID)).thenReturn(3L, (Long) null);
+        when(timetableVersions.currentSubstitutions(TENANT_ID)).thenReturn(1L, (Long) null);
+
+        nowNextIndex.lookup(TENANT_ID, MONDAY.atTime(9, 5));
+        nowNextIndex.lookup(TENANT_ID, MONDAY.atTime(9, 10));
+
+        verify(timetableRepository, times(1)).findByTenantIdAndDayOfWeekAndIsActiveTrue(TENANT_ID, DayOfWeek.MONDAY);
+    }
+
+    private Period period(int number, int hour, int minute) {
+        return Period.builder().id(UUID.randomUUID()).periodNumber(number).name("P" + number)
+                .startTime(LocalTime.of(hour, minute)).endTime(LocalTime.of(hour, minute + 45)).build();
+    }
+
+    private TimetableEntry entry(Period period, String subject) {
+        return TimetableEntry.builder().id(UUID.randomUUID()).tenantId(TENANT_ID).classId(classId).section("A")
+                .teacherId(teacherId).teacherName("Regular Teacher").subjectName(subject)
+                .dayOfWeek(DayOfWeek.MONDAY).period(period).build();
+    }
+}
@@ -0,0 +1,133 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.response.FamilyGraphResponse;
+import com.schoolmgmt.dto.response.ParentDashboardResponse;
+import com.schoolmgmt.dto.response.ParentResponse;
+import com.schoolmgmt.exception.BusinessException;
+import com.schoolmgmt.model.User;
+import com.schoolmgmt.util.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ParentDashboardServiceTest {
+
+    @Mock
+    private ParentService parentService;
+
+    @Mock
+    private AttendanceService attendanceService;
+
+    @Mock
+    private FeeService feeService;
+
+    @Mock
+    private ExamService examService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ParentDashboardService parentDashboardService;
+
+    private static final String TENANT_ID = "TEN001";
+    private final UUID parentId = UUID.randomUUID();
+    private final UUID studentId = UUID.randomUUID();
+    private final UUID classId = UUID.randomUUID();
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setCurrentTenant(TENANT_ID);
+        parentDashboardService = new ParentDashboardService(parentService, attendanceService, feeService,
+                examService, notificationService, transactionManager, 200);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        user = User.builder().userId("TEN00100001").referenceId(parentId.toString()).referenceType("PARENT").build();
+        ParentResponse.LinkedStudentInfo child = ParentResponse.LinkedStudentInfo.builder()
+                .id(studentId.toString())
+                .fullName("Asha Rao")
+                .currentClassId(classId.toString())
+                .relationship("child")
+                .build();
+        lenient().when(parentService.getFamilyGraphs(List.of(parentId))).thenReturn(List.of(FamilyGraphResponse.builder()
+                .parentId(parentId.toString())
+                .fullName("Ravi Rao")
+                .linkedStudents(List.of(child))
+                .build()));
+        lenient().when(attendanceService.getAttendancePercentage(studentId, null, null)).thenReturn(Map.of(
+                "startDate", LocalDate.now().minusMonths(1), "endDate", LocalDate.now(),
+                "totalDays", 20L, "presentDays", 18L, "absentDays", 1L, "lateDays", 1L,
+                "attendancePercentage", 90.0));
+        lenient().when(feeService.getStudentPendingFees(studentId)).thenReturn(List.of());
+        lenient().when(examService.getStudentResults(studentId)).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        parentDashboardService.shutdown();
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should gather every section of the dashboard")
+    void getDashboard_AllSections() {
+        when(examService.getUpcomingExamsByClass(classId)).thenReturn(List.of());
+        when(notificationService.getUnreadCount("TEN00100001")).thenReturn(3L);
+
+        ParentDashboardResponse dashboard = parentDashboardService.getDashboard(user);
+
+        assertFalse(dashboard.isPartial());
+        assertTrue(dashboard.getUnavailableSections().isEmpty());
+        assertEquals(1, dashboard.getChildren().size());
+        assertEquals(90.0, dashboard.getAttendance().get(0).getAttendancePercentage());
+        assertEquals(3L, dashboard.getUnreadNotifications());
+    }
+
+    @Test
+    @DisplayName("Should return a partial dashboard when a section is slow or fails")
+    void getDashboard_PartialOnTimeoutAndFailure() {
+        when(examService.getUpcomingExamsByClass(classId)).thenThrow(new IllegalStateException("exam store down"));
+        when(notificationService.getUnreadCount("TEN00100001")).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return 3L;
+        });
+
+        long start = System.nanoTime();
+        ParentDashboardResponse dashboard = parentDashboardService.getDashboard(user);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(dashboard.isPartial());
+        assertEquals(List.of(ParentDashboardService.SECTION_EXAMS, ParentDashboardService.SECTION_NOTIFICATIONS),
+                dashboard.getUnavailableSections());
+        assertNull(dashboard.getUnreadNotifications());
+        assertNotNull(dashboard.getAttendance());
+        assertTrue(elapsedMillis < 2_000, "slow section should not hold up the dashboard");
+    }
+
+    @Test
+    @DisplayName("Should reject users without a parent profile")
+    void getDashboard_RejectsNonParent() {
+        User teacher = User.builder().userId("TEN00100002").referenceType("TEACHER").build();
+
+        assertThrows(BusinessException.class, () -> parentDashboardService.getDashboard(teacher));
+    }
+}
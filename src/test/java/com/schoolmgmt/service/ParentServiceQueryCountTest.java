@@ -0,0 +1,116 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.response.ParentResponse;
+import com.schoolmgmt.model.Parent;
+import com.schoolmgmt.model.Student;
+import com.schoolmgmt.repository.ParentRepository;
+import com.schoolmgmt.repository.StudentRepository;
+import com.schoolmgmt.repository.UserRepository;
+import com.schoolmgmt.util.TenantContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Guards the parent listing against N+1 loading of linked students.
+ */
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ParentServiceQueryCountTest {
+
+    @Autowired
+    private ParentRepository parentRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ParentService parentService;
+
+    private static final String TENANT_ID = "TEN001";
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setCurrentTenant(TENANT_ID);
+        parentService = new ParentService(parentRepository, studentRepository, userRepository,
+                mock(PasswordEncoder.class), mock(ApplicationEventPublisher.class));
+
+        for (int i = 0; i < 50; i++) {
+            Parent parent = Parent.builder()
+                    .firstName("Parent" + i)
+                    .lastName("Test")
+                    .parentType(i % 5 == 0 ? Parent.ParentType.GUARDIAN : Parent.ParentType.FATHER)
+                    .email("parent" + i + "@test.com")
+                    .phone("90000000" + String.format("%02d", i))
+                    .status(Parent.ParentStatus.ACTIVE)
+                    .build();
+            parent.setTenantId(TENANT_ID);
+            parentRepository.save(parent);
+
+            Student student = Student.builder()
+                    .rollNumber(String.valueOf(i))
+                    .firstName("Student" + i)
+                    .lastName("Test")
+                    .dateOfBirth(LocalDate.of(2015, 1, 1))
+                    .gender(Student.Gender.MALE)
+                    .currentClassId("class-5")
+                    .admissionDate(LocalDate.of(2020, 6, 1))
+                    .emergencyContactPhone("9999999999")
+                    .build();
+            student.setTenantId(TENANT_ID);
+            if (parent.getParentType() == Parent.ParentType.GUARDIAN) {
+                student.getGuardians().add(parent);
+            } else {
+                student.getParents().add(parent);
+            }
+            studentRepository.save(student);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should load a page of 50 parents with their students in a constant number of queries")
+    void getAllParents_ConstantQueries() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Page<ParentResponse> page = parentService.getAllParents(null, PageRequest.of(0, 50));
+
+        assertEquals(50, page.getContent().size());
+        assertTrue(page.getContent().stream().allMatch(parent -> parent.getLinkedStudents().size() == 1));
+        // Page query + two family-graph queries; the count query is skipped for a complete first page
+        assertTrue(statistics.getPrepareStatementCount() <= 4,
+                "Expected at most 4 statements but was " + statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,197 @@
+package com.schoolmgmt.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolmgmt.model.FcmToken;
+import com.schoolmgmt.model.NotificationLog;
+import com.schoolmgmt.model.NotificationLog.NotificationStatus;
+import com.schoolmgmt.model.NotificationOutbox;
+import com.schoolmgmt.model.NotificationOutbox.OutboxStatus;
+import com.schoolmgmt.repository.FcmTokenRepository;
+import com.schoolmgmt.repository.NotificationLogRepository;
+import com.schoolmgmt.repository.NotificationOutboxRepository;
+import com.schoolmgmt.repository.NotificationTemplateRepository;
+import com.schoolmgmt.service.PushNotificationSender.PushResult;
+import com.schoolmgmt.util.TenantContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Delivers pushes through the FCM v1 sender to a local FCM stub, end to end from the outbox where it matters,
+ * and checks the service account token exchange, the in-flight window, token deactivation and retries.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PushNotificationSenderTest {
+
+    @Autowired private FcmTokenRepository fcmTokenRepository;
+    @Autowired private NotificationOutboxRepository outboxRepository;
+    @Autowired private NotificationLogRepository notificationLogRepository;
+    @Autowired private NotificationTemplateRepository notificationTemplateRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @TempDir private Path credentialsDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private FcmStubServer stub;
+    private String tenantId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Tokens are unique across tenants and deactivations commit, so each test keeps to its own tenant
+        tenantId = UUID.randomUUID().toString();
+        TenantContext.setCurrentTenant(tenantId);
+        stub = new FcmStubServer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should send one message per token within the in-flight window and deactivate dead tokens")
+    void send_LargeAudience_WindowedAndDeadTokensDeactivated() throws Exception {
+        stub.withLatency(20);
+        List<FcmToken> tokens = new ArrayList<>();
+        tokens.addAll(tokens("ok-", 300));
+        tokens.addAll(tokens("dead-", 20));
+        tokens.addAll(tokens("bad-", 5));
+        List<FcmToken> flaky = tokens("flaky-", 3);
+        tokens.addAll(flaky);
+
+        PushResult result = sender(8).send(tokens, "Fee due", "Term 2 fee is due", "{\"screen\":\"fees\",\"id\":42}");
+
+        assertEquals(300, result.delivered());
+        assertEquals(flaky.stream().map(FcmToken::getToken).sorted().toList(),
+                result.retryableTokens().stream().sorted().toList());
+        assertEquals(25, result.failed());
+        assertEquals(25, result.deactivated());
+        assertEquals(328, stub.requests.size());
+        assertTrue(stub.maxConcurrent.get() <= 8, "in flight: " + stub.maxConcurrent.get());
+        assertTrue(stub.maxConcurrent.get() > 1, "in flight: " + stub.maxConcurrent.get());
+        assertEquals(1, stub.tokenRequests.get());
+
+        JsonNode message = stub.requests.get(0).path("message");
+        assertTrue(message.path("token").isTextual());
+        assertEquals("Fee due", message.path("notification").path("title").asText());
+        assertEquals("fees", message.path("data").path("screen").asText());
+        assertEquals("42", message.path("data").path("id").asText());
+
+        List<FcmToken> stored = fcmTokenRepository.findAllById(tokens.stream().map(FcmToken::getId).toList());
+        assertEquals(25, stored.stream().filter(token -> !token.getIsActive()).count());
+        assertTrue(stored.stream().filter(token -> !token.getIsActive())
+                .allMatch(token -> token.getToken().startsWith("dead-") || token.getToken().startsWith("bad-")));
+        assertEquals(300.0, meterRegistry.counter("push.tokens", "result", "delivered").count());
+        assertEquals(300, meterRegistry.timer("push.request.duration", "outcome", "2xx").count());
+    }
+
+    @Test
+    @DisplayName("Should report a provider outage for retry, and rejected credentials or an invalid message as failed")
+    void send_ProviderErrors_RetryableOrFailed() throws Exception {
+        List<FcmToken> tokens = tokens("ok-", 3);
+
+        stub.failNext(3, 503);
+        PushResult outage = sender(2).send(tokens, "Notice", "Body", null);
+        PushResult rejected = new PushNotificationSender(fcmTokenRepository, new ObjectMapper(), transactionManager,
+                meterRegistry, true, stub.endpoint(), stub.writeCredentials(credentialsDir, false).toString(), "",
+                2, 5000).send(tokens, "Notice", "Body", null);
+        PushResult invalid = sender(2).send(tokens("bad-", 2), "Notice", "Body", null);
+
+        assertEquals(3, outage.retryable());
+        assertEquals(0, outage.delivered());
+        assertEquals(0, rejected.retryable());
+        assertEquals(3, rejected.failed());
+        assertEquals(0, rejected.deactivated());
+        assertEquals(5, stub.requests.size());
+        // Nothing reached any device, so the message rather than the tokens may be at fault
+        assertEquals(2, invalid.failed());
+        assertEquals(0, invalid.deactivated());
+        assertEquals(5, fcmTokenRepository.findByTenantIdAndIsActiveTrue(tenantId).size());
+    }
+
+    @Test
+    @DisplayName("Should retry an outbox message to the devices it has not reached yet, then mark it sent")
+    void outbox_EndToEnd_PartialDeliveryRetriedToRemainingDevices() throws Exception {
+        outboxRepository.deleteAll();
+        String parent = "P-" + tenantId;
+        tokens("ok-", 2).forEach(token -> assign(token, parent));
+        tokens("dead-", 1).forEach(token -> assign(token, parent));
+        NotificationService notificationService = new NotificationService(notificationLogRepository, outboxRepository,
+                notificationTemplateRepository, mock(ApplicationEventPublisher.class));
+        NotificationOutboxDispatcher dispatcher = new NotificationOutboxDispatcher(outboxRepository,
+                notificationLogRepository, fcmTokenRepository, sender(2), new ObjectMapper(), transactionManager,
+                meterRegistry, 10, 2, 3, 60_000, 600_000, 120);
+        try {
+            NotificationLog notification = notificationService.sendToUser(parent, "Result published", "Term 1 results",
+                    NotificationLog.NotificationType.RESULT_PUBLISHED, null, "admin", "Admin");
+
+            stub.failNext(1, 503);
+            dispatcher.drain();
+            NotificationOutbox message = outboxRepository.findAll().get(0);
+            assertEquals(OutboxStatus.PENDING, message.getStatus());
+            assertEquals(1, message.getAttempts());
+            List<String> pending = List.of(new ObjectMapper().readValue(message.getPendingTokens(), String[].class));
+            assertEquals(1, pending.size());
+            assertTrue(pending.get(0).startsWith("ok-"));
+
+            message.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+            outboxRepository.save(message);
+            dispatcher.drain();
+
+            NotificationOutbox sent = outboxRepository.findAll().get(0);
+            assertEquals(OutboxStatus.SENT, sent.getStatus());
+            assertNull(sent.getPendingTokens());
+            assertEquals(NotificationStatus.SENT,
+                    notificationLogRepository.findById(notification.getId()).orElseThrow().getStatus());
+            assertEquals(2, fcmTokenRepository.findByUserIdAndIsActiveTrue(parent).size());
+            assertEquals(4, stub.requests.size());
+            assertEquals(pending.get(0), stub.requests.get(3).path("message").path("token").asText());
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    private PushNotificationSender sender(int maxInFlight) throws Exception {
+        return new PushNotificationSender(fcmTokenRepository, new ObjectMapper(), transactionManager, meterRegistry,
+                true, stub.endpoint(), stub.writeCredentials(credentialsDir, true).toString(), "", maxInFlight, 5000);
+    }
+
+    private List<FcmToken> tokens(String prefix, int count) {
+        List<FcmToken> tokens = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tokens.add(FcmToken.builder()
+                    .userId("U-" + i)
+                    .tenantId(tenantId)
+                    .token(prefix + UUID.randomUUID())
+                    .deviceType(FcmToken.DeviceType.ANDROID)
+                    .build());
+        }
+        return fcmTokenRepository.saveAll(tokens);
+    }
+
+    private void assign(FcmToken token, String userId) {
+        token.setUserId(userId);
+        fcmTokenRepository.save(token);
+    }
+}
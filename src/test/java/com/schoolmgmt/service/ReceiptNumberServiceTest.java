@@ -0,0 +1,145 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.repository.TenantSequenceRepository;
+import com.schoolmgmt.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Allocates receipt numbers against a real database from several threads and simulated nodes.
+ * Transactions are managed by the test, so every allocation commits as it would in production.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Slf4j
+class ReceiptNumberServiceTest {
+
+    @Autowired
+    private TenantSequenceRepository tenantSequenceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static final LocalDate PAYMENT_DATE = LocalDate.of(2026, 10, 18);
+
+    @Test
+    @DisplayName("Should label financial years by their start month")
+    void nextReceiptNumber_FinancialYears() {
+        String tenantId = UUID.randomUUID().toString();
+        ReceiptNumberService aprilToMarch = service(false, 4);
+
+        assertEquals("RCP-2026-27-000001", aprilToMarch.nextReceiptNumber(tenantId, PAYMENT_DATE));
+        assertEquals("RCP-2025-26-000001", aprilToMarch.nextReceiptNumber(tenantId, LocalDate.of(2026, 3, 31)));
+        assertEquals("RCP-2026-27-000002", aprilToMarch.nextReceiptNumber(tenantId, LocalDate.of(2026, 4, 1)));
+        assertEquals("2099-00", aprilToMarch.financialYear(LocalDate.of(2099, 12, 1)));
+        assertEquals("2026", service(false, 1).financialYear(PAYMENT_DATE));
+        assertThrows(IllegalArgumentException.class, () -> service(false, 13));
+    }
+
+    @Test
+    @DisplayName("Should never issue a number twice across nodes collecting concurrently")
+    void nextReceiptNumber_GapTolerant_UniqueAcrossNodes() throws Exception {
+        String tenantId = UUID.randomUUID().toString();
+        List<ReceiptNumberService> nodes = List.of(service(false, 4), service(false, 4));
+
+        Set<String> receipts = collectConcurrently(tenantId, nodes, 8, 200);
+
+        assertEquals(1600, receipts.size());
+        assertTrue(receipts.stream().allMatch(r -> r.startsWith("RCP-2026-27-")));
+    }
+
+    @Test
+    @DisplayName("Should issue consecutive numbers without gaps, reusing the number of a rolled-back collection")
+    void nextReceiptNumber_Gapless_ConsecutiveAndRollbackSafe() throws Exception {
+        String tenantId = UUID.randomUUID().toString();
+        ReceiptNumberService service = service(true, 4);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        String rolledBack = transaction.execute(status -> {
+            status.setRollbackOnly();
+            return service.nextReceiptNumber(tenantId, PAYMENT_DATE);
+        });
+        assertEquals("RCP-2026-27-000001", rolledBack);
+
+        Set<String> receipts = collectConcurrently(tenantId, List.of(service, service(true, 4)), 4, 25);
+
+        Set<String> expected = new HashSet<>();
+        for (int i = 1; i <= 100; i++) {
+            expected.add(String.format("RCP-2026-27-%06d", i));
+        }
+        assertEquals(expected, receipts);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: receipts per second by numbering mode")
+    void benchmark_ReceiptsPerSecond() throws Exception {
+        for (boolean gapless : new boolean[]{false, true}) {
+            String tenantId = UUID.randomUUID().toString();
+            List<ReceiptNumberService> nodes = List.of(service(gapless, 4), service(gapless, 4));
+            collectConcurrently(tenantId, nodes, 8, 100);
+
+            long start = System.nanoTime();
+            Set<String> receipts = collectConcurrently(tenantId, nodes, 8, 2_000);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            assertEquals(16_000, receipts.size());
+            log.info("Receipts: {}, {} in {} s, {} receipts/s", gapless ? "gapless" : "gap-tolerant",
+                    receipts.size(), String.format("%.2f", seconds), Math.round(receipts.size() / seconds));
+        }
+    }
+
+    /**
+     * Collects from several threads, each allocating in its own committed transaction like a counter clerk
+     */
+    private Set<String> collectConcurrently(String tenantId, List<ReceiptNumberService> nodes,
+                                            int threads, int perThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Set<String> receipts = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                ReceiptNumberService node = nodes.get(t % nodes.size());
+                TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        String receipt = transaction.execute(status -> node.nextReceiptNumber(tenantId, PAYMENT_DATE));
+                        assertTrue(receipts.add(receipt), "Duplicate receipt " + receipt);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return receipts;
+    }
+
+    private ReceiptNumberService service(boolean gapless, int financialYearStartMonth) {
+        TenantSequenceAllocator allocator =
+                new TenantSequenceAllocator(tenantSequenceRepository, userRepository, transactionManager, 50);
+        return new ReceiptNumberService(allocator, gapless, financialYearStartMonth);
+    }
+}
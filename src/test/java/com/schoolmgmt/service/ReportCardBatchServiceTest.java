@@ -0,0 +1,167 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.model.Exam;
+import com.schoolmgmt.model.ExamResult;
+import com.schoolmgmt.repository.ExamResultRepository;
+import com.schoolmgmt.repository.StudentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@Slf4j
+class ReportCardBatchServiceTest {
+
+    @Mock private StudentRepository studentRepository;
+    @Mock private ExamResultRepository resultRepository;
+
+    private static final String TENANT_ID = "TEN001";
+    private static final String CLASS_ID = "CLASS-5";
+
+    private final List<ReportCardBatchService> services = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(ReportCardBatchService::shutdown);
+    }
+
+    @Test
+    @DisplayName("Should write one PDF card per student, fetching results in one query per chunk")
+    void writeClassReportCards_OneEntryPerStudent() throws Exception {
+        List<Object[]> students = students(250);
+        when(studentRepository.findReportCardStudents(TENANT_ID, CLASS_ID)).thenReturn(students);
+        when(resultRepository.findReportCardResults(eq(TENANT_ID), anyCollection(), eq("2025-26")))
+                .thenAnswer(invocation -> results(invocation.getArgument(1), 3));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int written = service(4).writeClassReportCards(TENANT_ID, CLASS_ID, null, "2025-26", out);
+
+        assertEquals(250, written);
+        verify(resultRepository, times(2)).findReportCardResults(eq(TENANT_ID), anyCollection(), eq("2025-26"));
+        Map<String, byte[]> entries = unzip(out.toByteArray());
+        assertEquals(250, entries.size());
+        assertTrue(entries.keySet().stream().allMatch(name -> name.endsWith(".pdf")));
+        byte[] pdf = entries.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith("001-Student_0-"))
+                .map(Map.Entry::getValue).findFirst().orElseThrow();
+        String first = text(pdf);
+        assertTrue(first.contains("Student 0"));
+        assertTrue(first.contains("Unit Test 3"));
+        assertTrue(first.contains("70.00%"));
+    }
+
+    @Test
+    @DisplayName("Should produce an empty archive for a section without students")
+    void writeClassReportCards_EmptySection() throws Exception {
+        UUID sectionId = UUID.randomUUID();
+        when(studentRepository.findReportCardStudentsInSection(TENANT_ID, CLASS_ID, sectionId)).thenReturn(List.of());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int written = service(2).writeClassReportCards(TENANT_ID, CLASS_ID, sectionId, null, out);
+
+        assertEquals(0, written);
+        assertTrue(unzip(out.toByteArray()).isEmpty());
+        verifyNoInteractions(resultRepository);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: report cards per second for 2,000 students by worker count")
+    void benchmark_TwoThousandStudents() throws Exception {
+        List<Object[]> students = students(2_000);
+        when(studentRepository.findReportCardStudents(TENANT_ID, CLASS_ID)).thenReturn(students);
+        when(resultRepository.findReportCardResults(eq(TENANT_ID), anyCollection(), isNull()))
+                .thenAnswer(invocation -> results(invocation.getArgument(1), 12));
+
+        // Warm up the template cache and the JIT before measuring
+        service(1).writeClassReportCards(TENANT_ID, CLASS_ID, null, null, OutputStream.nullOutputStream());
+        for (int threads : new int[]{1, 2, 4, 8}) {
+            ReportCardBatchService service = service(threads);
+            long start = System.nanoTime();
+            int written = service.writeClassReportCards(TENANT_ID, CLASS_ID, null, null, OutputStream.nullOutputStream());
+            double seconds = (System.nanoTime() - start) / 1e9;
+            log.info("Report cards: {} threads, {} cards in {} s, {} cards/s",
+                    threads, written, String.format("%.2f", seconds), Math.round(written / seconds));
+            assertEquals(2_000, written);
+        }
+    }
+
+    private ReportCardBatchService service(int threads) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        ReportCardBatchService service = new ReportCardBatchService(studentRepository, resultRepository, templateEngine, threads);
+        services.add(service);
+        return service;
+    }
+
+    private static List<Object[]> students(int count) {
+        List<Object[]> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            students.add(new Object[]{UUID.randomUUID(), "Student", String.valueOf(i), String.format("%03d", i + 1)});
+        }
+        return students;
+    }
+
+    // Exam n scores 60 + 10n out of 100, so three exams average 70%
+    private static List<ExamResult> results(Collection<UUID> studentIds, int examCount) {
+        List<Exam> exams = new ArrayList<>();
+        for (int n = 0; n < examCount; n++) {
+            exams.add(Exam.builder().id(UUID.randomUUID()).tenantId(TENANT_ID).name("Unit Test " + (n + 1))
+                    .subjectName("Mathematics").examDate(LocalDate.of(2026, 1, 1).plusWeeks(n)).build());
+        }
+        List<ExamResult> results = new ArrayList<>();
+        for (UUID studentId : studentIds) {
+            for (int n = 0; n < examCount; n++) {
+                ExamResult result = ExamResult.builder().tenantId(TENANT_ID).exam(exams.get(n)).studentId(studentId)
+                        .marksObtained(60.0 + 10 * (n % 3)).maxMarks(100).build();
+                result.calculatePercentage();
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    private static Map<String, byte[]> unzip(byte[] archive) throws Exception {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    private static String text(byte[] pdf) throws Exception {
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            return new PDFTextStripper().getText(document);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.response.BirthdayDigest;
+import com.schoolmgmt.model.NotificationLog;
+import com.schoolmgmt.model.Tenant;
+import com.schoolmgmt.repository.NotificationLogRepository;
+import com.schoolmgmt.repository.StudentRepository;
+import com.schoolmgmt.repository.TenantRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StudentBirthdayServiceTest {
+
+    @InjectMocks
+    private StudentBirthdayService studentBirthdayService;
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private TenantRepository tenantRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private NotificationLogRepository notificationLogRepository;
+
+    @Mock
+    private ClusterLockService clusterLockService;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    private static final String TENANT_ID = "TEN001";
+
+    @Test
+    @DisplayName("Should look up the indexed month-day and compute ages")
+    void buildDigest_ReturnsStudents() {
+        UUID studentId = UUID.randomUUID();
+        List<Object[]> rows = Collections.singletonList(
+                new Object[]{studentId, "Asha", "Rao", "class-5", null, LocalDate.of(2015, 3, 14)});
+        when(studentRepository.findBirthdaysOn(TENANT_ID, List.of(314))).thenReturn(rows);
+
+        BirthdayDigest digest = studentBirthdayService.buildDigest(TENANT_ID, LocalDate.of(2026, 3, 14));
+
+        assertEquals(1, digest.getCount());
+        assertEquals(studentId, digest.getStudents().get(0).getStudentId());
+        assertEquals(11, digest.getStudents().get(0).getAge());
+    }
+
+    @Test
+    @DisplayName("Should include leap-day birthdays on 28 February of common years")
+    void buildDigest_LeapDayInCommonYear() {
+        when(studentRepository.findBirthdaysOn(TENANT_ID, List.of(228, 229))).thenReturn(List.of());
+
+        BirthdayDigest digest = studentBirthdayService.buildDigest(TENANT_ID, LocalDate.of(2027, 2, 28));
+
+        assertEquals(0, digest.getCount());
+        verify(studentRepository).findBirthdaysOn(TENANT_ID, List.of(228, 229));
+    }
+
+    @Test
+    @DisplayName("Should notify staff under the tenant's cluster lock, once per day across nodes")
+    void publishDailyDigests_NotifiesOncePerTenantAndDay() {
+        when(tenantRepository.findAllActive()).thenReturn(List.of(
+                Tenant.builder().identifier("TEN001").build(),
+                Tenant.builder().identifier("TEN002").build(),
+                Tenant.builder().identifier("TEN003").build()));
+        when(studentRepository.findBirthdaysOn(anyString(), anyList())).thenReturn(Collections.singletonList(
+                new Object[]{UUID.randomUUID(), "Asha", "Rao", "class-5", null, LocalDate.of(2015, 3, 14)}));
+        // TEN001 is free, TEN002 is being sent by another node, TEN003 was already sent today
+        when(clusterLockService.runExclusively(anyString(), any())).thenAnswer(invocation -> {
+            if (invocation.<String>getArgument(0).endsWith("TEN002")) {
+                return false;
+            }
+            invocation.<Runnable>getArgument(1).run();
+            return true;
+        });
+        when(notificationLogRepository.existsByTenantIdAndNotificationTypeAndCreatedAtGreaterThanEqual(
+                eq("TEN001"), eq(NotificationLog.NotificationType.BIRTHDAY), any())).thenReturn(false);
+        when(notificationLogRepository.existsByTenantIdAndNotificationTypeAndCreatedAtGreaterThanEqual(
+                eq("TEN003"), eq(NotificationLog.NotificationType.BIRTHDAY), any())).thenReturn(true);
+
+        studentBirthdayService.publishDailyDigests();
+
+        verify(clusterLockService).runExclusively(eq("birthday-digest:TEN001"), any());
+        verify(notificationService, times(1)).sendToRole(eq("TEACHER"), eq("Today's birthdays"), eq("Asha Rao"),
+                eq(NotificationLog.NotificationType.BIRTHDAY), isNull(), isNull(), eq("System"));
+    }
+}
@@ -0,0 +1,175 @@
+package com.schoolmgmt.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolmgmt.dto.request.BulkPromotionRequest;
+import com.schoolmgmt.dto.request.BulkPromotionRequest.ClassMapping;
+import com.schoolmgmt.dto.response.PromotionRunResponse;
+import com.schoolmgmt.exception.BusinessException;
+import com.schoolmgmt.model.SchoolClass;
+import com.schoolmgmt.model.Section;
+import com.schoolmgmt.model.Student;
+import com.schoolmgmt.model.StudentPromotionRun;
+import com.schoolmgmt.repository.*;
+import com.schoolmgmt.util.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs promotions against a real database, two students per chunk so a class spans several transactions,
+ * and checks where every student ends up and under which roll number.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StudentPromotionEngineTest {
+
+    @Autowired private StudentPromotionRunRepository runRepository;
+    @Autowired private StudentPromotionHistoryRepository historyRepository;
+    @Autowired private StudentRepository studentRepository;
+    @Autowired private SectionRepository sectionRepository;
+    @Autowired private SchoolClassRepository schoolClassRepository;
+    @Autowired private TeacherClassRepository teacherClassRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private StudentPromotionEngine engine;
+    private StudentPromotionService service;
+    private String tenantId;
+    private UUID class8;
+    private UUID class9;
+    private UUID class10;
+    private UUID section8A;
+    private UUID section9A;
+    private UUID section10A;
+
+    @BeforeEach
+    void setUp() {
+        // Every chunk commits, so each test keeps to its own tenant
+        tenantId = UUID.randomUUID().toString();
+        TenantContext.setCurrentTenant(tenantId);
+        ObjectMapper objectMapper = new ObjectMapper();
+        engine = new StudentPromotionEngine(runRepository, historyRepository, studentRepository, sectionRepository,
+                teacherClassRepository, event -> { }, objectMapper, transactionManager, 2);
+        service = new StudentPromotionService(runRepository, studentRepository, sectionRepository, engine,
+                event -> { }, objectMapper);
+
+        class8 = schoolClass("8");
+        class9 = schoolClass("9");
+        class10 = schoolClass("10");
+        section8A = section(class8, "A");
+        section9A = section(class9, "A");
+        section10A = section(class10, "A");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should move every class up in order and renumber students whose roll number a detained student keeps")
+    void execute_DetainedStudentKeepsRollNumber() {
+        UUID graduateOne = student(class10, section10A, "1");
+        UUID graduateTwo = student(class10, section10A, "2");
+        UUID nineOne = student(class9, section9A, "1");
+        UUID detained = student(class9, section9A, "2");
+        UUID nineThree = student(class9, section9A, "3");
+        UUID eightOne = student(class8, section8A, "1");
+        UUID eightTwo = student(class8, section8A, "2");
+        UUID eightThree = student(class8, section8A, "3");
+        UUID eightFour = student(class8, section8A, "4");
+
+        // Given highest class last, so the run has to order them itself
+        PromotionRunResponse started = service.startPromotion(BulkPromotionRequest.builder()
+                .mappings(List.of(mapping(class9, class10), mapping(class8, class9), mapping(class10, null)))
+                .detainedStudentIds(Set.of(detained))
+                .build());
+        engine.execute(started.getId(), tenantId);
+
+        StudentPromotionRun run = runRepository.findById(started.getId()).orElseThrow();
+        assertEquals(StudentPromotionRun.PromotionStatus.COMPLETED, run.getStatus(), run.getErrorMessage());
+        assertEquals(9, run.getProcessedStudents());
+        assertEquals(6, run.getPromotedCount());
+        assertEquals(1, run.getDetainedCount());
+        assertEquals(2, run.getGraduatedCount());
+
+        for (UUID graduate : List.of(graduateOne, graduateTwo)) {
+            Student student = studentRepository.findById(graduate).orElseThrow();
+            assertEquals(Student.StudentStatus.GRADUATED, student.getStatus());
+            assertNull(student.getCurrentClassId());
+        }
+        assertPlaced(nineOne, class10, section10A, "1");
+        assertPlaced(nineThree, class10, section10A, "3");
+        assertPlaced(detained, class9, section9A, "2");
+        assertPlaced(eightOne, class9, section9A, "1");
+        assertPlaced(eightThree, class9, section9A, "3");
+        assertPlaced(eightFour, class9, section9A, "4");
+        // Roll number 2 stays with the detained student; the newcomer gets the next number of either class
+        assertPlaced(eightTwo, class9, section9A, "5");
+
+        Map<String, Long> rollNumbers = studentRepository.findAll().stream()
+                .filter(student -> tenantId.equals(student.getTenantId()) && class9.toString().equals(student.getCurrentClassId()))
+                .collect(Collectors.groupingBy(Student::getRollNumber, Collectors.counting()));
+        assertEquals(Set.of("1", "2", "3", "4", "5"), rollNumbers.keySet());
+    }
+
+    @Test
+    @DisplayName("Should reject a mapping whose target class has no section of the same name")
+    void startPromotion_MissingTargetSection_Throws() {
+        UUID class11 = schoolClass("11");
+        section(class11, "B");
+        student(class10, section10A, "1");
+
+        BusinessException error = assertThrows(BusinessException.class, () -> service.startPromotion(
+                BulkPromotionRequest.builder().mappings(List.of(mapping(class10, class11))).build()));
+
+        assertTrue(error.getMessage().contains("no section A"), error.getMessage());
+        assertTrue(runRepository.findAll().stream().noneMatch(run -> tenantId.equals(run.getTenantId())));
+    }
+
+    private void assertPlaced(UUID studentId, UUID classId, UUID sectionId, String rollNumber) {
+        Student student = studentRepository.findById(studentId).orElseThrow();
+        assertEquals(classId.toString(), student.getCurrentClassId());
+        assertEquals(sectionId, student.getCurrentSectionId());
+        assertEquals(rollNumber, student.getRollNumber());
+    }
+
+    private static ClassMapping mapping(UUID from, UUID to) {
+        return ClassMapping.builder().fromClassId(from.toString()).toClassId(to != null ? to.toString() : null).build();
+    }
+
+    private UUID schoolClass(String code) {
+        SchoolClass schoolClass = SchoolClass.builder().code(code).name("Class " + code).build();
+        schoolClass.setTenantId(tenantId);
+        return schoolClassRepository.save(schoolClass).getId();
+    }
+
+    private UUID section(UUID classId, String name) {
+        Section section = Section.builder().schoolClassId(classId).name(name).build();
+        section.setTenantId(tenantId);
+        return sectionRepository.save(section).getId();
+    }
+
+    private UUID student(UUID classId, UUID sectionId, String rollNumber) {
+        Student student = Student.builder().rollNumber(rollNumber).firstName("Student").lastName(rollNumber)
+                .dateOfBirth(LocalDate.of(2012, 1, 1)).gender(Student.Gender.FEMALE)
+                .currentClassId(classId.toString()).currentSectionId(sectionId)
+                .admissionDate(LocalDate.of(2020, 6, 1)).emergencyContactPhone("9999999999").build();
+        student.setTenantId(tenantId);
+        return studentRepository.save(student).getId();
+    }
+}
@@ -0,0 +1,101 @@
+package com.schoolmgmt.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolmgmt.dto.request.BulkPromotionRequest;
+import com.schoolmgmt.dto.request.BulkPromotionRequest.ClassMapping;
+import com.schoolmgmt.exception.BusinessException;
+import com.schoolmgmt.repository.SectionRepository;
+import com.schoolmgmt.repository.StudentPromotionRunRepository;
+import com.schoolmgmt.repository.StudentRepository;
+import com.schoolmgmt.util.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StudentPromotionServiceTest {
+
+    @InjectMocks
+    private StudentPromotionService studentPromotionService;
+
+    @Mock
+    private StudentPromotionRunRepository runRepository;
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private SectionRepository sectionRepository;
+
+    @Mock
+    private StudentPromotionEngine promotionEngine;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private MockedStatic<TenantContext> tenantContextMock;
+
+    private static final String TENANT_ID = "TEN001";
+
+    @BeforeEach
+    void setUp() {
+        tenantContextMock = mockStatic(TenantContext.class);
+        tenantContextMock.when(TenantContext::requireCurrentTenant).thenReturn(TENANT_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tenantContextMock.close();
+    }
+
+    private static ClassMapping mapping(String from, String to) {
+        return ClassMapping.builder().fromClassId(from).toClassId(to).build();
+    }
+
+    @Nested
+    @DisplayName("startPromotion")
+    class StartPromotionTests {
+
+        @Test
+        @DisplayName("Should reject mappings that form a cycle")
+        void startPromotion_Cycle_Throws() {
+            BulkPromotionRequest request = BulkPromotionRequest.builder()
+                    .mappings(List.of(mapping("class-9", "class-10"), mapping("class-10", "class-9")))
+                    .build();
+            when(runRepository.existsByTenantIdAndStatusIn(eq(TENANT_ID), any())).thenReturn(false);
+
+            assertThrows(BusinessException.class, () -> studentPromotionService.startPromotion(request));
+            verify(runRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Should reject a new run while another is in progress")
+        void startPromotion_InProgress_Throws() {
+            BulkPromotionRequest request = BulkPromotionRequest.builder()
+                    .mappings(List.of(mapping("class-9", "class-10")))
+                    .build();
+            when(runRepository.existsByTenantIdAndStatusIn(eq(TENANT_ID), any())).thenReturn(true);
+
+            assertThrows(BusinessException.class, () -> studentPromotionService.startPromotion(request));
+            verify(eventPublisher, never()).publishEvent(any());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.common.EmergencyContact;
+import com.schoolmgmt.dto.request.CreateStudentRequest;
+import com.schoolmgmt.dto.request.UpdateStudentRequest;
+import com.schoolmgmt.dto.response.StudentResponse;
+import com.schoolmgmt.model.Student;
+import com.schoolmgmt.repository.StudentRepository;
+import com.schoolmgmt.repository.UserRepository;
+import com.schoolmgmt.util.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Checks that the cached student statistics of a tenant are served until a student is created, updated or
+ * deleted through the service, and recomputed once that change has committed.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(StudentStatisticsCacheTest.CachingConfig.class)
+class StudentStatisticsCacheTest {
+
+    @TestConfiguration
+    @EnableCaching
+    static class CachingConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(DashboardCacheInvalidator.STUDENT_STATISTICS);
+        }
+
+        @Bean
+        DashboardCacheInvalidator dashboardCacheInvalidator(CacheManager cacheManager,
+                                                            CacheVersionService cacheVersionService) {
+            return new DashboardCacheInvalidator(cacheManager, cacheVersionService);
+        }
+
+        @Bean
+        StudentService studentService(StudentRepository studentRepository, UserRepository userRepository,
+                                      PasswordEncoder passwordEncoder, EmailService emailService,
+                                      ApplicationEventPublisher eventPublisher,
+                                      TenantSequenceAllocator tenantSequenceAllocator) {
+            return new StudentService(studentRepository, userRepository, passwordEncoder, emailService,
+                    eventPublisher, tenantSequenceAllocator);
+        }
+    }
+
+    @MockBean private CacheVersionService cacheVersionService;
+    @MockBean private PasswordEncoder passwordEncoder;
+    @MockBean private EmailService emailService;
+    @MockBean private TenantSequenceAllocator tenantSequenceAllocator;
+
+    @Autowired private StudentService studentService;
+    @Autowired private StudentRepository studentRepository;
+
+    private final UUID sectionId = UUID.randomUUID();
+    private String tenantId;
+    private int rollNumber;
+
+    @BeforeEach
+    void setUp() {
+        // The service commits, so each test keeps to its own tenant
+        tenantId = UUID.randomUUID().toString();
+        TenantContext.setCurrentTenant(tenantId);
+        saveDirectly();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should serve cached statistics until a student is created, updated or deleted")
+    void studentChanges_EvictStatistics() {
+        assertEquals(1, studentService.getStudentStatistics().getTotalStudents());
+        // Written behind the service's back, so the cached entry stays
+        saveDirectly();
+        assertEquals(1, studentService.getStudentStatistics().getTotalStudents());
+
+        StudentResponse created = studentService.createStudent(CreateStudentRequest.builder()
+                .rollNumber(String.valueOf(++rollNumber)).firstName("New").lastName("Student")
+                .dateOfBirth(LocalDate.of(2012, 1, 1)).gender("FEMALE").currentClassId("class-9")
+                .currentSectionId(sectionId.toString()).admissionDate(LocalDate.of(2026, 6, 1))
+                .emergencyContact(EmergencyContact.builder().name("Parent").phone("9999999999").build())
+                .build());
+        assertEquals(3, studentService.getStudentStatistics().getTotalStudents());
+
+        saveDirectly();
+        studentService.updateStudent(UUID.fromString(created.getId()),
+                UpdateStudentRequest.builder().city("Pune").build());
+        assertEquals(4, studentService.getStudentStatistics().getTotalStudents());
+
+        studentService.deleteStudent(UUID.fromString(created.getId()));
+        assertEquals(3, studentService.getStudentStatistics().getTotalStudents());
+
+        verify(cacheVersionService, times(3)).bumpVersion(DashboardCacheInvalidator.STUDENT_STATISTICS, tenantId);
+    }
+
+    private void saveDirectly() {
+        Student student = Student.builder().rollNumber(String.valueOf(++rollNumber)).firstName("Student")
+                .lastName(String.valueOf(rollNumber)).dateOfBirth(LocalDate.of(2012, 1, 1))
+                .gender(Student.Gender.MALE).currentClassId("class-9").currentSectionId(sectionId)
+                .admissionDate(LocalDate.of(2020, 6, 1)).emergencyContactPhone("9999999999").build();
+        student.setTenantId(tenantId);
+        studentRepository.save(student);
+    }
+}
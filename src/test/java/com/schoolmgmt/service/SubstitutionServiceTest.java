@@ -0,0 +1,217 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.request.SubstitutionAssignmentRequest;
+import com.schoolmgmt.dto.response.SubstitutionPlan;
+import com.schoolmgmt.event.LeaveStatusChangedEvent;
+import com.schoolmgmt.event.SubstitutionsChangedEvent;
+import com.schoolmgmt.exception.TimetableConflictException;
+import com.schoolmgmt.model.LeaveRequest;
+import com.schoolmgmt.model.Period;
+import com.schoolmgmt.model.TeacherSubject;
+import com.schoolmgmt.model.TimetableEntry;
+import com.schoolmgmt.model.TimetableEntry.DayOfWeek;
+import com.schoolmgmt.model.TimetableSubstitution;
+import com.schoolmgmt.repository.*;
+import com.schoolmgmt.util.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SubstitutionServiceTest {
+
+    @Mock private TimetableRepository timetableRepository;
+    @Mock private PeriodRepository periodRepository;
+    @Mock private TimetableSubstitutionRepository substitutionRepository;
+    @Mock private LeaveRequestRepository leaveRequestRepository;
+    @Mock private TeacherRepository teacherRepository;
+    @Mock private TeacherSubjectRepository teacherSubjectRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    private SubstitutionService substitutionService;
+
+    private static final String TENANT_ID = "TEN001";
+    private final UUID absent = UUID.randomUUID();
+    private final UUID busyMath = UUID.randomUUID();
+    private final UUID freeMath = UUID.randomUUID();
+    private final UUID freeScience = UUID.randomUUID();
+    private final UUID onLeaveMath = UUID.randomUUID();
+    private final UUID math = UUID.randomUUID();
+    private final UUID science = UUID.randomUUID();
+    private final Period first = Period.builder().id(UUID.randomUUID()).periodNumber(1).name("P1").build();
+    private final Period second = Period.builder().id(UUID.randomUUID()).periodNumber(2).name("P2").build();
+    private final LocalDate monday = LocalDate.now().plusDays(1).with(TemporalAdjusters.next(java.time.DayOfWeek.MONDAY));
+    private LeaveRequest leave;
+    private TimetableEntry mondayLesson;
+    private TimetableEntry tuesdayLesson;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setCurrentTenant(TENANT_ID);
+        substitutionService = new SubstitutionService(new TimetableConflictEngine(timetableRepository, periodRepository,
+                        mock(TimetableVersions.class), 2000, 600),
+                timetableRepository, substitutionRepository, leaveRequestRepository, teacherRepository,
+                teacherSubjectRepository, eventPublisher, 15);
+
+        leave = LeaveRequest.builder().id(UUID.randomUUID()).tenantId(TENANT_ID).userId("T-ABS")
+                .status(LeaveRequest.LeaveStatus.APPROVED).startDate(monday).endDate(monday.plusDays(1)).build();
+        lenient().when(leaveRequestRepository.findById(leave.getId())).thenReturn(Optional.of(leave));
+
+        lenient().when(teacherRepository.findActiveTeacherIdentities(TENANT_ID)).thenReturn(List.of(
+                new Object[]{absent, "Asha", "Absent", "T-ABS"},
+                new Object[]{busyMath, "Bala", "Busy", "T-BUSY"},
+                new Object[]{freeMath, "Chitra", "Free", "T-FREE"},
+                new Object[]{freeScience, "Dev", "Science", "T-SCI"},
+                new Object[]{onLeaveMath, "Esha", "Away", "T-AWAY"}));
+        lenient().when(teacherSubjectRepository.findActiveAssignmentsByTenant(TENANT_ID)).thenReturn(List.of(
+                TeacherSubject.builder().teacherId(absent).subjectId(math).build(),
+                TeacherSubject.builder().teacherId(busyMath).subjectId(math).build(),
+                TeacherSubject.builder().teacherId(freeMath).subjectId(math).build(),
+                TeacherSubject.builder().teacherId(onLeaveMath).subjectId(math).build(),
+                TeacherSubject.builder().teacherId(freeScience).subjectId(science).build()));
+        List<Object[]> leaves = new ArrayList<>();
+        leaves.add(new Object[]{leave.getId(), "T-ABS", monday, monday.plusDays(1)});
+        leaves.add(new Object[]{UUID.randomUUID(), "T-AWAY", monday, monday});
+        lenient().when(leaveRequestRepository.findApprovedLeaveRanges(eq(TENANT_ID), any())).thenReturn(leaves);
+
+        UUID classId = UUID.randomUUID();
+        mondayLesson = entry(classId, absent, DayOfWeek.MONDAY, first);
+        tuesdayLesson = entry(classId, absent, DayOfWeek.TUESDAY, second);
+        lenient().when(timetableRepository.findByTenantIdAndTeacherIdAndIsActiveTrue(TENANT_ID, absent))
+                .thenReturn(List.of(mondayLesson, tuesdayLesson));
+        lenient().when(periodRepository.findByTenantIdOrderByPeriodNumber(TENANT_ID)).thenReturn(List.of(first, second));
+        List<Object[]> slots = new ArrayList<>();
+        slots.add(new Object[]{mondayLesson.getId(), classId, "A", absent, null, DayOfWeek.MONDAY, first.getId()});
+        slots.add(new Object[]{tuesdayLesson.getId(), classId, "A", absent, null, DayOfWeek.TUESDAY, second.getId()});
+        slots.add(new Object[]{UUID.randomUUID(), UUID.randomUUID(), "B", busyMath, null, DayOfWeek.MONDAY, first.getId()});
+        slots.add(new Object[]{UUID.randomUUID(), UUID.randomUUID(), "B", freeScience, null, DayOfWeek.MONDAY, second.getId()});
+        lenient().when(timetableRepository.findActiveSlots(TENANT_ID)).thenReturn(slots);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should rank free subject teachers first and skip busy or absent teachers")
+    void getPlan_RanksCandidates() {
+        SubstitutionPlan plan = substitutionService.getPlan(leave.getId(), 5);
+
+        assertEquals(absent, plan.getTeacherId());
+        assertEquals(2, plan.getUncoveredPeriods());
+        SubstitutionPlan.AffectedPeriod mondayPeriod = plan.getPeriods().get(0);
+        assertEquals(monday, mondayPeriod.getDate());
+        assertEquals(List.of(freeMath, freeScience),
+                mondayPeriod.getCandidates().stream().map(SubstitutionPlan.Candidate::getTeacherId).toList());
+        assertTrue(mondayPeriod.getCandidates().get(0).isSubjectMatch());
+
+        SubstitutionPlan.AffectedPeriod tuesdayPeriod = plan.getPeriods().get(1);
+        assertEquals(List.of(freeMath, onLeaveMath, busyMath, freeScience),
+                tuesdayPeriod.getCandidates().stream().map(SubstitutionPlan.Candidate::getTeacherId).toList());
+    }
+
+    @Test
+    @DisplayName("Should count cover given on other days of the week in the weekly load")
+    void getPlan_CountsWeeklyCover() {
+        when(substitutionRepository.findByTenantIdAndSubstitutionDateGreaterThanEqual(eq(TENANT_ID), any()))
+                .thenReturn(List.of(TimetableSubstitution.builder()
+                        .timetableEntryId(UUID.randomUUID())
+                        .substitutionDate(monday.plusDays(3))
+                        .periodId(first.getId())
+                        .substituteTeacherId(freeMath)
+                        .build()));
+
+        SubstitutionPlan plan = substitutionService.getPlan(leave.getId(), 5);
+
+        SubstitutionPlan.Candidate mondayCover = plan.getPeriods().get(0).getCandidates().stream()
+                .filter(candidate -> candidate.getTeacherId().equals(freeMath)).findFirst().orElseThrow();
+        assertEquals(0, mondayCover.getPeriodsThatDay());
+        assertEquals(1, mondayCover.getPeriodsThisWeek());
+    }
+
+    @Test
+    @DisplayName("Should answer repeated plans from the in-memory index until substitutions change")
+    void getPlan_UsesIndex() {
+        substitutionService.getPlan(leave.getId(), 5);
+        substitutionService.getPlan(leave.getId(), 5);
+        verify(teacherRepository, times(1)).findActiveTeacherIdentities(TENANT_ID);
+        verify(timetableRepository, times(1)).findActiveSlots(TENANT_ID);
+
+        substitutionService.onSubstitutionsChanged(new SubstitutionsChangedEvent(TENANT_ID));
+        substitutionService.getPlan(leave.getId(), 5);
+
+        verify(teacherRepository, times(2)).findActiveTeacherIdentities(TENANT_ID);
+        verify(timetableRepository, times(1)).findActiveSlots(TENANT_ID);
+    }
+
+    @Test
+    @DisplayName("Should bulk-assign the best candidate to every uncovered period")
+    void assign_AutoAssigns() {
+        when(substitutionRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Map<String, Object> result = substitutionService.assign(leave.getId(), null, "admin");
+
+        ArgumentCaptor<List<TimetableSubstitution>> saved = ArgumentCaptor.forClass(List.class);
+        verify(substitutionRepository).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        assertEquals(freeMath, saved.getValue().get(0).getSubstituteTeacherId());
+        assertEquals(monday, saved.getValue().get(0).getSubstitutionDate());
+        assertEquals(leave.getId(), saved.getValue().get(0).getLeaveRequestId());
+        assertEquals(onLeaveMath, saved.getValue().get(1).getSubstituteTeacherId());
+        assertEquals(List.of(), result.get("unassigned"));
+        verify(eventPublisher).publishEvent(any(SubstitutionsChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should reject an explicit assignment to a teacher who is busy in that period")
+    void assign_RejectsBusyTeacher() {
+        SubstitutionAssignmentRequest request = SubstitutionAssignmentRequest.builder()
+                .assignments(List.of(SubstitutionAssignmentRequest.Assignment.builder()
+                        .timetableEntryId(mondayLesson.getId()).date(monday).teacherId(busyMath).build()))
+                .build();
+
+        TimetableConflictException exception = assertThrows(TimetableConflictException.class,
+                () -> substitutionService.assign(leave.getId(), request, "admin"));
+
+        assertTrue(exception.getConflicts().containsKey("assignments[0]"));
+        verify(substitutionRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Should release substitutes when an approved leave is cancelled")
+    void releaseCancelledLeave_DeletesSubstitutions() {
+        substitutionService.releaseCancelledLeave(
+                new LeaveStatusChangedEvent(TENANT_ID, leave.getId(), LeaveRequest.LeaveStatus.CANCELLED));
+
+        verify(substitutionRepository).deleteByTenantIdAndLeaveRequestId(TENANT_ID, leave.getId());
+    }
+
+    private TimetableEntry entry(UUID classId, UUID teacherId, DayOfWeek day, Period period) {
+        return TimetableEntry.builder()
+                .id(UUID.randomUUID())
+                .tenantId(TENANT_ID)
+                .classId(classId)
+                .section("A")
+                .subjectId(math)
+                .subjectName("Mathematics")
+                .teacherId(teacherId)
+                .dayOfWeek(day)
+                .period(period)
+                .build();
+    }
+}
@@ -0,0 +1,144 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.model.TenantSequence;
+import com.schoolmgmt.repository.TenantSequenceRepository;
+import com.schoolmgmt.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TenantSequenceAllocatorTest {
+
+    @Mock
+    private TenantSequenceRepository tenantSequenceRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TenantSequenceAllocator allocator;
+
+    private static final String TENANT_ID = "TEN001";
+    private static final int BLOCK_SIZE = 10;
+
+    /** Stand-in for the tenant_sequences row; 0 means the row does not exist yet */
+    private final AtomicLong storedNextValue = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        allocator = new TenantSequenceAllocator(tenantSequenceRepository, userRepository, transactionManager, BLOCK_SIZE);
+
+        when(tenantSequenceRepository.advance(eq(TENANT_ID), anyString(), anyLong(), any())).thenAnswer(invocation -> {
+            if (storedNextValue.get() == 0) {
+                return 0;
+            }
+            storedNextValue.addAndGet(invocation.getArgument(2));
+            return 1;
+        });
+        when(tenantSequenceRepository.findNextValue(eq(TENANT_ID), anyString()))
+                .thenAnswer(invocation -> Optional.of(storedNextValue.get()));
+        when(tenantSequenceRepository.saveAndFlush(any(TenantSequence.class))).thenAnswer(invocation -> {
+            TenantSequence sequence = invocation.getArgument(0);
+            storedNextValue.set(sequence.getNextValue());
+            return sequence;
+        });
+    }
+
+    @Nested
+    @DisplayName("Allocation")
+    class AllocationTests {
+
+        @Test
+        @DisplayName("Should hand out consecutive numbers and reserve a block only once per block size")
+        void next_ReservesBlocks() {
+            List<Long> values = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                values.add(allocator.next(TENANT_ID, "TEST"));
+            }
+
+            assertEquals(1L, values.get(0));
+            assertEquals(25L, values.get(24));
+            verify(tenantSequenceRepository, times(1)).saveAndFlush(any(TenantSequence.class));
+            verify(tenantSequenceRepository, times(3)).advance(eq(TENANT_ID), eq("TEST"), eq((long) BLOCK_SIZE), any());
+        }
+
+        @Test
+        @DisplayName("Should never hand out the same number to concurrent callers")
+        void next_ConcurrentCallers_Unique() throws Exception {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            Set<Long> values = ConcurrentHashMap.newKeySet();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        values.add(allocator.next(TENANT_ID, "TEST"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+
+            assertEquals(800, values.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("User codes")
+    class UserCodeTests {
+
+        @Test
+        @DisplayName("Should continue after the highest existing user code when the sequence is created")
+        void nextUserCode_SeedsFromExistingUsers() {
+            when(userRepository.findUserIdsWithPrefix(TENANT_ID, TENANT_ID)).thenReturn(List.of("TEN00100041", "TEN00100007"));
+
+            assertEquals("TEN00100042", allocator.nextUserCode(TENANT_ID));
+            assertEquals("TEN00100043", allocator.nextUserCode(TENANT_ID));
+            verify(userRepository, times(1)).findUserIdsWithPrefix(TENANT_ID, TENANT_ID);
+        }
+
+        @Test
+        @DisplayName("Should start at 1 for a tenant without users")
+        void nextUserCode_FirstUser() {
+            when(userRepository.findUserIdsWithPrefix(TENANT_ID, TENANT_ID)).thenReturn(List.of());
+
+            assertEquals("TEN00100001", allocator.nextUserCode(TENANT_ID));
+        }
+
+        @Test
+        @DisplayName("Should seed from the numerically highest code, past the padded width and custom codes")
+        void nextUserCode_SeedsNumerically() {
+            // "TEN00199999" sorts after "TEN001100000" as a string, and "TEN001ADMIN" after both
+            when(userRepository.findUserIdsWithPrefix(TENANT_ID, TENANT_ID))
+                    .thenReturn(List.of("TEN00199999", "TEN001100000", "TEN001ADMIN"));
+
+            assertEquals("TEN001100001", allocator.nextUserCode(TENANT_ID));
+        }
+    }
+}
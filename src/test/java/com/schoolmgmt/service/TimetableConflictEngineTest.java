@@ -0,0 +1,149 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.event.TimetableChangedEvent;
+import com.schoolmgmt.model.Period;
+import com.schoolmgmt.model.TimetableEntry;
+import com.schoolmgmt.model.TimetableEntry.DayOfWeek;
+import com.schoolmgmt.repository.PeriodRepository;
+import com.schoolmgmt.repository.TimetableRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimetableConflictEngineTest {
+
+    @Mock
+    private TimetableRepository timetableRepository;
+
+    @Mock
+    private PeriodRepository periodRepository;
+
+    @Mock
+    private TimetableVersions timetableVersions;
+
+    private TimetableConflictEngine conflictEngine;
+
+    private static final String TENANT_ID = "TEN001";
+    private final Period first = Period.builder().id(UUID.randomUUID()).periodNumber(1).build();
+    private final Period second = Period.builder().id(UUID.randomUUID()).periodNumber(2).build();
+    private final UUID classId = UUID.randomUUID();
+    private final UUID teacherId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        conflictEngine = new TimetableConflictEngine(timetableRepository, periodRepository, timetableVersions, 2000, 600);
+        when(periodRepository.findByTenantIdOrderByPeriodNumber(TENANT_ID)).thenReturn(List.of(first, second));
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{UUID.randomUUID(), classId, "A", teacherId, "Lab 1", DayOfWeek.MONDAY, first.getId()});
+        when(timetableRepository.findActiveSlots(TENANT_ID)).thenReturn(rows);
+    }
+
+    @Test
+    @DisplayName("Should accept entries in free slots")
+    void findConflicts_FreeSlot() {
+        Map<String, List<String>> conflicts = conflictEngine.findConflicts(TENANT_ID, List.of(
+                entry(classId, "A", teacherId, "Lab 1", DayOfWeek.MONDAY, second),
+                entry(classId, "B", UUID.randomUUID(), null, DayOfWeek.MONDAY, first)));
+
+        assertTrue(conflicts.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should report class, teacher and room clashes with the stored timetable")
+    void findConflicts_ClashesWithStoredEntries() {
+        Map<String, List<String>> conflicts = conflictEngine.findConflicts(TENANT_ID, List.of(
+                entry(classId, "A", UUID.randomUUID(), null, DayOfWeek.MONDAY, first),
+                entry(UUID.randomUUID(), "A", teacherId, " lab 1 ", DayOfWeek.MONDAY, first),
+                entry(classId, null, null, null, DayOfWeek.MONDAY, first)));
+
+        assertEquals(3, conflicts.size());
+        assertTrue(conflicts.get("entries[0]").get(0).startsWith("Class"));
+        assertEquals(2, conflicts.get("entries[1]").size());
+        assertTrue(conflicts.get("entries[2]").get(0).startsWith("Class"));
+    }
+
+    @Test
+    @DisplayName("Should report clashes between entries of the same submission")
+    void findConflicts_ClashesWithinSubmission() {
+        UUID otherTeacher = UUID.randomUUID();
+        Map<String, List<String>> conflicts = conflictEngine.findConflicts(TENANT_ID, List.of(
+                entry(UUID.randomUUID(), null, otherTeacher, null, DayOfWeek.FRIDAY, second),
+                entry(UUID.randomUUID(), null, otherTeacher, null, DayOfWeek.FRIDAY, second)));
+
+        assertEquals(List.of("entries[1]"), List.copyOf(conflicts.keySet()));
+    }
+
+    @Test
+    @DisplayName("Should reload the model after the timetable changes")
+    void onTimetableChanged_ReloadsModel() {
+        conflictEngine.findConflicts(TENANT_ID, List.of());
+        conflictEngine.findConflicts(TENANT_ID, List.of());
+        verify(timetableRepository, times(1)).findActiveSlots(TENANT_ID);
+
+        conflictEngine.onTimetableChanged(new TimetableChangedEvent(TENANT_ID));
+        conflictEngine.findConflicts(TENANT_ID, List.of());
+
+        verify(timetableRepository, times(2)).findActiveSlots(TENANT_ID);
+    }
+
+    @Test
+    @DisplayName("Should reload the model for clash checks once another node changed the timetable")
+    void findConflicts_ChangedOnOtherNode_Reloaded() {
+        when(timetableVersions.current(TENANT_ID)).thenReturn(3L, 3L, 4L);
+
+        conflictEngine.findConflicts(TENANT_ID, List.of());
+        conflictEngine.findConflicts(TENANT_ID, List.of());
+        verify(timetableRepository, times(1)).findActiveSlots(TENANT_ID);
+
+        conflictEngine.findConflicts(TENANT_ID, List.of());
+        verify(timetableRepository, times(2)).findActiveSlots(TENANT_ID);
+    }
+
+    @Test
+    @DisplayName("Should check a reactivated entry for clashes like a new one")
+    void updateEntry_Reactivated_CheckedForClashes() {
+        TimetableService timetableService = new TimetableService(periodRepository, timetableRepository, conflictEngine,
+                mock(ApplicationEventPublisher.class));
+        TimetableEntry inactive = entry(UUID.randomUUID(), "B", teacherId, null, DayOfWeek.MONDAY, first);
+        inactive.setId(UUID.randomUUID());
+        inactive.setTenantId(TENANT_ID);
+        inactive.setIsActive(false);
+        when(timetableRepository.findById(inactive.getId())).thenReturn(Optional.of(inactive));
+
+        IllegalArgumentException clash = assertThrows(IllegalArgumentException.class, () ->
+                timetableService.updateEntry(inactive.getId(), TimetableEntry.builder().isActive(true).build()));
+        assertTrue(clash.getMessage().startsWith("Teacher"));
+        assertFalse(inactive.getIsActive());
+
+        UUID freeTeacher = UUID.randomUUID();
+        when(timetableRepository.save(inactive)).thenReturn(inactive);
+        timetableService.updateEntry(inactive.getId(), TimetableEntry.builder().isActive(true).teacherId(freeTeacher).build());
+        assertTrue(inactive.getIsActive());
+        assertEquals(freeTeacher, inactive.getTeacherId());
+    }
+
+    private TimetableEntry entry(UUID classId, String section, UUID teacherId, String room, DayOfWeek day, Period period) {
+        return TimetableEntry.builder()
+                .classId(classId)
+                .section(section)
+                .teacherId(teacherId)
+                .room(room)
+                .dayOfWeek(day)
+                .period(period)
+                .build();
+    }
+}
@@ -0,0 +1,155 @@
+package com.schoolmgmt.service;
+
+import com.schoolmgmt.dto.request.TimetableGenerationRequest;
+import com.schoolmgmt.dto.response.TimetableGenerationResult;
+import com.schoolmgmt.model.Period;
+import com.schoolmgmt.model.SchoolClass;
+import com.schoolmgmt.model.Section;
+import com.schoolmgmt.model.Subject;
+import com.schoolmgmt.model.TeacherSubject;
+import com.schoolmgmt.model.TimetableEntry;
+import com.schoolmgmt.model.TimetableEntry.DayOfWeek;
+import com.schoolmgmt.repository.*;
+import com.schoolmgmt.util.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimetableGenerationServiceTest {
+
+    @Mock private PeriodRepository periodRepository;
+    @Mock private TimetableRepository timetableRepository;
+    @Mock private SchoolClassRepository schoolClassRepository;
+    @Mock private SectionRepository sectionRepository;
+    @Mock private TeacherClassRepository teacherClassRepository;
+    @Mock private TeacherSubjectRepository teacherSubjectRepository;
+    @Mock private TeacherRepository teacherRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private TimetableGenerationService generationService;
+
+    private static final String TENANT_ID = "TEN001";
+    private final UUID mathTeacher = UUID.randomUUID();
+    private final UUID scienceTeacher = UUID.randomUUID();
+    private final UUID busyTeacherPeriod = UUID.randomUUID();
+    private SchoolClass schoolClass;
+    private List<Period> periods;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setCurrentTenant(TENANT_ID);
+        generationService = new TimetableGenerationService(periodRepository, timetableRepository,
+                schoolClassRepository, sectionRepository, teacherClassRepository, teacherSubjectRepository,
+                teacherRepository, eventPublisher, transactionManager, 10, 100_000, 1);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        periods = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            Period period = Period.builder().id(i == 1 ? busyTeacherPeriod : UUID.randomUUID()).periodNumber(i)
+                    .name("P" + i).startTime(LocalTime.of(8 + i, 0)).endTime(LocalTime.of(8 + i, 45)).build();
+            periods.add(period);
+        }
+        lenient().when(periodRepository.findByTenantIdAndIsBreakFalseOrderByPeriodNumber(TENANT_ID)).thenReturn(periods);
+
+        Subject math = subject("MATH", "Mathematics", 5);
+        Subject science = subject("SCI", "Science", 4);
+        schoolClass = SchoolClass.builder().code("6").name("Class 6").subjects(new HashSet<>(List.of(math, science))).build();
+        schoolClass.setId(UUID.randomUUID());
+        schoolClass.setTenantId(TENANT_ID);
+        lenient().when(schoolClassRepository.findAllByTenantId(TENANT_ID)).thenReturn(List.of(schoolClass));
+
+        lenient().when(sectionRepository.findAllByTenantId(TENANT_ID)).thenReturn(List.of(section("A"), section("B")));
+        lenient().when(teacherClassRepository.findByTenantIdAndIsActiveTrue(TENANT_ID)).thenReturn(List.of());
+        lenient().when(teacherSubjectRepository.findActiveAssignmentsByTenant(TENANT_ID)).thenReturn(List.of(
+                TeacherSubject.builder().teacherId(mathTeacher).subjectId(math.getId()).build(),
+                TeacherSubject.builder().teacherId(scienceTeacher).subjectId(science.getId()).build()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Should preview a clash-free timetable that respects existing teacher commitments")
+    void generate_DryRunPreview() {
+        List<Object[]> existing = new ArrayList<>();
+        existing.add(new Object[]{UUID.randomUUID(), UUID.randomUUID(), null, mathTeacher, null,
+                DayOfWeek.MONDAY, busyTeacherPeriod});
+        when(timetableRepository.findActiveSlots(TENANT_ID)).thenReturn(existing);
+
+        TimetableGenerationResult result = generationService.generate(
+                TimetableGenerationRequest.builder().dryRun(true).seed(5L).build());
+
+        assertEquals("PREVIEW", result.getStatus());
+        assertEquals(0, result.getHardViolations());
+        assertEquals(18, result.getEntries().size());
+        assertTrue(result.getEntries().stream().noneMatch(entry -> mathTeacher.equals(entry.getTeacherId())
+                && entry.getDayOfWeek() == DayOfWeek.MONDAY && entry.getPeriod().getId().equals(busyTeacherPeriod)));
+        Map<String, Long> perSlot = result.getEntries().stream().collect(Collectors.groupingBy(
+                entry -> entry.getTeacherId() + entry.getDayOfWeek().name() + entry.getPeriod().getId(),
+                Collectors.counting()));
+        assertTrue(perSlot.values().stream().allMatch(count -> count == 1));
+        verify(timetableRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Should refuse to overwrite an existing timetable unless asked to")
+    void generate_ExistingTimetable() {
+        List<Object[]> existing = new ArrayList<>();
+        existing.add(new Object[]{UUID.randomUUID(), schoolClass.getId(), "A", mathTeacher, null,
+                DayOfWeek.MONDAY, busyTeacherPeriod});
+        when(timetableRepository.findActiveSlots(TENANT_ID)).thenReturn(existing);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> generationService.generate(TimetableGenerationRequest.builder().build()));
+    }
+
+    @Test
+    @DisplayName("Should save generated entries and replace the old timetable")
+    void generate_SavesEntries() {
+        when(timetableRepository.findActiveSlots(TENANT_ID)).thenReturn(List.of());
+
+        TimetableGenerationResult result = generationService.generate(
+                TimetableGenerationRequest.builder().replaceExisting(true).build());
+
+        assertEquals("SAVED", result.getStatus());
+        assertEquals(18, result.getEntriesCreated());
+        verify(timetableRepository).deleteByTenantIdAndClassIdIn(TENANT_ID, Set.of(schoolClass.getId()));
+        ArgumentCaptor<List<TimetableEntry>> saved = ArgumentCaptor.forClass(List.class);
+        verify(timetableRepository).saveAll(saved.capture());
+        assertEquals(18, saved.getValue().size());
+    }
+
+    private Subject subject(String code, String name, int creditHours) {
+        Subject subject = Subject.builder().code(code).name(name).creditHours(creditHours).isActive(true).build();
+        subject.setId(UUID.randomUUID());
+        subject.setTenantId(TENANT_ID);
+        return subject;
+    }
+
+    private Section section(String name) {
+        Section section = Section.builder().name(name).schoolClassId(schoolClass.getId()).build();
+        section.setId(UUID.randomUUID());
+        section.setTenantId(TENANT_ID);
+        return section;
+    }
+}
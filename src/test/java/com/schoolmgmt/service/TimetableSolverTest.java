@@ -0,0 +1,129 @@
+package com.schoolmgmt.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class TimetableSolverTest {
+
+    private static final int DAYS = 6;
+    private static final int PERIODS_PER_DAY = 8;
+    private static final int[] WEEKLY_HOURS = {7, 7, 6, 6, 6, 6, 5, 4};
+
+    @Test
+    @DisplayName("Should find a clash-free timetable for a small school")
+    void solve_SmallSchool() {
+        TimetableSolver.Problem problem = syntheticSchool(4, 16, 1L);
+
+        TimetableSolver.Solution solution = TimetableSolver.solve(problem, 7L, 2, 200_000, Duration.ofSeconds(30));
+
+        assertEquals(0, solution.getHardViolations());
+        assertNoClashes(problem, solution);
+    }
+
+    @Test
+    @DisplayName("Should return the same timetable for the same seed")
+    void solve_DeterministicForSeed() {
+        TimetableSolver.Problem problem = syntheticSchool(8, 16, 2L);
+
+        TimetableSolver.Solution first = TimetableSolver.solve(problem, 11L, 3, 200_000, Duration.ofSeconds(30));
+        TimetableSolver.Solution second = TimetableSolver.solve(problem, 11L, 3, 200_000, Duration.ofSeconds(30));
+
+        assertFalse(first.isTimeBudgetExhausted());
+        assertArrayEquals(first.getLessonSlots(), second.getLessonSlots());
+        assertEquals(first.getWorker(), second.getWorker());
+    }
+
+    @Test
+    @DisplayName("Should return the same timetable whatever the number of threads")
+    void solve_SameResultOnFewerThreads() {
+        TimetableSolver.Problem problem = syntheticSchool(8, 16, 4L);
+
+        TimetableSolver.Solution parallel = TimetableSolver.solve(problem, 13L, 4, 4, 200_000, Duration.ofSeconds(30));
+        TimetableSolver.Solution sequential = TimetableSolver.solve(problem, 13L, 4, 1, 200_000, Duration.ofSeconds(30));
+
+        assertFalse(parallel.isTimeBudgetExhausted());
+        assertArrayEquals(parallel.getLessonSlots(), sequential.getLessonSlots());
+        assertEquals(parallel.getWorker(), sequential.getWorker());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: 40 sections and 80 teachers with blocked slots")
+    void solve_LargeSchoolBenchmark() {
+        TimetableSolver.Problem problem = syntheticSchool(40, 80, 3L);
+        int workers = 4;
+
+        long start = System.nanoTime();
+        TimetableSolver.Solution solution = TimetableSolver.solve(problem, 42L, workers,
+                Runtime.getRuntime().availableProcessors(), 500_000, Duration.ofSeconds(60));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        log.info("Timetable benchmark: {} lessons, {} workers, {} iterations, {} ms, soft violations {}",
+                problem.lessonCount(), workers, solution.getIterations(), elapsedMillis, solution.getSoftViolations());
+        assertFalse(solution.isTimeBudgetExhausted(), "search should finish within the time budget");
+        assertEquals(0, solution.getHardViolations());
+        assertNoClashes(problem, solution);
+    }
+
+    /**
+     * Sections take eight subjects; each subject has ten teachers, each teaching it to every tenth section.
+     * Every teacher is unavailable in four random slots.
+     */
+    private TimetableSolver.Problem syntheticSchool(int sections, int teachers, long seed) {
+        Random random = new Random(seed);
+        int teachersPerSubject = teachers / WEEKLY_HOURS.length;
+        List<int[]> lessons = new ArrayList<>();
+        for (int g = 0; g < sections; g++) {
+            for (int k = 0; k < WEEKLY_HOURS.length; k++) {
+                int teacher = k * teachersPerSubject + g % teachersPerSubject;
+                for (int h = 0; h < WEEKLY_HOURS[k]; h++) {
+                    lessons.add(new int[]{g, teacher, k});
+                }
+            }
+        }
+        BitSet[] blocked = new BitSet[teachers];
+        for (int t = 0; t < teachers; t++) {
+            blocked[t] = new BitSet();
+            for (int i = 0; i < 4; i++) {
+                blocked[t].set(random.nextInt(DAYS * PERIODS_PER_DAY));
+            }
+        }
+        return TimetableSolver.Problem.builder()
+                .slotsPerDay(PERIODS_PER_DAY)
+                .days(DAYS)
+                .groupCount(sections)
+                .teacherCount(teachers)
+                .subjectCount(WEEKLY_HOURS.length)
+                .lessonGroup(lessons.stream().mapToInt(l -> l[0]).toArray())
+                .lessonTeacher(lessons.stream().mapToInt(l -> l[1]).toArray())
+                .lessonSubject(lessons.stream().mapToInt(l -> l[2]).toArray())
+                .teacherBlocked(blocked)
+                .build();
+    }
+
+    private void assertNoClashes(TimetableSolver.Problem problem, TimetableSolver.Solution solution) {
+        int slots = problem.getSlotsPerDay() * problem.getDays();
+        boolean[] group = new boolean[problem.getGroupCount() * slots];
+        boolean[] teacher = new boolean[problem.getTeacherCount() * slots];
+        for (int l = 0; l < problem.lessonCount(); l++) {
+            int s = solution.getLessonSlots()[l];
+            int t = problem.getLessonTeacher()[l];
+            assertFalse(group[problem.getLessonGroup()[l] * slots + s], "section clash");
+            assertFalse(teacher[t * slots + s], "teacher clash");
+            assertFalse(problem.getTeacherBlocked()[t].get(s), "blocked slot used");
+            group[problem.getLessonGroup()[l] * slots + s] = true;
+            teacher[t * slots + s] = true;
+        }
+    }
+}
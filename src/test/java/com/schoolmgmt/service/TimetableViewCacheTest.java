@@ -0,0 +1,144 @@
+package com.schoolmgmt.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schoolmgmt.event.TimetableChangedEvent;
+import com.schoolmgmt.model.Period;
+import com.schoolmgmt.model.TimetableEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimetableViewCacheTest {
+
+    @Mock
+    private TimetableService timetableService;
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private TimetableViewCache viewCache;
+    private TimetableVersions timetableVersions;
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+
+    private static final String TENANT_ID = "TEN001";
+    private final UUID classId = UUID.randomUUID();
+    private final Period period = Period.builder().id(UUID.randomUUID()).periodNumber(1).name("P1")
+            .startTime(LocalTime.of(9, 0)).endTime(LocalTime.of(9, 45)).build();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(valueOperations.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        lenient().when(valueOperations.increment(anyString())).thenAnswer(invocation -> Long.parseLong(
+                redis.merge(invocation.getArgument(0), "1", (a, b) -> String.valueOf(Long.parseLong(a) + 1))));
+        timetableVersions = new TimetableVersions(redisTemplate, 72);
+        viewCache = cache(0, 600);
+    }
+
+    @Test
+    @DisplayName("Should serialize a weekly timetable once and serve it with a strong ETag")
+    void classWeek_ServesSnapshot() {
+        when(timetableService.getClassWeeklyTimetable(classId)).thenReturn(week("Mathematics"));
+
+        TimetableViewCache.View first = viewCache.classWeek(TENANT_ID, classId);
+        TimetableViewCache.View second = viewCache.classWeek(TENANT_ID, classId);
+
+        assertSame(first, second);
+        assertTrue(first.getEtag().startsWith("\"tt-") && first.getEtag().endsWith("\""));
+        assertTrue(new String(first.getJson(), StandardCharsets.UTF_8).contains("\"MONDAY\""));
+        verify(timetableService, times(1)).getClassWeeklyTimetable(classId);
+    }
+
+    @Test
+    @DisplayName("Should rebuild views after the timetable changes and keep the ETag when the content is unchanged")
+    void onTimetableChanged_RebuildsViews() {
+        when(timetableService.getClassWeeklyTimetable(classId))
+                .thenReturn(week("Mathematics"), week("Mathematics"), week("Science"));
+
+        TimetableViewCache.View original = viewCache.classWeek(TENANT_ID, classId);
+        viewCache.onTimetableChanged(new TimetableChangedEvent(TENANT_ID));
+        TimetableViewCache.View unchanged = viewCache.classWeek(TENANT_ID, classId);
+        viewCache.onTimetableChanged(new TimetableChangedEvent(TENANT_ID));
+        TimetableViewCache.View changed = viewCache.classWeek(TENANT_ID, classId);
+
+        assertEquals(original.getEtag(), unchanged.getEtag());
+        assertNotEquals(original.getEtag(), changed.getEtag());
+        verify(timetableService, times(3)).getClassWeeklyTimetable(classId);
+    }
+
+    @Test
+    @DisplayName("Should keep tenants apart")
+    void classWeek_PerTenant() {
+        when(timetableService.getClassWeeklyTimetable(classId)).thenReturn(week("Mathematics"));
+
+        viewCache.classWeek(TENANT_ID, classId);
+        viewCache.onTimetableChanged(new TimetableChangedEvent("TEN002"));
+        viewCache.classWeek(TENANT_ID, classId);
+        viewCache.classWeek("TEN002", classId);
+
+        verify(timetableService, times(2)).getClassWeeklyTimetable(classId);
+    }
+
+    @Test
+    @DisplayName("Should rebuild views after another node changes the timetable")
+    void classWeek_ChangedOnOtherNode_Rebuilt() {
+        when(timetableService.getClassWeeklyTimetable(classId)).thenReturn(week("Mathematics"), week("Science"));
+        TimetableViewCache otherNode = cache(0, 600);
+
+        TimetableViewCache.View original = viewCache.classWeek(TENANT_ID, classId);
+        // The other node's writes commit there; only the shared version tells this node about them
+        otherNode.onTimetableChanged(new TimetableChangedEvent(TENANT_ID));
+        timetableVersions.onTimetableChanged(new TimetableChangedEvent(TENANT_ID));
+        TimetableViewCache.View changed = viewCache.classWeek(TENANT_ID, classId);
+
+        assertNotEquals(original.getEtag(), changed.getEtag());
+        assertTrue(new String(changed.getJson(), StandardCharsets.UTF_8).contains("Science"));
+    }
+
+    @Test
+    @DisplayName("Should keep serving views while Redis is down, but not past their maximum age")
+    void classWeek_RedisDown_ServedUntilMaxAge() {
+        when(timetableService.getClassWeeklyTimetable(classId)).thenReturn(week("Mathematics"));
+        viewCache.classWeek(TENANT_ID, classId);
+
+        when(redisTemplate.opsForValue()).thenThrow(new RedisConnectionFailureException("down"));
+        viewCache.classWeek(TENANT_ID, classId);
+        verify(timetableService, times(1)).getClassWeeklyTimetable(classId);
+
+        TimetableViewCache expiring = cache(0, 0);
+        expiring.classWeek(TENANT_ID, classId);
+        expiring.classWeek(TENANT_ID, classId);
+        verify(timetableService, times(3)).getClassWeeklyTimetable(classId);
+    }
+
+    private TimetableViewCache cache(long syncIntervalMillis, long maxAgeSeconds) {
+        return new TimetableViewCache(timetableService, new ObjectMapper().findAndRegisterModules(), timetableVersions,
+                syncIntervalMillis, maxAgeSeconds);
+    }
+
+    private Map<String, List<TimetableEntry>> week(String subject) {
+        TimetableEntry entry = TimetableEntry.builder().id(UUID.fromString("00000000-0000-0000-0000-000000000001"))
+                .tenantId(TENANT_ID).classId(classId).dayOfWeek(TimetableEntry.DayOfWeek.MONDAY)
+                .period(period).subjectName(subject).build();
+        return Map.of("MONDAY", List.of(entry));
+    }
+}